@@ -19,6 +19,8 @@ package org.vaadin.stefan.fullcalendar;
 import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.InMemoryEntryProvider;
 import tools.jackson.databind.node.ArrayNode;
 import tools.jackson.databind.node.ObjectNode;
 
@@ -38,6 +40,11 @@ import java.util.stream.Collectors;
 @EqualsAndHashCode(of = "id")
 public class Resource implements Serializable {
 
+    /**
+     * Name of the in-memory provider index used by {@link #getEntries()}, see {@link #addEntriesIndex(InMemoryEntryProvider)}.
+     */
+    public static final String ENTRIES_INDEX = "resources";
+
     /**
      * The id of this resource.
      * Uniquely identifies this resource.
@@ -497,6 +504,9 @@ public class Resource implements Serializable {
      * Note: For callback-based providers this fetches all entries without a time range filter,
      * which may be expensive. Consider using the entry provider's {@code fetch()} method
      * with appropriate filters if performance is a concern.
+     * <p>
+     * For in-memory providers having an index named {@link #ENTRIES_INDEX} (see
+     * {@link #addEntriesIndex(InMemoryEntryProvider)}), the index is used instead of scanning all entries.
      *
      * @return unmodifiable set of entries assigned to this resource; empty if not attached
      */
@@ -504,13 +514,39 @@ public class Resource implements Serializable {
         if (scheduler == null) {
             return Collections.emptySet();
         }
-        return scheduler.getEntryProvider().fetchAll()
+
+        EntryProvider<Entry> entryProvider = scheduler.getEntryProvider();
+        if (entryProvider.isInMemory()) {
+            InMemoryEntryProvider<Entry> inMemory = entryProvider.asInMemory();
+            if (inMemory.hasIndex(ENTRIES_INDEX)) {
+                return inMemory.getEntriesByIndex(ENTRIES_INDEX, this).stream()
+                        .map(e -> (ResourceEntry) e)
+                        .collect(Collectors.toCollection(LinkedHashSet::new));
+            }
+        }
+
+        return entryProvider.fetchAll()
                 .filter(e -> e instanceof ResourceEntry)
                 .map(e -> (ResourceEntry) e)
                 .filter(e -> e.getResourcesOrEmpty().contains(this))
                 .collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
+    /**
+     * Adds a multi value index named {@link #ENTRIES_INDEX} to the given provider, that indexes resource entries
+     * by their resources. Used by {@link #getEntries()} to look up the entries of a resource without scanning
+     * all entries. Noop, if the provider already has such an index.
+     * <p>
+     * Since resources of an entry can be modified at any time, the provider must be informed about such
+     * changes (e.g. by {@link InMemoryEntryProvider#updateEntries(Iterable)}) to keep the index in sync.
+     *
+     * @param provider in memory provider
+     * @param <T>      entry type
+     */
+    public static <T extends Entry> void addEntriesIndex(InMemoryEntryProvider<T> provider) {
+        provider.addMultiValueIndex(ENTRIES_INDEX, e -> e instanceof ResourceEntry resourceEntry ? resourceEntry.getResourcesOrEmpty() : null);
+    }
+
     /**
      * Attaches this resource to the given scheduler for automatic client-side push updates.
      * Called when the resource is added to a {@link FullCalendarScheduler}.
@@ -205,6 +205,36 @@ public class ResourceTest {
         Assertions.assertEquals(Set.of(e2), r2.getEntries());
     }
 
+    @Test
+    void getEntries_withEntriesIndex_usesIndex() {
+        FullCalendarScheduler scheduler = new FullCalendarScheduler();
+        InMemoryEntryProvider<Entry> provider = new InMemoryEntryProvider<>();
+        Resource.addEntriesIndex(provider);
+        scheduler.setEntryProvider(provider);
+
+        Resource r1 = new Resource();
+        Resource r2 = new Resource();
+        scheduler.addResources(List.of(r1, r2));
+
+        ResourceEntry e1 = new ResourceEntry();
+        e1.addResources(r1, r2);
+        ResourceEntry e2 = new ResourceEntry();
+        e2.addResources(r2);
+        provider.addEntries(e1, e2, new Entry());
+
+        Assertions.assertTrue(provider.hasIndex(Resource.ENTRIES_INDEX));
+        Assertions.assertEquals(Set.of(e1), r1.getEntries());
+        Assertions.assertEquals(Set.of(e1, e2), r2.getEntries());
+
+        // resource changes are reflected after informing the provider
+        e2.addResources(r1);
+        provider.updateEntries(List.of(e2));
+        Assertions.assertEquals(Set.of(e1, e2), r1.getEntries());
+
+        provider.removeEntry(e1);
+        Assertions.assertEquals(Set.of(e2), r1.getEntries());
+    }
+
     // -------------------------------------------------------------------------
     // addExtendedProps / removeExtendedProps
     // -------------------------------------------------------------------------
@@ -1,15 +1,18 @@
 package org.vaadin.stefan.fullcalendar;
 
 import org.junit.jupiter.api.Test;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.InMemoryEntryProvider;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.time.LocalDateTime;
+import java.util.Set;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Verifies that the scheduler component and its resources survive Java serialization
@@ -83,4 +86,48 @@ public class SchedulerSerializationTest {
         calendar.changeView(SchedulerView.RESOURCE_TIMELINE_DAY);
         assertNotNull(roundtrip(calendar));
     }
+
+    @Test
+    void resourceEntrySnapshotReferencesResources() throws Exception {
+        FullCalendarScheduler calendar = new FullCalendarScheduler();
+
+        Resource parent = new Resource("r-parent", "Room A", "#ff0000");
+        Resource child = new Resource("r-child", "Desk 1", "#00ff00");
+        Resource sibling = new Resource("r-sibling", "Desk 2", "#0000ff");
+        parent.addChildren(child, sibling);
+        calendar.addResources(Set.of(parent, child, sibling));
+
+        ResourceEntry entry = new ResourceEntry("e1");
+        entry.setTitle("Booking");
+        entry.setStart(LocalDateTime.of(2025, 3, 1, 9, 0));
+        entry.setEnd(LocalDateTime.of(2025, 3, 1, 11, 0));
+        entry.assignResources(child, sibling);
+
+        ResourceEntry other = new ResourceEntry("e2");
+        other.assignResource(child);
+
+        InMemoryEntryProvider<ResourceEntry> provider = EntryProvider.inMemoryFrom(entry, other);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        provider.writeSnapshot(out);
+
+        // resources are not part of the snapshot and have to be resolved
+        assertThrows(IOException.class, () -> InMemoryEntryProvider.fromSnapshot(new ByteArrayInputStream(out.toByteArray())));
+
+        InMemoryEntryProvider<ResourceEntry> restored = InMemoryEntryProvider.fromSnapshot(new ByteArrayInputStream(out.toByteArray()),
+                (type, id) -> calendar.getResourceById(id).orElse(null));
+
+        ResourceEntry restoredEntry = restored.getEntryById("e1").orElseThrow();
+        assertNotSame(entry, restoredEntry);
+        assertEquals("Booking", restoredEntry.getTitle());
+        assertEquals(2, restoredEntry.getResourcesSize());
+        for (Resource resource : restoredEntry.getResourcesOrEmpty()) {
+            assertSame(calendar.getResourceById(resource.getId()).orElseThrow(), resource);
+            assertSame(parent, resource.getParent().orElseThrow());
+        }
+        assertSame(child, restored.getEntryById("e2").orElseThrow().getResource().orElseThrow());
+
+        // unknown resources let reading fail
+        assertThrows(IOException.class, () -> InMemoryEntryProvider.fromSnapshot(new ByteArrayInputStream(out.toByteArray()),
+                (type, id) -> null));
+    }
 }
@@ -0,0 +1,305 @@
+package org.vaadin.stefan.fullcalendar;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import tools.jackson.databind.JsonNode;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Immutable, compiled form of an {@link RRule}. Contains the parsed values needed to expand the rule on the server
+ * side (see {@link RRuleIterator}) and its iCalendar string form. Raw rules (see {@link RRule#ofRaw(String)}) are
+ * parsed into the same structure, so they can be expanded on the server side, too.
+ * <p></p>
+ * Compiled rules are interned in a global, bounded cache keyed by their rule text. Entries sharing the same rule
+ * (e.g. thousands of imported entries with a handful of distinct rules) therefore share one instance, parsing
+ * and serializing the rule only once. Each {@link RRule} keeps its compiled form until it is modified, so the
+ * cache is not consulted on every expansion. Rules, that cannot be expanded (e.g. because of unsupported parts like
+ * {@code BYSETPOS}), are cached as well and provide the reason via {@link #getUnsupportedReason()}.
+ * <p></p>
+ * Excluded dates and rules are not part of the compiled form, since they are specific to the entry.
+ *
+ * @author Stefan Uebe
+ */
+@Getter
+final class CompiledRRule {
+
+    /**
+     * Maximum amount of cached rules. The least recently used rule is removed first.
+     */
+    static final int CACHE_SIZE = 1024;
+
+    // guarded by itself
+    private static final Map<CacheKey, CompiledRRule> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, CompiledRRule> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * The iCalendar text of the rule, for raw rules the raw string.
+     */
+    private final String text;
+
+    /**
+     * The reason, why this rule cannot be expanded on the server side or null, if it can.
+     */
+    private final String unsupportedReason;
+
+    private final RRule.Frequency freq;
+    private final int interval;
+    private final Integer count;
+    private final LocalDateTime dtstart;
+
+    /**
+     * Indicates, if the dtstart is an absolute UTC based time. Otherwise it is a local date time (as is the
+     * entry's start injected for rules without a dtstart), that the client interprets in the calendar's timezone.
+     */
+    private final boolean utcStart;
+
+    private final LocalDateTime until;
+    private final DayOfWeek weekStart;
+    private final List<RRuleIterator.NthWeekday> byWeekday;
+    private final Set<Integer> byMonth;
+    private final Set<Integer> byMonthDay;
+    private final Set<Integer> byYearDay;
+    private final List<Integer> byHour;
+    private final List<Integer> byMinute;
+
+    @Getter(AccessLevel.NONE)
+    private volatile JsonNode json;
+
+    private CompiledRRule(String text, Parts parts) {
+        this.text = text;
+
+        String reason = parts.unsupportedReason;
+        RRule.Frequency freq = parts.freq;
+        LocalDateTime dtstart = null;
+        LocalDateTime until = null;
+        DayOfWeek weekStart = DayOfWeek.MONDAY;
+        List<RRuleIterator.NthWeekday> byWeekday = null;
+        if (reason == null) {
+            try {
+                if (freq == null) {
+                    throw new IllegalArgumentException("RRule without frequency cannot be expanded");
+                }
+
+                dtstart = RRuleIterator.parseDateTime(parts.dtstart);
+                until = RRuleIterator.parseDateTime(parts.until);
+                if (parts.wkst != null) {
+                    weekStart = RRuleIterator.parseDay(parts.wkst);
+                }
+                if (parts.byweekday != null && !parts.byweekday.isEmpty()) {
+                    byWeekday = parts.byweekday.stream().map(RRuleIterator::parseWeekday).toList();
+                }
+            } catch (IllegalArgumentException e) {
+                reason = e.getMessage();
+            }
+        }
+
+        this.unsupportedReason = reason;
+        this.freq = freq;
+        this.interval = parts.interval != null && parts.interval > 0 ? parts.interval : 1;
+        this.count = parts.count;
+        this.dtstart = dtstart;
+        this.utcStart = dtstart != null && RRuleIterator.isAbsoluteDateTime(parts.dtstart);
+        this.until = until;
+        this.weekStart = weekStart;
+        this.byWeekday = byWeekday;
+        this.byMonth = toSet(parts.bymonth);
+        this.byMonthDay = toSet(parts.bymonthday);
+        this.byYearDay = toSet(parts.byyearday);
+        this.byHour = toList(parts.byhour);
+        this.byMinute = toList(parts.byminute);
+    }
+
+    /**
+     * Returns the compiled form of the given raw iCalendar RRULE string, e.g. {@code "FREQ=WEEKLY;BYDAY=MO,WE"}.
+     * A leading {@code RRULE:} and a preceding {@code DTSTART} line are accepted as well. Never throws on
+     * unsupported or invalid rules, see {@link #getUnsupportedReason()}.
+     *
+     * @param text raw rule
+     * @return compiled rule
+     */
+    static CompiledRRule ofRaw(String text) {
+        return cached(new CacheKey(text, true), () -> new CompiledRRule(text, parse(text)));
+    }
+
+    /**
+     * Returns the compiled form of the given structured rule. The structured fields are used as they are,
+     * the excluded dates and rules are ignored.
+     *
+     * @param rule structured rule
+     * @return compiled rule
+     */
+    static CompiledRRule of(RRule rule) {
+        String text = rule.toRRuleString();
+        return cached(new CacheKey(text, false), () -> new CompiledRRule(text, Parts.of(rule)));
+    }
+
+    private static CompiledRRule cached(CacheKey key, Supplier<CompiledRRule> compiler) {
+        synchronized (CACHE) {
+            CompiledRRule compiled = CACHE.get(key);
+            if (compiled != null) {
+                return compiled;
+            }
+        }
+
+        // compiled outside the lock, a concurrent compilation of the same rule keeps the first instance
+        CompiledRRule compiled = compiler.get();
+        synchronized (CACHE) {
+            CompiledRRule existing = CACHE.putIfAbsent(key, compiled);
+            return existing != null ? existing : compiled;
+        }
+    }
+
+    /**
+     * Indicates, if this rule can be expanded on the server side.
+     *
+     * @return is expandable
+     */
+    boolean isExpandable() {
+        return unsupportedReason == null;
+    }
+
+    /**
+     * Returns the rule text as json string. The instance is shared and must not be modified.
+     *
+     * @return json string node
+     */
+    JsonNode toJson() {
+        JsonNode result = json;
+        if (result == null) {
+            result = JsonUtils.toJsonNode(text);
+            json = result;
+        }
+        return result;
+    }
+
+    private static Parts parse(String text) {
+        Parts parts = new Parts();
+        try {
+            for (String line : text.trim().split("\\R")) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                // a preceding iCalendar DTSTART property, e.g. "DTSTART:20250303T100000Z" or "DTSTART;VALUE=DATE:20250303"
+                String upperLine = line.toUpperCase(Locale.ROOT);
+                if (upperLine.startsWith("DTSTART:") || upperLine.startsWith("DTSTART;")) {
+                    if (upperLine.contains("TZID=")) {
+                        throw new IllegalArgumentException("DTSTART with TZID is not supported");
+                    }
+                    parts.dtstart = line.substring(line.lastIndexOf(':') + 1);
+                    continue;
+                }
+
+                if (upperLine.startsWith("RRULE:")) {
+                    line = line.substring(6);
+                }
+
+                for (String part : line.split(";")) {
+                    int separator = part.indexOf('=');
+                    if (separator < 0) {
+                        throw new IllegalArgumentException("Invalid rule part: " + part);
+                    }
+
+                    String name = part.substring(0, separator).trim().toUpperCase(Locale.ROOT);
+                    String value = part.substring(separator + 1).trim();
+                    switch (name) {
+                        case "FREQ" -> parts.freq = parseFrequency(value);
+                        case "DTSTART" -> parts.dtstart = value;
+                        case "UNTIL" -> parts.until = value;
+                        case "COUNT" -> parts.count = Integer.parseInt(value);
+                        case "INTERVAL" -> parts.interval = Integer.parseInt(value);
+                        case "BYDAY" -> parts.byweekday = List.of(value.split(","));
+                        case "BYYEARDAY" -> parts.byyearday = parseIntegers(value);
+                        case "BYMONTH" -> parts.bymonth = parseIntegers(value);
+                        case "BYMONTHDAY" -> parts.bymonthday = parseIntegers(value);
+                        case "BYHOUR" -> parts.byhour = parseIntegers(value);
+                        case "BYMINUTE" -> parts.byminute = parseIntegers(value);
+                        case "WKST" -> parts.wkst = value;
+                        default -> throw new IllegalArgumentException("Unsupported rule part: " + name);
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e) { // includes NumberFormatException
+            parts.unsupportedReason = e.getMessage();
+        }
+        return parts;
+    }
+
+    private static RRule.Frequency parseFrequency(String value) {
+        for (RRule.Frequency frequency : RRule.Frequency.values()) {
+            if (frequency.name().equalsIgnoreCase(value)) {
+                return frequency;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported frequency: " + value);
+    }
+
+    private static List<Integer> parseIntegers(String value) {
+        List<Integer> integers = new ArrayList<>();
+        for (String number : value.split(",")) {
+            integers.add(Integer.parseInt(number.trim().startsWith("+") ? number.trim().substring(1) : number.trim()));
+        }
+        return integers;
+    }
+
+    private static Set<Integer> toSet(List<Integer> values) {
+        List<Integer> list = toList(values);
+        return list != null ? Set.copyOf(list) : null;
+    }
+
+    private static List<Integer> toList(List<Integer> values) {
+        if (values == null) {
+            return null;
+        }
+        List<Integer> list = values.stream().filter(Objects::nonNull).toList();
+        return list.isEmpty() ? null : list;
+    }
+
+    /**
+     * Raw values of a rule before compilation.
+     */
+    private static final class Parts {
+        private RRule.Frequency freq;
+        private String dtstart;
+        private String until;
+        private Integer count;
+        private Integer interval;
+        private List<String> byweekday;
+        private List<Integer> byyearday;
+        private List<Integer> bymonth;
+        private List<Integer> bymonthday;
+        private List<Integer> byhour;
+        private List<Integer> byminute;
+        private String wkst;
+        private String unsupportedReason;
+
+        private static Parts of(RRule rule) {
+            Parts parts = new Parts();
+            parts.freq = rule.getFreq();
+            parts.dtstart = rule.getDtstart();
+            parts.until = rule.getUntil();
+            parts.count = rule.getCount();
+            parts.interval = rule.getInterval();
+            parts.byweekday = rule.getByweekday();
+            parts.byyearday = rule.getByyearday();
+            parts.bymonth = rule.getBymonth();
+            parts.bymonthday = rule.getBymonthday();
+            parts.byhour = rule.getByhour();
+            parts.byminute = rule.getByminute();
+            parts.wkst = rule.getWkst();
+            return parts;
+        }
+    }
+
+    private record CacheKey(String text, boolean raw) {
+    }
+}
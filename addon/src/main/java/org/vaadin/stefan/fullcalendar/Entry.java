@@ -200,13 +200,20 @@ public class Entry implements Serializable {
 
     private Set<String> classNames;
 
+    /**
+     * The id of a shared {@link EntryStyle} registered at the calendar. The style's presentation properties are
+     * applied on the client side for any property not set on this entry itself.
+     */
+    private String styleId;
+
     private Map<String, Object> customProperties;
 
     @JsonIgnore
     private boolean knownToTheClient; // not sure if still needed?
 
     /**
-     * The referenced calendar instance. Can be null.
+     * The referenced calendar instance. Can be null, also for entries shown in a calendar, that has
+     * the entry binding disabled (see {@link FullCalendar#setEntryBindingEnabled(boolean)}).
      */
     @JsonIgnore
     private FullCalendar calendar;
@@ -1183,6 +1190,18 @@ public class Entry implements Serializable {
         setCustomProperty(EntryCustomProperties.DESCRIPTION, description);
     }
 
+    /**
+     * Lets this entry reference the given shared style. Shortcut for {@code setStyleId(style.getId())}.
+     * Passing null removes the style reference.
+     * <p></p>
+     * The style itself has to be registered at the calendar via {@link FullCalendar#addEntryStyles(EntryStyle...)}.
+     *
+     * @param style style or null
+     */
+    public void setStyle(EntryStyle style) {
+        setStyleId(style != null ? style.getId() : null);
+    }
+
     /**
      * Sets the display mode for this entry. Passing null will reset it to the default.
      * @param displayMode how to display the entry
@@ -0,0 +1,160 @@
+package org.vaadin.stefan.fullcalendar;
+
+import com.vaadin.flow.shared.Registration;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntriesBatchChangeEvent;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntriesChangeEvent;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryQuery;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Distributes the entry changes of a shared entry provider (see {@link EntryProvider#isShared()}) to all calendars
+ * showing it with live entry updates enabled (see {@link FullCalendar#setLiveEntryUpdatesEnabled(boolean)}).
+ * There is one hub per provider, listening to it once instead of each calendar handling the events on its own.
+ * <p></p>
+ * Each changed entry is serialized once for all calendars, which is possible since entries of shared providers
+ * are not bound to a calendar. Changed entries are offered only to calendars, whose last fetched range they
+ * match; for the others they are offered as removals, which are ignored, if the client does not know the entry.
+ * Rate limiting and the bounded queue per calendar are handled by its {@link EntryChangeCoalescer}.
+ * <p></p>
+ * Calendars are referenced weakly. Subscriptions survive the serialization of a session: the subscribed calendars
+ * are written along with the hub and a restored hub is registered again for its (restored) provider.
+ *
+ * @author Stefan Uebe
+ */
+final class EntryBroadcastHub implements Serializable {
+
+    private static final Map<EntryProvider<?>, EntryBroadcastHub> HUBS = new WeakHashMap<>();
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private transient WeakReference<EntryProvider<?>> provider;
+
+    private EntryBroadcastHub(EntryProvider<?> provider) {
+        this.provider = new WeakReference<>(provider);
+        provider.addEntriesChangeListener(this::onEntriesChange);
+        provider.addEntryRefreshListener(event -> broadcast(List.of(event.getItemToRefresh()), List.of()));
+    }
+
+    /**
+     * Returns the hub of the given provider. Creates a new one, if there is none yet.
+     *
+     * @param provider shared provider
+     * @return hub
+     */
+    static EntryBroadcastHub get(EntryProvider<?> provider) {
+        synchronized (HUBS) {
+            return HUBS.computeIfAbsent(provider, EntryBroadcastHub::new);
+        }
+    }
+
+    /**
+     * Subscribes the given calendar. It receives changes as long as it has live updates enabled.
+     *
+     * @param calendar calendar
+     * @return registration to unsubscribe
+     */
+    Registration subscribe(FullCalendar calendar) {
+        subscribers.removeIf(subscriber -> subscriber.get() == null);
+        return Registration.addAndRemove(subscribers, new Subscriber(calendar));
+    }
+
+    private void onEntriesChange(EntriesChangeEvent<?> event) {
+        if (event instanceof EntriesBatchChangeEvent<?> batchEvent && !batchEvent.isEmpty()) {
+            List<Entry> changed = new ArrayList<>(batchEvent.getAddedEntries());
+            changed.addAll(batchEvent.getChangedEntries());
+            broadcast(changed, batchEvent.getRemovedEntries().stream().map(Entry::getId).toList());
+        }
+    }
+
+    private void broadcast(Collection<? extends Entry> changed, Collection<String> removed) {
+        List<FullCalendar> receivers = new ArrayList<>();
+        for (Subscriber subscriber : subscribers) {
+            FullCalendar calendar = subscriber.get();
+            if (calendar == null) {
+                subscribers.remove(subscriber);
+            } else if (calendar.isLiveEntryUpdatesEnabled()) {
+                receivers.add(calendar);
+            }
+        }
+
+        if (receivers.isEmpty()) {
+            return;
+        }
+
+        Map<String, ObjectNode> serialized = new HashMap<>();
+        for (Entry entry : changed) {
+            serialized.put(entry.getId(), entry.toJson());
+        }
+
+        for (FullCalendar calendar : receivers) {
+            Optional<EntryQuery> range = calendar.getLastFetchQuery();
+            if (range.isEmpty()) {
+                continue; // the client will fetch all entries anyway
+            }
+
+            List<Entry> matching = new ArrayList<>();
+            List<String> notMatching = new ArrayList<>(removed);
+            for (Entry entry : changed) {
+                if (range.get().applyFilter(Stream.of(entry)).findAny().isPresent()) {
+                    matching.add(entry);
+                } else {
+                    notMatching.add(entry.getId());
+                }
+            }
+
+            calendar.getEntryChangeCoalescer().offer(matching, notMatching, serialized);
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(provider.get());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        EntryProvider<?> restoredProvider = (EntryProvider<?>) in.readObject();
+        provider = new WeakReference<>(restoredProvider);
+        if (restoredProvider != null) {
+            // the restored provider still notifies this hub, so calendars subscribing later must use it, too
+            synchronized (HUBS) {
+                HUBS.putIfAbsent(restoredProvider, this);
+            }
+        }
+    }
+
+    /**
+     * Weak reference to a subscribed calendar. When serialized, a still existing calendar is written along, so
+     * that it is restored with the rest of the session.
+     */
+    private static final class Subscriber implements Serializable {
+        private transient WeakReference<FullCalendar> calendar;
+
+        Subscriber(FullCalendar calendar) {
+            this.calendar = new WeakReference<>(calendar);
+        }
+
+        FullCalendar get() {
+            return calendar.get();
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+            out.writeObject(calendar.get());
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            calendar = new WeakReference<>((FullCalendar) in.readObject());
+        }
+    }
+}
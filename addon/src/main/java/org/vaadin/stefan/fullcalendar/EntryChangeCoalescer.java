@@ -0,0 +1,302 @@
+package org.vaadin.stefan.fullcalendar;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.page.PendingJavaScriptResult;
+import com.vaadin.flow.server.VaadinContext;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntriesBatchChangeEvent;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Collects the entry changes of the entry provider for a calendar with live entry updates
+ * (see {@link FullCalendar#setLiveEntryUpdatesEnabled(boolean)}). Changes arriving within the calendar's
+ * coalescing window are merged per entry id (the last change wins) and applied to the client as one patch
+ * via {@link UI#access(com.vaadin.flow.server.Command)}. With push enabled, the patch is sent immediately.
+ * <p></p>
+ * The amount of pending changes is bounded by the calendar's live update capacity. Changes, that have been sent
+ * to the client, count as pending, until the client has acknowledged the patch by answering the call. On overflow
+ * the pending changes are dropped and the next flush refreshes all entries instead, so a client, that stops
+ * answering, does not pile up patches. Unacknowledged changes are forgotten, when the client state they apply to
+ * is replaced (refresh all, detach or attach), so a reloaded or lost client does not keep the calendar above its
+ * capacity.
+ * <p></p>
+ * Changes offered while the calendar is detached are kept (within the capacity) and applied, when it is attached
+ * again. Changes might be offered from any thread. Delayed flushes are scheduled on an executor of the calendar's
+ * {@link VaadinService}, which is shut down, when the service is destroyed.
+ *
+ * @author Stefan Uebe
+ */
+final class EntryChangeCoalescer implements Serializable {
+
+    private final FullCalendar calendar;
+
+    // guarded by this
+    private final Map<String, Entry> changedEntries = new LinkedHashMap<>();
+    private final Map<String, ObjectNode> serializedEntries = new HashMap<>();
+    private final Set<String> removedIds = new LinkedHashSet<>();
+    private final Set<String> refetchIds = new LinkedHashSet<>();
+    private int unacknowledged;
+    private int acknowledgementGeneration;
+    private boolean overflown;
+    private boolean flushScheduled;
+
+    EntryChangeCoalescer(FullCalendar calendar) {
+        this.calendar = calendar;
+    }
+
+    /**
+     * Offers an added or changed entry.
+     *
+     * @param entry entry
+     */
+    void offerChange(Entry entry) {
+        offer(List.of(entry), List.of(), Map.of());
+    }
+
+    /**
+     * Offers the id of a changed entry, that has to be fetched from the entry provider, before it is applied.
+     * Used for providers, that are not in memory, where the entry passed to a refresh might not be the
+     * instance (or state) the provider returns.
+     *
+     * @param id entry id
+     */
+    void offerRefetch(String id) {
+        synchronized (this) {
+            if (!overflown) {
+                changedEntries.remove(id);
+                serializedEntries.remove(id);
+                removedIds.remove(id);
+                refetchIds.add(id);
+                checkCapacity();
+            }
+        }
+
+        scheduleFlushIfNecessary();
+    }
+
+    /**
+     * Offers the changes of the given batch.
+     *
+     * @param event batch event
+     */
+    void offerBatch(EntriesBatchChangeEvent<?> event) {
+        if (event.isEmpty()) {
+            return;
+        }
+
+        List<Entry> changed = new ArrayList<>(event.getAddedEntries());
+        changed.addAll(event.getChangedEntries());
+        offer(changed, event.getRemovedEntries().stream().map(Entry::getId).toList(), Map.of());
+    }
+
+    /**
+     * Offers the given changes.
+     *
+     * @param changed           added or changed entries
+     * @param removed           ids of removed entries
+     * @param serialized        already serialized changed entries by id, may be empty
+     */
+    void offer(Collection<? extends Entry> changed, Collection<String> removed, Map<String, ObjectNode> serialized) {
+        synchronized (this) {
+            if (!overflown) {
+                for (Entry entry : changed) {
+                    removedIds.remove(entry.getId());
+                    refetchIds.remove(entry.getId());
+                    changedEntries.put(entry.getId(), entry);
+
+                    ObjectNode json = serialized.get(entry.getId());
+                    if (json != null) {
+                        serializedEntries.put(entry.getId(), json);
+                    } else {
+                        serializedEntries.remove(entry.getId());
+                    }
+                }
+
+                for (String id : removed) {
+                    changedEntries.remove(id);
+                    serializedEntries.remove(id);
+                    refetchIds.remove(id);
+                    removedIds.add(id);
+                }
+
+                checkCapacity();
+            }
+        }
+
+        scheduleFlushIfNecessary();
+    }
+
+    /**
+     * Drops all pending and unacknowledged changes, e.g. since the client refetches all entries anyway.
+     */
+    synchronized void discard() {
+        clear();
+        overflown = false;
+        forgetUnacknowledgedChanges();
+    }
+
+    /**
+     * Forgets the changes, that have been sent to the client, but not acknowledged yet. Called, when the client
+     * state they apply to is replaced, e.g. by a refresh all or a reload of the page. Late acknowledgements of
+     * these changes are ignored.
+     */
+    synchronized void forgetUnacknowledgedChanges() {
+        unacknowledged = 0;
+        acknowledgementGeneration++;
+    }
+
+    /**
+     * Indicates, if there are changes, that have not been applied yet.
+     *
+     * @return has pending changes
+     */
+    synchronized boolean hasPendingChanges() {
+        return overflown || !changedEntries.isEmpty() || !removedIds.isEmpty() || !refetchIds.isEmpty();
+    }
+
+    /**
+     * Applies the pending changes to the calendar. Must be called with the calendar's session being locked.
+     */
+    void flush() {
+        List<Entry> changed;
+        Set<String> removed;
+        Set<String> refetch;
+        Map<String, ObjectNode> serialized;
+        boolean refreshAll;
+        synchronized (this) {
+            changed = new ArrayList<>(changedEntries.values());
+            removed = new LinkedHashSet<>(removedIds);
+            refetch = new LinkedHashSet<>(refetchIds);
+            serialized = new HashMap<>(serializedEntries);
+            refreshAll = overflown;
+            clear();
+            overflown = false;
+            flushScheduled = false;
+        }
+
+        if (refreshAll) {
+            calendar.requestRefreshAllEntries();
+            return;
+        }
+
+        if (!refetch.isEmpty()) {
+            // unknown ids are skipped, as for a refresh without live updates
+            try (Stream<? extends Entry> stream = calendar.getEntryProvider().fetchByIds(refetch)) {
+                stream.forEach(changed::add);
+            }
+        }
+
+        if (!changed.isEmpty() || !removed.isEmpty()) {
+            PendingJavaScriptResult result = calendar.applyEntryChanges(changed, removed, serialized);
+            if (result != null) {
+                int size = changed.size() + removed.size();
+                int generation;
+                synchronized (this) {
+                    unacknowledged += size;
+                    generation = acknowledgementGeneration;
+                }
+                result.then(value -> acknowledge(size, generation), error -> acknowledge(size, generation));
+            }
+        }
+    }
+
+    /**
+     * Returns the amount of changes, that have been sent to the client, but not acknowledged yet.
+     *
+     * @return unacknowledged changes
+     */
+    synchronized int getUnacknowledgedChanges() {
+        return unacknowledged;
+    }
+
+    private synchronized void acknowledge(int size, int generation) {
+        if (generation == acknowledgementGeneration) {
+            unacknowledged -= size;
+        }
+    }
+
+    private void checkCapacity() {
+        int pending = changedEntries.size() + removedIds.size() + refetchIds.size() + unacknowledged;
+        if (pending > calendar.getLiveEntryUpdateCapacity()) {
+            clear();
+            overflown = true;
+        }
+    }
+
+    private void clear() {
+        changedEntries.clear();
+        serializedEntries.clear();
+        removedIds.clear();
+        refetchIds.clear();
+    }
+
+    private void scheduleFlushIfNecessary() {
+        boolean schedule;
+        synchronized (this) {
+            schedule = !flushScheduled;
+            flushScheduled = true;
+        }
+
+        if (schedule) {
+            scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        Duration window = calendar.getLiveEntryUpdateWindow();
+        if (window.isZero()) {
+            access();
+            return;
+        }
+
+        VaadinSession session = calendar.getUI().map(UI::getSession).orElse(null);
+        if (session == null) {
+            return; // not attached to a running application, the changes are applied by the next flush
+        }
+
+        try {
+            Scheduler.of(session.getService()).executor.schedule(this::access, window.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // the service is being destroyed, there is no client left to update
+        }
+    }
+
+    private void access() {
+        // a detached calendar applies the pending changes, when it is attached again
+        calendar.getUI().ifPresent(ui -> ui.access(this::flush));
+    }
+
+    /**
+     * The executor for delayed flushes of one service. Stored in the service's context and shut down, when the
+     * service is destroyed, so that its thread does not outlive the application.
+     */
+    private static final class Scheduler {
+        private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fullcalendar-entry-change-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        static Scheduler of(VaadinService service) {
+            VaadinContext context = service.getContext();
+            return context.getAttribute(Scheduler.class, () -> {
+                Scheduler scheduler = new Scheduler();
+                service.addServiceDestroyListener(event -> {
+                    context.removeAttribute(Scheduler.class);
+                    scheduler.executor.shutdownNow();
+                });
+                return scheduler;
+            });
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.vaadin.stefan.fullcalendar;
 
 import lombok.Getter;
 import lombok.ToString;
+import org.vaadin.stefan.fullcalendar.dataprovider.InMemoryEntryProvider;
 import tools.jackson.databind.node.ObjectNode;
 
 /**
@@ -57,11 +58,19 @@ public abstract class EntryDataEvent extends EntryEvent {
      */
     public EntryDataEvent(FullCalendar source, boolean fromClient, ObjectNode jsonObject) {
         super(source, fromClient, jsonObject.get(Entry.Fields.ID).asString());
+
+        if (getOccurrenceId() != null) {
+            // the client only knows the occurrence, the changes refer to its recurring entry
+            jsonObject = jsonObject.deepCopy();
+            jsonObject.put(Entry.Fields.ID, getEntry().getId());
+        }
         this.jsonObject = jsonObject;
     }
 
     /**
-     * Applies the contained changes on the referring entry and returns this instance.
+     * Applies the contained changes on the referring entry and returns this instance. When the calendar
+     * uses an {@link InMemoryEntryProvider}, the entry is also updated in the provider's indexes. This does
+     * not announce an update to the provider's listeners (see {@link InMemoryEntryProvider#reindexEntry(Entry)}).
      * @see Entry#updateFromJson(tools.jackson.databind.node.ObjectNode)
      * @return entry
      */
@@ -69,6 +78,13 @@ public abstract class EntryDataEvent extends EntryEvent {
         Entry entry = getEntry();
         entry.updateFromJson(getJsonObject());
         this.changesApplied = true;
+
+        FullCalendar source = getSource();
+        if (source.isInMemoryEntryProvider()) {
+            InMemoryEntryProvider<Entry> provider = source.getEntryProvider();
+            provider.reindexEntry(entry);
+        }
+
         return entry;
     }
 
@@ -20,6 +20,8 @@ import com.vaadin.flow.component.ComponentEvent;
 import lombok.Getter;
 import lombok.ToString;
 
+import java.time.LocalDateTime;
+
 /**
  * Simple event that occurred for a specific calendar item.
  */
@@ -32,6 +34,18 @@ public abstract class EntryEvent extends ComponentEvent<FullCalendar> {
      */
     private final Entry entry;
 
+    /**
+     * The id of the affected occurrence, when the entry is a recurring entry expanded on the server side
+     * (see {@link FullCalendar#setServerSideRecurrenceExpansionEnabled(boolean)}). Null otherwise.
+     */
+    private final String occurrenceId;
+
+    /**
+     * The UTC based start of the affected occurrence, when the entry is a recurring entry expanded on the
+     * server side. Null otherwise.
+     */
+    private final LocalDateTime occurrenceStart;
+
     /**
      * New instance. Awaits the entry id.
      * @param source source component
@@ -41,5 +55,9 @@ public abstract class EntryEvent extends ComponentEvent<FullCalendar> {
     public EntryEvent(FullCalendar source, boolean fromClient, String entryId) {
         super(source, fromClient);
         this.entry = source.getCachedEntryFromFetch(entryId).orElseThrow(IllegalArgumentException::new);
+
+        RecurringEntryExpander.Occurrence occurrence = source.getCachedOccurrenceFromFetch(entryId).orElse(null);
+        this.occurrenceId = occurrence != null ? occurrence.id() : null;
+        this.occurrenceStart = occurrence != null ? occurrence.start() : null;
     }
 }
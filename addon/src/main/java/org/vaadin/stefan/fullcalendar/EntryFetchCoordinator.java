@@ -0,0 +1,171 @@
+package org.vaadin.stefan.fullcalendar;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryQuery;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Coordinates the entry fetches of the calendars of one UI, that share the same entry provider (e.g. a main
+ * calendar and a small month overview). Fetches of these calendars within one request cycle are deduplicated.
+ * Only {@link EntryProvider#isShared() shared providers} (e.g. the {@link
+ * org.vaadin.stefan.fullcalendar.dataprovider.SharedInMemoryEntryProvider}) can be used by several calendars,
+ * fetches of other providers are always passed through.
+ * <p></p>
+ * For in memory providers, a fetch, whose range is covered by a previous fetch of the same cycle, is answered
+ * by filtering that result. The first fetch is extended by the last fetched ranges of the other calendars, that
+ * are going to refetch their entries (because of a refresh all), so that all of them are served by a single
+ * provider query. Other providers (e.g. callback based ones) may not apply the range the same way as
+ * {@link EntryQuery#applyFilter(java.util.stream.Stream)}, so for them only identical queries are shared.
+ * <p></p>
+ * Results are kept until the response of the current request cycle is written or until the provider requests
+ * a refresh. Calendars not sharing their provider with others are not affected.
+ *
+ * @author Stefan Uebe
+ */
+final class EntryFetchCoordinator implements Serializable {
+
+    private final UI ui;
+    private final Set<FullCalendar> calendars = new LinkedHashSet<>();
+    private final Map<EntryProvider<?>, List<FetchResult>> results = new IdentityHashMap<>();
+    private boolean cleanupRegistered;
+
+    private EntryFetchCoordinator(UI ui) {
+        this.ui = ui;
+    }
+
+    /**
+     * Returns the coordinator of the given UI. Creates a new one, if there is none yet.
+     *
+     * @param ui ui
+     * @return coordinator
+     */
+    static EntryFetchCoordinator get(UI ui) {
+        EntryFetchCoordinator coordinator = ComponentUtil.getData(ui, EntryFetchCoordinator.class);
+        if (coordinator == null) {
+            coordinator = new EntryFetchCoordinator(ui);
+            ComponentUtil.setData(ui, EntryFetchCoordinator.class, coordinator);
+        }
+        return coordinator;
+    }
+
+    /**
+     * Returns the coordinator of the given UI, if there is one.
+     *
+     * @param ui ui
+     * @return coordinator or empty
+     */
+    static Optional<EntryFetchCoordinator> find(UI ui) {
+        return Optional.ofNullable(ComponentUtil.getData(ui, EntryFetchCoordinator.class));
+    }
+
+    void register(FullCalendar calendar) {
+        calendars.add(calendar);
+    }
+
+    void unregister(FullCalendar calendar) {
+        calendars.remove(calendar);
+    }
+
+    /**
+     * Drops the results of the current request cycle for the given provider.
+     *
+     * @param provider provider
+     */
+    void invalidate(EntryProvider<?> provider) {
+        results.remove(provider);
+    }
+
+    /**
+     * Fetches the entries matching the given query for the given calendar. Reuses or shares the provider query
+     * with other calendars using the same provider.
+     *
+     * @param calendar calendar
+     * @param provider the calendar's entry provider
+     * @param query    query with start and end
+     * @return matching entries
+     */
+    List<Entry> fetch(FullCalendar calendar, EntryProvider<? extends Entry> provider, EntryQuery query) {
+        LocalDateTime start = query.getStart();
+        LocalDateTime end = query.getEnd();
+
+        if (!provider.isShared()) {
+            return fetchDirectly(provider, query);
+        }
+
+        List<FullCalendar> peers = calendars.stream()
+                .filter(peer -> peer != calendar && peer.getEntryProvider() == provider)
+                .collect(Collectors.toList());
+
+        if (peers.isEmpty()) {
+            return fetchDirectly(provider, query);
+        }
+
+        boolean inMemory = provider.isInMemory();
+        for (FetchResult result : results.getOrDefault(provider, List.of())) {
+            if (result.matches(query)) {
+                return result.entries();
+            }
+            if (inMemory && result.covers(start, end)) {
+                return filter(query, result.entries());
+            }
+        }
+
+        if (!inMemory) {
+            List<Entry> entries = fetchDirectly(provider, query);
+            results.computeIfAbsent(provider, key -> new ArrayList<>()).add(new FetchResult(start, end, query.getAllDay(), entries));
+            registerCleanup();
+            return entries;
+        }
+
+        LocalDateTime unionStart = start;
+        LocalDateTime unionEnd = end;
+        for (FullCalendar peer : peers) {
+            LocalDateTime peerStart = peer.getLastFetchStart();
+            LocalDateTime peerEnd = peer.getLastFetchEnd();
+            if (peer.isEntryRefetchExpected() && peerStart != null && peerEnd != null) {
+                unionStart = peerStart.isBefore(unionStart) ? peerStart : unionStart;
+                unionEnd = peerEnd.isAfter(unionEnd) ? peerEnd : unionEnd;
+            }
+        }
+
+        List<Entry> entries = fetchDirectly(provider, new EntryQuery(unionStart, unionEnd, EntryQuery.AllDay.BOTH));
+        results.computeIfAbsent(provider, key -> new ArrayList<>()).add(new FetchResult(unionStart, unionEnd, EntryQuery.AllDay.BOTH, entries));
+        registerCleanup();
+
+        return unionStart.equals(start) && unionEnd.equals(end) ? entries : filter(query, entries);
+    }
+
+    private void registerCleanup() {
+        if (!cleanupRegistered) {
+            cleanupRegistered = true;
+            ui.beforeClientResponse(ui, context -> {
+                results.clear();
+                cleanupRegistered = false;
+            });
+        }
+    }
+
+    private static List<Entry> fetchDirectly(EntryProvider<? extends Entry> provider, EntryQuery query) {
+        return provider.fetch(query).collect(Collectors.<Entry>toList());
+    }
+
+    private static List<Entry> filter(EntryQuery query, List<Entry> entries) {
+        return query.applyFilter(entries.stream()).collect(Collectors.toList());
+    }
+
+    private record FetchResult(LocalDateTime start, LocalDateTime end, EntryQuery.AllDay allDay, List<Entry> entries) implements Serializable {
+        boolean matches(EntryQuery query) {
+            return start.equals(query.getStart()) && end.equals(query.getEnd()) && allDay == query.getAllDay();
+        }
+
+        boolean covers(LocalDateTime otherStart, LocalDateTime otherEnd) {
+            return !start.isAfter(otherStart) && !end.isBefore(otherEnd);
+        }
+    }
+}
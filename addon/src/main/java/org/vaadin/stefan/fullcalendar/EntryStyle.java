@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026, Stefan Uebe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.vaadin.stefan.fullcalendar;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.commons.lang3.StringUtils;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A shared set of presentation properties, that can be referenced by any number of entries via
+ * {@link Entry#setStyleId(String)}. Styles are registered at the calendar
+ * ({@link FullCalendar#addEntryStyles(EntryStyle...)}) and transported to the client only once. The client
+ * applies them to every fetched entry referencing the style. Properties set directly on an entry
+ * (e.g. {@link Entry#setColor(String)}) take precedence over the style.
+ * <p></p>
+ * Instances are immutable. To change a style, register a new instance with the same id. Already rendered
+ * entries will be updated on the client without a refetch.
+ * <p></p>
+ * <pre>
+ * calendar.addEntryStyles(EntryStyle.builder().id("meeting").color("#3788d8").classNames(Set.of("meeting")).build());
+ * entry.setStyleId("meeting");
+ * </pre>
+ *
+ * @author Stefan Uebe
+ */
+@Getter
+@EqualsAndHashCode
+public class EntryStyle implements Serializable {
+
+    /**
+     * The id of this style, referenced by {@link Entry#getStyleId()}.
+     */
+    @NonNull
+    private final String id;
+
+    /**
+     * Interpreted as background and border color on the client side.
+     */
+    private final String color;
+    private final String backgroundColor;
+    private final String borderColor;
+    private final String textColor;
+    private final Set<String> classNames;
+
+    /**
+     * The display mode. Null means, that the style does not define a display mode.
+     */
+    private final DisplayMode displayMode;
+
+    @Builder(toBuilder = true)
+    EntryStyle(@NonNull String id, String color, String backgroundColor, String borderColor, String textColor,
+               Set<String> classNames, DisplayMode displayMode) {
+        this.id = id;
+        this.color = color;
+        this.backgroundColor = backgroundColor;
+        this.borderColor = borderColor;
+        this.textColor = textColor;
+        // copied, so that later changes of the given set do not change an already registered style
+        this.classNames = classNames != null && !classNames.isEmpty()
+                ? Collections.unmodifiableSet(new LinkedHashSet<>(classNames))
+                : Collections.emptySet();
+        this.displayMode = displayMode;
+    }
+
+    /**
+     * Returns the class names of this style or an empty set.
+     *
+     * @return unmodifiable set of class names
+     */
+    public Set<String> getClassNames() {
+        return classNames;
+    }
+
+    /**
+     * Converts this instance to a json object, that can be interpreted by the client. Undefined properties
+     * are omitted.
+     *
+     * @return json
+     */
+    public ObjectNode toJson() {
+        ObjectNode json = JsonFactory.createObject();
+        putIfNotBlank(json, "color", color);
+        putIfNotBlank(json, "backgroundColor", backgroundColor);
+        putIfNotBlank(json, "borderColor", borderColor);
+        putIfNotBlank(json, "textColor", textColor);
+
+        if (!classNames.isEmpty()) {
+            ArrayNode array = JsonFactory.createArray();
+            classNames.forEach(array::add);
+            json.set("classNames", array);
+        }
+
+        if (displayMode != null) {
+            json.put("display", displayMode.getClientSideValue());
+        }
+
+        return json;
+    }
+
+    private static void putIfNotBlank(ObjectNode json, String key, String value) {
+        if (StringUtils.isNotBlank(value)) {
+            json.put(key, value.trim());
+        }
+    }
+}
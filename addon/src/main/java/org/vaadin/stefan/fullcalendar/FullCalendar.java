@@ -20,6 +20,9 @@ import com.vaadin.flow.component.*;
 import com.vaadin.flow.component.dependency.CssImport;
 import com.vaadin.flow.component.dependency.JsModule;
 import com.vaadin.flow.component.dependency.NpmPackage;
+import com.vaadin.flow.component.page.PendingJavaScriptResult;
+import com.vaadin.flow.server.Command;
+import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.shared.Registration;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.CaseUtils;
@@ -32,9 +35,12 @@ import org.vaadin.stefan.fullcalendar.converters.JsonItemPropertyConverter;
 import org.vaadin.stefan.fullcalendar.converters.LocaleConverter;
 import org.vaadin.stefan.fullcalendar.converters.StringArrayConverter;
 import org.vaadin.stefan.fullcalendar.converters.ToolbarConverter;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntriesBatchChangeEvent;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntriesChangeEvent;
 import org.vaadin.stefan.fullcalendar.dataprovider.EntryProvider;
 import org.vaadin.stefan.fullcalendar.dataprovider.EntryQuery;
 import org.vaadin.stefan.fullcalendar.dataprovider.InMemoryEntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.SharedInMemoryEntryProvider;
 import org.vaadin.stefan.fullcalendar.json.JsonConverter;
 import org.vaadin.stefan.fullcalendar.model.Footer;
 import org.vaadin.stefan.fullcalendar.model.Header;
@@ -46,6 +52,10 @@ import java.io.Serializable;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -92,6 +102,24 @@ public class FullCalendar extends Component implements HasStyle, HasSize, HasThe
      */
     public static final int DEFAULT_DAY_EVENT_DURATION = 1;
 
+    /**
+     * Default amount of fetched entries, from which on the json serialization of a fetch result is split up
+     * and processed in parallel. See {@link #setParallelSerializationThreshold(int)}.
+     */
+    public static final int DEFAULT_PARALLEL_SERIALIZATION_THRESHOLD = 5000;
+
+    /**
+     * The default coalescing window of live entry updates.
+     * @see #setLiveEntryUpdateWindow(Duration)
+     */
+    public static final Duration DEFAULT_LIVE_ENTRY_UPDATE_WINDOW = Duration.ofMillis(100);
+
+    /**
+     * The default amount of pending live entry updates, from which on a refresh all is done instead.
+     * @see #setLiveEntryUpdateCapacity(int)
+     */
+    public static final int DEFAULT_LIVE_ENTRY_UPDATE_CAPACITY = 1000;
+
     private static final String JSON_INITIAL_OPTIONS = "initialJsonOptions";
     private static final String INITIAL_OPTIONS = "initialOptions";
 
@@ -100,6 +128,19 @@ public class FullCalendar extends Component implements HasStyle, HasSize, HasThe
      * on every {@link #fetchEntriesFromServer(ObjectNode)}, so it only ever holds one viewport worth.
      */
     private final Map<String, Entry> lastFetchedEntries = new HashMap<>();
+
+    /**
+     * Occurrences of recurring entries, that have been expanded on the server side in the last fetch, mapped by
+     * their ids. See {@link #setServerSideRecurrenceExpansionEnabled(boolean)}.
+     */
+    private final Map<String, RecurringEntryExpander.Occurrence> lastFetchedOccurrences = new HashMap<>();
+    private final Set<String> expandedEntryIds = new HashSet<>();
+    private boolean serverSideRecurrenceExpansionEnabled;
+
+    /**
+     * Ids of entries, that shall be refreshed before the next client response. Collected to fetch them at once.
+     */
+    private final Set<String> pendingRefreshIds = new LinkedHashSet<>();
     private final Map<String, Object> options = new HashMap<>();
 
     /**
@@ -121,6 +162,18 @@ public class FullCalendar extends Component implements HasStyle, HasSize, HasThe
     private EntryProvider<? extends Entry> entryProvider;
     private final List<Registration> entryProviderDataListeners = new LinkedList<>();
 
+    /**
+     * When false, fetched entries are not bound to this calendar. Their client side state is tracked in
+     * {@link #knownEntryIds} instead.
+     */
+    private boolean entryBindingEnabled = true;
+    private final Set<String> knownEntryIds = new HashSet<>();
+
+    private int parallelSerializationThreshold = DEFAULT_PARALLEL_SERIALIZATION_THRESHOLD;
+
+    // executors are not serializable, after deserialization the common pool is used until a new one is set
+    private transient Executor entrySerializationExecutor;
+
     private final Map<String, CustomCalendarView> customCalendarViews = new LinkedHashMap<>();
 
     // used to keep the amount of timeslot selected listeners. when 0, then selectable option is auto removed
@@ -136,6 +189,21 @@ public class FullCalendar extends Component implements HasStyle, HasSize, HasThe
     // only ever accessed under the Vaadin session lock (all component mutation is), so no extra guarding needed
     private boolean refreshAllEntriesRequested;
 
+    /**
+     * Range of the last entry fetch and if the client has been told to refetch it. Used to share fetches with
+     * other calendars using the same entry provider, see {@link EntryFetchCoordinator}. The range is also read
+     * by the {@link EntryBroadcastHub} from other threads, therefore it is kept in one volatile query.
+     */
+    private volatile EntryQuery lastFetchQuery;
+    private boolean entryRefetchExpected;
+    private boolean entryFetchSharingEnabled = true;
+
+    // read by the threads firing provider events, therefore volatile
+    private volatile boolean liveEntryUpdatesEnabled;
+    private volatile Duration liveEntryUpdateWindow = DEFAULT_LIVE_ENTRY_UPDATE_WINDOW;
+    private volatile int liveEntryUpdateCapacity = DEFAULT_LIVE_ENTRY_UPDATE_CAPACITY;
+    private final EntryChangeCoalescer entryChangeCoalescer = new EntryChangeCoalescer(this);
+
     private final Map<String, String> customNativeEventsMap = new LinkedHashMap<>();
     private JsCallback userEntryDidMountCallback;
     private boolean autoProvideEntryIdOnClient = true;
@@ -145,6 +213,11 @@ public class FullCalendar extends Component implements HasStyle, HasSize, HasThe
      */
     private final Map<String, ClientSideEventSource<?>> clientSideEventSourceRegistry = new LinkedHashMap<>();
 
+    /**
+     * Shared entry styles, keyed by style id. Synchronized to the client as element property.
+     */
+    private final Map<String, EntryStyle> entryStyles = new LinkedHashMap<>();
+
     /**
      * Server-side registry of draggable components, keyed by draggable UUID.
      */
@@ -293,6 +366,19 @@ public class FullCalendar extends Component implements HasStyle, HasSize, HasThe
     @Override
     protected void onAttach(AttachEvent attachEvent) {
         super.onAttach(attachEvent);
+        EntryFetchCoordinator.get(attachEvent.getUI()).register(this);
+
+        // the client side is recreated, live updates sent to a previous one will not be acknowledged
+        entryChangeCoalescer.forgetUnacknowledgedChanges();
+
+        if (entryProviderDataListeners.isEmpty()) {
+            // listeners of a shared provider have been removed on detach, changes might have been missed since then
+            registerEntryProviderListeners();
+            requestRefreshAllEntries();
+        }
+
+        // applies live entry changes offered while being detached
+        entryChangeCoalescer.flush();
 
         if(!attachEvent.isInitialAttach()) {
             getElement().getNode().runWhenAttached(ui -> {
@@ -337,6 +423,18 @@ public class FullCalendar extends Component implements HasStyle, HasSize, HasThe
         applyEntryDidMountMerge(false);
     }
 
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        EntryFetchCoordinator.find(detachEvent.getUI()).ifPresent(coordinator -> coordinator.unregister(this));
+        entryChangeCoalescer.forgetUnacknowledgedChanges();
+
+        if (entryProvider.isShared()) {
+            entryProviderDataListeners.forEach(Registration::remove);
+            entryProviderDataListeners.clear();
+        }
+        super.onDetach(detachEvent);
+    }
+
     /**
      * Sets a property to allow or disallow (re-)rendering of dates, when an option changes. When allowed,
      * each option will fire a dates rendering event, which can lead to multiple rendering events, even if only
@@ -374,6 +472,11 @@ public class FullCalendar extends Component implements HasStyle, HasSize, HasThe
      * client side will be updated.
      * <p></p>
      * By default a new full calendar is initialized with an {@link InMemoryEntryProvider}.
+     * <p></p>
+     * Change notifications of the provider are handled with this calendar's session being locked. When they
+     * are fired from a thread not holding that lock (e.g. by a {@link SharedInMemoryEntryProvider} modified in
+     * another session), they are dispatched via {@link UI#access(Command)}. The listeners of a shared provider are
+     * removed, while this calendar is detached, and an attach refreshes all entries.
      *
      * @param entryProvider entry provider
      */
@@ -388,11 +491,124 @@ public class FullCalendar extends Component implements HasStyle, HasSize, HasThe
                 this.entryProvider.setCalendar(null);
             }
 
+            knownEntryIds.clear();
             this.entryProvider = entryProvider;
             entryProvider.setCalendar(this);
 
-            entryProviderDataListeners.add(entryProvider.addEntryRefreshListener(event -> requestRefresh(event.getItemToRefresh())));
-            entryProviderDataListeners.add(entryProvider.addEntriesChangeListener(event -> requestRefreshAllEntries()));
+            registerEntryProviderListeners();
+        }
+    }
+
+    /**
+     * Registers this calendar at the entry provider's listeners. The provider references the calendar only weakly,
+     * so that a provider outliving the calendar (e.g. a shared one) does not keep it in memory.
+     */
+    private void registerEntryProviderListeners() {
+        entryProviderDataListeners.add(entryProvider.addWeakEntryRefreshListener(this, (calendar, event) ->
+                calendar.onEntryRefresh(event.getItemToRefresh())));
+        entryProviderDataListeners.add(entryProvider.addWeakEntriesChangeListener(this, FullCalendar::onEntriesChange));
+
+        if (entryProvider.isShared()) {
+            // entry changes of shared providers are distributed by the hub, when live updates are enabled
+            entryProviderDataListeners.add(EntryBroadcastHub.get(entryProvider).subscribe(this));
+        }
+    }
+
+    private void onEntryRefresh(Entry item) {
+        if (liveEntryUpdatesEnabled) {
+            if (!entryProvider.isInMemory()) {
+                // as without live updates, the provider's current state is sent, not the passed instance
+                entryChangeCoalescer.offerRefetch(item.getId());
+            } else if (!entryProvider.isShared()) {
+                entryChangeCoalescer.offerChange(item);
+            }
+        } else {
+            runWithSessionLock(() -> requestRefresh(item));
+        }
+    }
+
+    private void onEntriesChange(EntriesChangeEvent<?> event) {
+        if (liveEntryUpdatesEnabled && event instanceof EntriesBatchChangeEvent<?> batchEvent) {
+            if (!entryProvider.isShared()) {
+                entryChangeCoalescer.offerBatch(batchEvent);
+            }
+        } else {
+            runWithSessionLock(this::requestRefreshAllEntries);
+        }
+    }
+
+    /**
+     * Indicates, if entries are bound to this calendar (see {@link #setEntryBindingEnabled(boolean)}).
+     * Enabled by default.
+     *
+     * @return entry binding enabled
+     */
+    public boolean isEntryBindingEnabled() {
+        return entryBindingEnabled;
+    }
+
+    /**
+     * Defines, if entries provided to this calendar are bound to it. Bound entries keep a reference to
+     * this calendar ({@link Entry#getCalendar()}) and thus cannot be used by another calendar at the same time.
+     * <p></p>
+     * When disabled, entries do not get any reference to or state of this calendar, the calendar tracks
+     * that state itself (see {@link #isEntryKnownToTheClient(Entry)}). This allows to serve one (immutable)
+     * set of entries to any number of calendars, e.g. a read only schedule shown in every session. Be
+     * aware, that calendar dependent entry methods fall back to UTC then (e.g. {@link Entry#getStartWithOffset()})
+     * and scheduler entries cannot resolve resources from client side changes.
+     * <p></p>
+     * Entries of a {@link EntryProvider#isShared() shared provider} are never bound.
+     *
+     * @param entryBindingEnabled bind entries to this calendar
+     */
+    public void setEntryBindingEnabled(boolean entryBindingEnabled) {
+        if (this.entryBindingEnabled != entryBindingEnabled) {
+            this.entryBindingEnabled = entryBindingEnabled;
+            knownEntryIds.clear();
+
+            if (entryProvider != null) {
+                // reconnect, so that providers can (un)bind their entries
+                entryProvider.setCalendar(null);
+                entryProvider.setCalendar(this);
+            }
+        }
+    }
+
+    /**
+     * Indicates, if the given entry has been sent to the client by this calendar. For bound entries this
+     * is the same as {@link Entry#isKnownToTheClient()}.
+     *
+     * @param entry entry
+     * @return has been sent to the client
+     */
+    public boolean isEntryKnownToTheClient(Entry entry) {
+        Objects.requireNonNull(entry);
+        return isBindingEntries() ? entry.isKnownToTheClient() : knownEntryIds.contains(entry.getId());
+    }
+
+    /**
+     * Indicates, if fetched entries are bound to this calendar. This is the case, when the binding
+     * is enabled and the current provider is not shared.
+     *
+     * @return bind entries
+     */
+    private boolean isBindingEntries() {
+        return entryBindingEnabled && (entryProvider == null || !entryProvider.isShared());
+    }
+
+    /**
+     * Runs the given command directly, if this calendar is not attached or its session is locked by the current
+     * thread. Otherwise it is scheduled via {@link UI#access(Command)}.
+     *
+     * @param command command to run
+     */
+    private void runWithSessionLock(Command command) {
+        Optional<UI> ui = getUI();
+        VaadinSession session = ui.map(UI::getSession).orElse(null);
+        if (session != null && !session.hasLock()) {
+            ui.get().access(command);
+        } else {
+            command.execute();
         }
     }
 
@@ -407,26 +623,47 @@ public class FullCalendar extends Component implements HasStyle, HasSize, HasThe
     }
 
     /**
-     * This method requests an entry refresh from the client side. Every call of this method will register
-     * a client side call, since it might be called for different items. Calls are handled in the order
-     * they are requested. This method will not interfere or "communicate" with {@link #requestRefreshAllEntries()}.
+     * This method requests an entry refresh from the client side. This method will not interfere or "communicate"
+     * with {@link #requestRefreshAllEntries()}.
+     * <p></p>
+     * All items requested for a refresh before the next client response are fetched at once using
+     * {@link EntryProvider#fetchByIds(Collection)} and sent to the client as one patch, that is applied without
+     * refetching the entries (see {@link #updateEntriesOnClient(Collection)}). Refreshed items, that are not
+     * inside the last fetched range anymore, are removed from the client.
      *
      * @param item item to refresh
      */
     protected void requestRefresh(Entry item) {
-        getElement().getNode().runWhenAttached(ui -> {
-            ui.beforeClientResponse(this, pExecutionContext -> {
-                getEntryProvider()
-                        .fetchById(item.getId())
-                        .ifPresent(refreshedEntry -> {
-                            lastFetchedEntries.put(refreshedEntry.getId(), refreshedEntry);
-                            getElement().callJsFunction("refreshSingleEvent", refreshedEntry.getId());
-                        });
+        if (isExpandedOnServerSide(item)) {
+            requestRefreshAllEntries(); // the client knows the occurrences only
+            return;
+        }
 
+        invalidateSharedFetches();
 
-                // refreshAllRequested = false; // why was this here?
+        boolean alreadyScheduled = !pendingRefreshIds.isEmpty();
+        pendingRefreshIds.add(item.getId());
+
+        if (!alreadyScheduled) {
+            getElement().getNode().runWhenAttached(ui -> {
+                ui.beforeClientResponse(this, pExecutionContext -> refreshPendingEntries());
             });
-        });
+        }
+    }
+
+    private void refreshPendingEntries() {
+        List<String> ids = new ArrayList<>(pendingRefreshIds);
+        pendingRefreshIds.clear();
+
+        // unknown ids are skipped
+        List<Entry> refreshedEntries = new ArrayList<>(ids.size());
+        try (Stream<? extends Entry> stream = entryProvider.fetchByIds(ids)) {
+            stream.forEach(refreshedEntries::add);
+        }
+
+        if (!refreshedEntries.isEmpty()) {
+            applyEntryChanges(refreshedEntries, List.of(), Map.of());
+        }
     }
 
     /**
@@ -440,17 +677,25 @@ public class FullCalendar extends Component implements HasStyle, HasSize, HasThe
      * they are called, whereas only the first call of this method is relevant.
      */
     protected void requestRefreshAllEntries() {
+        invalidateSharedFetches();
+        entryChangeCoalescer.forgetUnacknowledgedChanges(); // the refetch replaces the patched entries
+
         if (!refreshAllEntriesRequested) {
             refreshAllEntriesRequested = true;
             getElement().getNode().runWhenAttached(ui -> {
                 ui.beforeClientResponse(this, pExecutionContext -> {
                     getElement().callJsFunction("refreshAllEvents");
                     refreshAllEntriesRequested = false;
+                    entryRefetchExpected = true;
                 });
             });
         }
     }
 
+    private void invalidateSharedFetches() {
+        getUI().flatMap(EntryFetchCoordinator::find).ifPresent(coordinator -> coordinator.invalidate(entryProvider));
+    }
+
     /**
      * Indicates, if the entry provider is a in memory provider.
      *
@@ -466,23 +711,523 @@ public class FullCalendar extends Component implements HasStyle, HasSize, HasThe
         Objects.requireNonNull(entryProvider);
 
         lastFetchedEntries.clear();
+        lastFetchedOccurrences.clear();
+        expandedEntryIds.clear();
 
         LocalDateTime start = query.hasNonNull("start") ? JsonUtils.parseClientSideDateTime(query.get("start").asString()) : null;
         LocalDateTime end = query.hasNonNull("end") ? JsonUtils.parseClientSideDateTime(query.get("end").asString()) : null;
 
+        EntryQuery entryQuery = new EntryQuery(start, end, EntryQuery.AllDay.BOTH);
+        List<? extends Entry> entries = fetchEntries(entryQuery);
+        lastFetchQuery = entryQuery;
+        entryRefetchExpected = false;
+
+        // state changes stay on the request thread, only the (read only) serialization might be parallelized
+        boolean bindEntries = isBindingEntries();
+        for (Entry entry : entries) {
+            registerEntrySentToClient(entry, bindEntries);
+        }
+
+        if (serverSideRecurrenceExpansionEnabled) {
+            return toJsonArrayWithExpandedRecurrences(entries, start, end);
+        }
+
+        return toJsonArray(entries);
+    }
+
+    /**
+     * Serializes the given entries, whereas recurring entries are replaced by their occurrences in the given range.
+     */
+    private ArrayNode toJsonArrayWithExpandedRecurrences(List<? extends Entry> entries, LocalDateTime start, LocalDateTime end) {
+        Timezone timezone = getTimezone();
+        List<ObjectNode> serialized = serializeEntries(entries);
+
+        ArrayNode array = JsonFactory.createArray();
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            List<RecurringEntryExpander.Occurrence> occurrences = RecurringEntryExpander.expand(entry, start, end, timezone);
+            if (occurrences == null) {
+                array.add(serialized.get(i));
+                continue;
+            }
+
+            expandedEntryIds.add(entry.getId());
+            for (RecurringEntryExpander.Occurrence occurrence : occurrences) {
+                lastFetchedOccurrences.put(occurrence.id(), occurrence);
+                array.add(RecurringEntryExpander.toJson(serialized.get(i), occurrence));
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Indicates, if the given entry is or might have to be shown as occurrences expanded on the server side. Such
+     * entries cannot be updated on the client directly, instead all entries are refetched.
+     */
+    private boolean isExpandedOnServerSide(Entry entry) {
+        return isExpandedOnServerSide(entry.getId()) || (serverSideRecurrenceExpansionEnabled && entry.isRecurring());
+    }
+
+    private boolean isExpandedOnServerSide(String entryId) {
+        return !expandedEntryIds.isEmpty() && expandedEntryIds.contains(entryId);
+    }
+
+    /**
+     * Marks the given entry as sent to the client. Unbound entries might be used by multiple calendars, so their
+     * state is kept here instead.
+     */
+    private void registerEntrySentToClient(Entry entry, boolean bindEntries) {
+        if (bindEntries) {
+            entry.setCalendar(this);
+            entry.setKnownToTheClient(true); // mark entry as "has been sent to client"
+        } else {
+            knownEntryIds.add(entry.getId());
+        }
+        lastFetchedEntries.put(entry.getId(), entry);
+    }
+
+    private ArrayNode toJsonArray(List<? extends Entry> entries) {
         ArrayNode array = JsonFactory.createArray();
-        entryProvider.fetch(new EntryQuery(start, end, EntryQuery.AllDay.BOTH))
-                .peek(entry -> {
-                    entry.setCalendar(this);
-                    entry.setKnownToTheClient(true); // mark entry as "has been sent to client"
-                    lastFetchedEntries.put(entry.getId(), entry);
-                })
-                .map(Entry::toJson)
-                .forEach(array::add);
+        serializeEntries(entries).forEach(array::add);
+        return array;
+    }
 
+    /**
+     * Applies the given entry changes to the client without refetching the entries. Changed entries are sent, when
+     * they match the range of the last fetch, otherwise they are removed from the client. Entries, that
+     * are not known to the client, are ignored on removal. The client side applies all changes at once.
+     * Nothing is sent, when the client has not fetched any entries yet.
+     * <p></p>
+     * Called by the {@link EntryChangeCoalescer} and for {@link #requestRefresh(Entry) refreshed items} with the
+     * session being locked.
+     *
+     * @param changedEntries     added or changed entries
+     * @param removedIds         ids of removed entries
+     * @param serializedEntries  already serialized changed entries by id, used instead of serializing them again
+     * @return the pending client call or null, if nothing has been sent
+     */
+    PendingJavaScriptResult applyEntryChanges(Collection<? extends Entry> changedEntries, Collection<String> removedIds, Map<String, ObjectNode> serializedEntries) {
+        EntryQuery fetchRange = lastFetchQuery;
+        if (fetchRange == null) {
+            return null;
+        }
+
+        if (changedEntries.stream().anyMatch(this::isExpandedOnServerSide)
+                || removedIds.stream().anyMatch(this::isExpandedOnServerSide)) {
+            requestRefreshAllEntries();
+            return null;
+        }
+
+        List<Entry> added = new ArrayList<>();
+        List<Entry> updated = new ArrayList<>();
+        Set<String> removed = new LinkedHashSet<>();
+
+        for (Entry entry : changedEntries) {
+            boolean known = lastFetchedEntries.containsKey(entry.getId());
+            if (fetchRange.applyFilter(Stream.of(entry)).findAny().isPresent()) {
+                (known ? updated : added).add(entry);
+            } else if (known) {
+                removed.add(entry.getId());
+            }
+        }
+
+        for (String id : removedIds) {
+            if (lastFetchedEntries.containsKey(id)) {
+                removed.add(id);
+            }
+        }
+
+        if (!added.isEmpty() || !updated.isEmpty() || !removed.isEmpty()) {
+            ObjectNode patch = JsonFactory.createObject();
+            patch.set("added", prepareEntriesForClient(added, serializedEntries));
+            patch.set("updated", prepareEntriesForClient(updated, serializedEntries));
+            patch.set("removed", prepareEntryRemovalOnClient(removed));
+            return getElement().callJsFunction("applyEntryChanges", patch);
+        }
+        return null;
+    }
+
+    /**
+     * Adds the given entries to the client side without refetching all entries. The entries are added to the
+     * events of the entry provider, i.e. they are dropped on the next refetch, if the entry provider does not
+     * provide them. Entries already shown on the client are replaced.
+     * <p></p>
+     * This allows to show small modifications without a full fetch and re-layout of the calendar. The entries are
+     * handled like fetched ones, e.g. they are available via {@link #getCachedEntryFromFetch(String)}.
+     * <p></p>
+     * When recurring entries are expanded on the server side (see {@link #setServerSideRecurrenceExpansionEnabled(boolean)}),
+     * passing a recurring entry refetches all entries instead.
+     *
+     * @param entries entries to add
+     * @throws NullPointerException when null is passed
+     */
+    public void addEntriesToClient(Collection<? extends Entry> entries) {
+        Objects.requireNonNull(entries);
+        if (entries.stream().anyMatch(this::isExpandedOnServerSide)) {
+            requestRefreshAllEntries();
+        } else if (!entries.isEmpty()) {
+            getElement().callJsFunction("addEntries", prepareEntriesForClient(entries, Map.of()));
+        }
+    }
+
+    /**
+     * Updates the given entries on the client side without refetching all entries. Entries not shown on the
+     * client yet are added. See {@link #addEntriesToClient(Collection)} for details.
+     *
+     * @param entries entries to update
+     * @throws NullPointerException when null is passed
+     */
+    public void updateEntriesOnClient(Collection<? extends Entry> entries) {
+        Objects.requireNonNull(entries);
+        if (entries.stream().anyMatch(this::isExpandedOnServerSide)) {
+            requestRefreshAllEntries();
+        } else if (!entries.isEmpty()) {
+            getElement().callJsFunction("updateEntries", prepareEntriesForClient(entries, Map.of()));
+        }
+    }
+
+    /**
+     * Removes the entries with the given ids from the client side without refetching all entries. If the entry
+     * provider still provides them, they are shown again on the next refetch.
+     *
+     * @param entryIds ids of the entries to remove
+     * @throws NullPointerException when null is passed
+     */
+    public void removeEntriesFromClient(Collection<String> entryIds) {
+        Objects.requireNonNull(entryIds);
+        if (entryIds.stream().anyMatch(this::isExpandedOnServerSide)) {
+            requestRefreshAllEntries();
+        } else if (!entryIds.isEmpty()) {
+            getElement().callJsFunction("removeEntries", prepareEntryRemovalOnClient(entryIds));
+        }
+    }
+
+    private ArrayNode prepareEntriesForClient(Collection<? extends Entry> entries, Map<String, ObjectNode> serializedEntries) {
+        invalidateSharedFetches();
+
+        List<Entry> toSerialize = new ArrayList<>();
+        boolean bindEntries = isBindingEntries();
+        for (Entry entry : entries) {
+            registerEntrySentToClient(entry, bindEntries);
+            if (!serializedEntries.containsKey(entry.getId())) {
+                toSerialize.add(entry);
+            }
+        }
+
+        Iterator<ObjectNode> serialized = serializeEntries(toSerialize).iterator();
+        ArrayNode array = JsonFactory.createArray();
+        for (Entry entry : entries) {
+            ObjectNode json = serializedEntries.get(entry.getId());
+            array.add(json != null ? json : serialized.next());
+        }
         return array;
     }
 
+    private JsonNode prepareEntryRemovalOnClient(Collection<String> entryIds) {
+        invalidateSharedFetches();
+
+        for (String id : entryIds) {
+            Entry entry = lastFetchedEntries.remove(id);
+            knownEntryIds.remove(id);
+            if (entry != null && entry.getCalendar().orElse(null) == this) {
+                entry.setKnownToTheClient(false);
+            }
+        }
+
+        return JsonUtils.toJsonNode(entryIds);
+    }
+
+    /**
+     * Indicates, if entry changes of the entry provider are applied to the client without refetching the entries.
+     *
+     * @return live entry updates enabled
+     * @see #setLiveEntryUpdatesEnabled(boolean)
+     */
+    public boolean isLiveEntryUpdatesEnabled() {
+        return liveEntryUpdatesEnabled;
+    }
+
+    /**
+     * Sets, if entry changes of the entry provider shall be applied to the client without refetching the
+     * entries. Disabled by default.
+     * <p></p>
+     * When enabled, the entries of a {@link EntriesBatchChangeEvent} (e.g. fired by
+     * {@link InMemoryEntryProvider#batch(java.util.function.Consumer)}) and entries passed to
+     * {@link EntryProvider#refreshItem(Entry)} are collected for the {@link #setLiveEntryUpdateWindow(Duration)
+     * live update window} and then sent to the client as one patch via {@link UI#access(Command)}. The client
+     * updates only the affected entries instead of refetching and re-rendering all of them. Other change
+     * notifications (e.g. {@link EntryProvider#refreshAll()}) still lead to a refetch. For providers, that are not
+     * in memory, refreshed items are fetched again by id when the patch is sent, so the client gets the provider's
+     * current state instead of the passed instance.
+     * <p></p>
+     * Changes fired from outside the request thread (e.g. by a backend job modifying a
+     * {@link SharedInMemoryEntryProvider}) are only sent to the browser immediately, when server push
+     * is enabled. Changes of a shared provider are serialized once for all calendars showing them and only
+     * offered to calendars, whose last fetched range they match. When more changes are pending than the
+     * {@link #setLiveEntryUpdateCapacity(int) capacity} allows (e.g. for a slow client), the calendar refreshes
+     * all entries instead.
+     *
+     * @param liveEntryUpdatesEnabled enable live entry updates
+     */
+    public void setLiveEntryUpdatesEnabled(boolean liveEntryUpdatesEnabled) {
+        this.liveEntryUpdatesEnabled = liveEntryUpdatesEnabled;
+        if (!liveEntryUpdatesEnabled) {
+            entryChangeCoalescer.discard();
+        }
+    }
+
+    /**
+     * Returns the coalescing window of live entry updates.
+     *
+     * @return coalescing window
+     * @see #setLiveEntryUpdateWindow(Duration)
+     */
+    public Duration getLiveEntryUpdateWindow() {
+        return liveEntryUpdateWindow;
+    }
+
+    /**
+     * Sets the window, in which entry changes are collected before they are sent to the client as one patch
+     * (see {@link #setLiveEntryUpdatesEnabled(boolean)}). Multiple changes of the same entry within that window
+     * are merged, so a calendar receives at most one patch per window. A zero duration sends the changes as soon
+     * as the session is available. Default is
+     * {@link #DEFAULT_LIVE_ENTRY_UPDATE_WINDOW}.
+     *
+     * @param liveEntryUpdateWindow coalescing window
+     * @throws NullPointerException when null is passed
+     * @throws IllegalArgumentException when a negative duration is passed
+     */
+    public void setLiveEntryUpdateWindow(Duration liveEntryUpdateWindow) {
+        Objects.requireNonNull(liveEntryUpdateWindow);
+        if (liveEntryUpdateWindow.isNegative()) {
+            throw new IllegalArgumentException("Live entry update window must not be negative");
+        }
+        this.liveEntryUpdateWindow = liveEntryUpdateWindow;
+    }
+
+    /**
+     * Returns the maximum amount of pending live entry updates.
+     *
+     * @return capacity
+     * @see #setLiveEntryUpdateCapacity(int)
+     */
+    public int getLiveEntryUpdateCapacity() {
+        return liveEntryUpdateCapacity;
+    }
+
+    /**
+     * Sets the maximum amount of entry changes, that are kept pending for the next live update (see
+     * {@link #setLiveEntryUpdatesEnabled(boolean)}). Changes sent to the client count as pending, until the client
+     * has acknowledged them, so a slow or unresponsive client does not pile up patches. When exceeded, the pending
+     * changes are dropped and all entries are refreshed instead. Default is {@link #DEFAULT_LIVE_ENTRY_UPDATE_CAPACITY}.
+     *
+     * @param liveEntryUpdateCapacity capacity
+     * @throws IllegalArgumentException when a value less than 1 is passed
+     */
+    public void setLiveEntryUpdateCapacity(int liveEntryUpdateCapacity) {
+        if (liveEntryUpdateCapacity < 1) {
+            throw new IllegalArgumentException("Live entry update capacity must be at least 1");
+        }
+        this.liveEntryUpdateCapacity = liveEntryUpdateCapacity;
+    }
+
+    /**
+     * Indicates, if recurring entries are expanded on the server side.
+     *
+     * @return server side recurrence expansion enabled
+     * @see #setServerSideRecurrenceExpansionEnabled(boolean)
+     */
+    public boolean isServerSideRecurrenceExpansionEnabled() {
+        return serverSideRecurrenceExpansionEnabled;
+    }
+
+    /**
+     * Sets, if recurring entries shall be expanded on the server side. Disabled by default.
+     * <p></p>
+     * Normally the client expands every recurring entry (simple recurrences as well as {@link RRule}s) on every
+     * render. With long running rules and many excluded dates, this can make views sluggish on slow clients. When
+     * enabled, the fetched recurring entries are instead expanded into their occurrences inside the fetched range
+     * and sent to the client as plain entries, so the client's work depends on the visible occurrences only.
+     * <p></p>
+     * Each occurrence has a stable id built from the entry's id and the occurrence's start. Entry events of an
+     * occurrence (e.g. clicks or drops) are resolved to the recurring entry, the occurrence is available via
+     * {@link EntryEvent#getOccurrenceId()} and {@link EntryEvent#getOccurrenceStart()}. As with client side
+     * expansion, applying the changes of a dropped or resized occurrence changes the recurring entry.
+     * <p></p>
+     * Rules, that cannot be expanded on the server side (e.g. raw rules with unsupported parts like
+     * {@code BYSETPOS}), are still sent as recurring entries. Refreshing or live updating an expanded entry
+     * refetches all entries, since the client knows its occurrences only. Changing this setting refetches all entries.
+     *
+     * @param serverSideRecurrenceExpansionEnabled expand recurring entries on the server side
+     */
+    public void setServerSideRecurrenceExpansionEnabled(boolean serverSideRecurrenceExpansionEnabled) {
+        if (this.serverSideRecurrenceExpansionEnabled != serverSideRecurrenceExpansionEnabled) {
+            this.serverSideRecurrenceExpansionEnabled = serverSideRecurrenceExpansionEnabled;
+            requestRefreshAllEntries();
+        }
+    }
+
+    EntryChangeCoalescer getEntryChangeCoalescer() {
+        return entryChangeCoalescer;
+    }
+
+    private List<? extends Entry> fetchEntries(EntryQuery query) {
+        Optional<UI> ui = getUI();
+        if (entryFetchSharingEnabled && ui.isPresent() && query.getStart() != null && query.getEnd() != null) {
+            return EntryFetchCoordinator.get(ui.get()).fetch(this, entryProvider, query);
+        }
+
+        return entryProvider.fetch(query).collect(Collectors.toList());
+    }
+
+    /**
+     * Indicates, if entry fetches are shared with other calendars of the same UI using the same entry provider.
+     *
+     * @return fetch sharing is enabled
+     * @see #setEntryFetchSharingEnabled(boolean)
+     */
+    public boolean isEntryFetchSharingEnabled() {
+        return entryFetchSharingEnabled;
+    }
+
+    /**
+     * Sets, if entry fetches shall be shared with other calendars of the same UI using the same entry provider
+     * (e.g. a main calendar and a small month overview). Enabled by default. Only {@link EntryProvider#isShared()
+     * shared providers} can be set to multiple calendars, for instance a {@link SharedInMemoryEntryProvider}.
+     * <p></p>
+     * When enabled and the provider is in memory, a fetch of this calendar, whose range is covered by a fetch of
+     * another calendar in the same request cycle, is answered from that result instead of querying the entry
+     * provider again. When several of these calendars refetch their entries after a refresh, the provider is
+     * queried once for the union of their ranges. The result is filtered per calendar using
+     * {@link EntryQuery#applyFilter(java.util.stream.Stream)}. For other shared providers (e.g. a custom callback
+     * based one) only identical queries are shared, since they may apply a range differently.
+     *
+     * @param entryFetchSharingEnabled enable fetch sharing
+     */
+    public void setEntryFetchSharingEnabled(boolean entryFetchSharingEnabled) {
+        this.entryFetchSharingEnabled = entryFetchSharingEnabled;
+    }
+
+    LocalDateTime getLastFetchStart() {
+        EntryQuery query = lastFetchQuery;
+        return query != null ? query.getStart() : null;
+    }
+
+    LocalDateTime getLastFetchEnd() {
+        EntryQuery query = lastFetchQuery;
+        return query != null ? query.getEnd() : null;
+    }
+
+    /**
+     * Returns the query of the last entry fetch of the client. Might be called from any thread.
+     *
+     * @return last fetch query or empty, if the client has not fetched yet
+     */
+    Optional<EntryQuery> getLastFetchQuery() {
+        return Optional.ofNullable(lastFetchQuery);
+    }
+
+    boolean isEntryRefetchExpected() {
+        return entryRefetchExpected;
+    }
+
+    /**
+     * Converts the given entries to their json representation, keeping the order of the given list. When the
+     * amount of entries reaches the {@link #getParallelSerializationThreshold() threshold}, the list is split
+     * into chunks, that are serialized in parallel using the {@link #setEntrySerializationExecutor(Executor)
+     * serialization executor}.
+     * <p></p>
+     * The entries must not be modified while this method is running.
+     *
+     * @param entries entries to serialize
+     * @return json objects in the same order as the given entries
+     */
+    protected List<ObjectNode> serializeEntries(List<? extends Entry> entries) {
+        int size = entries.size();
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        if (parallelSerializationThreshold <= 0 || size < parallelSerializationThreshold || parallelism < 2) {
+            return entries.stream().map(Entry::toJson).collect(Collectors.toList());
+        }
+
+        Executor executor = getEntrySerializationExecutor();
+        int chunkSize = (size + parallelism - 1) / parallelism;
+
+        List<CompletableFuture<List<ObjectNode>>> chunks = new ArrayList<>(parallelism);
+        for (int from = 0; from < size; from += chunkSize) {
+            List<? extends Entry> chunk = entries.subList(from, Math.min(from + chunkSize, size));
+            chunks.add(CompletableFuture.supplyAsync(() -> {
+                List<ObjectNode> jsons = new ArrayList<>(chunk.size());
+                for (Entry entry : chunk) {
+                    jsons.add(entry.toJson());
+                }
+                return jsons;
+            }, executor));
+        }
+
+        List<ObjectNode> result = new ArrayList<>(size);
+        try {
+            for (CompletableFuture<List<ObjectNode>> chunk : chunks) {
+                result.addAll(chunk.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the amount of fetched entries, from which on the serialization is done in parallel.
+     * Default is {@link #DEFAULT_PARALLEL_SERIALIZATION_THRESHOLD}.
+     *
+     * @return threshold
+     * @see #setParallelSerializationThreshold(int)
+     */
+    public int getParallelSerializationThreshold() {
+        return parallelSerializationThreshold;
+    }
+
+    /**
+     * Sets the amount of fetched entries, from which on the json serialization of a fetch result is split
+     * into chunks and processed in parallel. The resulting order is always the one returned by the
+     * entry provider. Smaller results are serialized on the request thread, since the parallelization
+     * overhead would outweigh the gain.
+     * <p></p>
+     * Pass 0 or a negative value to disable parallel serialization.
+     *
+     * @param parallelSerializationThreshold threshold
+     */
+    public void setParallelSerializationThreshold(int parallelSerializationThreshold) {
+        this.parallelSerializationThreshold = parallelSerializationThreshold;
+    }
+
+    /**
+     * Returns the executor used for parallel serialization of large fetch results. Never null, returns the
+     * {@link ForkJoinPool#commonPool() common pool}, when no custom executor has been set.
+     *
+     * @return executor
+     */
+    public Executor getEntrySerializationExecutor() {
+        return entrySerializationExecutor != null ? entrySerializationExecutor : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Sets the executor used for parallel serialization of large fetch results (see
+     * {@link #setParallelSerializationThreshold(int)}). Passing null resets to the
+     * {@link ForkJoinPool#commonPool() common pool}.
+     * <p></p>
+     * The executor is not serialized with the component. After a session deserialization the common pool
+     * is used until a new executor is set.
+     *
+     * @param entrySerializationExecutor executor or null
+     */
+    public void setEntrySerializationExecutor(Executor entrySerializationExecutor) {
+        this.entrySerializationExecutor = entrySerializationExecutor;
+    }
+
     /**
      * Returns an entry with the given id from the last fetched set of entries. Returns an empty instance,
      * when there was no fetch yet or the id is unknown.
@@ -496,7 +1241,65 @@ public class FullCalendar extends Component implements HasStyle, HasSize, HasThe
      * @return cached entry from last fetch or empty
      */
     public Optional<Entry> getCachedEntryFromFetch(String id) {
-        return Optional.ofNullable(lastFetchedEntries.get(id));
+        return Optional.ofNullable(getLastFetchedEntry(id));
+    }
+
+    /**
+     * Returns the entry with the given id from the last fetch. Ids of occurrences expanded on the server side are
+     * resolved to their recurring entry.
+     */
+    private Entry getLastFetchedEntry(String id) {
+        Entry entry = lastFetchedEntries.get(id);
+        if (entry == null) {
+            RecurringEntryExpander.Occurrence occurrence = lastFetchedOccurrences.get(id);
+            if (occurrence != null) {
+                entry = lastFetchedEntries.get(occurrence.entryId());
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the occurrence with the given id, if it has been expanded on the server side in the last fetch.
+     *
+     * @param id occurrence id
+     * @return occurrence or empty
+     * @see #setServerSideRecurrenceExpansionEnabled(boolean)
+     */
+    Optional<RecurringEntryExpander.Occurrence> getCachedOccurrenceFromFetch(String id) {
+        return Optional.ofNullable(lastFetchedOccurrences.get(id));
+    }
+
+    /**
+     * Returns the entries with the given ids from the last fetched set of entries. Ids, that are not part of
+     * the last fetch, are looked up at once using {@link EntryProvider#fetchByIds(Collection)}. Unknown ids
+     * are not contained in the returned map.
+     * <p></p>
+     * This method is an internal method, intended to be used by entry based events only. Do not use it for
+     * any other purpose as the implementation or scope may change in future.
+     *
+     * @param ids ids
+     * @return entries mapped by their ids
+     */
+    public Map<String, Entry> getCachedEntriesFromFetch(Collection<String> ids) {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        List<String> missingIds = new ArrayList<>();
+        for (String id : ids) {
+            Entry entry = getLastFetchedEntry(id);
+            if (entry != null) {
+                entries.put(id, entry);
+            } else {
+                missingIds.add(id);
+            }
+        }
+
+        if (!missingIds.isEmpty()) {
+            try (Stream<? extends Entry> stream = entryProvider.fetchByIds(missingIds)) {
+                stream.forEach(entry -> entries.put(entry.getId(), entry));
+            }
+        }
+
+        return entries;
     }
 
     protected InMemoryEntryProvider<Entry> assureInMemoryProvider() {
@@ -1783,7 +2586,8 @@ public class FullCalendar extends Component implements HasStyle, HasSize, HasThe
 
             if (autoRevertUnappliedEntryChanges && !event.isRevertCheckScheduled()) {
                 event.markRevertCheckScheduled();
-                String entryId = event.getEntry().getId();
+                // the client knows the occurrence, if the recurrence has been expanded on the server side
+                String entryId = event.getOccurrenceId() != null ? event.getOccurrenceId() : event.getEntry().getId();
                 getElement().getNode().runWhenAttached(ui ->
                     ui.beforeClientResponse(this, ctx -> {
                         if (event.isChangesApplied()) {
@@ -2099,6 +2903,79 @@ public class FullCalendar extends Component implements HasStyle, HasSize, HasThe
         return addListener(EntryLeaveEvent.class, listener);
     }
 
+    // -------------------------------------------------------------------------
+    // Entry styles
+    // -------------------------------------------------------------------------
+
+    /**
+     * Registers the given shared entry styles. A style, that has the same id as an already registered one,
+     * replaces the old style. Entries reference a style via {@link Entry#setStyleId(String)}.
+     * <br><br>
+     * The styles are sent to the client once and applied there to each entry referencing them. Replacing
+     * a style updates all already rendered entries on the client without refetching them.
+     *
+     * @param styles styles to register
+     * @throws NullPointerException if null is passed
+     */
+    public void addEntryStyles(EntryStyle... styles) {
+        addEntryStyles(Arrays.asList(styles));
+    }
+
+    /**
+     * Registers the given shared entry styles. A style, that has the same id as an already registered one,
+     * replaces the old style.
+     *
+     * @param styles styles to register
+     * @throws NullPointerException if null is passed
+     * @see #addEntryStyles(EntryStyle...)
+     */
+    public void addEntryStyles(Collection<EntryStyle> styles) {
+        Objects.requireNonNull(styles, "styles must not be null");
+        styles.forEach(style -> entryStyles.put(Objects.requireNonNull(style).getId(), style));
+        updateEntryStylesOnClient();
+    }
+
+    /**
+     * Removes the style with the given id. Entries referencing that style will keep their style id, but
+     * are rendered without the style's properties. Noop for unknown ids.
+     *
+     * @param styleId style id
+     * @throws NullPointerException if null is passed
+     */
+    public void removeEntryStyle(String styleId) {
+        Objects.requireNonNull(styleId, "styleId must not be null");
+        if (entryStyles.remove(styleId) != null) {
+            updateEntryStylesOnClient();
+        }
+    }
+
+    /**
+     * Returns the registered style with the given id or an empty optional.
+     *
+     * @param styleId style id
+     * @return style or empty
+     */
+    public Optional<EntryStyle> getEntryStyle(String styleId) {
+        return Optional.ofNullable(entryStyles.get(styleId));
+    }
+
+    /**
+     * Returns an unmodifiable view of all registered entry styles.
+     *
+     * @return entry styles
+     */
+    public Collection<EntryStyle> getEntryStyles() {
+        return Collections.unmodifiableCollection(entryStyles.values());
+    }
+
+    private void updateEntryStylesOnClient() {
+        ObjectNode json = JsonFactory.createObject();
+        entryStyles.forEach((id, style) -> json.set(id, style.toJson()));
+
+        // the property is also used by the client on (re)attach, so no additional restore is needed
+        getElement().setPropertyJson("entryStyles", json);
+    }
+
     // -------------------------------------------------------------------------
     // Event source management
     // -------------------------------------------------------------------------
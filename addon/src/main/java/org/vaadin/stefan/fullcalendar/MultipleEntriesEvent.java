@@ -21,7 +21,7 @@ import lombok.Getter;
 import lombok.ToString;
 
 import java.util.Collection;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -50,16 +50,16 @@ public abstract class MultipleEntriesEvent extends ComponentEvent<FullCalendar>
             throw new IllegalArgumentException("IDs parameter must not be null nor empty");
         }
 
+        Map<String, Entry> entriesById = source.getCachedEntriesFromFetch(entryIds);
         this.entries = entryIds
                 .stream()
                 .map(id -> {
-                    Optional<Entry> entry = source.getCachedEntryFromFetch(id);
-                    if (!entry.isPresent()) {
+                    Entry entry = entriesById.get(id);
+                    if (entry == null) {
                         throw new IllegalArgumentException("No item found with id " + id);
                     }
                     return entry;
                 })
-                .map(Optional::get)
                 .collect(Collectors.toSet());
     }
 
@@ -16,6 +16,7 @@
  */
 package org.vaadin.stefan.fullcalendar;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import tools.jackson.databind.JsonNode;
@@ -29,9 +30,13 @@ import java.time.LocalDateTime;
 import java.time.Month;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents a recurrence rule (RRULE) for a calendar entry, compatible with the {@code @fullcalendar/rrule}
@@ -52,6 +57,9 @@ import java.util.stream.Stream;
  * <em>mutually exclusive</em> on a per-entry basis. Do not set both on the same entry.
  * <p>
  * Requires the {@code @fullcalendar/rrule} npm package and plugin to be loaded.
+ * <p>
+ * Rules can also be expanded on the server side, see {@link #occurrences(LocalDateTime, LocalDateTime, LocalDateTime)}.
+ * Raw rules are parsed for that purpose. Their parsed form is shared by all rules with the same raw string.
  *
  * @see <a href="https://fullcalendar.io/docs/rrule-plugin">FC rrule plugin documentation</a>
  */
@@ -167,6 +175,13 @@ public class RRule implements Serializable {
      */
     private List<RRule> excludedRules;
 
+    /**
+     * Compiled form of this rule, shared by all rules with the same rule text. Compiled on demand and reset
+     * by the fluent setters, since structured rules are mutable.
+     */
+    @Getter(AccessLevel.NONE)
+    private transient CompiledRRule compiled;
+
     private RRule() {
     }
 
@@ -220,7 +235,12 @@ public class RRule implements Serializable {
 
     /**
      * Creates a new RRule from a raw iCalendar RRULE string. The string will be sent directly to FC
-     * without any parsing. Useful for importing recurrence rules from external sources.
+     * as it is. Useful for importing recurrence rules from external sources.
+     * <p>
+     * On the server side the string is parsed into a compiled form, that is cached globally and shared by all
+     * raw rules with the same string, so importing many entries with the same rule parses it only once.
+     * Rules with parts not supported by the server side expansion (e.g. {@code BYSETPOS}) are still sent to
+     * the client, but cannot be expanded on the server side.
      * <p>
      * Example: {@code RRule.ofRaw("FREQ=WEEKLY;BYDAY=MO,WE;UNTIL=20231231T235959Z")}
      * If the source string includes the {@code RRULE:} prefix, strip it before passing to this method.
@@ -230,7 +250,8 @@ public class RRule implements Serializable {
      */
     public static RRule ofRaw(@NonNull String rawRRule) {
         RRule rrule = new RRule();
-        rrule.rawRRule = rawRRule;
+        rrule.compiled = CompiledRRule.ofRaw(rawRRule);
+        rrule.rawRRule = rrule.compiled.getText(); // share the string instance, too
         return rrule;
     }
 
@@ -242,7 +263,7 @@ public class RRule implements Serializable {
      */
     public RRule dtstart(String dtstart) {
         this.dtstart = dtstart;
-        return this;
+        return modified();
     }
 
     /**
@@ -253,7 +274,7 @@ public class RRule implements Serializable {
      */
     public RRule dtstart(LocalDateTime dtstart) {
         this.dtstart = dtstart != null ? dtstart.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null;
-        return this;
+        return modified();
     }
 
     /**
@@ -264,7 +285,7 @@ public class RRule implements Serializable {
      */
     public RRule dtstart(LocalDate dtstart) {
         this.dtstart = dtstart != null ? dtstart.format(DateTimeFormatter.ISO_LOCAL_DATE) : null;
-        return this;
+        return modified();
     }
 
     /**
@@ -275,7 +296,7 @@ public class RRule implements Serializable {
      */
     public RRule until(String until) {
         this.until = until;
-        return this;
+        return modified();
     }
 
     /**
@@ -286,7 +307,7 @@ public class RRule implements Serializable {
      */
     public RRule until(LocalDate until) {
         this.until = until != null ? until.format(DateTimeFormatter.ISO_LOCAL_DATE) : null;
-        return this;
+        return modified();
     }
 
     /**
@@ -297,7 +318,7 @@ public class RRule implements Serializable {
      */
     public RRule until(LocalDateTime until) {
         this.until = until != null ? until.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null;
-        return this;
+        return modified();
     }
 
     /**
@@ -308,7 +329,7 @@ public class RRule implements Serializable {
      */
     public RRule count(int count) {
         this.count = count;
-        return this;
+        return modified();
     }
 
     /**
@@ -319,7 +340,7 @@ public class RRule implements Serializable {
      */
     public RRule interval(int interval) {
         this.interval = interval;
-        return this;
+        return modified();
     }
 
     /**
@@ -334,7 +355,7 @@ public class RRule implements Serializable {
      */
     public RRule byWeekday(String... days) {
         this.byweekday = Arrays.asList(days);
-        return this;
+        return modified();
     }
 
     /**
@@ -346,7 +367,7 @@ public class RRule implements Serializable {
      */
     public RRule byWeekday(DayOfWeek... days) {
         this.byweekday = Stream.of(days).map(RRule::toRRuleDay).collect(Collectors.toList());
-        return this;
+        return modified();
     }
 
     /**
@@ -357,7 +378,7 @@ public class RRule implements Serializable {
      */
     public RRule byYearday(Integer... days) {
         this.byyearday = Arrays.asList(days);
-        return this;
+        return modified();
     }
 
     /**
@@ -369,7 +390,7 @@ public class RRule implements Serializable {
      */
     public RRule byMonth(Integer... months) {
         this.bymonth = Arrays.asList(months);
-        return this;
+        return modified();
     }
 
     /**
@@ -380,7 +401,7 @@ public class RRule implements Serializable {
      */
     public RRule byMonth(Month... months) {
         this.bymonth = Stream.of(months).map(Month::getValue).collect(Collectors.toList());
-        return this;
+        return modified();
     }
 
     /**
@@ -391,7 +412,7 @@ public class RRule implements Serializable {
      */
     public RRule byMonthday(Integer... days) {
         this.bymonthday = Arrays.asList(days);
-        return this;
+        return modified();
     }
 
     /**
@@ -402,7 +423,7 @@ public class RRule implements Serializable {
      */
     public RRule byHour(Integer... hours) {
         this.byhour = Arrays.asList(hours);
-        return this;
+        return modified();
     }
 
     /**
@@ -413,7 +434,7 @@ public class RRule implements Serializable {
      */
     public RRule byMinute(Integer... minutes) {
         this.byminute = Arrays.asList(minutes);
-        return this;
+        return modified();
     }
 
     /**
@@ -425,7 +446,7 @@ public class RRule implements Serializable {
      */
     public RRule weekStart(String wkst) {
         this.wkst = wkst;
-        return this;
+        return modified();
     }
 
     /**
@@ -436,7 +457,7 @@ public class RRule implements Serializable {
      */
     public RRule weekStart(DayOfWeek wkst) {
         this.wkst = toRRuleDay(wkst);
-        return this;
+        return modified();
     }
 
     /**
@@ -507,6 +528,53 @@ public class RRule implements Serializable {
         return this;
     }
 
+    /**
+     * Returns an iterator over all occurrences (start date times) of this rule in ascending order, including
+     * the {@link #excludeDates(List) excluded dates} and {@link #excludeRules(List) rules}. The occurrences are
+     * calculated lazily. Rules without {@link #count(int)} or {@link #until(String)} are infinite (up to the
+     * year 9999), so the iteration needs to be bounded by the caller.
+     * <p>
+     * See {@link RRuleIterator} for the supported subset and details on the expansion.
+     *
+     * @param defaultStart start of the recurrence, when the rule does not define a {@link #dtstart(String)},
+     *                     usually the entry's start. Can be null, when the rule has a dtstart.
+     * @return iterator over the occurrences
+     * @throws IllegalArgumentException when this rule cannot be expanded on the server side (e.g. unsupported
+     *                                  raw rule parts, missing frequency or start)
+     */
+    public Iterator<LocalDateTime> iterator(LocalDateTime defaultStart) {
+        return new RRuleIterator(this, defaultStart);
+    }
+
+    /**
+     * Returns the occurrences (start date times) of this rule, that lie in the given range, in ascending
+     * order. Periods before the range are skipped without expanding them, when the rule has no
+     * {@link #count(int)}.
+     *
+     * @param defaultStart start of the recurrence, when the rule does not define a {@link #dtstart(String)},
+     *                     usually the entry's start. Can be null, when the rule has a dtstart.
+     * @param from         inclusive range start or null for an unbounded start
+     * @param to           exclusive range end or null for an unbounded end
+     * @return occurrences in the given range
+     * @throws IllegalArgumentException when this rule cannot be expanded on the server side (e.g. unsupported
+     *                                  raw rule parts, missing frequency or start)
+     * @see #iterator(LocalDateTime)
+     */
+    public Stream<LocalDateTime> occurrences(LocalDateTime defaultStart, LocalDateTime from, LocalDateTime to) {
+        RRuleIterator iterator = new RRuleIterator(this, defaultStart);
+        iterator.skipTo(from);
+
+        Stream<LocalDateTime> stream = StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+        if (to != null) {
+            stream = stream.takeWhile(occurrence -> occurrence.isBefore(to));
+        }
+        if (from != null) {
+            stream = stream.filter(occurrence -> !occurrence.isBefore(from));
+        }
+        return stream;
+    }
+
     /**
      * Converts a {@link DayOfWeek} to the 2-letter lowercase string expected by the FC rrule plugin
      * (e.g. {@code MONDAY} → {@code "mo"}).
@@ -534,11 +602,38 @@ public class RRule implements Serializable {
      */
     public JsonNode toJson() {
         if (rawRRule != null || hasPositionalByWeekday()) {
-            return JsonUtils.toJsonNode(toRRuleString());
+            return compile().toJson();
         }
         return toJsonObject();
     }
 
+    /**
+     * Returns the compiled form of this rule. It is kept until the rule is modified by one of its fluent setters,
+     * so the global cache is only consulted for the first call after creation or a modification. Lists obtained
+     * by the getters must therefore not be modified.
+     *
+     * @return compiled rule
+     */
+    CompiledRRule compile() {
+        CompiledRRule result = compiled;
+        if (result == null) {
+            // e.g. after a modification or deserialization
+            result = rawRRule != null ? CompiledRRule.ofRaw(rawRRule) : CompiledRRule.of(this);
+            compiled = result;
+        }
+        return result;
+    }
+
+    /**
+     * Resets the compiled form after a modification of a part of the rule.
+     *
+     * @return this instance
+     */
+    private RRule modified() {
+        compiled = null;
+        return this;
+    }
+
     /**
      * Positional BYDAY tokens take the form {@code <sign><n><day>} (e.g. {@code "-1fr"}, {@code "2mo"}),
      * i.e. anything longer than the two-letter day abbreviation.
@@ -0,0 +1,452 @@
+package org.vaadin.stefan.fullcalendar;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+/**
+ * Lazily expands the occurrences of an {@link RRule} in ascending order, following RFC 5545 and the
+ * behavior of the rrule.js library used by the {@code @fullcalendar/rrule} plugin. Supported are
+ * {@code freq} (yearly, monthly, weekly, daily), {@code interval}, {@code count}, {@code until},
+ * {@code byweekday} (including ordinals like {@code "-1fr"} for monthly and yearly rules), {@code bymonth},
+ * {@code bymonthday}, {@code byyearday}, {@code byhour}, {@code byminute} and {@code wkst} as well as
+ * the excluded dates and rules of the rule. Raw rules are supported as far as they consist of these parts, see
+ * {@link CompiledRRule}.
+ * <p></p>
+ * Each period of the frequency (e.g. a month for monthly rules) is expanded into its matching days, which are then
+ * combined with the hours and minutes. Missing by-rules default to the respective part of the start
+ * (e.g. the day of month for monthly rules). A date-only {@code until} is interpreted as the start of that day,
+ * like the client does. Excluded dates remove all occurrences on that date, excluded rules remove occurrences
+ * with the exact same date time. Excluded occurrences still count for {@code count}.
+ * <p></p>
+ * Date times are handled without timezone (i.e. in UTC for entries, see {@link Entry#getStart()}).
+ *
+ * @author Stefan Uebe
+ */
+final class RRuleIterator implements Iterator<LocalDateTime> {
+
+    /**
+     * Stops the expansion of rules, that cannot produce any further occurrence (e.g. the 30th of February).
+     */
+    private static final int MAX_EMPTY_PERIODS = 10_000;
+
+    /**
+     * Last year to expand, as in rrule.js.
+     */
+    private static final int MAX_YEAR = 9999;
+
+    private final RRule.Frequency freq;
+    private final int interval;
+    private final Integer count;
+    private final LocalDateTime until;
+    private final LocalDateTime dtstart;
+
+    private final Set<Integer> byMonth;
+    private final Set<Integer> byMonthDay;
+    private final Set<Integer> byYearDay;
+    private final Set<DayOfWeek> byWeekday;
+    private final List<NthWeekday> byNthWeekday;
+    private final int[] hours;
+    private final int[] minutes;
+
+    private final Set<LocalDate> excludedDates;
+    private final List<PeekingIterator> excludedRules = new ArrayList<>();
+
+    private final Deque<LocalDateTime> buffer = new ArrayDeque<>();
+    private LocalDate periodStart;
+    private int produced;
+    private boolean exhausted;
+    private LocalDateTime next;
+
+    /**
+     * Creates a new iterator for the given rule.
+     *
+     * @param rule         rule
+     * @param defaultStart start to use, when the rule does not define a dtstart (e.g. the entry's start)
+     * @throws IllegalArgumentException when the rule cannot be expanded (unsupported rule parts, missing frequency
+     *                                  or start, unparsable values)
+     */
+    RRuleIterator(RRule rule, LocalDateTime defaultStart) {
+        CompiledRRule compiled = rule.compile();
+        if (!compiled.isExpandable()) {
+            throw new IllegalArgumentException(compiled.getUnsupportedReason());
+        }
+
+        freq = compiled.getFreq();
+        dtstart = compiled.getDtstart() != null ? compiled.getDtstart() : defaultStart;
+        if (dtstart == null) {
+            throw new IllegalArgumentException("RRule without dtstart and default start cannot be expanded");
+        }
+
+        interval = compiled.getInterval();
+        count = compiled.getCount();
+        until = compiled.getUntil();
+        DayOfWeek weekStart = compiled.getWeekStart();
+
+        Set<DayOfWeek> weekdays = null;
+        List<NthWeekday> nthWeekdays = null;
+        if (compiled.getByWeekday() != null) {
+            weekdays = EnumSet.noneOf(DayOfWeek.class);
+            nthWeekdays = new ArrayList<>();
+            for (NthWeekday parsed : compiled.getByWeekday()) {
+                // ordinals are only meaningful for monthly and yearly rules
+                if (parsed.n() == 0 || (freq != RRule.Frequency.MONTHLY && freq != RRule.Frequency.YEARLY)) {
+                    weekdays.add(parsed.day());
+                } else {
+                    nthWeekdays.add(parsed);
+                }
+            }
+        }
+
+        Set<Integer> months = compiled.getByMonth();
+        Set<Integer> monthDays = compiled.getByMonthDay();
+        Set<Integer> yearDays = compiled.getByYearDay();
+
+        if (weekdays == null && monthDays == null && yearDays == null) {
+            switch (freq) {
+                case YEARLY -> {
+                    if (months == null) {
+                        months = Set.of(dtstart.getMonthValue());
+                    }
+                    monthDays = Set.of(dtstart.getDayOfMonth());
+                }
+                case MONTHLY -> monthDays = Set.of(dtstart.getDayOfMonth());
+                case WEEKLY -> weekdays = EnumSet.of(dtstart.getDayOfWeek());
+                default -> {
+                }
+            }
+        }
+
+        byMonth = months;
+        byMonthDay = monthDays;
+        byYearDay = yearDays;
+        byWeekday = weekdays;
+        byNthWeekday = nthWeekdays == null || nthWeekdays.isEmpty() ? null : nthWeekdays;
+        hours = toSortedArray(compiled.getByHour(), dtstart.getHour());
+        minutes = toSortedArray(compiled.getByMinute(), dtstart.getMinute());
+
+        excludedDates = rule.getExcludedDates() != null ? new HashSet<>(rule.getExcludedDates()) : Set.of();
+        if (rule.getExcludedRules() != null) {
+            for (RRule excludedRule : rule.getExcludedRules()) {
+                if (excludedRule != null) {
+                    excludedRules.add(new PeekingIterator(new RRuleIterator(excludedRule, dtstart)));
+                }
+            }
+        }
+
+        periodStart = switch (freq) {
+            case YEARLY -> dtstart.toLocalDate().withDayOfYear(1);
+            case MONTHLY -> dtstart.toLocalDate().withDayOfMonth(1);
+            case WEEKLY -> dtstart.toLocalDate().with(TemporalAdjusters.previousOrSame(weekStart));
+            case DAILY -> dtstart.toLocalDate();
+        };
+    }
+
+    /**
+     * Skips all periods ending before the given date time. Only possible for rules without count, since
+     * otherwise all previous occurrences have to be counted. Must be called before the first call of
+     * {@link #next()}.
+     *
+     * @param from date time
+     */
+    void skipTo(LocalDateTime from) {
+        if (count != null || from == null || !from.isAfter(dtstart)) {
+            return;
+        }
+
+        long periods = switch (freq) {
+            case YEARLY -> ChronoUnit.YEARS.between(periodStart, from.toLocalDate());
+            case MONTHLY -> ChronoUnit.MONTHS.between(periodStart, from.toLocalDate());
+            case WEEKLY -> ChronoUnit.WEEKS.between(periodStart, from.toLocalDate());
+            case DAILY -> ChronoUnit.DAYS.between(periodStart, from.toLocalDate());
+        };
+
+        long steps = periods / interval;
+        if (steps > 0) {
+            periodStart = advance(periodStart, steps * interval);
+        }
+
+        for (PeekingIterator excludedRule : excludedRules) {
+            excludedRule.iterator.skipTo(from);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && !exhausted) {
+            LocalDateTime candidate = nextCandidate();
+            if (candidate != null && !isExcluded(candidate)) {
+                next = candidate;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public LocalDateTime next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        LocalDateTime result = next;
+        next = null;
+        return result;
+    }
+
+    /**
+     * Returns the next occurrence including excluded ones or null, if the rule is exhausted.
+     */
+    private LocalDateTime nextCandidate() {
+        int emptyPeriods = 0;
+        while (buffer.isEmpty()) {
+            if (emptyPeriods++ > MAX_EMPTY_PERIODS || periodStart.getYear() > MAX_YEAR) {
+                exhausted = true;
+                return null;
+            }
+            expandPeriod();
+        }
+
+        LocalDateTime candidate = buffer.poll();
+        if ((until != null && candidate.isAfter(until)) || (count != null && produced >= count)) {
+            exhausted = true;
+            buffer.clear();
+            return null;
+        }
+
+        produced++;
+        return candidate;
+    }
+
+    private void expandPeriod() {
+        LocalDate periodEnd = advance(periodStart, 1);
+        for (LocalDate day = periodStart; day.isBefore(periodEnd); day = day.plusDays(1)) {
+            if (matches(day)) {
+                for (int hour : hours) {
+                    for (int minute : minutes) {
+                        LocalDateTime occurrence = day.atTime(hour, minute, dtstart.getSecond());
+                        if (!occurrence.isBefore(dtstart)) {
+                            buffer.add(occurrence);
+                        }
+                    }
+                }
+            }
+        }
+
+        periodStart = advance(periodStart, interval);
+    }
+
+    private LocalDate advance(LocalDate date, long amount) {
+        return switch (freq) {
+            case YEARLY -> date.plusYears(amount);
+            case MONTHLY -> date.plusMonths(amount);
+            case WEEKLY -> date.plusWeeks(amount);
+            case DAILY -> date.plusDays(amount);
+        };
+    }
+
+    private boolean matches(LocalDate day) {
+        if (byMonth != null && !byMonth.contains(day.getMonthValue())) {
+            return false;
+        }
+
+        if (byMonthDay != null && !matchesIndex(byMonthDay, day.getDayOfMonth(), day.lengthOfMonth())) {
+            return false;
+        }
+
+        if (byYearDay != null && !matchesIndex(byYearDay, day.getDayOfYear(), day.lengthOfYear())) {
+            return false;
+        }
+
+        if (byWeekday != null || byNthWeekday != null) {
+            boolean weekdayMatches = byWeekday != null && byWeekday.contains(day.getDayOfWeek());
+            if (!weekdayMatches && byNthWeekday != null) {
+                weekdayMatches = matchesNthWeekday(day);
+            }
+            return weekdayMatches;
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks, if the given 1-based position within a scope of the given length is contained in the given
+     * values. Negative values count from the end (-1 is the last position).
+     */
+    private static boolean matchesIndex(Set<Integer> values, int position, int length) {
+        return values.contains(position) || values.contains(position - length - 1);
+    }
+
+    /**
+     * Ordinal weekdays are relative to the month for monthly rules and yearly rules with bymonth, otherwise
+     * relative to the year.
+     */
+    private boolean matchesNthWeekday(LocalDate day) {
+        boolean monthScope = freq == RRule.Frequency.MONTHLY || byMonth != null;
+        int position = monthScope ? day.getDayOfMonth() : day.getDayOfYear();
+        int length = monthScope ? day.lengthOfMonth() : day.lengthOfYear();
+
+        int fromStart = (position - 1) / 7 + 1;
+        int fromEnd = -((length - position) / 7 + 1);
+
+        for (NthWeekday nth : byNthWeekday) {
+            if (nth.day() == day.getDayOfWeek() && (nth.n() == fromStart || nth.n() == fromEnd)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isExcluded(LocalDateTime candidate) {
+        if (excludedDates.contains(candidate.toLocalDate())) {
+            return true;
+        }
+
+        for (PeekingIterator excludedRule : excludedRules) {
+            if (excludedRule.skipBefore(candidate) && excludedRule.peek().equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] toSortedArray(List<Integer> values, int defaultValue) {
+        if (values == null || values.isEmpty()) {
+            return new int[]{defaultValue};
+        }
+        return values.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+    }
+
+    /**
+     * Parses weekday tokens like {@code "mo"}, {@code "-1fr"} or {@code "+2TU"}.
+     */
+    static NthWeekday parseWeekday(String token) {
+        if (token == null || token.length() < 2) {
+            throw new IllegalArgumentException("Invalid weekday: " + token);
+        }
+
+        String trimmed = token.trim();
+        DayOfWeek day = parseDay(trimmed.substring(trimmed.length() - 2));
+        String ordinal = trimmed.substring(0, trimmed.length() - 2);
+        try {
+            int n = ordinal.isEmpty() ? 0 : Integer.parseInt(ordinal.startsWith("+") ? ordinal.substring(1) : ordinal);
+            return new NthWeekday(n, day);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid weekday: " + token, e);
+        }
+    }
+
+    static DayOfWeek parseDay(String token) {
+        return switch (token.trim().toLowerCase()) {
+            case "mo" -> DayOfWeek.MONDAY;
+            case "tu" -> DayOfWeek.TUESDAY;
+            case "we" -> DayOfWeek.WEDNESDAY;
+            case "th" -> DayOfWeek.THURSDAY;
+            case "fr" -> DayOfWeek.FRIDAY;
+            case "sa" -> DayOfWeek.SATURDAY;
+            case "su" -> DayOfWeek.SUNDAY;
+            default -> throw new IllegalArgumentException("Invalid weekday: " + token);
+        };
+    }
+
+    /**
+     * Indicates, if the given date (time) defines an absolute point in time, i.e. it is UTC based ("Z" suffix)
+     * or has an offset. Other values are local (floating) date times.
+     *
+     * @param value value or null
+     * @return is absolute
+     */
+    static boolean isAbsoluteDateTime(String value) {
+        if (value == null || value.isBlank()) {
+            return false;
+        }
+
+        String trimmed = value.trim();
+        if (trimmed.endsWith("Z") || trimmed.endsWith("z")) {
+            return true;
+        }
+
+        int timeIndex = trimmed.indexOf('T');
+        return trimmed.length() > 4 && trimmed.charAt(4) == '-' && timeIndex > 0
+                && (trimmed.indexOf('+', timeIndex) > 0 || trimmed.indexOf('-', timeIndex) > 0);
+    }
+
+    /**
+     * Parses ISO 8601 ("2025-03-01", "2025-03-01T10:00:00", "2025-03-01T10:00:00Z",
+     * "2025-03-01T10:00:00+02:00") or iCalendar ("20250301", "20250301T100000Z") date (times). Offsets are
+     * converted to UTC. A date is interpreted as the start of that day.
+     *
+     * @param value value or null
+     * @return parsed date time or null for null
+     * @throws IllegalArgumentException for unknown formats
+     */
+    static LocalDateTime parseDateTime(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+
+        String trimmed = value.trim();
+        try {
+            if (trimmed.length() > 4 && trimmed.charAt(4) == '-') {
+                if (trimmed.length() == 10) {
+                    return LocalDate.parse(trimmed).atStartOfDay();
+                }
+                if (trimmed.endsWith("Z") || trimmed.endsWith("z")) {
+                    return LocalDateTime.parse(trimmed.substring(0, trimmed.length() - 1));
+                }
+                int timeIndex = trimmed.indexOf('T');
+                if (timeIndex > 0 && (trimmed.indexOf('+', timeIndex) > 0 || trimmed.indexOf('-', timeIndex) > 0)) {
+                    return OffsetDateTime.parse(trimmed).withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime();
+                }
+                return LocalDateTime.parse(trimmed);
+            }
+
+            String basic = trimmed.endsWith("Z") || trimmed.endsWith("z") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+            LocalDate date = LocalDate.of(Integer.parseInt(basic.substring(0, 4)),
+                    Integer.parseInt(basic.substring(4, 6)),
+                    Integer.parseInt(basic.substring(6, 8)));
+            if (basic.length() == 8) {
+                return date.atStartOfDay();
+            }
+            if (basic.length() == 15 && (basic.charAt(8) == 'T' || basic.charAt(8) == 't')) {
+                return date.atTime(Integer.parseInt(basic.substring(9, 11)),
+                        Integer.parseInt(basic.substring(11, 13)),
+                        Integer.parseInt(basic.substring(13, 15)));
+            }
+        } catch (DateTimeException | NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid date time: " + value, e);
+        }
+
+        throw new IllegalArgumentException("Invalid date time: " + value);
+    }
+
+    record NthWeekday(int n, DayOfWeek day) {
+    }
+
+    private static final class PeekingIterator {
+        private final RRuleIterator iterator;
+        private LocalDateTime peeked;
+
+        private PeekingIterator(RRuleIterator iterator) {
+            this.iterator = iterator;
+        }
+
+        /**
+         * Skips all values before the given one. Returns false, if there is no value left.
+         */
+        boolean skipBefore(LocalDateTime value) {
+            while (peeked == null || peeked.isBefore(value)) {
+                if (!iterator.hasNext()) {
+                    peeked = null;
+                    return false;
+                }
+                peeked = iterator.next();
+            }
+            return true;
+        }
+
+        LocalDateTime peek() {
+            return peeked;
+        }
+    }
+}
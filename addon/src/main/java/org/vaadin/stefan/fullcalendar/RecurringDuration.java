@@ -0,0 +1,93 @@
+package org.vaadin.stefan.fullcalendar;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * A parsed FC duration as used by {@link Entry#setRecurringDuration(String)}. The FC accepts ISO 8601 durations
+ * (e.g. "P1M", "P3D", "PT2H" or "P1DT12H") and time strings ("hh:mm[:ss]"). The date based part is kept as a
+ * {@link Period} and added in calendar units (so a month is as long as the month it is added to), the time based
+ * part as a {@link Duration}.
+ * <p></p>
+ * Used on the server side to determine the occurrences of recurring entries.
+ */
+@Getter
+@EqualsAndHashCode
+public final class RecurringDuration implements Serializable {
+
+    /**
+     * Days used per month for {@link #getMaximumLength()}, the length of the longest months.
+     */
+    private static final int MAX_DAYS_PER_MONTH = 31;
+
+    private final Period period;
+    private final Duration time;
+
+    private RecurringDuration(Period period, Duration time) {
+        this.period = period;
+        this.time = time;
+    }
+
+    /**
+     * Parses the given FC duration string. Returns null, when the format is not supported.
+     *
+     * @param value duration string
+     * @return parsed duration or null
+     * @throws NullPointerException when null is passed
+     */
+    public static RecurringDuration parse(String value) {
+        String trimmed = Objects.requireNonNull(value, "value").trim().toUpperCase(Locale.ROOT);
+        try {
+            if (trimmed.startsWith("P")) {
+                int timeIndex = trimmed.indexOf('T');
+                if (timeIndex < 0) {
+                    return new RecurringDuration(Period.parse(trimmed), Duration.ZERO);
+                }
+
+                Period period = timeIndex > 1 ? Period.parse(trimmed.substring(0, timeIndex)) : Period.ZERO;
+                return new RecurringDuration(period, Duration.parse("P" + trimmed.substring(timeIndex)));
+            }
+
+            String[] parts = trimmed.split(":");
+            if (parts.length >= 2 && parts.length <= 3) {
+                long seconds = Long.parseLong(parts[0]) * 3600 + Long.parseLong(parts[1]) * 60;
+                if (parts.length == 3) {
+                    seconds += (long) Double.parseDouble(parts[2]);
+                }
+                return new RecurringDuration(Period.ZERO, Duration.ofSeconds(seconds));
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+
+        return null;
+    }
+
+    /**
+     * Adds this duration to the given date time. The date based part is added first, in calendar units.
+     *
+     * @param dateTime date time
+     * @return date time plus this duration
+     */
+    public LocalDateTime addTo(LocalDateTime dateTime) {
+        return dateTime.plus(period).plus(time);
+    }
+
+    /**
+     * Returns the maximum length of this duration, independent of the date it is added to. Each month is
+     * counted with 31 days.
+     *
+     * @return maximum length
+     */
+    public Duration getMaximumLength() {
+        return time.plusDays(period.toTotalMonths() * MAX_DAYS_PER_MONTH + period.getDays());
+    }
+}
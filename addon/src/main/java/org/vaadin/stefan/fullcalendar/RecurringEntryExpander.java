@@ -0,0 +1,224 @@
+package org.vaadin.stefan.fullcalendar;
+
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.Serializable;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Expands recurring entries on the server side into their single occurrences inside a fetched range, see
+ * {@link FullCalendar#setServerSideRecurrenceExpansionEnabled(boolean)}. Each occurrence is sent to the client
+ * as a plain, non recurring event. Its id is built from the entry's id and the occurrence's start, so it
+ * stays the same over multiple fetches.
+ * <p></p>
+ * RRules with a local dtstart (or without a dtstart, where the client uses the entry's start as a local one) are
+ * expanded in the calendar's timezone, since the client interprets them as wall clock times. RRules with a UTC
+ * based dtstart are expanded in UTC (see {@link RRule#occurrences(LocalDateTime, LocalDateTime, LocalDateTime)}).
+ * Simple recurrences (days of week, start and end time) are expanded based on the calendar's timezone, too. Entries, that cannot be expanded (e.g. unsupported rrule parts or
+ * unknown durations), are not expanded and left to the client.
+ *
+ * @author Stefan Uebe
+ */
+final class RecurringEntryExpander {
+
+    /**
+     * Separates the entry id and the occurrence start in an occurrence id.
+     */
+    static final String OCCURRENCE_ID_SEPARATOR = "@";
+
+    /**
+     * Client side properties, that define the recurrence. They are not part of an occurrence.
+     */
+    private static final Set<String> RECURRENCE_PROPERTIES = Set.of("rrule", "exdate", "exrule", "daysOfWeek",
+            "startRecur", "endRecur", "startTime", "endTime", "duration");
+
+    /**
+     * Occurrences without an end are shown by the client with its default duration, which is one day at most
+     * (for all day entries). So occurrences starting up to this amount of days before a range may overlap it.
+     */
+    private static final int DEFAULT_DURATION_LOOK_BACK_DAYS = 1;
+
+    /**
+     * Days added on both sides of a range, when converting it to the calendar's timezone for expanding an RRule
+     * with local times. Covers changing offsets (e.g. daylight saving time), occurrences are checked against
+     * the UTC based range afterwards.
+     */
+    private static final int OFFSET_CHANGE_SLACK_DAYS = 1;
+
+    /**
+     * A single occurrence of a recurring entry. Start and end are UTC based, the end is null, when the
+     * occurrence has no explicit end.
+     */
+    record Occurrence(String id, String entryId, LocalDateTime start, LocalDateTime end) implements Serializable {
+    }
+
+    private RecurringEntryExpander() {
+    }
+
+    /**
+     * Returns the id of the occurrence of the given entry starting at the given date time.
+     *
+     * @param entryId id of the recurring entry
+     * @param start   UTC based start of the occurrence
+     * @return occurrence id
+     */
+    static String toOccurrenceId(String entryId, LocalDateTime start) {
+        return entryId + OCCURRENCE_ID_SEPARATOR + start;
+    }
+
+    /**
+     * Returns the occurrences of the given recurring entry, that overlap the given range. Returns null, when
+     * the entry cannot be expanded on the server side or the range is unbounded.
+     *
+     * @param entry      recurring entry
+     * @param rangeStart UTC based range start
+     * @param rangeEnd   UTC based range end (exclusive)
+     * @param timezone   timezone of the calendar
+     * @return occurrences in ascending order or null
+     */
+    static List<Occurrence> expand(Entry entry, LocalDateTime rangeStart, LocalDateTime rangeEnd, Timezone timezone) {
+        if (rangeStart == null || rangeEnd == null || !entry.isRecurring()) {
+            return null;
+        }
+
+        RecurringDuration duration = null;
+        if (entry.getRecurringDuration() != null) {
+            duration = RecurringDuration.parse(entry.getRecurringDuration());
+            if (duration == null) {
+                return null;
+            }
+        }
+
+        RRule rrule = entry.getRRule();
+        return rrule != null
+                ? expand(entry, rrule, duration, rangeStart, rangeEnd, timezone)
+                : expandSimpleRecurrence(entry, duration, rangeStart, rangeEnd, timezone);
+    }
+
+    private static List<Occurrence> expand(Entry entry, RRule rrule, RecurringDuration duration, LocalDateTime rangeStart, LocalDateTime rangeEnd, Timezone timezone) {
+        LocalDateTime start = entry.getStart();
+        LocalDateTime end = entry.getEnd();
+        Duration entryDuration = duration == null && start != null && end != null && end.isAfter(start)
+                ? Duration.between(start, end)
+                : null;
+
+        // occurrences starting before the range might still overlap it. The maximum length of a duration
+        // covers occurrences with longer months than the ones following the range start
+        LocalDateTime lookBack = rangeStart.minusDays(DEFAULT_DURATION_LOOK_BACK_DAYS);
+        if (duration != null) {
+            lookBack = lookBack.minus(duration.getMaximumLength());
+        } else if (entryDuration != null) {
+            lookBack = lookBack.minus(entryDuration);
+        }
+
+        List<Occurrence> occurrences = new ArrayList<>();
+        try {
+            // all day occurrences are dates, that do not depend on a timezone
+            if (entry.isAllDay() || rrule.compile().isUtcStart() || timezone == null || timezone.equals(Timezone.UTC)) {
+                rrule.occurrences(start, lookBack, rangeEnd).forEach(occurrenceStart -> {
+                    LocalDateTime occurrenceEnd = duration != null
+                            ? duration.addTo(occurrenceStart)
+                            : entryDuration != null ? occurrenceStart.plus(entryDuration) : null;
+                    addIfOverlapping(occurrences, entry, occurrenceStart, occurrenceEnd, rangeStart, rangeEnd);
+                });
+            } else {
+                // the rule is expanded in wall clock times, the occurrences are converted back to UTC
+                LocalDateTime localFrom = timezone.applyTimezoneOffset(lookBack).minusDays(OFFSET_CHANGE_SLACK_DAYS);
+                LocalDateTime localTo = timezone.applyTimezoneOffset(rangeEnd).plusDays(OFFSET_CHANGE_SLACK_DAYS);
+                rrule.occurrences(start, localFrom, localTo).forEach(localStart -> {
+                    LocalDateTime occurrenceStart = timezone.removeTimezoneOffset(localStart);
+                    LocalDateTime occurrenceEnd = duration != null
+                            ? timezone.removeTimezoneOffset(duration.addTo(localStart))
+                            : entryDuration != null ? occurrenceStart.plus(entryDuration) : null;
+                    addIfOverlapping(occurrences, entry, occurrenceStart, occurrenceEnd, rangeStart, rangeEnd);
+                });
+            }
+        } catch (IllegalArgumentException e) {
+            return null; // e.g. unsupported raw rule parts, the client expands it
+        }
+        return occurrences;
+    }
+
+    private static List<Occurrence> expandSimpleRecurrence(Entry entry, RecurringDuration duration, LocalDateTime rangeStart, LocalDateTime rangeEnd, Timezone timezone) {
+        Set<DayOfWeek> daysOfWeek = entry.getRecurringDaysOfWeek();
+        LocalDate startRecur = entry.getRecurringStartDate();
+        LocalDate endRecur = entry.getRecurringEndDate(); // exclusive as on the client
+
+        // an occurrence might span several days, so start with the earliest date, whose occurrence may overlap
+        LocalDate firstDate = timezone.applyTimezoneOffset(rangeStart).toLocalDate();
+        Occurrence probe = createSimpleOccurrence(entry, duration, firstDate, timezone);
+        LocalDateTime probeEnd = probe.end() != null ? probe.end() : probe.start();
+        firstDate = firstDate.minusDays(Duration.between(firstDate.atStartOfDay(), probeEnd).toDays() + 1);
+        LocalDate lastDate = timezone.applyTimezoneOffset(rangeEnd).toLocalDate();
+
+        List<Occurrence> occurrences = new ArrayList<>();
+        for (LocalDate date = firstDate; !date.isAfter(lastDate); date = date.plusDays(1)) {
+            if ((daysOfWeek == null || daysOfWeek.isEmpty() || daysOfWeek.contains(date.getDayOfWeek()))
+                    && (startRecur == null || !date.isBefore(startRecur))
+                    && (endRecur == null || date.isBefore(endRecur))) {
+                Occurrence occurrence = createSimpleOccurrence(entry, duration, date, timezone);
+                addIfOverlapping(occurrences, entry, occurrence.start(), occurrence.end(), rangeStart, rangeEnd);
+            }
+        }
+        return occurrences;
+    }
+
+    private static Occurrence createSimpleOccurrence(Entry entry, RecurringDuration duration, LocalDate date, Timezone timezone) {
+        if (entry.isAllDay()) {
+            LocalDateTime start = date.atStartOfDay();
+            return new Occurrence(null, entry.getId(), start, duration != null ? duration.addTo(start) : null);
+        }
+
+        LocalDateTime start = timezone.removeTimezoneOffset(atTime(date, entry.getRecurringStartTime()));
+        LocalDateTime end = null;
+        if (entry.getRecurringEndTime() != null) {
+            end = timezone.removeTimezoneOffset(atTime(date, entry.getRecurringEndTime()));
+        } else if (duration != null) {
+            end = duration.addTo(start);
+        }
+        return new Occurrence(null, entry.getId(), start, end);
+    }
+
+    private static LocalDateTime atTime(LocalDate date, RecurringTime time) {
+        LocalDateTime dateTime = date.atStartOfDay();
+        return time != null ? dateTime.plusHours(time.getHour()).plusMinutes(time.getMinute()) : dateTime;
+    }
+
+    /**
+     * Adds the occurrence, if it overlaps the range. Occurrences without an end use the client's default
+     * durations (one day for all day entries, one hour for timed ones).
+     */
+    private static void addIfOverlapping(List<Occurrence> occurrences, Entry entry, LocalDateTime start, LocalDateTime end,
+                                         LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+        LocalDateTime effectiveEnd = end != null && end.isAfter(start) ? end
+                : entry.isAllDay() ? start.plusDays(1) : start.plusHours(1);
+
+        if (start.isBefore(rangeEnd) && effectiveEnd.isAfter(rangeStart)) {
+            occurrences.add(new Occurrence(toOccurrenceId(entry.getId(), start), entry.getId(), start, end));
+        }
+    }
+
+    /**
+     * Creates the client side representation of the given occurrence based on the json of its entry.
+     *
+     * @param entryJson  json of the recurring entry, not modified
+     * @param occurrence occurrence
+     * @return json of the occurrence
+     */
+    static ObjectNode toJson(ObjectNode entryJson, Occurrence occurrence) {
+        ObjectNode json = entryJson.deepCopy();
+        RECURRENCE_PROPERTIES.forEach(json::remove);
+
+        json.put(Entry.Fields.ID, occurrence.id());
+        json.set(Entry.Fields.START, JsonUtils.toJsonNode(JsonUtils.formatClientSideDateTimeString(occurrence.start())));
+        if (occurrence.end() != null) {
+            json.set(Entry.Fields.END, JsonUtils.toJsonNode(JsonUtils.formatClientSideDateTimeString(occurrence.end())));
+        } else {
+            json.remove(Entry.Fields.END);
+        }
+        return json;
+    }
+}
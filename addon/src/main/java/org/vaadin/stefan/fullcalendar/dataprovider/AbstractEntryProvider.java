@@ -1,5 +1,6 @@
 package org.vaadin.stefan.fullcalendar.dataprovider;
 
+import com.vaadin.flow.function.SerializableBiConsumer;
 import com.vaadin.flow.function.SerializableConsumer;
 import com.vaadin.flow.shared.Registration;
 import lombok.Getter;
@@ -8,16 +9,36 @@ import org.vaadin.stefan.fullcalendar.FullCalendar;
 import org.vaadin.stefan.fullcalendar.dataprovider.EntriesChangeEvent.EntriesChangeListener;
 import org.vaadin.stefan.fullcalendar.dataprovider.EntryRefreshEvent.EntryRefreshListener;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
 import java.util.*;
-import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * Abstract base implementation of the {@link EntryProvider} interface.
+ * Abstract base implementation of the {@link EntryProvider} interface. Listener registration and event
+ * dispatching are thread safe, so events might be fired from any thread.
+ * <p></p>
+ * Listeners are indexed by their event type. The listener lists to notify for a certain event class are resolved
+ * once and cached, so firing an event is O(listeners) independent of the amount of registered event types.
+ * Listeners might be registered weakly for an owner (e.g. a calendar), so that a provider outliving its calendars
+ * (e.g. a shared one) does not keep them from being garbage collected.
  * @author Stefan Uebe
  */
 public abstract class AbstractEntryProvider<T extends Entry> implements EntryProvider<T> {
 
-    private final Map<Class<?>, List<SerializableConsumer<?>>> listeners = new HashMap<>();
+    /**
+     * Listener lists per registered event type. Lists are never removed, only added (guarded by the map itself).
+     */
+    private final Map<Class<?>, List<Listener>> listeners = new HashMap<>();
+
+    /**
+     * Resolves the listener lists for a fired event class. Recreated, when a new event type is registered.
+     */
+    private transient volatile Dispatcher dispatcher;
 
     @Getter
     private FullCalendar calendar;
@@ -45,9 +66,41 @@ public abstract class AbstractEntryProvider<T extends Entry> implements EntryPro
      * @return a registration for the listener
      */
     protected <E> Registration addListener(Class<E> eventType, SerializableConsumer<E> method) {
-        List<SerializableConsumer<?>> list = listeners.computeIfAbsent(eventType, key -> new ArrayList<>());
+        return register(eventType, new StrongListener(method));
+    }
+
+    /**
+     * Registers a new listener, that only weakly references the given owner. The listener is removed automatically,
+     * when the owner has been garbage collected. The method is called with the owner and the event and thus
+     * must not reference the owner itself (e.g. by using a lambda calling an instance method of the owner), since
+     * that would prevent it from being collected.
+     *
+     * @param eventType the type of the listened event. Events of this type or its
+     *                  subclasses activate the listener.
+     * @param owner     the owner of the listener
+     * @param method    the consumer to receive the owner and the event.
+     * @param <E>       the event type
+     * @param <O>       the owner type
+     * @return a registration for the listener
+     */
+    protected <E, O> Registration addWeakListener(Class<E> eventType, O owner, SerializableBiConsumer<O, E> method) {
+        Objects.requireNonNull(owner);
+        return register(eventType, new WeakListener<>(owner, method));
+    }
+
+    private Registration register(Class<?> eventType, Listener listener) {
+        List<Listener> list;
+        synchronized (listeners) {
+            list = listeners.get(eventType);
+            if (list == null) {
+                list = new CopyOnWriteArrayList<>();
+                listeners.put(eventType, list);
+                dispatcher = null;
+            }
+        }
 
-        return Registration.addAndRemove(list, method);
+        list.removeIf(Listener::isObsolete);
+        return Registration.addAndRemove(list, listener);
     }
 
     @Override
@@ -60,20 +113,45 @@ public abstract class AbstractEntryProvider<T extends Entry> implements EntryPro
         return addListener(EntryRefreshEvent.class, listener::onDataRefresh);
     }
 
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <O> Registration addWeakEntriesChangeListener(O owner, SerializableBiConsumer<O, EntriesChangeEvent<T>> listener) {
+        return addWeakListener(EntriesChangeEvent.class, owner, (SerializableBiConsumer) listener);
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <O> Registration addWeakEntryRefreshListener(O owner, SerializableBiConsumer<O, EntryRefreshEvent<T>> listener) {
+        return addWeakListener(EntryRefreshEvent.class, owner, (SerializableBiConsumer) listener);
+    }
+
     /**
      * Sends the event to all listeners.
      *
      * @param event the Event to be sent to all listeners.
      */
-    @SuppressWarnings({"unchecked", "rawtypes"})
     protected void fireEvent(EventObject event) {
-        listeners.entrySet().stream()
-                .filter(entry -> entry.getKey().isAssignableFrom(event.getClass()))
-                .forEach(entry -> {
-                    for (Consumer consumer : entry.getValue()) {
-                        consumer.accept(event);
-                    }
-                });
+        for (List<Listener> list : getDispatcher().resolve(event.getClass())) {
+            for (Listener listener : list) {
+                if (!listener.dispatch(event)) {
+                    list.remove(listener);
+                }
+            }
+        }
+    }
+
+    private Dispatcher getDispatcher() {
+        Dispatcher current = dispatcher;
+        if (current == null) {
+            synchronized (listeners) {
+                current = dispatcher;
+                if (current == null) {
+                    current = new Dispatcher(Map.copyOf(listeners));
+                    dispatcher = current;
+                }
+            }
+        }
+        return current;
     }
 
     /**
@@ -91,4 +169,96 @@ public abstract class AbstractEntryProvider<T extends Entry> implements EntryPro
 
         this.calendar = calendar;
     }
+
+    /**
+     * Dispatch table of a fixed set of event types. The matching listener lists are resolved once per event class.
+     */
+    private record Dispatcher(Map<Class<?>, List<Listener>> types, Map<Class<?>, List<List<Listener>>> resolved) {
+
+        Dispatcher(Map<Class<?>, List<Listener>> types) {
+            this(types, new ConcurrentHashMap<>());
+        }
+
+        List<List<Listener>> resolve(Class<?> eventClass) {
+            return resolved.computeIfAbsent(eventClass, key -> types.entrySet().stream()
+                    .filter(entry -> entry.getKey().isAssignableFrom(key))
+                    .map(Map.Entry::getValue)
+                    .toList());
+        }
+    }
+
+    private interface Listener extends Serializable {
+
+        /**
+         * Passes the event to the listener.
+         *
+         * @param event event
+         * @return false, if the listener is obsolete and shall be removed
+         */
+        boolean dispatch(Object event);
+
+        boolean isObsolete();
+    }
+
+    private static final class StrongListener implements Listener {
+        private final SerializableConsumer<Object> method;
+
+        @SuppressWarnings("unchecked")
+        StrongListener(SerializableConsumer<?> method) {
+            this.method = (SerializableConsumer<Object>) method;
+        }
+
+        @Override
+        public boolean dispatch(Object event) {
+            method.accept(event);
+            return true;
+        }
+
+        @Override
+        public boolean isObsolete() {
+            return false;
+        }
+    }
+
+    /**
+     * Listener referencing its owner weakly. When serialized, a still existing owner is written along, so that
+     * it is restored with the rest of the session.
+     */
+    private static final class WeakListener<O> implements Listener {
+        private final SerializableBiConsumer<O, Object> method;
+        private transient WeakReference<O> owner;
+
+        @SuppressWarnings("unchecked")
+        WeakListener(O owner, SerializableBiConsumer<O, ?> method) {
+            this.owner = new WeakReference<>(owner);
+            this.method = (SerializableBiConsumer<O, Object>) method;
+        }
+
+        @Override
+        public boolean dispatch(Object event) {
+            O currentOwner = owner.get();
+            if (currentOwner == null) {
+                return false;
+            }
+
+            method.accept(currentOwner, event);
+            return true;
+        }
+
+        @Override
+        public boolean isObsolete() {
+            return owner.get() == null;
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+            out.writeObject(owner.get());
+        }
+
+        @SuppressWarnings("unchecked")
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            owner = new WeakReference<>((O) in.readObject());
+        }
+    }
 }
@@ -0,0 +1,395 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import lombok.NonNull;
+import org.vaadin.stefan.fullcalendar.Entry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * A read only entry provider for historical entries, that are rarely viewed, but shall stay navigable without
+ * keeping them on the heap or querying a database. The entries are stored in a file, that is memory mapped,
+ * so the operating system loads only the parts that are actually read.
+ * <p></p>
+ * The file consists of periods (e.g. a closed month or year), which are appended via
+ * {@link #appendPeriod(LocalDateTime, LocalDateTime, Iterable)}. Each period contains its entries sorted by start
+ * plus a sparse index of every {@value #INDEX_INTERVAL}th start. A fetch skips all periods not crossing the
+ * requested range, looks up the first relevant position in the sparse index and decodes only those records,
+ * that cross the range. Each fetch creates new entry instances.
+ * <p></p>
+ * Entries are encoded with a fixed set of properties: id, group id, title, start, end, all day, colors, display
+ * mode and style id. Any other property is ignored. Entries need a start and must not be recurring. Entries
+ * without an end are treated as ending at their start (or one day later for all day entries) regarding range
+ * queries.
+ * <p></p>
+ * The provider is thread safe. Periods must be appended in chronological order. An incomplete period at the
+ * end of the file (e.g. due to a crash while appending) is ignored and overwritten by the next append.
+ *
+ * @author Stefan Uebe
+ */
+public class ArchiveEntryProvider extends AbstractEntryProvider<Entry> implements Closeable {
+
+    /**
+     * Every n-th record start is stored in the sparse index of a period.
+     */
+    static final int INDEX_INTERVAL = 64;
+
+    private static final int FILE_MAGIC = 0x46434152; // "FCAR"
+    private static final int FILE_VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 8;
+    private static final int PERIOD_MAGIC = 0x50455244; // "PERD"
+    private static final int PERIOD_HEADER_SIZE = 40;
+    private static final int INDEX_ENTRY_SIZE = 12;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final List<Period> periods = new CopyOnWriteArrayList<>();
+    private long validLength;
+
+    private ArchiveEntryProvider(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the archive at the given path. A new archive is created, if the file does not exist.
+     *
+     * @param file archive file
+     * @return archive provider
+     * @throws IOException on any io error or when the file is no archive
+     */
+    public static ArchiveEntryProvider open(@NonNull Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ArchiveEntryProvider provider = new ArchiveEntryProvider(file, channel);
+            provider.readPeriods();
+            return provider;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the archive file.
+     *
+     * @return file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Appends a closed period to the archive. The period must not start before the end of the last appended
+     * period and all given entries must start within the period. Existing periods cannot be modified.
+     * <p></p>
+     * Listeners are not informed automatically, call {@link #refreshAll()}, if the appended period shall be
+     * shown in connected calendars.
+     *
+     * @param periodStart period start (inclusive)
+     * @param periodEnd   period end (exclusive)
+     * @param entries     entries of the period
+     * @throws IOException              on any io error
+     * @throws IllegalArgumentException when the period or an entry is not valid
+     */
+    public synchronized void appendPeriod(@NonNull LocalDateTime periodStart, @NonNull LocalDateTime periodEnd, @NonNull Iterable<? extends Entry> entries) throws IOException {
+        long startMillis = BinaryEntryCodec.toMillis(periodStart);
+        long endMillis = BinaryEntryCodec.toMillis(periodEnd);
+        if (startMillis >= endMillis) {
+            throw new IllegalArgumentException("The period end must be after the period start");
+        }
+        if (!periods.isEmpty() && startMillis < periods.get(periods.size() - 1).end()) {
+            throw new IllegalArgumentException("Periods must be appended in chronological order");
+        }
+
+        List<Entry> sorted = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.isRecurring() || entry.getStart() == null) {
+                throw new IllegalArgumentException("Archived entries need a start and must not be recurring: " + entry.getId());
+            }
+            long entryStart = BinaryEntryCodec.toMillis(entry.getStart());
+            if (entryStart < startMillis || entryStart >= endMillis) {
+                throw new IllegalArgumentException("Entry " + entry.getId() + " does not start within the period");
+            }
+            sorted.add(entry);
+        }
+        sorted.sort(Comparator.comparing(Entry::getStart));
+
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        ByteBuffer index = ByteBuffer.allocate(((sorted.size() + INDEX_INTERVAL - 1) / INDEX_INTERVAL) * INDEX_ENTRY_SIZE);
+        long maxDuration = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            Entry entry = sorted.get(i);
+            long entryStart = BinaryEntryCodec.toMillis(entry.getStart());
+            maxDuration = Math.max(maxDuration, effectiveEnd(entryStart, BinaryEntryCodec.toMillis(entry.getEnd()), entry.isAllDay()) - entryStart);
+
+            if (i % INDEX_INTERVAL == 0) {
+                index.putLong(entryStart).putInt(records.size());
+            }
+            records.write(BinaryEntryCodec.encode(entry));
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(PERIOD_HEADER_SIZE)
+                .putInt(PERIOD_MAGIC)
+                .putLong(startMillis)
+                .putLong(endMillis)
+                .putLong(maxDuration)
+                .putInt(sorted.size())
+                .putInt(records.size())
+                .putInt(index.capacity() / INDEX_ENTRY_SIZE);
+        header.flip();
+        index.flip();
+
+        long position = validLength;
+        channel.truncate(position); // drop any incomplete period
+        writeFully(header, position);
+        writeFully(ByteBuffer.wrap(records.toByteArray()), position + PERIOD_HEADER_SIZE);
+        writeFully(index, position + PERIOD_HEADER_SIZE + records.size());
+        channel.force(false);
+
+        periods.add(mapPeriod(position));
+        validLength = position + PERIOD_HEADER_SIZE + records.size() + (long) index.limit();
+    }
+
+    @Override
+    public Stream<Entry> fetch(@NonNull EntryQuery query) {
+        long start = BinaryEntryCodec.toMillis(query.getStart());
+        long end = BinaryEntryCodec.toMillis(query.getEnd());
+
+        List<Entry> result = new ArrayList<>();
+        for (Period period : periods) {
+            if (period.mayCross(start, end)) {
+                period.collect(start, end, result);
+            }
+        }
+
+        return query.applyFilter(result.stream());
+    }
+
+    /**
+     * Looks up the entry with the given id. Since the archive is indexed by time only, this scans the ids of
+     * all records.
+     *
+     * @param id id
+     * @return entry or empty
+     */
+    @Override
+    public Optional<Entry> fetchById(@NonNull String id) {
+        for (Period period : periods) {
+            Optional<Entry> entry = period.findById(id);
+            if (entry.isPresent()) {
+                return entry;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Looks up the entries with the given ids by a single scan over the ids of all records, which stops as soon
+     * as all ids have been found.
+     *
+     * @param ids ids
+     * @return found entries
+     */
+    @Override
+    public Stream<Entry> fetchByIds(@NonNull Collection<String> ids) {
+        Set<String> remaining = new HashSet<>(ids);
+        List<Entry> found = new ArrayList<>();
+        for (Period period : periods) {
+            if (remaining.isEmpty()) {
+                break;
+            }
+            period.findByIds(remaining, found);
+        }
+        return found.stream();
+    }
+
+    /**
+     * Returns the amount of archived entries.
+     *
+     * @return size
+     */
+    public long size() {
+        return periods.stream().mapToLong(Period::count).sum();
+    }
+
+    /**
+     * Closes the underlying file. Already mapped periods stay readable until they are garbage collected, but
+     * no further periods can be appended.
+     *
+     * @throws IOException on any io error
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readPeriods() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(FILE_MAGIC).putInt(FILE_VERSION);
+            header.flip();
+            writeFully(header, 0);
+            validLength = FILE_HEADER_SIZE;
+            return;
+        }
+
+        ByteBuffer header = readFully(0, FILE_HEADER_SIZE);
+        if (header == null || header.getInt(0) != FILE_MAGIC) {
+            throw new IOException(file + " is not an entry archive");
+        }
+        if (header.getInt(4) != FILE_VERSION) {
+            throw new IOException("Unsupported archive version " + header.getInt(4));
+        }
+
+        long position = FILE_HEADER_SIZE;
+        while (position + PERIOD_HEADER_SIZE <= size) {
+            ByteBuffer periodHeader = readFully(position, PERIOD_HEADER_SIZE);
+            if (periodHeader == null || periodHeader.getInt(0) != PERIOD_MAGIC) {
+                break;
+            }
+
+            long periodSize = PERIOD_HEADER_SIZE + (long) periodHeader.getInt(32) + (long) periodHeader.getInt(36) * INDEX_ENTRY_SIZE;
+            if (position + periodSize > size) {
+                break; // incomplete period
+            }
+
+            periods.add(mapPeriod(position));
+            position += periodSize;
+        }
+
+        validLength = position;
+    }
+
+    private Period mapPeriod(long position) throws IOException {
+        ByteBuffer header = readFully(position, PERIOD_HEADER_SIZE);
+        int recordsLength = header.getInt(32);
+        int indexCount = header.getInt(36);
+
+        MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, position + PERIOD_HEADER_SIZE, recordsLength);
+        ByteBuffer index = readFully(position + PERIOD_HEADER_SIZE + recordsLength, indexCount * INDEX_ENTRY_SIZE);
+
+        long[] indexStarts = new long[indexCount];
+        int[] indexOffsets = new int[indexCount];
+        for (int i = 0; i < indexCount; i++) {
+            indexStarts[i] = index.getLong(i * INDEX_ENTRY_SIZE);
+            indexOffsets[i] = index.getInt(i * INDEX_ENTRY_SIZE + 8);
+        }
+
+        return new Period(header.getLong(4), header.getLong(12), header.getLong(20), header.getInt(28), records, indexStarts, indexOffsets);
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return null;
+            }
+        }
+        return buffer;
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+
+    private static long effectiveEnd(long start, long end, boolean allDay) {
+        if (end != BinaryEntryCodec.NO_TIME) {
+            return Math.max(start, end);
+        }
+        return allDay ? start + Duration.ofDays(1).toMillis() : start;
+    }
+
+    /**
+     * A mapped period of the archive.
+     */
+    private record Period(long start, long end, long maxDuration, int count, ByteBuffer records,
+                          long[] indexStarts, int[] indexOffsets) {
+
+        /**
+         * Checks, if this period may contain entries crossing the given range.
+         */
+        boolean mayCross(long queryStart, long queryEnd) {
+            return (queryEnd == BinaryEntryCodec.NO_TIME || start < queryEnd)
+                    && (queryStart == BinaryEntryCodec.NO_TIME || end + maxDuration > queryStart);
+        }
+
+        void collect(long queryStart, long queryEnd, List<Entry> result) {
+            int offset = 0;
+            if (queryStart != BinaryEntryCodec.NO_TIME) {
+                // records starting before this bound end before the query start
+                offset = indexOffsets.length > 0 ? indexOffsets[lastIndexBefore(queryStart - maxDuration)] : 0;
+            }
+
+            int limit = records.limit();
+            while (offset < limit) {
+                long entryStart = BinaryEntryCodec.start(records, offset);
+                if (queryEnd != BinaryEntryCodec.NO_TIME && entryStart >= queryEnd) {
+                    break; // sorted by start
+                }
+
+                long entryEnd = effectiveEnd(entryStart, BinaryEntryCodec.end(records, offset), BinaryEntryCodec.allDay(records, offset));
+                if (queryStart == BinaryEntryCodec.NO_TIME || entryEnd > queryStart || (entryEnd == entryStart && entryStart >= queryStart)) {
+                    result.add(BinaryEntryCodec.decode(records, offset));
+                }
+
+                offset += BinaryEntryCodec.recordSize(records, offset);
+            }
+        }
+
+        Optional<Entry> findById(String id) {
+            int limit = records.limit();
+            for (int offset = 0; offset < limit; offset += BinaryEntryCodec.recordSize(records, offset)) {
+                if (id.equals(BinaryEntryCodec.id(records, offset))) {
+                    return Optional.of(BinaryEntryCodec.decode(records, offset));
+                }
+            }
+            return Optional.empty();
+        }
+
+        /**
+         * Adds the entries with the given ids to the result and removes their ids from the given set.
+         */
+        void findByIds(Set<String> remaining, List<Entry> result) {
+            int limit = records.limit();
+            for (int offset = 0; offset < limit && !remaining.isEmpty(); offset += BinaryEntryCodec.recordSize(records, offset)) {
+                if (remaining.remove(BinaryEntryCodec.id(records, offset))) {
+                    result.add(BinaryEntryCodec.decode(records, offset));
+                }
+            }
+        }
+
+        /**
+         * Returns the last index position with a start before the given value or 0.
+         */
+        private int lastIndexBefore(long value) {
+            int low = 0;
+            int high = indexStarts.length - 1;
+            int result = 0;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (indexStarts[mid] < value) {
+                    result = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import org.vaadin.stefan.fullcalendar.DisplayMode;
+import org.vaadin.stefan.fullcalendar.Entry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Encodes entries as compact binary records, used by file based entry stores like the {@link ArchiveEntryProvider}.
+ * <p></p>
+ * A record consists of its length (int, excluding the length itself), start and end (long, epoch millis or
+ * {@link #NO_TIME}), flags (byte), display mode ordinal (byte, -1 for none) and the string properties id, group
+ * id, title, color, background color, border color, text color and style id (int length and UTF-8 bytes, length
+ * -1 for null). Start and end are located at fixed offsets, so they can be read without decoding the record.
+ * <p></p>
+ * Only these properties are encoded, any other property of an entry is ignored.
+ *
+ * @author Stefan Uebe
+ */
+final class BinaryEntryCodec {
+
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    private static final int START_OFFSET = 4;
+    private static final int END_OFFSET = 12;
+    private static final int FLAGS_OFFSET = 20;
+    private static final int DISPLAY_MODE_OFFSET = 21;
+    private static final int STRINGS_OFFSET = 22;
+
+    private static final byte FLAG_ALL_DAY = 1;
+    private static final DisplayMode[] DISPLAY_MODES = DisplayMode.values();
+
+    private BinaryEntryCodec() {
+    }
+
+    /**
+     * Encodes the given entry as a record.
+     *
+     * @param entry entry
+     * @return record bytes including the length prefix
+     */
+    static byte[] encode(Entry entry) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0); // placeholder for the length
+            out.writeLong(toMillis(entry.getStart()));
+            out.writeLong(toMillis(entry.getEnd()));
+            out.writeByte(entry.isAllDay() ? FLAG_ALL_DAY : 0);
+            out.writeByte(entry.getDisplayMode() != null ? entry.getDisplayMode().ordinal() : -1);
+            writeString(out, entry.getId());
+            writeString(out, entry.getGroupId());
+            writeString(out, entry.getTitle());
+            writeString(out, entry.getColor());
+            writeString(out, entry.getBackgroundColor());
+            writeString(out, entry.getBorderColor());
+            writeString(out, entry.getTextColor());
+            writeString(out, entry.getStyleId());
+            out.flush();
+
+            byte[] record = bytes.toByteArray();
+            ByteBuffer.wrap(record).putInt(0, record.length - 4);
+            return record;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not thrown by byte array streams
+        }
+    }
+
+    /**
+     * Returns the total size of the record at the given offset including its length prefix.
+     */
+    static int recordSize(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset) + 4;
+    }
+
+    /**
+     * Returns the start millis of the record at the given offset.
+     */
+    static long start(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + START_OFFSET);
+    }
+
+    /**
+     * Returns the end millis of the record at the given offset.
+     */
+    static long end(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + END_OFFSET);
+    }
+
+    /**
+     * Returns, if the record at the given offset is all day.
+     */
+    static boolean allDay(ByteBuffer buffer, int offset) {
+        return (buffer.get(offset + FLAGS_OFFSET) & FLAG_ALL_DAY) != 0;
+    }
+
+    /**
+     * Returns the id of the record at the given offset without decoding the remaining properties.
+     */
+    static String id(ByteBuffer buffer, int offset) {
+        return readString(buffer, offset + STRINGS_OFFSET, new int[1]);
+    }
+
+    /**
+     * Decodes the record at the given offset into a new entry instance. Uses absolute reads only, so the
+     * buffer may be shared between threads.
+     *
+     * @param buffer buffer
+     * @param offset record offset
+     * @return new entry
+     */
+    static Entry decode(ByteBuffer buffer, int offset) {
+        int[] position = {offset + STRINGS_OFFSET};
+
+        Entry entry = new Entry(readString(buffer, position[0], position));
+        entry.setGroupId(readString(buffer, position[0], position));
+        entry.setTitle(readString(buffer, position[0], position));
+        entry.setColor(readString(buffer, position[0], position));
+        entry.setBackgroundColor(readString(buffer, position[0], position));
+        entry.setBorderColor(readString(buffer, position[0], position));
+        entry.setTextColor(readString(buffer, position[0], position));
+        entry.setStyleId(readString(buffer, position[0], position));
+
+        entry.setStart(toDateTime(start(buffer, offset)));
+        entry.setEnd(toDateTime(end(buffer, offset)));
+        entry.setAllDay(allDay(buffer, offset));
+
+        byte displayMode = buffer.get(offset + DISPLAY_MODE_OFFSET);
+        if (displayMode >= 0 && displayMode < DISPLAY_MODES.length) {
+            entry.setDisplayMode(DISPLAY_MODES[displayMode]);
+        }
+
+        return entry;
+    }
+
+    static long toMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_TIME;
+    }
+
+    static LocalDateTime toDateTime(long millis) {
+        return millis != NO_TIME ? LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC) : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads the string at the given offset and stores the offset behind it in the given array.
+     */
+    private static String readString(ByteBuffer buffer, int offset, int[] next) {
+        int length = buffer.getInt(offset);
+        if (length < 0) {
+            next[0] = offset + 4;
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 4, bytes);
+        next[0] = offset + 4 + length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
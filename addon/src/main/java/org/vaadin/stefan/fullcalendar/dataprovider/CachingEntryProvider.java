@@ -0,0 +1,482 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.vaadin.stefan.fullcalendar.Entry;
+import org.vaadin.stefan.fullcalendar.FullCalendar;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An entry provider, that caches the results of another provider, for instance a {@link CallbackEntryProvider}
+ * accessing a backend. Intended to reduce the backend access, when the same time ranges are fetched repeatedly,
+ * e.g. by navigating back and forth.
+ * <p></p>
+ * Fetched time ranges are cached as segments. A fetch only requests the uncovered gaps of its range from the
+ * wrapped provider and merges the result with the overlapping segments into one segment. Entries fetched by id
+ * are cached separately. Cached data expires after the configured time to live. When the number of cached
+ * entries exceeds the configured maximum, the least recently used segments and ids are evicted. Fetches without
+ * a start or end are not cached.
+ * <p></p>
+ * Changes of the underlying data are not detected. Call {@link #refreshItem(Entry)} or {@link #refreshAll()} on
+ * this instance (or on the wrapped provider) to invalidate the affected parts of the cache and inform the
+ * calendar. The cache can also be invalidated without informing the calendar by using one of the invalidate
+ * methods. The provider is thread safe, the wrapped provider is called while holding the lock.
+ *
+ * @author Stefan Uebe
+ */
+public class CachingEntryProvider<T extends Entry> extends AbstractEntryProvider<T> {
+
+    /**
+     * Default time to live of cached data.
+     */
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    /**
+     * Default maximum of cached entries.
+     */
+    public static final int DEFAULT_MAX_CACHED_ENTRIES = 10_000;
+
+    /**
+     * The wrapped provider.
+     */
+    @Getter
+    private final EntryProvider<T> delegate;
+
+    /**
+     * The time after which cached data is reloaded.
+     */
+    @Getter
+    private final Duration timeToLive;
+
+    /**
+     * The maximum number of cached entries. Entries cached in multiple segments are counted for each of them.
+     */
+    @Getter
+    private final int maxCachedEntries;
+
+    private final Lock lock = new ReentrantLock();
+    private final TreeMap<LocalDateTime, Segment<T>> segments = new TreeMap<>();
+    private final LinkedHashMap<String, CachedEntry<T>> entriesById = new LinkedHashMap<>(16, 0.75f, true);
+    private int cachedSegmentEntries;
+    private long accessCounter;
+
+    /**
+     * Creates a new instance wrapping the given provider using the default time to live and maximum
+     * of cached entries.
+     *
+     * @param delegate provider to cache
+     * @throws NullPointerException when null is passed
+     */
+    public CachingEntryProvider(@NonNull EntryProvider<T> delegate) {
+        this(delegate, DEFAULT_TIME_TO_LIVE, DEFAULT_MAX_CACHED_ENTRIES);
+    }
+
+    /**
+     * Creates a new instance wrapping the given provider.
+     *
+     * @param delegate         provider to cache
+     * @param timeToLive       time after which cached data is reloaded
+     * @param maxCachedEntries maximum of cached entries
+     * @throws NullPointerException     when null is passed
+     * @throws IllegalArgumentException when the time to live or maximum is negative
+     */
+    public CachingEntryProvider(@NonNull EntryProvider<T> delegate, @NonNull Duration timeToLive, int maxCachedEntries) {
+        if (timeToLive.isNegative()) {
+            throw new IllegalArgumentException("Time to live must not be negative");
+        }
+        if (maxCachedEntries < 0) {
+            throw new IllegalArgumentException("Maximal cached entries must not be negative");
+        }
+
+        this.delegate = delegate;
+        this.timeToLive = timeToLive;
+        this.maxCachedEntries = maxCachedEntries;
+
+        delegate.addEntriesChangeListener(event -> {
+            invalidateAll();
+            super.refreshAll();
+        });
+        delegate.addEntryRefreshListener(event -> {
+            invalidate(event.getItemToRefresh());
+            super.refreshItem(event.getItemToRefresh());
+        });
+    }
+
+    @Override
+    public void setCalendar(FullCalendar calendar) {
+        super.setCalendar(calendar);
+        delegate.setCalendar(calendar);
+    }
+
+    @Override
+    public Stream<T> fetch(@NonNull EntryQuery query) {
+        LocalDateTime start = query.getStart();
+        LocalDateTime end = query.getEnd();
+        if (start == null || end == null || !end.isAfter(start)) {
+            return delegate.fetch(query);
+        }
+
+        List<T> candidates;
+        lock.lock();
+        try {
+            removeExpired();
+
+            List<Segment<T>> overlapping = getOverlappingSegments(start, end);
+            Map<String, T> entries = new LinkedHashMap<>();
+            overlapping.forEach(segment -> entries.putAll(segment.entries));
+
+            List<LocalDateTime[]> gaps = getGaps(overlapping, start, end);
+            for (LocalDateTime[] gap : gaps) {
+                try (Stream<T> loaded = delegate.fetch(new EntryQuery(gap[0], gap[1], EntryQuery.AllDay.BOTH))) {
+                    loaded.forEach(entry -> entries.put(entry.getId(), entry));
+                }
+            }
+
+            Segment<T> segment;
+            if (gaps.isEmpty() && overlapping.size() == 1) {
+                segment = overlapping.get(0);
+            } else {
+                LocalDateTime segmentStart = start;
+                LocalDateTime segmentEnd = end;
+                long loadedAt = now();
+                for (Segment<T> old : overlapping) {
+                    segmentStart = min(segmentStart, old.start);
+                    segmentEnd = max(segmentEnd, old.end);
+                    loadedAt = Math.min(loadedAt, old.loadedAt);
+                    removeSegment(old);
+                }
+
+                segment = new Segment<>(segmentStart, segmentEnd, entries, loadedAt);
+                addSegment(segment);
+            }
+
+            overlapping.forEach(old -> old.lastAccess = ++accessCounter);
+            segment.lastAccess = ++accessCounter;
+            evict(segment);
+
+            candidates = new ArrayList<>(entries.values());
+        } finally {
+            lock.unlock();
+        }
+
+        return query.applyFilter(candidates.stream());
+    }
+
+    /**
+     * Returns the entry with the given id. Entries already fetched by id or contained in a cached segment are
+     * returned from the cache, otherwise the wrapped provider is asked.
+     *
+     * @param id id
+     * @return optional entry or empty
+     */
+    @Override
+    public Optional<T> fetchById(@NonNull String id) {
+        lock.lock();
+        try {
+            removeExpired();
+
+            T cached = getCachedEntry(id);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+
+            Optional<T> entry = delegate.fetchById(id);
+            entry.ifPresent(e -> {
+                entriesById.put(id, new CachedEntry<>(e, now()));
+                evict(null);
+            });
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the entries with the given ids. Cached entries are returned from the cache, the remaining ones
+     * are fetched at once from the wrapped provider.
+     *
+     * @param ids ids
+     * @return found entries
+     */
+    @Override
+    public Stream<T> fetchByIds(@NonNull Collection<String> ids) {
+        lock.lock();
+        try {
+            removeExpired();
+
+            Map<String, T> found = new LinkedHashMap<>();
+            Set<String> missing = new LinkedHashSet<>();
+            for (String id : ids) {
+                T entry = getCachedEntry(id);
+                if (entry != null) {
+                    found.put(id, entry);
+                } else {
+                    missing.add(id);
+                }
+            }
+
+            if (!missing.isEmpty()) {
+                long loadedAt = now();
+                try (Stream<T> loaded = delegate.fetchByIds(missing)) {
+                    loaded.forEach(entry -> {
+                        found.put(entry.getId(), entry);
+                        entriesById.put(entry.getId(), new CachedEntry<>(entry, loadedAt));
+                    });
+                }
+                evict(null);
+            }
+
+            return new ArrayList<>(found.values()).stream();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Invalidates the cached data of the given item, before informing the calendar about the refresh.
+     *
+     * @param item item to refresh
+     * @see #invalidate(Entry)
+     */
+    @Override
+    public void refreshItem(T item) {
+        invalidate(item);
+        super.refreshItem(item);
+    }
+
+    /**
+     * Invalidates the whole cache, before informing the calendar about the refresh.
+     */
+    @Override
+    public void refreshAll() {
+        invalidateAll();
+        super.refreshAll();
+    }
+
+    /**
+     * Invalidates the cached data of the given entry: the entry itself, any segment containing it and the
+     * time range it currently covers (since it may have been moved there).
+     *
+     * @param entry entry to invalidate
+     */
+    public void invalidate(@NonNull T entry) {
+        lock.lock();
+        try {
+            invalidate(entry.getId());
+
+            LocalDateTime start = entry.getStart();
+            if (start != null) {
+                LocalDateTime end = entry.getEnd();
+                invalidate(start, end != null && end.isAfter(start) ? end : start.plusDays(1));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Invalidates the cached entry with the given id and any segment containing it.
+     *
+     * @param id entry id
+     */
+    public void invalidate(@NonNull String id) {
+        lock.lock();
+        try {
+            entriesById.remove(id);
+            for (Segment<T> segment : new ArrayList<>(segments.values())) {
+                if (segment.entries.containsKey(id)) {
+                    removeSegment(segment);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Invalidates the cached data of the given time range. Segments overlapping the range are split, so that
+     * cached data outside of the range is kept.
+     *
+     * @param start start of the range (inclusive)
+     * @param end   end of the range (exclusive)
+     */
+    public void invalidate(@NonNull LocalDateTime start, @NonNull LocalDateTime end) {
+        lock.lock();
+        try {
+            for (Segment<T> segment : getOverlappingSegments(start, end)) {
+                removeSegment(segment);
+
+                if (segment.start.isBefore(start)) {
+                    addSegment(segment.slice(segment.start, start));
+                }
+                if (segment.end.isAfter(end)) {
+                    addSegment(segment.slice(end, segment.end));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Invalidates the whole cache.
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            segments.clear();
+            entriesById.clear();
+            cachedSegmentEntries = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of currently cached entries. Entries cached in multiple segments are counted for
+     * each of them.
+     *
+     * @return cached entries
+     */
+    public int getCachedEntries() {
+        lock.lock();
+        try {
+            return cachedSegmentEntries + entriesById.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private T getCachedEntry(String id) {
+        CachedEntry<T> cached = entriesById.get(id);
+        if (cached != null) {
+            return cached.entry;
+        }
+
+        for (Segment<T> segment : segments.values()) {
+            T entry = segment.entries.get(id);
+            if (entry != null) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private List<Segment<T>> getOverlappingSegments(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime from = segments.floorKey(start);
+        return segments.subMap(from != null ? from : start, true, end, false).values().stream()
+                .filter(segment -> segment.end.isAfter(start))
+                .collect(Collectors.toList());
+    }
+
+    private static <T extends Entry> List<LocalDateTime[]> getGaps(List<Segment<T>> overlapping, LocalDateTime start, LocalDateTime end) {
+        List<LocalDateTime[]> gaps = new ArrayList<>();
+        LocalDateTime cursor = start;
+        for (Segment<T> segment : overlapping) {
+            if (segment.start.isAfter(cursor)) {
+                gaps.add(new LocalDateTime[]{cursor, segment.start});
+            }
+            cursor = max(cursor, segment.end);
+        }
+        if (cursor.isBefore(end)) {
+            gaps.add(new LocalDateTime[]{cursor, end});
+        }
+        return gaps;
+    }
+
+    private void addSegment(Segment<T> segment) {
+        segments.put(segment.start, segment);
+        cachedSegmentEntries += segment.entries.size();
+    }
+
+    private void removeSegment(Segment<T> segment) {
+        if (segments.remove(segment.start, segment)) {
+            cachedSegmentEntries -= segment.entries.size();
+        }
+    }
+
+    private void removeExpired() {
+        long expiredBefore = now() - timeToLive.toMillis();
+        for (Segment<T> segment : new ArrayList<>(segments.values())) {
+            if (segment.loadedAt <= expiredBefore) {
+                removeSegment(segment);
+            }
+        }
+        entriesById.values().removeIf(cached -> cached.loadedAt <= expiredBefore);
+    }
+
+    /**
+     * Evicts the least recently used ids and segments (except the given one), until the maximum is met.
+     */
+    private void evict(Segment<T> keep) {
+        Iterator<CachedEntry<T>> ids = entriesById.values().iterator();
+        while (cachedSegmentEntries + entriesById.size() > maxCachedEntries && ids.hasNext()) {
+            ids.next();
+            ids.remove();
+        }
+
+        while (cachedSegmentEntries > maxCachedEntries) {
+            Segment<T> leastRecentlyUsed = segments.values().stream()
+                    .filter(segment -> segment != keep)
+                    .min(Comparator.comparingLong(segment -> segment.lastAccess))
+                    .orElse(null);
+
+            if (leastRecentlyUsed == null) {
+                break;
+            }
+            removeSegment(leastRecentlyUsed);
+        }
+    }
+
+    private static long now() {
+        return System.currentTimeMillis();
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    /**
+     * A cached time range and all entries overlapping it.
+     */
+    private static class Segment<T extends Entry> implements Serializable {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final Map<String, T> entries;
+        private final long loadedAt;
+        private long lastAccess;
+
+        private Segment(LocalDateTime start, LocalDateTime end, Map<String, T> entries, long loadedAt) {
+            this.start = start;
+            this.end = end;
+            this.entries = entries;
+            this.loadedAt = loadedAt;
+        }
+
+        private Segment<T> slice(LocalDateTime sliceStart, LocalDateTime sliceEnd) {
+            Map<String, T> sliced = new LinkedHashMap<>();
+            new EntryQuery(sliceStart, sliceEnd, EntryQuery.AllDay.BOTH)
+                    .applyFilter(entries.values().stream())
+                    .forEach(entry -> sliced.put(entry.getId(), entry));
+
+            Segment<T> segment = new Segment<>(sliceStart, sliceEnd, sliced, loadedAt);
+            segment.lastAccess = lastAccess;
+            return segment;
+        }
+    }
+
+    private record CachedEntry<T>(T entry, long loadedAt) implements Serializable {
+    }
+}
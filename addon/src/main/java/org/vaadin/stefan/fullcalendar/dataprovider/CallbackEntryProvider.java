@@ -1,25 +1,44 @@
 package org.vaadin.stefan.fullcalendar.dataprovider;
 
 import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.SerializablePredicate;
 import lombok.NonNull;
 import org.vaadin.stefan.fullcalendar.Entry;
 
+import java.util.Collection;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
 
 /**
  * An {@link EntryProvider} using a predefined callback to fetch items when necessary.
+ * <p></p>
+ * Optionally a callback to fetch multiple items by their ids at once can be passed (e.g. using a single
+ * <code>IN (...)</code> query). Otherwise {@link #fetchByIds(Collection)} uses the single item callback for
+ * each id.
+ * <p></p>
+ * Counting and existence checks can be pushed down to the backend by setting a count or exists callback (e.g.
+ * using <code>COUNT(*)</code> or <code>EXISTS</code> queries). Otherwise the fetched items are counted.
  *
  * @author Stefan Uebe
  */
 public class CallbackEntryProvider<T extends Entry> extends AbstractEntryProvider<T> {
     private final SerializableFunction<EntryQuery, Stream<T>> fetchItems;
     private final SerializableFunction<String, T> fetchSingleItem;
+    private final SerializableFunction<Collection<String>, Stream<T>> fetchMultipleItems;
+    private SerializableFunction<EntryQuery, Long> countItems;
+    private SerializablePredicate<EntryQuery> existsItems;
 
     public CallbackEntryProvider(SerializableFunction<EntryQuery, Stream<T>> fetchItems, SerializableFunction<String, T> fetchSingleItem) {
         this.fetchItems = Objects.requireNonNull(fetchItems);
         this.fetchSingleItem = Objects.requireNonNull(fetchSingleItem);
+        this.fetchMultipleItems = null;
+    }
+
+    public CallbackEntryProvider(SerializableFunction<EntryQuery, Stream<T>> fetchItems, SerializableFunction<String, T> fetchSingleItem, SerializableFunction<Collection<String>, Stream<T>> fetchMultipleItems) {
+        this.fetchItems = Objects.requireNonNull(fetchItems);
+        this.fetchSingleItem = Objects.requireNonNull(fetchSingleItem);
+        this.fetchMultipleItems = Objects.requireNonNull(fetchMultipleItems);
     }
 
     @Override
@@ -31,4 +50,47 @@ public class CallbackEntryProvider<T extends Entry> extends AbstractEntryProvide
     public Optional<T> fetchById(@NonNull String id) {
         return Optional.ofNullable(fetchSingleItem.apply(id));
     }
+
+    /**
+     * Sets a callback to count the items matching the given query. Also used for existence checks, when there
+     * is no exists callback. Pass null to count the fetched items.
+     *
+     * @param countItems count callback or null
+     */
+    public void setCountCallback(SerializableFunction<EntryQuery, Long> countItems) {
+        this.countItems = countItems;
+    }
+
+    /**
+     * Sets a callback to check, if there is any item matching the given query. Pass null to use the count
+     * callback or the fetched items.
+     *
+     * @param existsItems exists callback or null
+     */
+    public void setExistsCallback(SerializablePredicate<EntryQuery> existsItems) {
+        this.existsItems = existsItems;
+    }
+
+    @Override
+    public long count(@NonNull EntryQuery query) {
+        return countItems != null ? countItems.apply(query) : super.count(query);
+    }
+
+    @Override
+    public boolean exists(@NonNull EntryQuery query) {
+        if (existsItems != null) {
+            return existsItems.test(query);
+        }
+
+        return countItems != null ? countItems.apply(query) > 0 : super.exists(query);
+    }
+
+    @Override
+    public Stream<T> fetchByIds(@NonNull Collection<String> ids) {
+        if (fetchMultipleItems == null) {
+            return super.fetchByIds(ids);
+        }
+
+        return ids.isEmpty() ? Stream.empty() : fetchMultipleItems.apply(ids);
+    }
 }
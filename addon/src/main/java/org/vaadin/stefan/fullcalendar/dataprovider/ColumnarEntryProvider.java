@@ -0,0 +1,499 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import lombok.NonNull;
+import org.vaadin.stefan.fullcalendar.DisplayMode;
+import org.vaadin.stefan.fullcalendar.Entry;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An in memory entry provider, that stores its entries in a column based, compact form instead of keeping
+ * the entry instances. Intended for a large amount of simple, read mostly entries (e.g. hundreds of thousands
+ * of appointments), where the heap usage of the entry instances becomes an issue.
+ * <p></p>
+ * Start and end are stored as epoch milliseconds in primitive arrays and the all day flag in a bit set. Ids and
+ * titles are almost always unique and therefore stored as plain string columns, while the remaining string
+ * properties (e.g. colors) are dictionary encoded, so each distinct string is stored only once. Entry instances are
+ * created only for entries, that are fetched. Every fetch creates new instances, so modifying a fetched
+ * entry does not change this provider. Pass it to {@link #updateEntries(Iterable)} to store the changes.
+ * <p></p>
+ * Only the following properties are stored: id, group id, title, start, end, all day, color, background color,
+ * border color, text color, display mode and style id. Any other property of an added entry is ignored.
+ * Use shared styles ({@link Entry#setStyleId(String)}) for further presentation properties. Recurring
+ * entries are not supported. Times are stored with millisecond precision.
+ * <p></p>
+ * Range fetches scan the start and end columns sequentially. The provider is thread safe.
+ *
+ * @author Stefan Uebe
+ */
+public class ColumnarEntryProvider extends AbstractEntryProvider<Entry> {
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final byte NO_DISPLAY_MODE = -1;
+    private static final DisplayMode[] DISPLAY_MODES = DisplayMode.values();
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Removed rows are compacted, when they exceed this amount and half of all rows. The same applies to
+     * dictionary strings, that are not used anymore.
+     */
+    private static final int COMPACTION_THRESHOLD = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final IdRowTable rowsById = new IdRowTable();
+    private StringDictionary dictionary = new StringDictionary();
+
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    private int[] groupIds = new int[INITIAL_CAPACITY];
+    private String[] titles = new String[INITIAL_CAPACITY];
+    private int[] colors = new int[INITIAL_CAPACITY];
+    private int[] backgroundColors = new int[INITIAL_CAPACITY];
+    private int[] borderColors = new int[INITIAL_CAPACITY];
+    private int[] textColors = new int[INITIAL_CAPACITY];
+    private int[] styleIds = new int[INITIAL_CAPACITY];
+    private byte[] displayModes = new byte[INITIAL_CAPACITY];
+    private final BitSet allDay = new BitSet();
+    private final BitSet removed = new BitSet();
+
+    private int rowCount;
+    private int removedCount;
+
+    public ColumnarEntryProvider() {
+    }
+
+    public ColumnarEntryProvider(Iterable<Entry> entries) {
+        addEntries(entries);
+    }
+
+    /**
+     * Creates a new instance containing the given entries. The entries are not referenced by the instance.
+     * @param entries initial entries
+     * @return columnar provider
+     */
+    public static ColumnarEntryProvider from(Entry... entries) {
+        return new ColumnarEntryProvider(Arrays.asList(entries));
+    }
+
+    /**
+     * Creates a new instance containing the given entries. The entries are not referenced by the instance.
+     * @param entries initial entries
+     * @return columnar provider
+     */
+    public static ColumnarEntryProvider from(Iterable<Entry> entries) {
+        return new ColumnarEntryProvider(entries);
+    }
+
+    @Override
+    public Stream<Entry> fetch(@NonNull EntryQuery query) {
+        long start = toMillis(query.getStart());
+        long end = toMillis(query.getEnd());
+
+        List<Entry> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int row = 0; row < rowCount; row++) {
+                if (!removed.get(row) && crosses(row, start, end)) {
+                    matches.add(materialize(row));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // the time range has already been checked, the query handles the remaining filters (e.g. all day)
+        return query.applyFilter(matches.stream());
+    }
+
+    @Override
+    public Optional<Entry> fetchById(@NonNull String id) {
+        lock.readLock().lock();
+        try {
+            int row = rowsById.get(id);
+            return row != IdRowTable.NO_ROW ? Optional.of(materialize(row)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the matching entries by scanning the start, end and all day columns, without creating any entry.
+     *
+     * @param query query
+     * @return amount of matching entries
+     */
+    @Override
+    public long count(@NonNull EntryQuery query) {
+        long start = toMillis(query.getStart());
+        long end = toMillis(query.getEnd());
+        EntryQuery.AllDay allDayFilter = query.getAllDay();
+
+        long count = 0;
+        lock.readLock().lock();
+        try {
+            for (int row = 0; row < rowCount; row++) {
+                if (!removed.get(row) && crosses(row, start, end) && matchesAllDay(row, allDayFilter)) {
+                    count++;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return count;
+    }
+
+    @Override
+    public boolean exists(@NonNull EntryQuery query) {
+        long start = toMillis(query.getStart());
+        long end = toMillis(query.getEnd());
+        EntryQuery.AllDay allDayFilter = query.getAllDay();
+
+        lock.readLock().lock();
+        try {
+            for (int row = 0; row < rowCount; row++) {
+                if (!removed.get(row) && crosses(row, start, end) && matchesAllDay(row, allDayFilter)) {
+                    return true;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return false;
+    }
+
+    @Override
+    public Stream<Entry> fetchByIds(@NonNull Collection<String> ids) {
+        List<Entry> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (String id : new LinkedHashSet<>(ids)) {
+                int row = rowsById.get(id);
+                if (row != IdRowTable.NO_ROW) {
+                    found.add(materialize(row));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found.stream();
+    }
+
+    /**
+     * Adds the given entries. Noop for already registered entry ids. The entries are not referenced by this
+     * provider, later changes on them have to be stored using {@link #updateEntries(Iterable)}.
+     *
+     * @param iterableEntries entries
+     * @throws NullPointerException     when null is passed
+     * @throws IllegalArgumentException when an entry is recurring
+     */
+    public void addEntries(@NonNull Iterable<Entry> iterableEntries) {
+        lock.writeLock().lock();
+        try {
+            for (Entry entry : iterableEntries) {
+                checkSupported(entry);
+                if (!rowsById.contains(entry.getId())) {
+                    ensureCapacity(rowCount + 1);
+                    int row = rowCount++;
+                    ids[row] = entry.getId();
+                    rowsById.put(entry.getId(), row);
+                    write(row, entry);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the given entries. Noop for already registered entry ids.
+     *
+     * @param entries entries
+     * @see #addEntries(Iterable)
+     */
+    public void addEntries(Entry... entries) {
+        addEntries(Arrays.asList(entries));
+    }
+
+    /**
+     * Adds the given entry. Noop for an already registered entry id.
+     *
+     * @param entry entry
+     * @see #addEntries(Iterable)
+     */
+    public void addEntry(@NonNull Entry entry) {
+        addEntries(Collections.singletonList(entry));
+    }
+
+    /**
+     * Stores the current state of the given entries. Ignores entries with an unknown id.
+     *
+     * @param iterableEntries entries
+     * @throws NullPointerException     when null is passed
+     * @throws IllegalArgumentException when an entry is recurring
+     */
+    public void updateEntries(@NonNull Iterable<Entry> iterableEntries) {
+        lock.writeLock().lock();
+        try {
+            for (Entry entry : iterableEntries) {
+                checkSupported(entry);
+                int row = rowsById.get(entry.getId());
+                if (row != IdRowTable.NO_ROW) {
+                    release(row);
+                    write(row, entry);
+                }
+            }
+
+            compactIfNecessary();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stores the current state of the given entries. Ignores entries with an unknown id.
+     *
+     * @param entries entries
+     * @see #updateEntries(Iterable)
+     */
+    public void updateEntries(Entry... entries) {
+        updateEntries(Arrays.asList(entries));
+    }
+
+    /**
+     * Removes the entries with the ids of the given entries. Noop for unknown ids.
+     *
+     * @param iterableEntries entries
+     * @throws NullPointerException when null is passed
+     */
+    public void removeEntries(@NonNull Iterable<Entry> iterableEntries) {
+        lock.writeLock().lock();
+        try {
+            for (Entry entry : iterableEntries) {
+                int row = rowsById.remove(entry.getId());
+                if (row != IdRowTable.NO_ROW) {
+                    release(row);
+                    removed.set(row);
+                    ids[row] = null;
+                    titles[row] = null;
+                    removedCount++;
+                }
+            }
+
+            compactIfNecessary();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the entries with the ids of the given entries. Noop for unknown ids.
+     *
+     * @param entries entries
+     */
+    public void removeEntries(Entry... entries) {
+        removeEntries(Arrays.asList(entries));
+    }
+
+    /**
+     * Removes the entry with the id of the given entry. Noop for an unknown id.
+     *
+     * @param entry entry
+     */
+    public void removeEntry(@NonNull Entry entry) {
+        removeEntries(Collections.singletonList(entry));
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void removeAllEntries() {
+        lock.writeLock().lock();
+        try {
+            rowsById.clear();
+            dictionary = new StringDictionary();
+            allDay.clear();
+            removed.clear();
+            rowCount = 0;
+            removedCount = 0;
+            Arrays.fill(ids, null);
+            Arrays.fill(titles, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the amount of entries.
+     *
+     * @return size
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rowsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns all entries as a new list of new instances.
+     *
+     * @return all entries
+     */
+    public List<Entry> getEntries() {
+        return fetchAll().collect(Collectors.toList());
+    }
+
+    private boolean crosses(int row, long start, long end) {
+        long entryStart = starts[row];
+        long entryEnd = ends[row];
+
+        // same semantics as EntryQuery#applyFilter for non recurring entries
+        if (start != NO_TIME && (entryEnd == NO_TIME ? entryStart == NO_TIME : entryEnd <= start)) {
+            return false;
+        }
+
+        return end == NO_TIME || (entryStart != NO_TIME && entryStart < end);
+    }
+
+    private boolean matchesAllDay(int row, EntryQuery.AllDay filter) {
+        return filter == EntryQuery.AllDay.BOTH || allDay.get(row) == (filter == EntryQuery.AllDay.ALL_DAY_ONLY);
+    }
+
+    private Entry materialize(int row) {
+        Entry entry = new Entry(ids[row]);
+        entry.setGroupId(dictionary.decode(groupIds[row]));
+        entry.setTitle(titles[row]);
+        entry.setStart(toDateTime(starts[row]));
+        entry.setEnd(toDateTime(ends[row]));
+        entry.setAllDay(allDay.get(row));
+        entry.setColor(dictionary.decode(colors[row]));
+        entry.setBackgroundColor(dictionary.decode(backgroundColors[row]));
+        entry.setBorderColor(dictionary.decode(borderColors[row]));
+        entry.setTextColor(dictionary.decode(textColors[row]));
+        entry.setStyleId(dictionary.decode(styleIds[row]));
+
+        byte displayMode = displayModes[row];
+        if (displayMode != NO_DISPLAY_MODE) {
+            entry.setDisplayMode(DISPLAY_MODES[displayMode]);
+        }
+        return entry;
+    }
+
+    private void write(int row, Entry entry) {
+        starts[row] = toMillis(entry.getStart());
+        ends[row] = toMillis(entry.getEnd());
+        allDay.set(row, entry.isAllDay());
+        groupIds[row] = dictionary.encode(entry.getGroupId());
+        titles[row] = entry.getTitle();
+        colors[row] = dictionary.encode(entry.getColor());
+        backgroundColors[row] = dictionary.encode(entry.getBackgroundColor());
+        borderColors[row] = dictionary.encode(entry.getBorderColor());
+        textColors[row] = dictionary.encode(entry.getTextColor());
+        styleIds[row] = dictionary.encode(entry.getStyleId());
+        displayModes[row] = entry.getDisplayMode() != null ? (byte) entry.getDisplayMode().ordinal() : NO_DISPLAY_MODE;
+    }
+
+    /**
+     * Releases the dictionary strings of the given row. Has to be called before the row is overwritten or removed.
+     */
+    private void release(int row) {
+        dictionary.release(groupIds[row]);
+        dictionary.release(colors[row]);
+        dictionary.release(backgroundColors[row]);
+        dictionary.release(borderColors[row]);
+        dictionary.release(textColors[row]);
+        dictionary.release(styleIds[row]);
+    }
+
+    private void compactIfNecessary() {
+        int unusedStrings = dictionary.unused();
+        if ((removedCount > COMPACTION_THRESHOLD && removedCount > rowCount / 2)
+                || (unusedStrings > COMPACTION_THRESHOLD && unusedStrings > dictionary.size() / 2)) {
+            compact();
+        }
+    }
+
+    /**
+     * Removes the rows of removed entries and strings, that are not used anymore.
+     */
+    private void compact() {
+        StringDictionary oldDictionary = dictionary;
+        dictionary = new StringDictionary();
+        rowsById.clear();
+
+        int target = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (removed.get(row)) {
+                continue;
+            }
+
+            ids[target] = ids[row];
+            starts[target] = starts[row];
+            ends[target] = ends[row];
+            allDay.set(target, allDay.get(row));
+            groupIds[target] = recode(oldDictionary, groupIds[row]);
+            titles[target] = titles[row];
+            colors[target] = recode(oldDictionary, colors[row]);
+            backgroundColors[target] = recode(oldDictionary, backgroundColors[row]);
+            borderColors[target] = recode(oldDictionary, borderColors[row]);
+            textColors[target] = recode(oldDictionary, textColors[row]);
+            styleIds[target] = recode(oldDictionary, styleIds[row]);
+            displayModes[target] = displayModes[row];
+            rowsById.put(ids[target], target);
+            target++;
+        }
+
+        Arrays.fill(ids, target, rowCount, null);
+        Arrays.fill(titles, target, rowCount, null);
+        allDay.clear(target, rowCount);
+        removed.clear();
+        rowCount = target;
+        removedCount = 0;
+    }
+
+    private int recode(StringDictionary oldDictionary, int code) {
+        return dictionary.encode(oldDictionary.decode(code));
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            int newCapacity = Math.max(capacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, newCapacity);
+            starts = Arrays.copyOf(starts, newCapacity);
+            ends = Arrays.copyOf(ends, newCapacity);
+            groupIds = Arrays.copyOf(groupIds, newCapacity);
+            titles = Arrays.copyOf(titles, newCapacity);
+            colors = Arrays.copyOf(colors, newCapacity);
+            backgroundColors = Arrays.copyOf(backgroundColors, newCapacity);
+            borderColors = Arrays.copyOf(borderColors, newCapacity);
+            textColors = Arrays.copyOf(textColors, newCapacity);
+            styleIds = Arrays.copyOf(styleIds, newCapacity);
+            displayModes = Arrays.copyOf(displayModes, newCapacity);
+        }
+    }
+
+    private static void checkSupported(Entry entry) {
+        if (entry.isRecurring()) {
+            throw new IllegalArgumentException("Recurring entries are not supported by the columnar entry provider: " + entry.getId());
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_TIME;
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return millis != NO_TIME ? LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC) : null;
+    }
+}
@@ -0,0 +1,59 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import lombok.Getter;
+import org.vaadin.stefan.fullcalendar.Entry;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This event is fired, when a batch of modifications has been applied to an {@link InMemoryEntryProvider}
+ * (see {@link InMemoryEntryProvider#batch(java.util.function.Consumer)}). Besides the information, that the
+ * entries have changed, it contains the exact sets of added, changed and removed entries. An entry is part
+ * of at most one of these collections.
+ * <p></p>
+ * Since this is a subtype of {@link EntriesChangeEvent}, any entries change listener is notified as well.
+ * @author Stefan Uebe
+ */
+@Getter
+public class EntriesBatchChangeEvent<T extends Entry> extends EntriesChangeEvent<T> {
+
+    /**
+     * Entries, that have been added by the batch.
+     */
+    private final List<T> addedEntries;
+
+    /**
+     * Already registered entries, that have been updated (or replaced) by the batch.
+     */
+    private final List<T> changedEntries;
+
+    /**
+     * Entries, that have been removed by the batch.
+     */
+    private final List<T> removedEntries;
+
+    /**
+     * Constructs a new event.
+     *
+     * @param source         The object on which the Event initially occurred.
+     * @param addedEntries   added entries
+     * @param changedEntries changed entries
+     * @param removedEntries removed entries
+     * @throws IllegalArgumentException if source is null.
+     */
+    public EntriesBatchChangeEvent(EntryProvider<T> source, Collection<T> addedEntries, Collection<T> changedEntries, Collection<T> removedEntries) {
+        super(source);
+        this.addedEntries = List.copyOf(addedEntries);
+        this.changedEntries = List.copyOf(changedEntries);
+        this.removedEntries = List.copyOf(removedEntries);
+    }
+
+    /**
+     * Indicates, if the batch did not lead to any modification.
+     * @return is empty
+     */
+    public boolean isEmpty() {
+        return addedEntries.isEmpty() && changedEntries.isEmpty() && removedEntries.isEmpty();
+    }
+}
@@ -0,0 +1,60 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+import org.vaadin.stefan.fullcalendar.Entry;
+
+import java.io.Serializable;
+
+/**
+ * A single modification of an {@link InMemoryEntryProvider}, as recorded in its change journal. See
+ * {@link InMemoryEntryProvider#changesSince(long)}.
+ *
+ * @author Stefan Uebe
+ */
+@Getter
+@ToString
+public class EntryChange<T extends Entry> implements Serializable {
+
+    /**
+     * The provider version created by this change.
+     */
+    private final long version;
+
+    /**
+     * The type of modification.
+     */
+    private final Type type;
+
+    /**
+     * The affected entry. For removals this is the instance, that has been removed.
+     */
+    private final T entry;
+
+    public EntryChange(long version, @NonNull Type type, @NonNull T entry) {
+        this.version = version;
+        this.type = type;
+        this.entry = entry;
+    }
+
+    /**
+     * The different types of modifications.
+     */
+    public enum Type {
+        /**
+         * The entry has been added.
+         */
+        ADD,
+
+        /**
+         * The entry has been updated or refreshed.
+         */
+        UPDATE,
+
+        /**
+         * The entry has been removed.
+         */
+        REMOVE
+    }
+}
@@ -0,0 +1,104 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import org.vaadin.stefan.fullcalendar.Entry;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded journal of entry modifications, used by the {@link InMemoryEntryProvider}. Each recorded change
+ * increments the version. When the capacity is exceeded, the oldest changes are dropped, so that requests for
+ * older versions lead to a full resync. Not thread safe, the provider guards it by its lock.
+ *
+ * @author Stefan Uebe
+ */
+class EntryChangeJournal<T extends Entry> implements Serializable {
+
+    private final ArrayDeque<EntryChange<T>> changes = new ArrayDeque<>();
+    private int capacity;
+    private long version;
+
+    /**
+     * The lowest version, for which all following changes are still available.
+     */
+    private long baseVersion;
+
+    EntryChangeJournal(int capacity) {
+        setCapacity(capacity);
+    }
+
+    void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative");
+        }
+
+        this.capacity = capacity;
+        trim();
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    void record(EntryChange.Type type, T entry) {
+        version++;
+        changes.addLast(new EntryChange<>(version, type, entry));
+        trim();
+    }
+
+    /**
+     * Drops all recorded changes and increments the version. Used, when the changes cannot be tracked in
+     * detail, so that any consumer has to resync completely.
+     */
+    void invalidate() {
+        version++;
+        changes.clear();
+        baseVersion = version;
+    }
+
+    /**
+     * Drops all changes recorded after the given version and resets the version to it. Used to roll back
+     * changes, that have not been visible to anyone. Changes of the rolled back version, that have already
+     * been trimmed, are not restored.
+     */
+    void rollbackTo(long previousVersion) {
+        while (!changes.isEmpty() && changes.peekLast().getVersion() > previousVersion) {
+            changes.removeLast();
+        }
+        version = previousVersion;
+        baseVersion = Math.min(baseVersion, previousVersion);
+    }
+
+    EntryChangeSet<T> changesSince(long fromVersion) {
+        if (fromVersion == version) {
+            return new EntryChangeSet<>(fromVersion, version, false, List.of());
+        }
+
+        if (fromVersion < baseVersion || fromVersion > version) {
+            return new EntryChangeSet<>(fromVersion, version, true, List.of());
+        }
+
+        List<EntryChange<T>> result = new ArrayList<>();
+        for (EntryChange<T> change : changes) {
+            if (change.getVersion() > fromVersion) {
+                result.add(change);
+            }
+        }
+        return new EntryChangeSet<>(fromVersion, version, false, result);
+    }
+
+    private void trim() {
+        while (changes.size() > capacity) {
+            baseVersion = changes.removeFirst().getVersion();
+        }
+        if (changes.isEmpty()) {
+            baseVersion = version;
+        }
+    }
+}
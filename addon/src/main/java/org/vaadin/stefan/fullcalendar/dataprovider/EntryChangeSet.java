@@ -0,0 +1,72 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.vaadin.stefan.fullcalendar.Entry;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * The result of {@link InMemoryEntryProvider#changesSince(long)}. Either contains all changes since the requested
+ * version in the order they have been applied or indicates, that these are not available anymore and the consumer
+ * has to resync completely (e.g. by fetching all entries again).
+ *
+ * @author Stefan Uebe
+ */
+@Getter
+@ToString
+public class EntryChangeSet<T extends Entry> implements Serializable {
+
+    /**
+     * The version, that has been passed to {@link InMemoryEntryProvider#changesSince(long)}.
+     */
+    private final long fromVersion;
+
+    /**
+     * The current version of the provider. Pass it on the next call to receive the following changes.
+     */
+    private final long toVersion;
+
+    /**
+     * Indicates, that the changes since the requested version are not available anymore (or never have been).
+     * In that case the changes list is empty and the consumer has to read everything again.
+     */
+    private final boolean fullResync;
+
+    /**
+     * The changes in the order they have been applied. Empty when a full resync is required.
+     */
+    private final List<EntryChange<T>> changes;
+
+    EntryChangeSet(long fromVersion, long toVersion, boolean fullResync, Collection<EntryChange<T>> changes) {
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.fullResync = fullResync;
+        this.changes = List.copyOf(changes);
+    }
+
+    /**
+     * Indicates, that nothing has changed since the requested version.
+     *
+     * @return is empty
+     */
+    public boolean isEmpty() {
+        return !fullResync && changes.isEmpty();
+    }
+
+    /**
+     * Returns the net state of all changed entries mapped by their ids: the latest instance of added or updated
+     * entries and null for removed ones. Entries, that have been added and removed again, are contained as
+     * removed.
+     *
+     * @return net changes by entry id
+     */
+    public Map<String, T> getLatestStates() {
+        Map<String, T> states = new LinkedHashMap<>();
+        for (EntryChange<T> change : changes) {
+            states.put(change.getEntry().getId(), change.getType() == EntryChange.Type.REMOVE ? null : change.getEntry());
+        }
+        return states;
+    }
+}
@@ -0,0 +1,140 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import org.vaadin.stefan.fullcalendar.Entry;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An immutable index to count the entries matching a time range, used by the {@link InMemoryEntryProvider}.
+ * <p></p>
+ * For each all day category the starts and ends of the non-recurring entries are kept in sorted arrays. An entry
+ * with an end crosses the range {@code [start, end)}, when it starts before the range end and does not end at or
+ * before the range start. Since an entry, that ends before the range start, also starts before the range end, the
+ * amount of matches is the difference of two binary searches, O(log n). Entries without an end match, when they
+ * start before the range end (see {@link EntryQuery#applyFilter(java.util.stream.Stream)}).
+ * <p></p>
+ * Recurring entries, entries without a start and entries ending before they start are checked individually.
+ * The index is a snapshot of the entries at the time of creation and has to be recreated on any change.
+ *
+ * @author Stefan Uebe
+ */
+final class EntryCountIndex<T extends Entry> {
+
+    private final Category timed;
+    private final Category allDay;
+    private final List<T> others = new ArrayList<>();
+
+    EntryCountIndex(Collection<T> entries) {
+        CategoryBuilder timedBuilder = new CategoryBuilder();
+        CategoryBuilder allDayBuilder = new CategoryBuilder();
+
+        for (T entry : entries) {
+            LocalDateTime start = entry.getStart();
+            LocalDateTime end = entry.getEnd();
+            if (entry.isRecurring() || start == null || (end != null && end.isBefore(start))) {
+                others.add(entry);
+            } else {
+                (entry.isAllDay() ? allDayBuilder : timedBuilder).add(start, end);
+            }
+        }
+
+        timed = timedBuilder.build();
+        allDay = allDayBuilder.build();
+    }
+
+    /**
+     * Counts the entries matching the given query. The query must not have a range end before or at its start.
+     *
+     * @param query query
+     * @return amount of matching entries
+     */
+    long count(EntryQuery query) {
+        LocalDateTime start = query.getStart();
+        LocalDateTime end = query.getEnd();
+
+        long count = query.applyFilter(others.stream()).count();
+        if (query.getAllDay() != EntryQuery.AllDay.ALL_DAY_ONLY) {
+            count += timed.count(start, end);
+        }
+        if (query.getAllDay() != EntryQuery.AllDay.TIMED_ONLY) {
+            count += allDay.count(start, end);
+        }
+        return count;
+    }
+
+    private record Category(LocalDateTime[] starts, LocalDateTime[] ends, LocalDateTime[] openEndedStarts) {
+
+        long count(LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+            long bounded = rangeEnd != null ? countBefore(starts, rangeEnd) : starts.length;
+            if (rangeStart != null) {
+                bounded -= countAtOrBefore(ends, rangeStart);
+            }
+
+            long openEnded = rangeEnd != null ? countBefore(openEndedStarts, rangeEnd) : openEndedStarts.length;
+            return bounded + openEnded;
+        }
+
+        /**
+         * Returns the amount of values strictly before the given one.
+         */
+        private static int countBefore(LocalDateTime[] sorted, LocalDateTime value) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid].isBefore(value)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns the amount of values before or equal to the given one.
+         */
+        private static int countAtOrBefore(LocalDateTime[] sorted, LocalDateTime value) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (!sorted[mid].isAfter(value)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static final class CategoryBuilder {
+        private final List<LocalDateTime> starts = new ArrayList<>();
+        private final List<LocalDateTime> ends = new ArrayList<>();
+        private final List<LocalDateTime> openEndedStarts = new ArrayList<>();
+
+        void add(LocalDateTime start, LocalDateTime end) {
+            if (end == null) {
+                openEndedStarts.add(start);
+            } else {
+                starts.add(start);
+                ends.add(end);
+            }
+        }
+
+        Category build() {
+            return new Category(sorted(starts), sorted(ends), sorted(openEndedStarts));
+        }
+
+        private static LocalDateTime[] sorted(List<LocalDateTime> values) {
+            LocalDateTime[] array = values.toArray(new LocalDateTime[0]);
+            Arrays.sort(array);
+            return array;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import org.vaadin.stefan.fullcalendar.Entry;
+import org.vaadin.stefan.fullcalendar.RRule;
+
+import java.io.Serializable;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * A day based index of the occurrences of recurring entries, used by the {@link InMemoryEntryProvider} to check
+ * recurring entries against a time range without expanding their rules on each fetch.
+ * <p></p>
+ * The index covers a window of days around a center date. For each recurring entry a bitmap is kept, where each
+ * bit represents one day of the window and is set, when the entry may have an occurrence touching that day. The
+ * days are determined with the same conservative rules as {@link RecurringEntryFilter} (e.g. the occurrence span),
+ * so checking a range inside the window is a {@link BitSet#nextSetBit(int)} call, while comparing the days of two
+ * entries is a {@link BitSet#intersects(BitSet)} call.
+ * <p></p>
+ * Entries, whose occurrences cannot be determined on the server side (e.g. unsupported rule parts or unknown
+ * durations), are kept without a bitmap and have to be checked individually. The same applies to ranges not
+ * completely inside the window. The bitmaps are based on the recurrence at the time the entry has been added or
+ * updated. When it changes, the entry has to be {@link #update(Entry) updated}.
+ *
+ * @author Stefan Uebe
+ */
+class EntryOccurrenceIndex implements Serializable {
+
+    private final LocalDate center;
+    private final int days;
+    private final LocalDate windowStart;
+    private final int size;
+
+    private final Map<String, BitSet> bitmaps = new HashMap<>();
+    private final Set<String> notIndexable = new HashSet<>();
+
+    /**
+     * Creates a new index covering the given amount of days before and after the given center date.
+     *
+     * @param center center of the window
+     * @param days   days on each side of the center
+     */
+    EntryOccurrenceIndex(LocalDate center, int days) {
+        if (days <= 0) {
+            throw new IllegalArgumentException("Days must be positive");
+        }
+
+        this.center = Objects.requireNonNull(center);
+        this.days = days;
+        this.windowStart = center.minusDays(days);
+        this.size = 2 * days + 1;
+    }
+
+    /**
+     * Adds the given entry to the index. An entry with the same id, that is already indexed, is replaced.
+     * Non-recurring entries are ignored.
+     *
+     * @param entry entry to index
+     */
+    void add(Entry entry) {
+        remove(entry.getId());
+        if (!entry.isRecurring()) {
+            return;
+        }
+
+        BitSet bitmap = createBitmap(entry);
+        if (bitmap != null) {
+            bitmaps.put(entry.getId(), bitmap);
+        } else {
+            notIndexable.add(entry.getId());
+        }
+    }
+
+    /**
+     * Removes the entry with the given id from the index. Noop for unknown ids.
+     *
+     * @param id entry id
+     */
+    void remove(String id) {
+        if (bitmaps.remove(id) == null) {
+            notIndexable.remove(id);
+        }
+    }
+
+    /**
+     * Re-indexes the given entry based on its current recurrence.
+     *
+     * @param entry entry
+     */
+    void update(Entry entry) {
+        add(entry);
+    }
+
+    /**
+     * Returns the amount of days on each side of the center.
+     *
+     * @return days
+     */
+    int getDays() {
+        return days;
+    }
+
+    /**
+     * Indicates, if the window has to be moved, since the given date is more than a quarter of the window
+     * away from its center.
+     *
+     * @param today current date
+     * @return is outdated
+     */
+    boolean isOutdated(LocalDate today) {
+        return Math.abs(ChronoUnit.DAYS.between(center, today)) > days / 4;
+    }
+
+    /**
+     * Checks, if the indexed recurring entry with the given id may have an occurrence crossing the given
+     * range. Returns the same result as {@link RecurringEntryFilter#mayOccurIn(Entry, LocalDateTime, LocalDateTime)}
+     * or null, when the index cannot answer it (unknown or not indexable entry, range not inside the window).
+     *
+     * @param id    entry id
+     * @param start range start or null
+     * @param end   range end (exclusive) or null
+     * @return may occur or null
+     */
+    Boolean mayOccurIn(String id, LocalDateTime start, LocalDateTime end) {
+        BitSet bitmap = bitmaps.get(id);
+        if (bitmap == null || start == null || end == null) {
+            return null;
+        }
+
+        // the range is widened as in the filter, since the client expands recurrences in the calendar's timezone
+        int slack = RecurringEntryFilter.TIMEZONE_SLACK_DAYS;
+        int from = indexOf(start.toLocalDate()) - slack;
+        int to = indexOf(RecurringEntryFilter.lastDayOf(end)) + slack;
+        if (from < 0 || to >= size || to < from + 2 * slack) {
+            return null;
+        }
+
+        int next = bitmap.nextSetBit(from);
+        return next >= 0 && next <= to;
+    }
+
+    /**
+     * Returns the ids of all recurring entries, that may have an occurrence touching a day inside the window,
+     * which is touched by an occurrence of the given recurring entry, too. The days are not adjusted to any
+     * timezone. Entries, that cannot be indexed, are always part of the result. The given entry itself is not.
+     *
+     * @param entry recurring entry, does not need to be indexed
+     * @return ids of the possibly overlapping entries
+     * @throws IllegalArgumentException when the entry is not recurring or its occurrences cannot be determined
+     */
+    Set<String> overlapping(Entry entry) {
+        BitSet bitmap = entry.isRecurring() ? createBitmap(entry) : null;
+        if (bitmap == null) {
+            throw new IllegalArgumentException("The occurrences of entry " + entry.getId() + " cannot be determined");
+        }
+
+        Set<String> ids = new LinkedHashSet<>(notIndexable);
+        bitmaps.forEach((id, other) -> {
+            if (other.intersects(bitmap)) {
+                ids.add(id);
+            }
+        });
+        ids.remove(entry.getId());
+        return ids;
+    }
+
+    /**
+     * Creates the bitmap of the given entry. An occurrence on date d sets the days {@code [d, d + span - 1]},
+     * so that a range of days widened by the timezone slack intersects these bits exactly when the
+     * {@link RecurringEntryFilter} would keep the entry for it. Returns null, when the occurrences cannot be
+     * determined.
+     */
+    private BitSet createBitmap(Entry entry) {
+        long span = RecurringEntryFilter.occurrenceSpanInDays(entry);
+        if (span < 0) {
+            return null;
+        }
+
+        LocalDate from = windowStart.minusDays(span - 1);
+        LocalDate to = windowStart.plusDays(size - 1);
+
+        BitSet bitmap = new BitSet(size);
+        RRule rrule = entry.getRRule();
+        if (rrule != null) {
+            try {
+                rrule.occurrences(entry.getStart(), from.atStartOfDay(), to.plusDays(1).atStartOfDay())
+                        .map(LocalDateTime::toLocalDate)
+                        .distinct()
+                        .forEach(date -> mark(bitmap, date, span));
+            } catch (IllegalArgumentException e) {
+                return null; // the rule cannot be expanded on the server side
+            }
+            return bitmap;
+        }
+
+        Set<DayOfWeek> daysOfWeek = entry.getRecurringDaysOfWeek();
+        LocalDate startRecur = entry.getRecurringStartDate();
+        LocalDate endRecur = entry.getRecurringEndDate(); // inclusive, as in the filter
+        LocalDate first = startRecur != null && startRecur.isAfter(from) ? startRecur : from;
+        LocalDate last = endRecur != null && endRecur.isBefore(to) ? endRecur : to;
+        for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+            if (daysOfWeek == null || daysOfWeek.isEmpty() || daysOfWeek.contains(date.getDayOfWeek())) {
+                mark(bitmap, date, span);
+            }
+        }
+        return bitmap;
+    }
+
+    private void mark(BitSet bitmap, LocalDate date, long span) {
+        long index = ChronoUnit.DAYS.between(windowStart, date);
+        int first = (int) Math.max(0, index);
+        int last = (int) Math.min(size - 1, index + span - 1);
+        if (first <= last) {
+            bitmap.set(first, last + 1);
+        }
+    }
+
+    private int indexOf(LocalDate date) {
+        return (int) Math.max(-size, Math.min(size, ChronoUnit.DAYS.between(windowStart, date)));
+    }
+}
@@ -1,5 +1,6 @@
 package org.vaadin.stefan.fullcalendar.dataprovider;
 
+import com.vaadin.flow.function.SerializableBiConsumer;
 import com.vaadin.flow.function.SerializableFunction;
 import com.vaadin.flow.shared.Registration;
 import lombok.NonNull;
@@ -9,6 +10,7 @@ import org.vaadin.stefan.fullcalendar.FullCalendar;
 import java.io.Serializable;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -31,6 +33,18 @@ public interface EntryProvider<T extends Entry> extends Serializable {
         return new CallbackEntryProvider<>(fetchItems, fetchSingleItem);
     }
 
+    /**
+     * Creates a new instance that will fetch its content from the given callbacks. Passing null will lead to an exception.
+     * @param fetchItems callback to fetch items based on the given query
+     * @param fetchSingleItem callback to fetch a single item based on the given id
+     * @param fetchMultipleItems callback to fetch multiple items based on the given ids at once
+     * @param <T> type
+     * @return callback entry provider
+     */
+    static <T extends Entry> CallbackEntryProvider<T> fromCallbacks(SerializableFunction<EntryQuery, Stream<T>> fetchItems, SerializableFunction<String, T> fetchSingleItem, SerializableFunction<Collection<String>, Stream<T>> fetchMultipleItems) {
+        return new CallbackEntryProvider<>(fetchItems, fetchSingleItem, fetchMultipleItems);
+    }
+
     /**
      * Creates a lazy loading instance with no initial entries.
      * @param <T> type
@@ -109,6 +123,43 @@ public interface EntryProvider<T extends Entry> extends Serializable {
      */
     Optional<T> fetchById(@NonNull String id);
 
+    /**
+     * Returns the entries represented by the given ids. Unknown ids are ignored, the order of the returned
+     * entries is not defined. By default calls {@link #fetchById(String)} for each id, implementations should
+     * override this method, when they can fetch multiple entries at once (e.g. by a single backend query).
+     * @param ids ids
+     * @return stream containing the found entries
+     */
+    default Stream<T> fetchByIds(@NonNull Collection<String> ids) {
+        return ids.stream().distinct().map(this::fetchById).flatMap(Optional::stream);
+    }
+
+    /**
+     * Returns the amount of entries matching the given query. By default counts the result of
+     * {@link #fetch(EntryQuery)}, implementations should override this method, when they can count without
+     * creating the entries (e.g. by a <code>COUNT(*)</code> query).
+     * @param query query
+     * @return amount of matching entries
+     */
+    default long count(@NonNull EntryQuery query) {
+        try (Stream<T> stream = fetch(query)) {
+            return stream.count();
+        }
+    }
+
+    /**
+     * Indicates, if there is any entry matching the given query. By default checks the result of
+     * {@link #fetch(EntryQuery)} for the first match, implementations should override this method, when they can
+     * check it without creating the entries.
+     * @param query query
+     * @return there is at least one matching entry
+     */
+    default boolean exists(@NonNull EntryQuery query) {
+        try (Stream<T> stream = fetch(query)) {
+            return stream.findAny().isPresent();
+        }
+    }
+
     /**
      * Refreshes a single item.
      * <p></p>
@@ -142,6 +193,18 @@ public interface EntryProvider<T extends Entry> extends Serializable {
         return this instanceof InMemoryEntryProvider;
     }
 
+    /**
+     * Indicates, if this instance may be used by multiple calendars at the same time. Entries of a shared
+     * provider are not bound to a calendar (see {@link Entry#getCalendar()}) and listeners might be notified
+     * from any thread. Only shared providers can be set to multiple calendars, a custom implementation returning
+     * true must therefore accept multiple calls of {@link #setCalendar(FullCalendar)}. Returns false by default.
+     * @return is shared
+     * @see SharedInMemoryEntryProvider
+     */
+    default boolean isShared() {
+        return false;
+    }
+
     /**
      * Adds a listener, that will be notified, when the entries are about to change (e.g. due to a refresh).
      * @param listener listener
@@ -156,6 +219,36 @@ public interface EntryProvider<T extends Entry> extends Serializable {
      */
     Registration addEntryRefreshListener(EntryRefreshEvent.EntryRefreshListener<T> listener);
 
+    /**
+     * Adds a listener like {@link #addEntriesChangeListener(EntriesChangeEvent.EntriesChangeListener)}, that
+     * references the given owner (e.g. a calendar) only weakly. The listener is called with the owner and the event
+     * and is removed automatically, once the owner has been garbage collected. The listener itself must thus not
+     * reference the owner.
+     * <p></p>
+     * By default the owner is referenced strongly. Providers extending {@link AbstractEntryProvider} reference
+     * it weakly.
+     * @param owner owner of the listener
+     * @param listener listener
+     * @param <O> owner type
+     * @return registration to remove the listener
+     */
+    default <O> Registration addWeakEntriesChangeListener(O owner, SerializableBiConsumer<O, EntriesChangeEvent<T>> listener) {
+        return addEntriesChangeListener(event -> listener.accept(owner, event));
+    }
+
+    /**
+     * Adds a listener like {@link #addEntryRefreshListener(EntryRefreshEvent.EntryRefreshListener)}, that
+     * references the given owner (e.g. a calendar) only weakly. See
+     * {@link #addWeakEntriesChangeListener(Object, SerializableBiConsumer)} for details.
+     * @param owner owner of the listener
+     * @param listener listener
+     * @param <O> owner type
+     * @return registration to remove the listener
+     */
+    default <O> Registration addWeakEntryRefreshListener(O owner, SerializableBiConsumer<O, EntryRefreshEvent<T>> listener) {
+        return addEntryRefreshListener(event -> listener.accept(owner, event));
+    }
+
     /**
      * Casts this instance to an {@link InMemoryEntryProvider}.
      * @return this instance as an in memory instance
@@ -47,6 +47,11 @@ public class EntryQuery {
      * Simply applies the filter to the given stream and returns a stream containing only entries matching it.
      * Entries, that are "crossing" the time range border will be included in the stream.
      * <p></p>
+     * Recurring entries are only included, when they may have an occurrence in the time range (e.g. a
+     * Monday-only entry is not part of a query for a Saturday). This check is based on the recurrence
+     * fields or the {@link org.vaadin.stefan.fullcalendar.RRule} of the entry and is done conservatively,
+     * so an entry might be included, even if the client will not render an occurrence for it.
+     * <p></p>
      * Returns the same stream, when this filter is empty.
      *
      * @param stream stream
@@ -54,6 +59,19 @@ public class EntryQuery {
      * @return filtered stream
      */
     public <T extends Entry> Stream<T> applyFilter(Stream<T> stream) {
+        return applyFilter(stream, e -> RecurringEntryFilter.mayOccurIn(e, start, end));
+    }
+
+    /**
+     * Applies this filter to the given stream, using the given predicate to check, if a recurring entry
+     * may have an occurrence in the time range (e.g. based on an {@link EntryOccurrenceIndex}).
+     *
+     * @param stream           stream
+     * @param recurrenceFilter checks recurring entries against the time range
+     * @param <T>              type
+     * @return filtered stream
+     */
+    <T extends Entry> Stream<T> applyFilter(Stream<T> stream, Predicate<? super T> recurrenceFilter) {
         if (start == null && end == null && allDay == AllDay.BOTH) {
             return stream;
         }
@@ -92,6 +110,9 @@ public class EntryQuery {
             });
         }
 
+        if (start != null || end != null) {
+            stream = stream.filter(e -> !e.isRecurring() || recurrenceFilter.test(e));
+        }
 
         if (allDay != AllDay.BOTH) {
             Predicate<T> allDayFilter = Entry::isAllDay;
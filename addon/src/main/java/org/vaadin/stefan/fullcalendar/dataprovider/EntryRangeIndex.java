@@ -0,0 +1,178 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import org.vaadin.stefan.fullcalendar.Entry;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * A time based index of entries, used by the {@link InMemoryEntryProvider} to answer range queries without
+ * scanning all entries.
+ * <p></p>
+ * Non-recurring entries are kept in trees sorted by their start. Each tree only contains entries up to a certain
+ * duration, so a range query only needs to look at entries starting in {@code [start - maxDuration, end)} of
+ * each tree, which results in O(log n + k) per tree. Entries without an end are kept in a separate tree, that
+ * is queried by the range end only. Recurring entries and entries without a start are not indexed by time and
+ * are always part of the result.
+ * <p></p>
+ * The index returns candidates only. It is a superset of the matching entries and needs to be filtered
+ * afterwards (see {@link EntryQuery#applyFilter(java.util.stream.Stream)}).
+ * <p></p>
+ * The index is based on the start and end at the time the entry has been added or updated. When these
+ * change, the entry has to be {@link #update(Entry) updated}.
+ *
+ * @author Stefan Uebe
+ */
+class EntryRangeIndex<T extends Entry> implements Serializable {
+
+    /**
+     * Upper duration limits of the time trees. Entries exceeding the last limit or having no end are
+     * stored in an additional open ended tree.
+     */
+    private static final Duration[] DURATION_LIMITS = {
+            Duration.ofDays(1),
+            Duration.ofDays(7),
+            Duration.ofDays(32),
+            Duration.ofDays(366)
+    };
+
+    private static final int OPEN_ENDED = DURATION_LIMITS.length;
+    private static final int NOT_TIME_BASED = -1;
+
+    private final List<TreeMap<LocalDateTime, Map<String, T>>> trees = new ArrayList<>();
+    private final Map<String, T> notTimeBased = new LinkedHashMap<>();
+    private final Map<String, IndexKey> keys = new HashMap<>();
+
+    EntryRangeIndex() {
+        for (int i = 0; i <= OPEN_ENDED; i++) {
+            trees.add(new TreeMap<>());
+        }
+    }
+
+    /**
+     * Adds the given entry to the index. An entry with the same id, that is already indexed, is replaced.
+     *
+     * @param entry entry to index
+     */
+    void add(T entry) {
+        remove(entry.getId());
+
+        LocalDateTime start = entry.getStart();
+        if (entry.isRecurring() || start == null) {
+            notTimeBased.put(entry.getId(), entry);
+            keys.put(entry.getId(), new IndexKey(NOT_TIME_BASED, null));
+        } else {
+            int tree = treeOf(start, entry.getEnd());
+            trees.get(tree).computeIfAbsent(start, k -> new LinkedHashMap<>()).put(entry.getId(), entry);
+            keys.put(entry.getId(), new IndexKey(tree, start));
+        }
+    }
+
+    /**
+     * Removes the entry with the given id from the index. Noop for unknown ids.
+     *
+     * @param id entry id
+     */
+    void remove(String id) {
+        IndexKey key = keys.remove(id);
+        if (key == null) {
+            return;
+        }
+
+        if (key.tree() == NOT_TIME_BASED) {
+            notTimeBased.remove(id);
+        } else {
+            TreeMap<LocalDateTime, Map<String, T>> tree = trees.get(key.tree());
+            Map<String, T> sameStart = tree.get(key.start());
+            if (sameStart != null) {
+                sameStart.remove(id);
+                if (sameStart.isEmpty()) {
+                    tree.remove(key.start());
+                }
+            }
+        }
+    }
+
+    /**
+     * Re-indexes the given entry based on its current start, end and recurrence. Noop for entries, that are
+     * not part of this index.
+     *
+     * @param entry entry
+     */
+    void update(T entry) {
+        if (keys.containsKey(entry.getId())) {
+            add(entry);
+        }
+    }
+
+    /**
+     * Removes all entries from this index.
+     */
+    void clear() {
+        trees.forEach(TreeMap::clear);
+        notTimeBased.clear();
+        keys.clear();
+    }
+
+    /**
+     * Returns all entries, that potentially match the given time range. Both parameters may be null
+     * to indicate an unbounded side.
+     *
+     * @param start range start (inclusive) or null
+     * @param end   range end (exclusive) or null
+     * @return candidates
+     */
+    List<T> candidates(LocalDateTime start, LocalDateTime end) {
+        List<T> result = new ArrayList<>();
+
+        for (int i = 0; i < trees.size(); i++) {
+            TreeMap<LocalDateTime, Map<String, T>> tree = trees.get(i);
+            NavigableMap<LocalDateTime, Map<String, T>> range;
+
+            if (start != null && i != OPEN_ENDED) {
+                LocalDateTime from = start.minus(DURATION_LIMITS[i]);
+                range = end != null
+                        ? (from.isBefore(end) ? tree.subMap(from, true, end, false) : Collections.emptyNavigableMap())
+                        : tree.tailMap(from, true);
+            } else {
+                range = end != null ? tree.headMap(end, false) : tree;
+            }
+
+            for (Map<String, T> sameStart : range.values()) {
+                result.addAll(sameStart.values());
+            }
+        }
+
+        result.addAll(notTimeBased.values());
+        return result;
+    }
+
+    /**
+     * Returns the amount of indexed entries.
+     *
+     * @return size
+     */
+    int size() {
+        return keys.size();
+    }
+
+    private static int treeOf(LocalDateTime start, LocalDateTime end) {
+        if (end == null) {
+            return OPEN_ENDED;
+        }
+
+        Duration duration = Duration.between(start, end);
+        for (int i = 0; i < DURATION_LIMITS.length; i++) {
+            if (duration.compareTo(DURATION_LIMITS[i]) <= 0) {
+                return i;
+            }
+        }
+
+        return OPEN_ENDED;
+    }
+
+    private record IndexKey(int tree, LocalDateTime start) implements Serializable {
+    }
+}
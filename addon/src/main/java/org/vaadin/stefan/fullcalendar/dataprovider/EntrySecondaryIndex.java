@@ -0,0 +1,118 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import com.vaadin.flow.function.SerializableFunction;
+import org.vaadin.stefan.fullcalendar.Entry;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A key based index of entries, used by the {@link InMemoryEntryProvider} to answer lookups by a property
+ * (e.g. the group id) without scanning all entries. Each entry may be indexed under any number of keys, provided
+ * by the key extractor. Null keys are ignored.
+ * <p></p>
+ * The keys of an entry are determined at the time the entry has been added or updated. When the underlying
+ * property changes, the entry has to be {@link #update(Entry) updated}.
+ *
+ * @author Stefan Uebe
+ */
+class EntrySecondaryIndex<T extends Entry> implements Serializable {
+
+    private final SerializableFunction<? super T, ? extends Collection<?>> keysExtractor;
+    private final Map<Object, Map<String, T>> entriesByKey = new HashMap<>();
+    private final Map<String, List<Object>> keysById = new HashMap<>();
+
+    /**
+     * Creates a new index.
+     *
+     * @param keysExtractor extracts the keys of an entry. May return null or an empty collection for entries
+     *                      without key.
+     */
+    EntrySecondaryIndex(SerializableFunction<? super T, ? extends Collection<?>> keysExtractor) {
+        this.keysExtractor = Objects.requireNonNull(keysExtractor);
+    }
+
+    /**
+     * Adds the given entry to the index. An entry with the same id, that is already indexed, is replaced.
+     *
+     * @param entry entry to index
+     */
+    void add(T entry) {
+        remove(entry.getId());
+
+        Collection<?> keys = keysExtractor.apply(entry);
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+
+        List<Object> indexedKeys = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            if (key != null && entriesByKey.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(entry.getId(), entry) == null) {
+                indexedKeys.add(key);
+            }
+        }
+
+        if (!indexedKeys.isEmpty()) {
+            keysById.put(entry.getId(), indexedKeys);
+        }
+    }
+
+    /**
+     * Removes the entry with the given id from the index. Noop for unknown ids.
+     *
+     * @param id entry id
+     */
+    void remove(String id) {
+        List<Object> keys = keysById.remove(id);
+        if (keys == null) {
+            return;
+        }
+
+        for (Object key : keys) {
+            Map<String, T> entries = entriesByKey.get(key);
+            if (entries != null) {
+                entries.remove(id);
+                if (entries.isEmpty()) {
+                    entriesByKey.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Re-indexes the given entry based on its current keys.
+     *
+     * @param entry entry
+     */
+    void update(T entry) {
+        add(entry);
+    }
+
+    /**
+     * Removes all entries from this index.
+     */
+    void clear() {
+        entriesByKey.clear();
+        keysById.clear();
+    }
+
+    /**
+     * Returns the entries indexed under the given key as a new list.
+     *
+     * @param key key
+     * @return entries
+     */
+    List<T> get(Object key) {
+        Map<String, T> entries = entriesByKey.get(key);
+        return entries != null ? new ArrayList<>(entries.values()) : new ArrayList<>();
+    }
+
+    /**
+     * Returns all keys of this index as a new set.
+     *
+     * @return keys
+     */
+    Set<Object> keys() {
+        return new HashSet<>(entriesByKey.keySet());
+    }
+}
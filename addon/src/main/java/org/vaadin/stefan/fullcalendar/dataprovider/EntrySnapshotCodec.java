@@ -0,0 +1,556 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import org.vaadin.stefan.fullcalendar.BusinessHours;
+import org.vaadin.stefan.fullcalendar.Entry;
+import org.vaadin.stefan.fullcalendar.RRule;
+import org.vaadin.stefan.fullcalendar.RecurringTime;
+import org.vaadin.stefan.fullcalendar.json.JsonIgnore;
+
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Writes and reads binary snapshots of entries, used by {@link InMemoryEntryProvider#writeSnapshot(OutputStream)}.
+ * <p></p>
+ * Entries are written field by field, without using java serialization. Each written class is described once by
+ * its name and field names, so snapshots stay readable, when fields are added or removed later (unknown fields
+ * are skipped, missing ones keep their default). Strings are written only once and referenced afterwards.
+ * <p></p>
+ * Supported field values are strings, booleans, numbers (int, long, double), {@link LocalDateTime},
+ * {@link LocalDate}, {@link LocalTime}, {@link RecurringTime}, {@link BusinessHours}, {@link RRule}, enums, lists,
+ * sets and maps of those. Any other value leads to an {@link IllegalArgumentException} while writing. When reading,
+ * only entry types, enums and the mentioned types are instantiated.
+ * <p></p>
+ * Resources of the scheduler are not part of the entry, but shared between entries and the calendar. They are
+ * written as id references, that have to be resolved by a {@link SnapshotReferenceResolver} when reading, so
+ * that the restored entries refer to the existing resource instances.
+ *
+ * @author Stefan Uebe
+ */
+final class EntrySnapshotCodec {
+
+    private static final int MAGIC = 0x46435353; // "FCSS"
+    private static final int VERSION = 1;
+
+    /**
+     * Classes written field by field. Each of them needs a no-args constructor.
+     */
+    private static final Set<Class<?>> BEAN_TYPES = Set.of(RRule.class);
+
+    /**
+     * Names of classes written as id references. Referenced by name, since they are not part of this module.
+     */
+    private static final Set<String> REFERENCE_TYPES = Set.of("org.vaadin.stefan.fullcalendar.Resource");
+
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte LOCAL_DATE_TIME = 6;
+    private static final byte LOCAL_DATE = 7;
+    private static final byte LOCAL_TIME = 8;
+    private static final byte RECURRING_TIME = 9;
+    private static final byte ENUM = 10;
+    private static final byte LIST = 11;
+    private static final byte SET = 12;
+    private static final byte MAP = 13;
+    private static final byte BEAN = 14;
+    private static final byte BUSINESS_HOURS = 15;
+    private static final byte REFERENCE = 16;
+
+    private static final int NEW_REFERENCE = -1;
+    private static final int NULL_REFERENCE = -2;
+
+    private EntrySnapshotCodec() {
+    }
+
+    /**
+     * Writes the given entries as a snapshot to the given stream. The stream is not closed.
+     *
+     * @param entries entries
+     * @param out     target stream
+     * @throws IOException              on any io error
+     * @throws IllegalArgumentException when an entry contains an unsupported value
+     */
+    static void write(Collection<? extends Entry> entries, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(entries.size());
+
+        Writer writer = new Writer(data);
+        for (Entry entry : entries) {
+            writer.writeEntry(entry);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads all entries of the snapshot from the given stream. The stream is not closed.
+     *
+     * @param in       source stream
+     * @param resolver resolver for referenced objects or null, if the snapshot must not contain any references
+     * @return entries in the order they have been written
+     * @throws IOException on any io error, if the stream does not contain a valid snapshot or a reference
+     *                     cannot be resolved
+     */
+    static List<Entry> read(InputStream in, SnapshotReferenceResolver resolver) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("The stream does not contain an entry snapshot");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+
+        Reader reader = new Reader(data, resolver);
+        int count = reader.readSize();
+        List<Entry> entries = new ArrayList<>(Math.min(count, MAX_INITIAL_CAPACITY));
+        for (int i = 0; i < count; i++) {
+            entries.add(reader.readEntry());
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the fields to write for the given class. For entries the id (passed to the constructor) and
+     * json ignored fields (calendar related state) are excluded.
+     */
+    private static List<Field> fieldsOf(Class<?> type) {
+        boolean entryType = Entry.class.isAssignableFrom(type);
+        Map<String, Field> fields = new LinkedHashMap<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                if (entryType && (field.isAnnotationPresent(JsonIgnore.class) || (current == Entry.class && field.getName().equals("id")))) {
+                    continue;
+                }
+
+                field.setAccessible(true);
+                fields.putIfAbsent(field.getName(), field);
+            }
+        }
+        return new ArrayList<>(fields.values());
+    }
+
+    /**
+     * Returns the name of the reference type, the given class is or extends, or null.
+     */
+    private static String referenceTypeOf(Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            if (REFERENCE_TYPES.contains(current.getName())) {
+                return current.getName();
+            }
+        }
+        return null;
+    }
+
+    private static final class Writer {
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final Map<Class<?>, ClassDescriptor> classes = new HashMap<>();
+        private final Map<Class<?>, Method> idGetters = new HashMap<>();
+
+        private Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void writeEntry(Entry entry) throws IOException {
+            ClassDescriptor descriptor = writeClass(entry.getClass());
+            writeString(entry.getId());
+            writeFields(entry, descriptor);
+        }
+
+        private void writeFields(Object object, ClassDescriptor descriptor) throws IOException {
+            for (Field field : descriptor.fields()) {
+                Object value;
+                try {
+                    value = field.get(object);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Cannot read field " + field.getName(), e);
+                }
+
+                try {
+                    writeValue(value);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Cannot write " + descriptor.type().getSimpleName() + "." + field.getName() + ": " + e.getMessage(), e);
+                }
+            }
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value == null) {
+                out.writeByte(NULL);
+            } else if (value instanceof String string) {
+                out.writeByte(STRING);
+                writeString(string);
+            } else if (value instanceof Boolean bool) {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean(bool);
+            } else if (value instanceof Integer integer) {
+                out.writeByte(INT);
+                out.writeInt(integer);
+            } else if (value instanceof Long number) {
+                out.writeByte(LONG);
+                out.writeLong(number);
+            } else if (value instanceof Double number) {
+                out.writeByte(DOUBLE);
+                out.writeDouble(number);
+            } else if (value instanceof LocalDateTime dateTime) {
+                out.writeByte(LOCAL_DATE_TIME);
+                out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(dateTime.getNano());
+            } else if (value instanceof LocalDate date) {
+                out.writeByte(LOCAL_DATE);
+                out.writeLong(date.toEpochDay());
+            } else if (value instanceof LocalTime time) {
+                out.writeByte(LOCAL_TIME);
+                out.writeLong(time.toNanoOfDay());
+            } else if (value instanceof RecurringTime time) {
+                out.writeByte(RECURRING_TIME);
+                out.writeInt(time.getHour());
+                out.writeInt(time.getMinute());
+            } else if (value instanceof Enum<?> enumValue) {
+                out.writeByte(ENUM);
+                writeString(enumValue.getDeclaringClass().getName());
+                writeString(enumValue.name());
+            } else if (value instanceof Collection<?> collection) {
+                out.writeByte(value instanceof Set ? SET : LIST);
+                out.writeInt(collection.size());
+                for (Object item : collection) {
+                    writeValue(item);
+                }
+            } else if (value instanceof Map<?, ?> map) {
+                out.writeByte(MAP);
+                out.writeInt(map.size());
+                for (Map.Entry<?, ?> mapEntry : map.entrySet()) {
+                    writeValue(mapEntry.getKey());
+                    writeValue(mapEntry.getValue());
+                }
+            } else if (value instanceof BusinessHours hours) {
+                out.writeByte(BUSINESS_HOURS);
+                out.writeLong(hours.getStart().toNanoOfDay());
+                out.writeLong(hours.getEnd().toNanoOfDay());
+                out.writeInt(hours.getDayOfWeeks().size());
+                for (DayOfWeek day : hours.getDayOfWeeks()) {
+                    out.writeByte(day.getValue());
+                }
+            } else if (BEAN_TYPES.contains(value.getClass())) {
+                out.writeByte(BEAN);
+                writeFields(value, writeClass(value.getClass()));
+            } else if (referenceTypeOf(value.getClass()) != null) {
+                out.writeByte(REFERENCE);
+                writeString(referenceTypeOf(value.getClass()));
+                writeString(readId(value));
+            } else {
+                throw new IllegalArgumentException("values of type " + value.getClass().getName() + " are not supported");
+            }
+        }
+
+        private String readId(Object value) {
+            try {
+                Method getter = idGetters.get(value.getClass());
+                if (getter == null) {
+                    getter = value.getClass().getMethod("getId");
+                    idGetters.put(value.getClass(), getter);
+                }
+                return (String) getter.invoke(value);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot read the id of " + value.getClass().getName(), e);
+            }
+        }
+
+        private ClassDescriptor writeClass(Class<?> type) throws IOException {
+            ClassDescriptor descriptor = classes.get(type);
+            if (descriptor != null) {
+                out.writeInt(descriptor.index());
+                return descriptor;
+            }
+
+            descriptor = new ClassDescriptor(classes.size(), type, fieldsOf(type));
+            classes.put(type, descriptor);
+
+            out.writeInt(NEW_REFERENCE);
+            writeString(type.getName());
+            out.writeInt(descriptor.fields().size());
+            for (Field field : descriptor.fields()) {
+                writeString(field.getName());
+            }
+            return descriptor;
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                out.writeInt(NULL_REFERENCE);
+                return;
+            }
+
+            Integer reference = strings.get(value);
+            if (reference != null) {
+                out.writeInt(reference);
+                return;
+            }
+
+            strings.put(value, strings.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(NEW_REFERENCE);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static final class Reader {
+        private final DataInputStream in;
+        private final List<String> strings = new ArrayList<>();
+        private final List<ClassDescriptor> classes = new ArrayList<>();
+        private final Map<Class<?>, Constructor<?>> constructors = new HashMap<>();
+        private final SnapshotReferenceResolver resolver;
+
+        private Reader(DataInputStream in, SnapshotReferenceResolver resolver) {
+            this.in = in;
+            this.resolver = resolver;
+        }
+
+        Entry readEntry() throws IOException {
+            ClassDescriptor descriptor = readClass();
+            if (!Entry.class.isAssignableFrom(descriptor.type())) {
+                throw new IOException(descriptor.type().getName() + " is not an entry type");
+            }
+
+            String id = readString();
+            Entry entry = (Entry) instantiate(descriptor.type(), id);
+            readFields(entry, descriptor);
+            return entry;
+        }
+
+        private void readFields(Object object, ClassDescriptor descriptor) throws IOException {
+            for (Field field : descriptor.fields()) {
+                Object value = readValue();
+                if (field != null) {
+                    try {
+                        field.set(object, value);
+                    } catch (IllegalAccessException | IllegalArgumentException e) {
+                        throw new IOException("Cannot restore field " + field.getName() + " of " + descriptor.type().getName(), e);
+                    }
+                }
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Object readValue() throws IOException {
+            byte tag = in.readByte();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case STRING:
+                    return readString();
+                case BOOLEAN:
+                    return in.readBoolean();
+                case INT:
+                    return in.readInt();
+                case LONG:
+                    return in.readLong();
+                case DOUBLE:
+                    return in.readDouble();
+                case LOCAL_DATE_TIME:
+                    return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+                case LOCAL_DATE:
+                    return LocalDate.ofEpochDay(in.readLong());
+                case LOCAL_TIME:
+                    return LocalTime.ofNanoOfDay(in.readLong());
+                case RECURRING_TIME:
+                    return RecurringTime.of(in.readInt(), in.readInt());
+                case ENUM: {
+                    Class<?> type = loadClass(readString());
+                    if (!type.isEnum()) {
+                        throw new IOException(type.getName() + " is not an enum");
+                    }
+                    return Enum.valueOf((Class) type, readString());
+                }
+                case BUSINESS_HOURS: {
+                    long start = in.readLong();
+                    long end = in.readLong();
+                    int size = readSize();
+                    byte[] days = in.readNBytes(size);
+                    if (days.length != size) {
+                        throw new EOFException("Unexpected end of snapshot");
+                    }
+                    try {
+                        Set<DayOfWeek> dayOfWeeks = new LinkedHashSet<>();
+                        for (byte day : days) {
+                            dayOfWeeks.add(DayOfWeek.of(day));
+                        }
+                        return BusinessHours.of(dayOfWeeks).start(LocalTime.ofNanoOfDay(start)).end(LocalTime.ofNanoOfDay(end));
+                    } catch (IllegalArgumentException | DateTimeException e) {
+                        throw new IOException("Invalid business hours", e);
+                    }
+                }
+                case LIST:
+                case SET: {
+                    int size = readSize();
+                    Collection<Object> collection = tag == SET ? new LinkedHashSet<>() : new ArrayList<>(Math.min(size, MAX_INITIAL_CAPACITY));
+                    for (int i = 0; i < size; i++) {
+                        collection.add(readValue());
+                    }
+                    return collection;
+                }
+                case MAP: {
+                    int size = readSize();
+                    Map<Object, Object> map = new LinkedHashMap<>();
+                    for (int i = 0; i < size; i++) {
+                        map.put(readValue(), readValue());
+                    }
+                    return map;
+                }
+                case BEAN: {
+                    ClassDescriptor descriptor = readClass();
+                    if (!BEAN_TYPES.contains(descriptor.type())) {
+                        throw new IOException(descriptor.type().getName() + " is not allowed as a value");
+                    }
+                    Object bean = instantiate(descriptor.type(), null);
+                    readFields(bean, descriptor);
+                    return bean;
+                }
+                case REFERENCE:
+                    return readReference();
+                default:
+                    throw new IOException("Unknown value type " + tag);
+            }
+        }
+
+        private ClassDescriptor readClass() throws IOException {
+            int reference = in.readInt();
+            if (reference != NEW_REFERENCE) {
+                if (reference < 0 || reference >= classes.size()) {
+                    throw new IOException("Invalid class reference " + reference);
+                }
+                return classes.get(reference);
+            }
+
+            Class<?> type = loadClass(readString());
+            if (!BEAN_TYPES.contains(type) && !Entry.class.isAssignableFrom(type)) {
+                throw new IOException(type.getName() + " is not allowed in snapshots");
+            }
+
+            Map<String, Field> available = new HashMap<>();
+            fieldsOf(type).forEach(field -> available.put(field.getName(), field));
+
+            int fieldCount = readSize();
+            List<Field> fields = new ArrayList<>(Math.min(fieldCount, MAX_INITIAL_CAPACITY));
+            for (int i = 0; i < fieldCount; i++) {
+                fields.add(available.get(readString())); // null for fields, that do not exist anymore
+            }
+
+            ClassDescriptor descriptor = new ClassDescriptor(classes.size(), type, fields);
+            classes.add(descriptor);
+            return descriptor;
+        }
+
+        private Object readReference() throws IOException {
+            String typeName = readString();
+            String id = readString();
+            if (!REFERENCE_TYPES.contains(typeName) || id == null) {
+                throw new IOException("Invalid reference to " + typeName);
+            }
+            if (resolver == null) {
+                throw new IOException("The snapshot contains references to " + typeName + ", but no resolver has been passed");
+            }
+
+            Class<?> type = loadClass(typeName);
+            Object value = resolver.resolve(type, id);
+            if (!type.isInstance(value)) {
+                throw new IOException("Cannot resolve " + typeName + " with id " + id);
+            }
+            return value;
+        }
+
+        /**
+         * Reads a size or length, that must not be negative.
+         */
+        int readSize() throws IOException {
+            int size = in.readInt();
+            if (size < 0) {
+                throw new IOException("Invalid size " + size);
+            }
+            return size;
+        }
+
+        private Object instantiate(Class<?> type, String id) throws IOException {
+            try {
+                Constructor<?> constructor = constructors.get(type);
+                if (constructor == null) {
+                    constructor = id != null || Entry.class.isAssignableFrom(type)
+                            ? type.getDeclaredConstructor(String.class)
+                            : type.getDeclaredConstructor();
+                    constructor.setAccessible(true);
+                    constructors.put(type, constructor);
+                }
+                return constructor.getParameterCount() == 1 ? constructor.newInstance(id) : constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IOException("Cannot create an instance of " + type.getName(), e);
+            }
+        }
+
+        private Class<?> loadClass(String name) throws IOException {
+            if (name == null) {
+                throw new IOException("Missing class name");
+            }
+
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            try {
+                return Class.forName(name, false, loader != null ? loader : EntrySnapshotCodec.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                try {
+                    return Class.forName(name, false, EntrySnapshotCodec.class.getClassLoader());
+                } catch (ClassNotFoundException e2) {
+                    throw new IOException("Unknown class " + name, e2);
+                }
+            }
+        }
+
+        private String readString() throws IOException {
+            int reference = in.readInt();
+            if (reference == NULL_REFERENCE) {
+                return null;
+            }
+            if (reference != NEW_REFERENCE) {
+                if (reference < 0 || reference >= strings.size()) {
+                    throw new IOException("Invalid string reference " + reference);
+                }
+                return strings.get(reference);
+            }
+
+            // read in chunks, so that a corrupt length does not allocate a huge array upfront
+            int length = readSize();
+            byte[] bytes = in.readNBytes(length);
+            if (bytes.length != length) {
+                throw new EOFException("Unexpected end of snapshot");
+            }
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(value);
+            return value;
+        }
+    }
+
+    private record ClassDescriptor(int index, Class<?> type, List<Field> fields) {
+    }
+}
@@ -0,0 +1,148 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * An open addressing hash table mapping entry ids to row numbers, used by the {@link ColumnarEntryProvider}.
+ * In contrast to a {@code HashMap<String, Integer>}, it needs neither a node nor a boxed integer per entry, but
+ * only two array slots. The id strings are shared with the provider's id column.
+ * <p></p>
+ * Uses linear probing with a load factor of at most one half. Removals shift the following slots back, so
+ * no tombstones are needed.
+ *
+ * @author Stefan Uebe
+ */
+class IdRowTable implements Serializable {
+
+    /**
+     * The row returned for unknown ids.
+     */
+    static final int NO_ROW = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private int[] rows = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Returns the row of the given id or {@link #NO_ROW}.
+     *
+     * @param id id
+     * @return row or {@link #NO_ROW}
+     */
+    int get(String id) {
+        int mask = keys.length - 1;
+        for (int slot = slotOf(id, mask); keys[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot].equals(id)) {
+                return rows[slot];
+            }
+        }
+        return NO_ROW;
+    }
+
+    /**
+     * Indicates, if the given id is contained.
+     *
+     * @param id id
+     * @return is contained
+     */
+    boolean contains(String id) {
+        return get(id) != NO_ROW;
+    }
+
+    /**
+     * Maps the given id to the given row. An existing mapping of the id is replaced.
+     *
+     * @param id  id
+     * @param row row
+     */
+    void put(String id, int row) {
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+
+        int mask = keys.length - 1;
+        int slot = slotOf(id, mask);
+        while (keys[slot] != null) {
+            if (keys[slot].equals(id)) {
+                rows[slot] = row;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = id;
+        rows[slot] = row;
+        size++;
+    }
+
+    /**
+     * Removes the given id and returns its row or {@link #NO_ROW}, if it is unknown.
+     *
+     * @param id id
+     * @return removed row or {@link #NO_ROW}
+     */
+    int remove(String id) {
+        int mask = keys.length - 1;
+        int slot = slotOf(id, mask);
+        while (keys[slot] != null && !keys[slot].equals(id)) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == null) {
+            return NO_ROW;
+        }
+
+        int row = rows[slot];
+        size--;
+
+        // shift back following entries, that would not be found anymore otherwise
+        int free = slot;
+        for (int next = (free + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+            int home = slotOf(keys[next], mask);
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                rows[free] = rows[next];
+                free = next;
+            }
+        }
+        keys[free] = null;
+        return row;
+    }
+
+    /**
+     * Returns the amount of ids.
+     *
+     * @return size
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes all ids.
+     */
+    void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        String[] oldKeys = keys;
+        int[] oldRows = rows;
+        keys = new String[capacity];
+        rows = new int[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                put(oldKeys[i], oldRows[i]);
+            }
+        }
+    }
+
+    private static int slotOf(String id, int mask) {
+        int hash = id.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
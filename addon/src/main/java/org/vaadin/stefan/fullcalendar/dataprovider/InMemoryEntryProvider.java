@@ -1,5 +1,6 @@
 package org.vaadin.stefan.fullcalendar.dataprovider;
 
+import com.vaadin.flow.function.SerializableFunction;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
@@ -7,28 +8,98 @@ import org.vaadin.stefan.fullcalendar.Entry;
 import org.vaadin.stefan.fullcalendar.FullCalendar;
 import org.vaadin.stefan.fullcalendar.Timezone;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 /**
- * Basic implementation of an in memory entry provider utilizing a hashmap.
+ * Basic implementation of an in memory entry provider utilizing a hashmap. Time range based fetches are
+ * answered by a time index, so that only entries in or near the requested range are looked at.
+ * <p></p>
+ * The time index is based on the start, end and recurrence of an entry at the time it has been added. When
+ * any of these are changed on an already added entry, call {@link #updateEntries(Iterable)},
+ * {@link #refreshItem(Entry)} or {@link #refreshAll()} afterwards to keep the index in sync.
+ * <p></p>
+ * The provider is thread safe. Modifications are serialized by a write lock, while fetches only hold a
+ * read lock to take a snapshot of the matching candidates, so concurrent fetches do not block each other and
+ * the returned streams are not affected by later modifications. To use one instance with multiple calendars
+ * (e.g. for multiple sessions), see {@link SharedInMemoryEntryProvider}.
+ * <p></p>
+ * Multiple modifications can be applied atomically using {@link #batch(Consumer)}, which also informs listeners
+ * once with the exact changes instead of requiring a {@link #refreshAll()}.
+ * <p></p>
+ * Lookups by other properties than the time can be sped up by secondary indexes, see
+ * {@link #addIndex(String, SerializableFunction)}. They are kept in sync the same way as the time index.
+ * <p></p>
+ * All entries can be exported to and imported from a binary snapshot, e.g. to speed up restarts, see
+ * {@link #writeSnapshot(OutputStream)}.
+ * <p></p>
+ * Each modification increments the {@link #getVersion() version} of this instance and is recorded in a bounded
+ * journal, so that consumers can sync incrementally using {@link #changesSince(long)}.
+ * <p></p>
+ * Recurring entries are checked against a fetched range by expanding their recurrence. For many recurring
+ * entries, an occurrence index with per day bitmaps can be enabled, see {@link #setOccurrenceIndexDays(int)}.
  *
  * @author Stefan Uebe
  */
 public class InMemoryEntryProvider<T extends Entry> extends AbstractEntryProvider<T> implements EntryProvider<T> {
 
+    /**
+     * Name of the built-in group id index, see {@link #getEntriesByGroupId(String)}.
+     */
+    public static final String GROUP_ID_INDEX = "groupId";
+
+    /**
+     * Default number of changes kept in the change journal, see {@link #setJournalCapacity(int)}.
+     */
+    public static final int DEFAULT_JOURNAL_CAPACITY = 1000;
+
+    /**
+     * Suggested number of days covered by the occurrence index on each side of the current date, see
+     * {@link #setOccurrenceIndexDays(int)}.
+     */
+    public static final int DEFAULT_OCCURRENCE_INDEX_DAYS = 730;
+
     /**
      * Maps the entry ids to their respective entry instance. Any change to this map reflects directly
-     * to this instance.
+     * to this instance. The time index is not updated on direct modifications, call {@link #refreshAll()}
+     * afterwards to rebuild it. Direct access is not guarded by the {@link #getLock() lock}.
      */
     @Getter(AccessLevel.PROTECTED)
     private final Map<String, T> entriesMap = new HashMap<>();
 
+    private final EntryRangeIndex<T> rangeIndex = new EntryRangeIndex<>();
+    private final Map<String, EntrySecondaryIndex<T>> secondaryIndexes = new HashMap<>();
+    private final EntryChangeJournal<T> journal = new EntryChangeJournal<>(DEFAULT_JOURNAL_CAPACITY);
+
+    /**
+     * Created on demand by {@link #count(EntryQuery)} and dropped on any modification.
+     */
+    private transient EntryCountIndex<T> countIndex;
+
+    /**
+     * Null, when the occurrence index is disabled, see {@link #setOccurrenceIndexDays(int)}.
+     */
+    private EntryOccurrenceIndex occurrenceIndex;
+
+    /**
+     * Guards the entries map and the time index. Subclasses accessing the entries map from multiple threads
+     * should use this lock as well.
+     */
+    @Getter(AccessLevel.PROTECTED)
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
     public InMemoryEntryProvider() {
     }
 
@@ -71,18 +142,159 @@ public class InMemoryEntryProvider<T extends Entry> extends AbstractEntryProvide
         super.setCalendar(calendar);
 
         if (oldCalendar != calendar) {
-            entriesMap.values().forEach(e -> e.setCalendar(calendar));
+            FullCalendar bindingCalendar = getBindingCalendar();
+            read(() -> new ArrayList<>(entriesMap.values())).forEach(e -> e.setCalendar(bindingCalendar));
         }
     }
 
+    /**
+     * Returns the calendar, that entries shall be bound to. Null, if there is no calendar or if it has
+     * the entry binding disabled (see {@link FullCalendar#setEntryBindingEnabled(boolean)}).
+     *
+     * @return calendar or null
+     */
+    protected FullCalendar getBindingCalendar() {
+        FullCalendar calendar = getCalendar();
+        return calendar != null && calendar.isEntryBindingEnabled() ? calendar : null;
+    }
+
+    /**
+     * Fetches the matching entries. The candidates are copied under the read lock, the filtering happens
+     * on that snapshot afterwards.
+     *
+     * @param query query
+     * @return matching entries
+     */
     @Override
     public Stream<T> fetch(@NonNull EntryQuery query) {
-        return query.applyFilter(entriesMap.values().stream());
+        LocalDateTime start = query.getStart();
+        LocalDateTime end = query.getEnd();
+        if (start == null && end == null) {
+            return query.applyFilter(read(() -> new ArrayList<>(entriesMap.values())).stream());
+        }
+
+        moveOccurrenceIndexIfOutdated();
+
+        // recurring entries known to occur in the range by the occurrence index, others are checked individually
+        Set<T> occurring = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<T> snapshot = read(() -> {
+            List<T> candidates = rangeIndex.candidates(start, end);
+            if (occurrenceIndex != null) {
+                candidates.removeIf(entry -> {
+                    Boolean mayOccur = entry.isRecurring() ? occurrenceIndex.mayOccurIn(entry.getId(), start, end) : null;
+                    if (Boolean.TRUE.equals(mayOccur)) {
+                        occurring.add(entry);
+                    }
+                    return Boolean.FALSE.equals(mayOccur);
+                });
+            }
+            return candidates;
+        });
+
+        return query.applyFilter(snapshot.stream(),
+                entry -> occurring.contains(entry) || RecurringEntryFilter.mayOccurIn(entry, start, end));
+    }
+
+    /**
+     * Updates the time index for the given item, before informing the calendar about the refresh.
+     *
+     * @param item item to refresh
+     */
+    @Override
+    public void refreshItem(T item) {
+        write(() -> {
+            T registered = entriesMap.get(item.getId());
+            if (registered != null) {
+                reindex(registered);
+                journal.record(EntryChange.Type.UPDATE, registered);
+            }
+        });
+
+        super.refreshItem(item);
+    }
+
+    /**
+     * Rebuilds the time index, before informing the calendar about the refresh. Since the changes are not
+     * known in detail, consumers of {@link #changesSince(long)} have to resync completely afterwards.
+     */
+    @Override
+    public void refreshAll() {
+        rebuildIndex();
+        write(journal::invalidate);
+        super.refreshAll();
+    }
+
+    /**
+     * Rebuilds the internal time index from the current entries. Only necessary, when entries have been
+     * changed without calling any of the update or refresh methods.
+     */
+    protected void rebuildIndex() {
+        write(() -> {
+            rangeIndex.clear();
+            secondaryIndexes.values().forEach(EntrySecondaryIndex::clear);
+            countIndex = null;
+            if (occurrenceIndex != null) {
+                occurrenceIndex = new EntryOccurrenceIndex(today(), occurrenceIndex.getDays());
+            }
+            entriesMap.values().forEach(this::index);
+        });
     }
 
     @Override
     public Optional<T> fetchById(@NonNull String id) {
-        return Optional.ofNullable(entriesMap.get(id));
+        return Optional.ofNullable(read(() -> entriesMap.get(id)));
+    }
+
+    /**
+     * Counts the matching entries without filtering them one by one. On the first call after a modification, a
+     * count index is created (O(n log n)), that answers following calls in O(log n) plus the amount of
+     * recurring entries.
+     *
+     * @param query query
+     * @return amount of matching entries
+     */
+    @Override
+    public long count(@NonNull EntryQuery query) {
+        LocalDateTime start = query.getStart();
+        LocalDateTime end = query.getEnd();
+        if (start != null && end != null && !start.isBefore(end)) {
+            return super.count(query);
+        }
+
+        return getCountIndex().count(query);
+    }
+
+    @Override
+    public boolean exists(@NonNull EntryQuery query) {
+        return count(query) > 0;
+    }
+
+    private EntryCountIndex<T> getCountIndex() {
+        EntryCountIndex<T> index = read(() -> countIndex);
+        if (index != null) {
+            return index;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (countIndex == null) {
+                countIndex = new EntryCountIndex<>(entriesMap.values());
+            }
+            return countIndex;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Stream<T> fetchByIds(@NonNull Collection<String> ids) {
+        List<T> found = read(() -> ids.stream()
+                .distinct()
+                .map(entriesMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+
+        return found.stream();
     }
 
     /**
@@ -94,15 +306,39 @@ public class InMemoryEntryProvider<T extends Entry> extends AbstractEntryProvide
     public void addEntries(Iterable<T> iterableEntries) {
         Objects.requireNonNull(iterableEntries);
 
-        iterableEntries.forEach(entry -> {
-            String id = entry.getId();
+        write(() -> iterableEntries.forEach(this::addEntryInternal));
+    }
 
-            if (!entriesMap.containsKey(id)) {
-                entriesMap.put(id, entry);
-                entry.setCalendar(getCalendar());
-                onEntryAdd(entry);
-            }
-        });
+    private boolean addEntryInternal(T entry) {
+        String id = entry.getId();
+
+        if (!entriesMap.containsKey(id)) {
+            entriesMap.put(id, entry);
+            index(entry);
+            journal.record(EntryChange.Type.ADD, entry);
+            entry.setCalendar(getBindingCalendar());
+            onEntryAdd(entry);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes the entry with the given id from the map and all indexes without recording a change or calling
+     * any hooks. Used to roll back a failed batch.
+     */
+    private void discardEntryInternal(String id) {
+        T entry = entriesMap.remove(id);
+        rangeIndex.remove(id);
+        secondaryIndexes.values().forEach(index -> index.remove(id));
+        if (occurrenceIndex != null) {
+            occurrenceIndex.remove(id);
+        }
+        countIndex = null;
+        if (entry != null) {
+            entry.setCalendar(null);
+        }
     }
 
     protected void onEntryAdd(T entry) {
@@ -119,14 +355,26 @@ public class InMemoryEntryProvider<T extends Entry> extends AbstractEntryProvide
     public void removeEntries(Iterable<T> iterableEntries) {
         Objects.requireNonNull(iterableEntries);
 
-        iterableEntries.forEach(entry -> {
-            String id = entry.getId();
-            if (entriesMap.remove(id) != null) {
-                entry.setCalendar(null);
+        write(() -> iterableEntries.forEach(this::removeEntryInternal));
+    }
 
-                onEntryRemove(entry);
+    private boolean removeEntryInternal(T entry) {
+        String id = entry.getId();
+        if (entriesMap.remove(id) != null) {
+            rangeIndex.remove(id);
+            secondaryIndexes.values().forEach(index -> index.remove(id));
+            if (occurrenceIndex != null) {
+                occurrenceIndex.remove(id);
             }
-        });
+            countIndex = null;
+            journal.record(EntryChange.Type.REMOVE, entry);
+            entry.setCalendar(null);
+
+            onEntryRemove(entry);
+            return true;
+        }
+
+        return false;
     }
 
     protected void onEntryRemove(T entry) {
@@ -134,16 +382,56 @@ public class InMemoryEntryProvider<T extends Entry> extends AbstractEntryProvide
     }
 
     /**
-     * Updates the given entries on the client side. Ignores non-registered entries.
+     * Updates the given entries on the client side and in the time index. Ignores non-registered entries.
      *
      * @param iterableEntries entries to update
      * @throws NullPointerException when null is passed
      */
     public void updateEntries(Iterable<T> iterableEntries) {
         Objects.requireNonNull(iterableEntries);
-        Map<String, T> entriesMap = getEntriesMap();
-        StreamSupport.stream(iterableEntries.spliterator(), true)
-                .filter(entry -> entriesMap.containsKey(entry.getId()) && entry.isKnownToTheClient())
+        List<T> updated = new ArrayList<>();
+        write(() -> iterableEntries.forEach(entry -> {
+            if (updateEntryInternal(entry)) {
+                updated.add(entry);
+            }
+        }));
+
+        notifyEntriesUpdated(updated);
+    }
+
+    private boolean updateEntryInternal(T entry) {
+        T registered = entriesMap.get(entry.getId());
+        if (registered != null) {
+            reindex(registered);
+            journal.record(EntryChange.Type.UPDATE, registered);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Updates the indexes of the given entry without announcing a change, e.g. after the client has changed
+     * the entry (see {@link org.vaadin.stefan.fullcalendar.EntryDataEvent#applyChangesOnEntry()}). In contrast
+     * to {@link #updateEntries(Iterable)}, neither {@link #onEntryUpdate(Entry)} nor any listener is called and
+     * no change is recorded for {@link #changesSince(long)}. Noop for not registered entries.
+     *
+     * @param entry entry to reindex
+     */
+    public void reindexEntry(@NonNull T entry) {
+        write(() -> {
+            T registered = entriesMap.get(entry.getId());
+            if (registered != null) {
+                reindex(registered);
+            }
+        });
+    }
+
+    private void notifyEntriesUpdated(Collection<T> updated) {
+        // sequentially on the calling thread, listeners and subclasses are not necessarily thread safe
+        FullCalendar calendar = getCalendar();
+        updated.stream()
+                .filter(entry -> entry.isKnownToTheClient() || (calendar != null && calendar.isEntryKnownToTheClient(entry)))
                 .forEach(this::onEntryUpdate);
     }
 
@@ -267,4 +555,671 @@ public class InMemoryEntryProvider<T extends Entry> extends AbstractEntryProvide
     public void removeAllEntries() {
         removeEntries(fetchAll().collect(Collectors.toList())); // prevent concurrent mod exception
     }
+
+    /**
+     * Returns the current version of this instance. The version starts at 0 and is incremented by each add,
+     * update, refresh or removal of an entry and by {@link #refreshAll()}.
+     *
+     * @return version
+     */
+    public long getVersion() {
+        return read(journal::getVersion);
+    }
+
+    /**
+     * Returns all changes applied since the given version, which has been obtained by {@link #getVersion()} or
+     * a previous call of this method ({@link EntryChangeSet#getToVersion()}). When the changes are not available
+     * anymore (because the journal has been truncated, {@link #refreshAll()} has been called or the version is
+     * unknown to this instance), the returned set indicates that a full resync is necessary.
+     * <p></p>
+     * Changes of entry properties, that have not been announced by an update or refresh, are not tracked.
+     *
+     * @param version version to get the changes since
+     * @return changes since the given version
+     */
+    public EntryChangeSet<T> changesSince(long version) {
+        return read(() -> journal.changesSince(version));
+    }
+
+    /**
+     * Sets the maximal number of changes kept for {@link #changesSince(long)}. When exceeded, the oldest changes
+     * are dropped. Set to 0 to disable the journal, in which case any outdated consumer has to resync completely.
+     * Default is {@link #DEFAULT_JOURNAL_CAPACITY}.
+     *
+     * @param capacity journal capacity
+     * @throws IllegalArgumentException when the capacity is negative
+     */
+    public void setJournalCapacity(int capacity) {
+        write(() -> journal.setCapacity(capacity));
+    }
+
+    /**
+     * Returns the maximal number of changes kept for {@link #changesSince(long)}.
+     *
+     * @return journal capacity
+     */
+    public int getJournalCapacity() {
+        return read(journal::getCapacity);
+    }
+
+    /**
+     * Sets the number of days before and after the current date, that are covered by the occurrence index. Set
+     * to 0 to disable the index, which is the default. See {@link #DEFAULT_OCCURRENCE_INDEX_DAYS} for a
+     * suggested value.
+     * <p></p>
+     * The occurrence index keeps a bitmap for each recurring entry, where each bit marks a day on which the
+     * entry may have an occurrence. Fetches of ranges inside the covered days then check recurring entries with
+     * a few bit operations instead of expanding their recurrence each time, which pays off for many recurring
+     * entries or frequent fetches (e.g. dashboards). The bitmap of an entry is recreated, when it is added or
+     * updated. The covered days move along with the current date, which recreates all bitmaps once in a while.
+     * <p></p>
+     * Ranges outside the covered days and entries, whose occurrences cannot be determined on the server side,
+     * are checked individually as without the index. The results are the same in any case.
+     *
+     * @param days days covered on each side of the current date or 0
+     * @throws IllegalArgumentException when the days are negative
+     * @see #getRecurringEntriesOnSameDays(Entry)
+     */
+    public void setOccurrenceIndexDays(int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("Days must not be negative");
+        }
+
+        write(() -> {
+            if (days != getOccurrenceIndexDaysInternal()) {
+                occurrenceIndex = days > 0 ? new EntryOccurrenceIndex(today(), days) : null;
+                if (occurrenceIndex != null) {
+                    entriesMap.values().forEach(occurrenceIndex::add);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the number of days before and after the current date covered by the occurrence index. 0 means,
+     * that the index is disabled.
+     *
+     * @return days covered on each side of the current date
+     */
+    public int getOccurrenceIndexDays() {
+        return read(this::getOccurrenceIndexDaysInternal);
+    }
+
+    private int getOccurrenceIndexDaysInternal() {
+        return occurrenceIndex != null ? occurrenceIndex.getDays() : 0;
+    }
+
+    /**
+     * Returns the recurring entries of this instance, that may have an occurrence on the same day as the given
+     * recurring entry, e.g. to find conflicts of a series. The check is done by intersecting the bitmaps of the
+     * occurrence index (see {@link #setOccurrenceIndexDays(int)}) and is therefore limited to the days covered
+     * by it. It is day based and conservative, so the times of the returned entries have to be checked, if
+     * necessary. Recurring entries, whose occurrences cannot be determined on the server side, are always part
+     * of the result.
+     * <p></p>
+     * The given entry does not need to be part of this instance. It is never part of the result.
+     *
+     * @param entry recurring entry
+     * @return recurring entries sharing at least one day with the given entry
+     * @throws IllegalStateException    when the occurrence index is disabled
+     * @throws IllegalArgumentException when the entry is not recurring or its occurrences cannot be determined
+     */
+    public List<T> getRecurringEntriesOnSameDays(@NonNull T entry) {
+        moveOccurrenceIndexIfOutdated();
+        return read(() -> {
+            if (occurrenceIndex == null) {
+                throw new IllegalStateException("The occurrence index is disabled, see setOccurrenceIndexDays(int)");
+            }
+
+            return occurrenceIndex.overlapping(entry).stream()
+                    .map(entriesMap::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        });
+    }
+
+    /**
+     * Recreates the occurrence index around the current date, when the date has moved too far from the
+     * center of the covered days.
+     */
+    private void moveOccurrenceIndexIfOutdated() {
+        if (!read(() -> occurrenceIndex != null && occurrenceIndex.isOutdated(today()))) {
+            return;
+        }
+
+        write(() -> {
+            if (occurrenceIndex != null && occurrenceIndex.isOutdated(today())) {
+                occurrenceIndex = new EntryOccurrenceIndex(today(), occurrenceIndex.getDays());
+                entriesMap.values().forEach(occurrenceIndex::add);
+            }
+        });
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(Timezone.ZONE_ID_UTC);
+    }
+
+    /**
+     * Writes all entries of this instance as a binary snapshot to the given stream. The snapshot contains the
+     * entries' properties only, indexes are rebuilt when reading the snapshot. The stream is flushed, but not
+     * closed.
+     * <p></p>
+     * Custom properties and other property values are written, when they are strings, booleans, numbers, dates,
+     * times, enums or lists, sets and maps of these. Entries are not modified during writing. Resources assigned
+     * to resource entries are written as ids only, see {@link #readSnapshot(InputStream, SnapshotReferenceResolver)}.
+     *
+     * @param out stream to write to
+     * @throws IOException              on any io error
+     * @throws IllegalArgumentException when an entry contains a property value, that cannot be written
+     * @throws NullPointerException     when null is passed
+     * @see #readSnapshot(InputStream)
+     */
+    public void writeSnapshot(@NonNull OutputStream out) throws IOException {
+        try {
+            read(() -> {
+                try {
+                    EntrySnapshotCodec.write(entriesMap.values(), out);
+                    return null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Replaces all entries of this instance with the entries read from the given snapshot stream, that has been
+     * created by {@link #writeSnapshot(OutputStream)}. The stream is read completely before any entry is
+     * replaced, so an invalid snapshot leaves this instance untouched. Indexes are rebuilt and registered
+     * listeners informed by a refresh all event. The stream is not closed.
+     * <p></p>
+     * The snapshot must contain entries of the type of this instance, which is not checked. Snapshots containing
+     * references (e.g. resources) have to be read with {@link #readSnapshot(InputStream, SnapshotReferenceResolver)}.
+     *
+     * @param in stream to read from
+     * @throws IOException          on any io error or if the stream does not contain a valid snapshot
+     * @throws NullPointerException when null is passed
+     */
+    public void readSnapshot(@NonNull InputStream in) throws IOException {
+        readSnapshot(in, null);
+    }
+
+    /**
+     * Replaces all entries of this instance with the entries read from the given snapshot stream. Works as
+     * {@link #readSnapshot(InputStream)}, but resolves referenced objects, that are not part of the snapshot
+     * (e.g. the resources assigned to resource entries), using the given resolver.
+     *
+     * @param in       stream to read from
+     * @param resolver resolver for referenced objects, may be null, if the snapshot does not contain references
+     * @throws IOException          on any io error, if the stream does not contain a valid snapshot or a
+     *                              reference cannot be resolved
+     * @throws NullPointerException when null is passed as stream
+     */
+    @SuppressWarnings("unchecked")
+    public void readSnapshot(@NonNull InputStream in, SnapshotReferenceResolver resolver) throws IOException {
+        List<T> entries = (List<T>) EntrySnapshotCodec.read(in, resolver);
+
+        write(() -> {
+            new ArrayList<>(entriesMap.values()).forEach(this::removeEntryInternal);
+            entries.forEach(this::addEntryInternal);
+        });
+
+        super.refreshAll(); // indexes are already up to date
+    }
+
+    /**
+     * Creates a new instance containing the entries read from the given snapshot stream.
+     *
+     * @param in stream to read from
+     * @param <T> entry type
+     * @return in memory provider
+     * @throws IOException          on any io error or if the stream does not contain a valid snapshot
+     * @throws NullPointerException when null is passed
+     * @see #writeSnapshot(OutputStream)
+     */
+    public static <T extends Entry> InMemoryEntryProvider<T> fromSnapshot(@NonNull InputStream in) throws IOException {
+        return fromSnapshot(in, null);
+    }
+
+    /**
+     * Creates a new instance containing the entries read from the given snapshot stream. Referenced objects,
+     * that are not part of the snapshot (e.g. resources), are resolved using the given resolver.
+     *
+     * @param in       stream to read from
+     * @param resolver resolver for referenced objects, may be null, if the snapshot does not contain references
+     * @param <T>      entry type
+     * @return in memory provider
+     * @throws IOException          on any io error, if the stream does not contain a valid snapshot or a
+     *                              reference cannot be resolved
+     * @throws NullPointerException when null is passed as stream
+     * @see #writeSnapshot(OutputStream)
+     */
+    public static <T extends Entry> InMemoryEntryProvider<T> fromSnapshot(@NonNull InputStream in, SnapshotReferenceResolver resolver) throws IOException {
+        InMemoryEntryProvider<T> provider = new InMemoryEntryProvider<>();
+        provider.readSnapshot(in, resolver);
+        return provider;
+    }
+
+    /**
+     * Applies all modifications done by the given action atomically as one batch. Fetches running in parallel
+     * either see none or all of the modifications. Afterwards registered listeners are informed once with an
+     * {@link EntriesBatchChangeEvent} containing the added, changed and removed entries, so there is no need to
+     * call {@link #refreshAll()}.
+     * <p></p>
+     * When the action throws an exception, no modification is applied. The same applies, when applying the
+     * modifications fails, e.g. because a hook like {@link #onEntryAdd(Entry)} or a secondary index throws an
+     * exception. In that case, the provider is rolled back, but hooks already called are not undone.
+     * <pre>
+     * provider.batch(batch -&gt; {
+     *     batch.removeEntries(outdated);
+     *     batch.addEntries(imported);
+     * });
+     * </pre>
+     *
+     * @param action action to fill the batch
+     * @return the event sent to listeners
+     * @throws NullPointerException when null is passed
+     */
+    public EntriesBatchChangeEvent<T> batch(@NonNull Consumer<Batch<T>> action) {
+        Batch<T> batch = beginBatch();
+        action.accept(batch);
+        return batch.commit();
+    }
+
+    /**
+     * Starts a new batch. Modifications are recorded by the batch and applied, when it is
+     * {@link Batch#commit() committed}. See {@link #batch(Consumer)} for details.
+     *
+     * @return new batch
+     */
+    public Batch<T> beginBatch() {
+        return new Batch<>(this);
+    }
+
+    /**
+     * Applies the recorded operations of the given batch and informs the listeners. When any operation or
+     * update hook fails, the already applied operations are rolled back before the exception is rethrown.
+     */
+    private EntriesBatchChangeEvent<T> applyBatch(List<BatchOperation<T>> operations) {
+        Map<String, T> added = new LinkedHashMap<>();
+        Map<String, T> changed = new LinkedHashMap<>();
+        Map<String, T> removed = new LinkedHashMap<>();
+
+        write(() -> {
+            long version = journal.getVersion();
+            Deque<Runnable> rollback = new ArrayDeque<>();
+            try {
+                for (BatchOperation<T> operation : operations) {
+                    T entry = operation.entry();
+                    String id = entry.getId();
+
+                    switch (operation.type()) {
+                        case ADD -> {
+                            if (!entriesMap.containsKey(id)) {
+                                rollback.push(() -> discardEntryInternal(id));
+                            }
+                            if (addEntryInternal(entry)) {
+                                if (removed.remove(id) != null) {
+                                    changed.put(id, entry); // replaced inside the batch
+                                } else {
+                                    added.put(id, entry);
+                                }
+                            }
+                        }
+                        case REMOVE -> {
+                            T registered = entriesMap.get(id);
+                            if (registered != null) {
+                                rollback.push(() -> {
+                                    discardEntryInternal(id);
+                                    entriesMap.put(id, registered);
+                                    index(registered);
+                                    registered.setCalendar(getBindingCalendar());
+                                });
+                            }
+                            if (removeEntryInternal(entry) && added.remove(id) == null) {
+                                changed.remove(id);
+                                removed.put(id, entry);
+                            }
+                        }
+                        case UPDATE -> {
+                            T registered = entriesMap.get(id);
+                            if (registered != null) {
+                                // the entry itself has already been changed, so its indexes are just recreated
+                                rollback.push(() -> reindex(registered));
+                            }
+                            if (updateEntryInternal(entry) && !added.containsKey(id)) {
+                                changed.put(id, entry);
+                            }
+                        }
+                    }
+                }
+
+                // inside the lock, so that a failing hook can still roll back the batch
+                notifyEntriesUpdated(changed.values());
+            } catch (RuntimeException | Error e) {
+                while (!rollback.isEmpty()) {
+                    try {
+                        rollback.pop().run();
+                    } catch (RuntimeException rollbackException) {
+                        e.addSuppressed(rollbackException);
+                    }
+                }
+                journal.rollbackTo(version);
+                throw e;
+            }
+        });
+
+        EntriesBatchChangeEvent<T> event = new EntriesBatchChangeEvent<>(this, added.values(), changed.values(), removed.values());
+        if (!event.isEmpty()) {
+            fireEvent(event);
+        }
+        return event;
+    }
+
+    /**
+     * Adds a secondary index with the given name. Each entry is indexed by the key returned by the given
+     * extractor, entries with a null key are not indexed. Use {@link #getEntriesByIndex(String, Object)} to
+     * look up entries by a key.
+     * <p></p>
+     * The index is kept in sync on add, remove and update of entries. When the indexed property of an
+     * already added entry changes, call {@link #updateEntries(Iterable)}, {@link #refreshItem(Entry)} or
+     * {@link #refreshAll()} afterwards.
+     * <pre>
+     * provider.addIndex("customer", entry -&gt; entry.getCustomProperty("customerId"));
+     * List&lt;Entry&gt; entries = provider.getEntriesByIndex("customer", customerId);
+     * </pre>
+     *
+     * @param name         index name
+     * @param keyExtractor extracts the key of an entry
+     * @return false, if there already is an index with the given name (in that case the existing index is kept)
+     * @throws NullPointerException when null is passed
+     */
+    public boolean addIndex(@NonNull String name, @NonNull SerializableFunction<? super T, ?> keyExtractor) {
+        return addMultiValueIndex(name, entry -> Collections.singleton(keyExtractor.apply(entry)));
+    }
+
+    /**
+     * Adds a secondary index with the given name, where each entry may be indexed under multiple keys, e.g.
+     * its resources. Entries, for which the extractor returns null or an empty collection, are not indexed.
+     * See {@link #addIndex(String, SerializableFunction)} for details.
+     *
+     * @param name          index name
+     * @param keysExtractor extracts the keys of an entry
+     * @return false, if there already is an index with the given name (in that case the existing index is kept)
+     * @throws NullPointerException when null is passed
+     */
+    public boolean addMultiValueIndex(@NonNull String name, @NonNull SerializableFunction<? super T, ? extends Collection<?>> keysExtractor) {
+        boolean[] added = new boolean[1];
+        write(() -> {
+            if (!secondaryIndexes.containsKey(name)) {
+                EntrySecondaryIndex<T> index = new EntrySecondaryIndex<>(keysExtractor);
+                entriesMap.values().forEach(index::add);
+                secondaryIndexes.put(name, index);
+                added[0] = true;
+            }
+        });
+        return added[0];
+    }
+
+    /**
+     * Removes the secondary index with the given name. Noop for unknown names.
+     *
+     * @param name index name
+     */
+    public void removeIndex(@NonNull String name) {
+        write(() -> secondaryIndexes.remove(name));
+    }
+
+    /**
+     * Indicates, if there is a secondary index with the given name.
+     *
+     * @param name index name
+     * @return has index
+     */
+    public boolean hasIndex(@NonNull String name) {
+        return read(() -> secondaryIndexes.containsKey(name));
+    }
+
+    /**
+     * Returns all entries, that are indexed under the given key in the given secondary index, as a new list.
+     *
+     * @param name index name
+     * @param key  key to look up
+     * @return matching entries
+     * @throws IllegalArgumentException when there is no index with the given name
+     */
+    public List<T> getEntriesByIndex(@NonNull String name, Object key) {
+        return read(() -> getSecondaryIndex(name).get(key));
+    }
+
+    /**
+     * Returns all keys of the given secondary index as a new set.
+     *
+     * @param name index name
+     * @return keys
+     * @throws IllegalArgumentException when there is no index with the given name
+     */
+    public Set<Object> getIndexKeys(@NonNull String name) {
+        return read(() -> getSecondaryIndex(name).keys());
+    }
+
+    /**
+     * Returns all entries with the given group id as a new list. Uses the {@link #GROUP_ID_INDEX}, that is
+     * created on the first call.
+     *
+     * @param groupId group id
+     * @return entries of the group
+     */
+    public List<T> getEntriesByGroupId(@NonNull String groupId) {
+        addIndex(GROUP_ID_INDEX, Entry::getGroupId);
+        return getEntriesByIndex(GROUP_ID_INDEX, groupId);
+    }
+
+    private EntrySecondaryIndex<T> getSecondaryIndex(String name) {
+        EntrySecondaryIndex<T> index = secondaryIndexes.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("There is no index with the name " + name);
+        }
+        return index;
+    }
+
+    private void index(T entry) {
+        countIndex = null;
+        rangeIndex.add(entry);
+        secondaryIndexes.values().forEach(index -> index.add(entry));
+        if (occurrenceIndex != null) {
+            occurrenceIndex.add(entry);
+        }
+    }
+
+    private void reindex(T entry) {
+        countIndex = null;
+        rangeIndex.update(entry);
+        secondaryIndexes.values().forEach(index -> index.update(entry));
+        if (occurrenceIndex != null) {
+            occurrenceIndex.update(entry);
+        }
+    }
+
+    /**
+     * Runs the given supplier while holding the read lock.
+     *
+     * @param supplier supplier
+     * @param <R>      result type
+     * @return result of the supplier
+     */
+    protected <R> R read(Supplier<R> supplier) {
+        lock.readLock().lock();
+        try {
+            return supplier.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs the given action while holding the write lock. The lock is reentrant, so nested calls are fine.
+     *
+     * @param action action
+     */
+    protected void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records modifications for an {@link InMemoryEntryProvider}, that are applied atomically on
+     * {@link #commit()}. Until then, the provider is not modified. A batch can be committed only once.
+     * <p></p>
+     * Implements {@link AutoCloseable}, closing an uncommitted batch discards it. When used in a
+     * try-with-resources block, {@link #commit()} has to be called at the end of the block, so that an
+     * exception thrown inside the block does not apply any recorded modification.
+     *
+     * @param <T> entry type
+     */
+    public static class Batch<T extends Entry> implements AutoCloseable {
+        private final InMemoryEntryProvider<T> provider;
+        private final List<BatchOperation<T>> operations = new ArrayList<>();
+        private boolean committed;
+        private boolean discarded;
+
+        private Batch(InMemoryEntryProvider<T> provider) {
+            this.provider = provider;
+        }
+
+        /**
+         * Adds the given entries. Noop for already registered entries.
+         *
+         * @param entries entries
+         * @return this instance
+         */
+        public Batch<T> addEntries(@NonNull Iterable<T> entries) {
+            return record(BatchOperationType.ADD, entries);
+        }
+
+        /**
+         * Adds the given entries. Noop for already registered entries.
+         *
+         * @param entries entries
+         * @return this instance
+         */
+        @SafeVarargs
+        public final Batch<T> addEntries(T... entries) {
+            return addEntries(Arrays.asList(entries));
+        }
+
+        /**
+         * Removes the given entries. Noop for not registered entries.
+         *
+         * @param entries entries
+         * @return this instance
+         */
+        public Batch<T> removeEntries(@NonNull Iterable<T> entries) {
+            return record(BatchOperationType.REMOVE, entries);
+        }
+
+        /**
+         * Removes the given entries. Noop for not registered entries.
+         *
+         * @param entries entries
+         * @return this instance
+         */
+        @SafeVarargs
+        public final Batch<T> removeEntries(T... entries) {
+            return removeEntries(Arrays.asList(entries));
+        }
+
+        /**
+         * Marks the given entries as changed and updates the time index for them. Noop for not registered entries.
+         *
+         * @param entries entries
+         * @return this instance
+         */
+        public Batch<T> updateEntries(@NonNull Iterable<T> entries) {
+            return record(BatchOperationType.UPDATE, entries);
+        }
+
+        /**
+         * Marks the given entries as changed and updates the time index for them. Noop for not registered entries.
+         *
+         * @param entries entries
+         * @return this instance
+         */
+        @SafeVarargs
+        public final Batch<T> updateEntries(T... entries) {
+            return updateEntries(Arrays.asList(entries));
+        }
+
+        /**
+         * Applies all recorded modifications to the provider and informs its listeners.
+         *
+         * @return the event sent to listeners
+         * @throws IllegalStateException when the batch has already been committed
+         */
+        public EntriesBatchChangeEvent<T> commit() {
+            checkNotCommitted();
+            committed = true;
+            return provider.applyBatch(operations);
+        }
+
+        /**
+         * Discards all recorded modifications without applying them. The batch cannot be used afterwards.
+         *
+         * @throws IllegalStateException when the batch has already been committed or discarded
+         */
+        public void discard() {
+            checkNotCommitted();
+            discarded = true;
+            operations.clear();
+        }
+
+        /**
+         * Discards this batch, if it has not been committed. Noop otherwise.
+         */
+        @Override
+        public void close() {
+            if (!committed && !discarded) {
+                discard();
+            }
+        }
+
+        /**
+         * Indicates, if this batch has been committed.
+         *
+         * @return is committed
+         */
+        public boolean isCommitted() {
+            return committed;
+        }
+
+        private Batch<T> record(BatchOperationType type, Iterable<T> entries) {
+            checkNotCommitted();
+            for (T entry : entries) {
+                operations.add(new BatchOperation<>(type, Objects.requireNonNull(entry)));
+            }
+            return this;
+        }
+
+        private void checkNotCommitted() {
+            if (committed) {
+                throw new IllegalStateException("This batch has already been committed.");
+            }
+            if (discarded) {
+                throw new IllegalStateException("This batch has been discarded.");
+            }
+        }
+    }
+
+    private enum BatchOperationType {
+        ADD, REMOVE, UPDATE
+    }
+
+    private record BatchOperation<T>(BatchOperationType type, T entry) {
+    }
 }
@@ -0,0 +1,294 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import com.vaadin.flow.function.SerializableFunction;
+import lombok.NonNull;
+import org.vaadin.stefan.fullcalendar.Entry;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * An entry provider, that keeps entries in memory partitioned by month and loads the partitions on demand
+ * using a loader callback. It is a middle ground between the eager {@link InMemoryEntryProvider} and the lazy
+ * {@link CallbackEntryProvider}: months, that are viewed again, are served from memory, while months nobody
+ * looks at anymore are evicted.
+ * <p></p>
+ * The loader is called with a month and has to return all entries overlapping that month (the month's time span
+ * is based on the entries' UTC based start and end). Entries spanning multiple months are returned for each of
+ * them. Recurring entries and entries without a start cannot be assigned to a month. They are kept as pinned
+ * entries, which are part of every fetch and never evicted, until {@link #refreshAll()} is called. Therefore
+ * the loader may return them for any month.
+ * <p></p>
+ * When the number of loaded entries exceeds the configured maximum, the least recently viewed partitions are
+ * evicted. Partitions needed by the current fetch are never evicted, so a single fetch spanning many months
+ * may exceed the maximum temporarily. Fetches without a start or end are answered by the currently loaded
+ * partitions and the pinned entries only.
+ * <p></p>
+ * Changes of the underlying data are not detected. Call {@link #invalidate(YearMonth)} or {@link #refreshAll()}
+ * to reload the affected partitions. The provider is thread safe, loading is done while holding the lock.
+ *
+ * @author Stefan Uebe
+ */
+public class PartitionedEntryProvider<T extends Entry> extends AbstractEntryProvider<T> {
+
+    /**
+     * Default maximal number of loaded entries, see {@link #setMaxLoadedEntries(int)}.
+     */
+    public static final int DEFAULT_MAX_LOADED_ENTRIES = 100_000;
+
+    private final SerializableFunction<YearMonth, Stream<T>> partitionLoader;
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * The loaded partitions in access order, the least recently viewed first.
+     */
+    private final LinkedHashMap<YearMonth, Map<String, T>> partitions = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, T> pinnedEntries = new LinkedHashMap<>();
+
+    private int maxLoadedEntries;
+    private int loadedEntries;
+
+    /**
+     * Creates a new instance using the given loader and the default maximum of loaded entries.
+     *
+     * @param partitionLoader loads all entries overlapping the given month
+     * @throws NullPointerException when null is passed
+     */
+    public PartitionedEntryProvider(@NonNull SerializableFunction<YearMonth, Stream<T>> partitionLoader) {
+        this(partitionLoader, DEFAULT_MAX_LOADED_ENTRIES);
+    }
+
+    /**
+     * Creates a new instance using the given loader and maximum of loaded entries.
+     *
+     * @param partitionLoader  loads all entries overlapping the given month
+     * @param maxLoadedEntries maximal number of entries kept in loaded partitions
+     * @throws NullPointerException     when null is passed
+     * @throws IllegalArgumentException when the maximum is negative
+     */
+    public PartitionedEntryProvider(@NonNull SerializableFunction<YearMonth, Stream<T>> partitionLoader, int maxLoadedEntries) {
+        this.partitionLoader = partitionLoader;
+        setMaxLoadedEntries(maxLoadedEntries);
+    }
+
+    @Override
+    public Stream<T> fetch(@NonNull EntryQuery query) {
+        LocalDateTime start = query.getStart();
+        LocalDateTime end = query.getEnd();
+
+        Map<String, T> candidates = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            if (start == null || end == null) {
+                partitions.values().forEach(candidates::putAll);
+            } else {
+                Set<YearMonth> months = monthsOf(start, end);
+                for (YearMonth month : months) {
+                    candidates.putAll(getOrLoad(month));
+                }
+                evict(months);
+            }
+            candidates.putAll(pinnedEntries);
+        } finally {
+            lock.unlock();
+        }
+
+        return query.applyFilter(candidates.values().stream());
+    }
+
+    /**
+     * Returns the entry with the given id, if it is part of a loaded partition or pinned. Does not load any
+     * partition.
+     *
+     * @param id id
+     * @return optional entry or empty
+     */
+    @Override
+    public Optional<T> fetchById(@NonNull String id) {
+        lock.lock();
+        try {
+            T entry = pinnedEntries.get(id);
+            if (entry == null) {
+                for (Map<String, T> partition : partitions.values()) {
+                    entry = partition.get(id);
+                    if (entry != null) {
+                        break;
+                    }
+                }
+            }
+            return Optional.ofNullable(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the loaded partitions containing the given item, so that they are reloaded on the next fetch,
+     * before informing the calendar about the refresh.
+     *
+     * @param item item to refresh
+     */
+    @Override
+    public void refreshItem(T item) {
+        lock.lock();
+        try {
+            pinnedEntries.remove(item.getId());
+            Iterator<Map<String, T>> iterator = partitions.values().iterator();
+            while (iterator.hasNext()) {
+                Map<String, T> partition = iterator.next();
+                if (partition.containsKey(item.getId())) {
+                    loadedEntries -= partition.size();
+                    iterator.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        super.refreshItem(item);
+    }
+
+    /**
+     * Drops all loaded partitions and pinned entries, before informing the calendar about the refresh.
+     */
+    @Override
+    public void refreshAll() {
+        lock.lock();
+        try {
+            partitions.clear();
+            pinnedEntries.clear();
+            loadedEntries = 0;
+        } finally {
+            lock.unlock();
+        }
+
+        super.refreshAll();
+    }
+
+    /**
+     * Drops the partition of the given month, so that it is reloaded on the next fetch. Does not inform the
+     * calendar, call {@link #refreshAll()} to also update the client side.
+     *
+     * @param month month to invalidate
+     */
+    public void invalidate(@NonNull YearMonth month) {
+        lock.lock();
+        try {
+            Map<String, T> partition = partitions.remove(month);
+            if (partition != null) {
+                loadedEntries -= partition.size();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the months of the currently loaded partitions, the least recently viewed first.
+     *
+     * @return loaded months
+     */
+    public List<YearMonth> getLoadedPartitions() {
+        lock.lock();
+        try {
+            return new ArrayList<>(partitions.keySet());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries in the loaded partitions. Entries spanning multiple loaded months are
+     * counted for each of them. Pinned entries are not included.
+     *
+     * @return loaded entries
+     */
+    public int getLoadedEntries() {
+        lock.lock();
+        try {
+            return loadedEntries;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximal number of entries kept in loaded partitions.
+     *
+     * @return maximal loaded entries
+     */
+    public int getMaxLoadedEntries() {
+        return maxLoadedEntries;
+    }
+
+    /**
+     * Sets the maximal number of entries kept in loaded partitions. When exceeded, the least recently viewed
+     * partitions are evicted. Pinned entries do not count.
+     *
+     * @param maxLoadedEntries maximal loaded entries
+     * @throws IllegalArgumentException when the maximum is negative
+     */
+    public void setMaxLoadedEntries(int maxLoadedEntries) {
+        if (maxLoadedEntries < 0) {
+            throw new IllegalArgumentException("Maximal loaded entries must not be negative");
+        }
+
+        lock.lock();
+        try {
+            this.maxLoadedEntries = maxLoadedEntries;
+            evict(Set.of());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<String, T> getOrLoad(YearMonth month) {
+        Map<String, T> partition = partitions.get(month);
+        if (partition == null) {
+            Map<String, T> loaded = new HashMap<>();
+            try (Stream<T> entries = partitionLoader.apply(month)) {
+                entries.forEach(entry -> {
+                    if (entry.isRecurring() || entry.getStart() == null) {
+                        pinnedEntries.put(entry.getId(), entry);
+                    } else {
+                        loaded.put(entry.getId(), entry);
+                    }
+                });
+            }
+
+            partition = loaded;
+            partitions.put(month, partition);
+            loadedEntries += partition.size();
+        }
+        return partition;
+    }
+
+    private void evict(Set<YearMonth> inUse) {
+        Iterator<Map.Entry<YearMonth, Map<String, T>>> iterator = partitions.entrySet().iterator();
+        while (loadedEntries > maxLoadedEntries && iterator.hasNext()) {
+            Map.Entry<YearMonth, Map<String, T>> partition = iterator.next();
+            if (!inUse.contains(partition.getKey())) {
+                loadedEntries -= partition.getValue().size();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the months overlapping the given range, the end being exclusive.
+     */
+    private static Set<YearMonth> monthsOf(LocalDateTime start, LocalDateTime end) {
+        YearMonth first = YearMonth.from(start);
+        YearMonth last = end.isAfter(start) ? YearMonth.from(end.minusNanos(1)) : first;
+
+        Set<YearMonth> months = new LinkedHashSet<>();
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        return months;
+    }
+}
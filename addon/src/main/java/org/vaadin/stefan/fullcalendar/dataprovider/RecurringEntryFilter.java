@@ -0,0 +1,149 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import org.vaadin.stefan.fullcalendar.Entry;
+import org.vaadin.stefan.fullcalendar.RRule;
+import org.vaadin.stefan.fullcalendar.RecurringDuration;
+import org.vaadin.stefan.fullcalendar.RecurringTime;
+
+import java.time.*;
+import java.util.Set;
+
+/**
+ * Checks, if a recurring entry has at least one occurrence in a given time range. Used by
+ * {@link EntryQuery#applyFilter(java.util.stream.Stream)} to drop recurring entries, that would not be
+ * rendered in the requested range anyway.
+ * <p></p>
+ * The check is conservative: the range is widened by one day on each side, since recurrences are expanded
+ * on the client in the calendar's timezone, while the range is UTC based. RRules are expanded on the server
+ * side to find an occurrence. Whenever a rule cannot be evaluated, the entry is kept.
+ *
+ * @author Stefan Uebe
+ */
+final class RecurringEntryFilter {
+
+    /**
+     * Additional days added to both sides of the range to cover timezone offsets of up to +/- 14 hours.
+     */
+    static final int TIMEZONE_SLACK_DAYS = 1;
+
+    private RecurringEntryFilter() {
+    }
+
+    /**
+     * Checks, if the given recurring entry may have an occurrence crossing the given range. Both range
+     * borders may be null to indicate an unbounded side.
+     *
+     * @param entry recurring entry
+     * @param start range start or null
+     * @param end   range end (exclusive) or null
+     * @return false, if the entry has definitely no occurrence in the range
+     */
+    static boolean mayOccurIn(Entry entry, LocalDateTime start, LocalDateTime end) {
+        if (start == null && end == null) {
+            return true;
+        }
+
+        long spanDays = occurrenceSpanInDays(entry);
+        if (spanDays < 0) {
+            return true; // unknown duration, cannot prune
+        }
+
+        // an occurrence on date d covers at most [d, d + spanDays), so d must lie in [from, to]
+        LocalDate from = start != null ? start.toLocalDate().minusDays(spanDays - 1 + TIMEZONE_SLACK_DAYS) : null;
+        LocalDate to = end != null ? lastDayOf(end).plusDays(TIMEZONE_SLACK_DAYS) : null;
+
+        RRule rrule = entry.getRRule();
+        if (rrule != null) {
+            return mayOccurIn(entry, rrule, from, to);
+        }
+
+        return hasMatchingDate(entry.getRecurringDaysOfWeek(),
+                max(from, entry.getRecurringStartDate()),
+                min(to, entry.getRecurringEndDate()));
+    }
+
+    /**
+     * Expands the rule on the server side (see {@link RRule#occurrences(LocalDateTime, LocalDateTime, LocalDateTime)})
+     * to check for an occurrence starting on a date in the given closed date range.
+     */
+    private static boolean mayOccurIn(Entry entry, RRule rrule, LocalDate from, LocalDate to) {
+        try {
+            return rrule.occurrences(entry.getStart(),
+                            from != null ? from.atStartOfDay() : null,
+                            to != null ? to.plusDays(1).atStartOfDay() : null)
+                    .findAny()
+                    .isPresent();
+        } catch (IllegalArgumentException e) {
+            return true; // the rule cannot be expanded on the server side (e.g. unsupported raw rule parts), keep the entry
+        }
+    }
+
+    /**
+     * Checks if there is a date in the given closed date range, that matches any of the given days.
+     * A null or empty set of days matches every date.
+     */
+    private static boolean hasMatchingDate(Set<DayOfWeek> daysOfWeek, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return false;
+        }
+
+        if (daysOfWeek == null || daysOfWeek.isEmpty() || from == null || to == null) {
+            return true;
+        }
+
+        LocalDate last = min(to, from.plusDays(6));
+        for (LocalDate date = from; !date.isAfter(last); date = date.plusDays(1)) {
+            if (daysOfWeek.contains(date.getDayOfWeek())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the last day touched by a range with the given exclusive end. A range ending at midnight
+     * does not include that day.
+     */
+    static LocalDate lastDayOf(LocalDateTime end) {
+        return end.toLocalTime().equals(LocalTime.MIDNIGHT) ? end.toLocalDate().minusDays(1) : end.toLocalDate();
+    }
+
+    /**
+     * Returns the amount of days a single occurrence may cover starting from its date or -1, if that
+     * cannot be determined.
+     */
+    static long occurrenceSpanInDays(Entry entry) {
+        long hours = 24;
+
+        RecurringTime startTime = entry.getRecurringStartTime();
+        RecurringTime endTime = entry.getRecurringEndTime();
+        if (startTime != null) {
+            hours = Math.max(hours, startTime.getHour() + 1);
+        }
+        if (endTime != null) {
+            hours = Math.max(hours, endTime.getHour() + 1);
+        }
+
+        String durationString = entry.getRecurringDuration();
+        if (durationString != null) {
+            RecurringDuration duration = RecurringDuration.parse(durationString);
+            if (duration == null) {
+                return -1;
+            }
+            hours += duration.getMaximumLength().toHours() + 1;
+        } else if (entry.getRRule() != null && entry.getStart() != null && entry.getEnd() != null) {
+            hours += Math.max(0, Duration.between(entry.getStart(), entry.getEnd()).toHours()) + 1;
+        }
+
+        return (hours + 23) / 24;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a == null ? b : (b == null || a.isAfter(b) ? a : b);
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a == null ? b : (b == null || a.isBefore(b) ? a : b);
+    }
+}
@@ -0,0 +1,73 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import org.vaadin.stefan.fullcalendar.Entry;
+import org.vaadin.stefan.fullcalendar.FullCalendar;
+
+import java.util.Arrays;
+
+/**
+ * An in memory entry provider, that can be used by multiple calendars at the same time, for instance to keep
+ * a single copy of company wide entries for all sessions instead of one per session.
+ * <p></p>
+ * The provider is not bound to a calendar, neither are its entries (their {@link Entry#getCalendar()} returns
+ * null). Thus entry properties depending on the calendar's timezone use UTC. Modifications and refresh calls
+ * may happen from any thread; each calendar receives the change notifications in its own UI context
+ * (see {@link FullCalendar#setEntryProvider(EntryProvider)}).
+ * <p></p>
+ * Entries should be treated as immutable while being part of this provider, since they might be read by other
+ * sessions at any time. To change an entry, replace it (remove and add a new instance with the same id) or
+ * modify it and call {@link #updateEntries(Iterable)} or {@link #refreshItem(Entry)} afterwards.
+ *
+ * @author Stefan Uebe
+ */
+public class SharedInMemoryEntryProvider<T extends Entry> extends InMemoryEntryProvider<T> {
+
+    public SharedInMemoryEntryProvider() {
+    }
+
+    public SharedInMemoryEntryProvider(Iterable<T> entries) {
+        super(entries);
+    }
+
+    /**
+     * Creates a shared instance. The given entries are used as initial items. Leave empty, if there
+     * are no initial entries.
+     * @param entries initial entries
+     * @param <T> type
+     * @return shared in memory provider
+     */
+    @SafeVarargs
+    public static <T extends Entry> SharedInMemoryEntryProvider<T> from(T... entries) {
+        return new SharedInMemoryEntryProvider<>(Arrays.asList(entries));
+    }
+
+    /**
+     * Creates a shared instance. The given entries are used as initial items, but the given iterable
+     * is not used as the backing collection or similar. It will never be modified by this provider.
+     * @param entries initial entries
+     * @param <T> type
+     * @return shared in memory provider
+     */
+    public static <T extends Entry> SharedInMemoryEntryProvider<T> from(Iterable<T> entries) {
+        return new SharedInMemoryEntryProvider<>(entries);
+    }
+
+    /**
+     * Noop, since a shared provider is not connected to a single calendar.
+     *
+     * @param calendar calendar
+     */
+    @Override
+    public void setCalendar(FullCalendar calendar) {
+        // not bound to a calendar
+    }
+
+    /**
+     * Returns true.
+     * @return true
+     */
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+}
@@ -0,0 +1,25 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+/**
+ * Resolves objects, that are referenced by entries of a snapshot, but not part of it. Snapshots written by
+ * {@link InMemoryEntryProvider#writeSnapshot(java.io.OutputStream)} contain only the ids of such objects, e.g.
+ * the resources assigned to a resource entry. When reading the snapshot, the resolver returns the existing
+ * instance for each id, so that the restored entries refer to the same instances as the calendar.
+ * <p></p>
+ * For resources, a resolver might look like {@code (type, id) -> scheduler.getResourceById(id).orElse(null)}.
+ *
+ * @author Stefan Uebe
+ */
+@FunctionalInterface
+public interface SnapshotReferenceResolver {
+
+    /**
+     * Returns the instance of the given type with the given id or null, if there is none. Returning null
+     * lets reading the snapshot fail.
+     *
+     * @param type type of the referenced object (e.g. the resource class)
+     * @param id   id of the referenced object
+     * @return referenced object or null
+     */
+    Object resolve(Class<?> type, String id);
+}
@@ -0,0 +1,107 @@
+package org.vaadin.stefan.fullcalendar.dataprovider;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A dictionary encoding strings as int codes, used by the {@link ColumnarEntryProvider} to store each distinct
+ * string only once. Null is encoded as {@link #NULL}. Codes are stable until the dictionary is cleared.
+ * <p></p>
+ * Each code counts its references. {@link #encode(String)} adds one, {@link #release(int)} removes it again. Strings
+ * without references are kept, but counted as {@link #unused()}, so that the owner knows when rebuilding the
+ * dictionary is worth it.
+ *
+ * @author Stefan Uebe
+ */
+class StringDictionary implements Serializable {
+
+    /**
+     * The code representing null.
+     */
+    static final int NULL = -1;
+
+    private final List<String> values = new ArrayList<>();
+    private final Map<String, Integer> codes = new HashMap<>();
+    private int[] references = new int[16];
+    private int unused;
+
+    /**
+     * Returns the code for the given string, registering it if necessary, and adds a reference to it.
+     *
+     * @param value string or null
+     * @return code
+     */
+    int encode(String value) {
+        if (value == null) {
+            return NULL;
+        }
+
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            values.add(value);
+            codes.put(value, code);
+            if (code == references.length) {
+                references = Arrays.copyOf(references, code * 2);
+            }
+        } else if (references[code] == 0) {
+            unused--;
+        }
+
+        references[code]++;
+        return code;
+    }
+
+    /**
+     * Removes a reference from the given code. Noop for {@link #NULL}.
+     *
+     * @param code code
+     */
+    void release(int code) {
+        if (code != NULL && --references[code] == 0) {
+            unused++;
+        }
+    }
+
+    /**
+     * Returns the string for the given code.
+     *
+     * @param code code
+     * @return string or null
+     */
+    String decode(int code) {
+        return code == NULL ? null : values.get(code);
+    }
+
+    /**
+     * Returns the amount of distinct strings.
+     *
+     * @return size
+     */
+    int size() {
+        return values.size();
+    }
+
+    /**
+     * Returns the amount of strings without any reference.
+     *
+     * @return unused strings
+     */
+    int unused() {
+        return unused;
+    }
+
+    /**
+     * Removes all strings. Previously returned codes become invalid.
+     */
+    void clear() {
+        values.clear();
+        codes.clear();
+        Arrays.fill(references, 0);
+        unused = 0;
+    }
+}
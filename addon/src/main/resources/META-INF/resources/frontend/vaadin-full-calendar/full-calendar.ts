@@ -16,7 +16,7 @@
 
    Exception of this license is the separately licensed part of the styles.
 */
-import {Calendar, CalendarOptions, DateInput, DateRangeInput, DurationInput} from '@fullcalendar/core';
+import {Calendar, CalendarOptions, DateInput, DateRangeInput, DurationInput, EventSourceApi} from '@fullcalendar/core';
 import interaction, {Draggable} from '@fullcalendar/interaction';
 import dayGridPlugin from '@fullcalendar/daygrid';
 import timeGridPlugin from '@fullcalendar/timegrid';
@@ -76,11 +76,20 @@ export class FullCalendar extends HTMLElement {
     /** IDs of entries fetched from the server-side EntryProvider. Used to distinguish external-source entries. */
     private serverEntryIds: Set<string> = new Set();
 
+    /** The events function fetching from the server-side EntryProvider. Used to identify its event source. */
+    private _serverEventsCallback: any;
+
     protected noDatesRenderEvent = false;
     protected noDatesRenderEventOnOptionSetting = true;
     protected moreLinkClickAction = "popover"
     protected prefetchEnabled = false;
 
+    /** Presentation properties, that can be defined by a shared entry style. */
+    private static readonly ENTRY_STYLE_KEYS = ['color', 'backgroundColor', 'borderColor', 'textColor', 'classNames', 'display'];
+
+    /** Shared entry styles, keyed by style id. Set by the server as element property. */
+    private _entryStyles: any = {};
+
     /** Pending revert functions from eventDrop/eventResize, keyed by entry ID. */
     private _pendingReverts: Map<string, () => void> = new Map();
 
@@ -607,7 +616,7 @@ export class FullCalendar extends HTMLElement {
             }).then((array: any | any[]) => {
                 if (Array.isArray(array)) {
                     this.serverEntryIds = new Set(array.map((e: any) => e.id));
-                    successCallback(array);
+                    successCallback(array.map((e: any) => this.applyEntryStyle(e)));
                 } else {
                     failureCallback("could not fetch");
                 }
@@ -616,9 +625,105 @@ export class FullCalendar extends HTMLElement {
                 failureCallback(error?.message || "Failed to fetch entries");
             })
         };
+        this._serverEventsCallback = callback;
         this.calendar?.setOption("events", callback);
     }
 
+    /**
+     * Returns the event source created for the server-side EntryProvider. Events added to this source are
+     * dropped on the next refetch, like the fetched ones.
+     */
+    protected getServerEventSource(): EventSourceApi | undefined {
+        return this._calendar?.getEventSources()
+            .find((source: any) => source.internalEventSource?.meta === this._serverEventsCallback);
+    }
+
+    set entryStyles(styles: any) {
+        const previousStyles = this._entryStyles;
+        this._entryStyles = styles || {};
+        this.applyEntryStylesToRenderedEvents(previousStyles);
+    }
+
+    get entryStyles(): any {
+        return this._entryStyles;
+    }
+
+    /**
+     * Data transform for entries of the server side entry provider. Expands the shared style referenced by
+     * the entry's styleId into the style properties, that the entry does not define itself. The keys defined
+     * by the entry are remembered (styleOwnKeys), so that a later style change does not override them. This
+     * is also done for styles, that are not registered yet, since they may be registered later.
+     * @param eventData entry json
+     * @return the given entry json
+     */
+    protected applyEntryStyle(eventData: any) {
+        if (eventData.styleId == null) {
+            return eventData;
+        }
+
+        const style = this._entryStyles[eventData.styleId] || {};
+        const ownKeys: string[] = [];
+        for (const key of FullCalendar.ENTRY_STYLE_KEYS) {
+            const ownValue = eventData[key];
+            // the server always sends the display mode, "auto" is its default and thus not an explicit value
+            if (ownValue !== undefined && !(key === 'display' && ownValue === 'auto')) {
+                ownKeys.push(key);
+            } else if (style[key] !== undefined) {
+                eventData[key] = style[key];
+            }
+        }
+        eventData.styleOwnKeys = ownKeys;
+
+        return eventData;
+    }
+
+    /**
+     * Re-applies the current entry styles to all rendered entries referencing a style. Called, when the
+     * server changes the registered styles. Only keys defined by the current or the previous style are touched.
+     * @param previousStyles the styles applied before
+     */
+    protected applyEntryStylesToRenderedEvents(previousStyles: any = {}) {
+        const calendar = this._calendar;
+        if (!calendar) {
+            return;
+        }
+
+        calendar.batchRendering(() => {
+            for (const event of calendar.getEvents()) {
+                const styleId = event.extendedProps?.styleId;
+                if (styleId == null) {
+                    continue;
+                }
+
+                const style = this._entryStyles[styleId] || {};
+                const previousStyle = previousStyles[styleId] || {};
+                const ownKeys: string[] = event.extendedProps.styleOwnKeys || [];
+
+                // FC's "color" also sets the background and border color, so it must not touch the entry's own ones
+                const ownsColors = ownKeys.includes('backgroundColor') || ownKeys.includes('borderColor');
+
+                // "color" comes first in the keys, so specific colors of the style are applied after it
+                for (const key of FullCalendar.ENTRY_STYLE_KEYS) {
+                    if (ownKeys.includes(key) || (key === 'color' && ownsColors)) {
+                        continue;
+                    }
+
+                    let value = style[key];
+                    if (value === undefined) {
+                        if (previousStyle[key] === undefined) {
+                            continue; // neither defined before nor now, nothing to reset
+                        }
+                        if ((key === 'backgroundColor' || key === 'borderColor') && style.color !== undefined && !ownsColors) {
+                            continue; // already replaced by the style's color
+                        }
+                        value = key === 'display' ? 'auto' : (key === 'classNames' ? [] : '');
+                    }
+                    event.setProp(key, value);
+                }
+            }
+        });
+    }
+
     private applyCustomPropertiesApi(options: any) {
         // if the calendar is options to modify the event appearance, we extend the custom api here
         // see _initCalendar for details
@@ -783,6 +888,67 @@ export class FullCalendar extends HTMLElement {
         this.calendar.refetchEvents();
     }
 
+    /**
+     * Applies changes of server-side entries without refetching. All changes are rendered at once.
+     * @param patch object with the arrays "added" and "updated" (entry json) and "removed" (entry ids)
+     */
+    applyEntryChanges(patch: any) {
+        this.calendar.batchRendering(() => {
+            this.removeEntries(patch.removed || []);
+            this.updateEntries(patch.updated || []);
+            this.addEntries(patch.added || []);
+        });
+    }
+
+    /**
+     * Adds the given server-side entries to the server event source, replacing already rendered ones
+     * with the same id. They are dropped on the next refetch, like the fetched ones. Falls back to a refetch,
+     * when the server event source cannot be found.
+     * @param entries entry json array
+     */
+    addEntries(entries: any[]) {
+        if (!entries.length) {
+            return;
+        }
+
+        const calendar = this.calendar;
+        const source = this.getServerEventSource();
+        if (!source) {
+            calendar.refetchEvents();
+            return;
+        }
+
+        calendar.batchRendering(() => {
+            for (const eventData of entries) {
+                calendar.getEventById(eventData.id)?.remove();
+                calendar.addEvent(this.applyEntryStyle(eventData), source);
+                this.serverEntryIds.add(eventData.id);
+            }
+        });
+    }
+
+    /**
+     * Replaces the rendered server-side entries with the given ones. Entries not rendered yet are added.
+     * @param entries entry json array
+     */
+    updateEntries(entries: any[]) {
+        this.addEntries(entries);
+    }
+
+    /**
+     * Removes the server-side entries with the given ids.
+     * @param ids entry ids
+     */
+    removeEntries(ids: string[]) {
+        const calendar = this.calendar;
+        calendar.batchRendering(() => {
+            for (const id of ids) {
+                calendar.getEventById(id)?.remove();
+                this.serverEntryIds.delete(id);
+            }
+        });
+    }
+
     refreshSingleEvent(id: string) {
         console.debug(`refetch all events due to unsupported refresh single event ${id}`);
         this.calendar.refetchEvents();
@@ -0,0 +1,139 @@
+package org.vaadin.stefan.fullcalendar;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.vaadin.stefan.fullcalendar.dataprovider.ArchiveEntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryQuery;
+import org.vaadin.stefan.fullcalendar.dataprovider.InMemoryEntryProvider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArchiveEntryProviderTest {
+
+    private static final LocalDateTime JANUARY = LocalDate.of(2024, 1, 1).atStartOfDay();
+    private static final LocalDateTime FEBRUARY = JANUARY.plusMonths(1);
+    private static final LocalDateTime MARCH = JANUARY.plusMonths(2);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFetchMatchesInMemoryProvider() throws IOException {
+        Random random = new Random(7);
+        List<Entry> january = createEntries(random, "jan", JANUARY, FEBRUARY, 1000);
+        List<Entry> february = createEntries(random, "feb", FEBRUARY, MARCH, 1000);
+
+        List<Entry> all = new ArrayList<>(january);
+        all.addAll(february);
+        InMemoryEntryProvider<Entry> inMemory = EntryProvider.inMemoryFrom(all);
+
+        Path file = tempDir.resolve("archive.bin");
+        try (ArchiveEntryProvider archive = ArchiveEntryProvider.open(file)) {
+            archive.appendPeriod(JANUARY, FEBRUARY, january);
+            archive.appendPeriod(FEBRUARY, MARCH, february);
+            assertEquals(2000, archive.size());
+
+            assertSameResults(random, inMemory, archive);
+        }
+
+        // reopening restores all periods
+        try (ArchiveEntryProvider archive = ArchiveEntryProvider.open(file)) {
+            assertEquals(2000, archive.size());
+            assertSameResults(random, inMemory, archive);
+
+            Entry original = february.get(17);
+            Entry restored = archive.fetchById(original.getId()).orElseThrow();
+            assertNotSame(original, restored);
+            assertEquals(original.toJson(), restored.toJson());
+            assertFalse(archive.fetchById("unknown").isPresent());
+
+            assertEquals(Set.of("jan3", "feb17"), ids(archive.fetchByIds(List.of("jan3", "feb17", "unknown"))));
+        }
+    }
+
+    @Test
+    void testPeriodsMustBeValid() throws IOException {
+        try (ArchiveEntryProvider archive = ArchiveEntryProvider.open(tempDir.resolve("archive.bin"))) {
+            archive.appendPeriod(FEBRUARY, MARCH, List.of());
+
+            assertThrows(IllegalArgumentException.class, () -> archive.appendPeriod(JANUARY, FEBRUARY, List.of()));
+            assertThrows(IllegalArgumentException.class, () -> archive.appendPeriod(MARCH, FEBRUARY, List.of()));
+
+            Entry outside = new Entry();
+            outside.setStart(JANUARY);
+            assertThrows(IllegalArgumentException.class, () -> archive.appendPeriod(MARCH, MARCH.plusMonths(1), List.of(outside)));
+
+            Entry noStart = new Entry();
+            assertThrows(IllegalArgumentException.class, () -> archive.appendPeriod(MARCH, MARCH.plusMonths(1), List.of(noStart)));
+        }
+    }
+
+    @Test
+    void testIncompletePeriodIsIgnored() throws IOException {
+        Path file = tempDir.resolve("archive.bin");
+        List<Entry> january = createEntries(new Random(1), "jan", JANUARY, FEBRUARY, 10);
+        try (ArchiveEntryProvider archive = ArchiveEntryProvider.open(file)) {
+            archive.appendPeriod(JANUARY, FEBRUARY, january);
+        }
+
+        // simulate a crash while appending
+        Files.write(file, new byte[]{0x50, 0x45, 0x52, 0x44, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        List<Entry> february = createEntries(new Random(2), "feb", FEBRUARY, MARCH, 10);
+        try (ArchiveEntryProvider archive = ArchiveEntryProvider.open(file)) {
+            assertEquals(10, archive.size());
+            archive.appendPeriod(FEBRUARY, MARCH, february);
+        }
+
+        try (ArchiveEntryProvider archive = ArchiveEntryProvider.open(file)) {
+            assertEquals(20, archive.size());
+        }
+    }
+
+    @Test
+    void testNoArchiveFile() throws IOException {
+        Path file = tempDir.resolve("other.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> ArchiveEntryProvider.open(file));
+    }
+
+    private static void assertSameResults(Random random, InMemoryEntryProvider<Entry> expected, ArchiveEntryProvider archive) {
+        assertEquals(ids(expected.fetchAll()), ids(archive.fetchAll()));
+
+        for (int i = 0; i < 50; i++) {
+            LocalDateTime start = JANUARY.minusDays(5).plusHours(random.nextInt(24 * 70));
+            LocalDateTime end = start.plusHours(1 + random.nextInt(24 * 14));
+            EntryQuery query = new EntryQuery(start, end, EntryQuery.AllDay.values()[random.nextInt(3)]);
+
+            assertEquals(ids(expected.fetch(query)), ids(archive.fetch(query)), "query " + start + " - " + end);
+        }
+    }
+
+    private static List<Entry> createEntries(Random random, String prefix, LocalDateTime from, LocalDateTime to, int count) {
+        long minutes = java.time.Duration.between(from, to).toMinutes();
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Entry entry = new Entry(prefix + i);
+            entry.setTitle("Appointment " + i);
+            entry.setStart(from.plusMinutes(random.nextInt((int) minutes)));
+            entry.setEnd(entry.getStart().plusMinutes(15 + random.nextInt(60 * 24 * 3)));
+            entry.setColor(i % 3 == 0 ? "red" : null);
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private static Set<String> ids(java.util.stream.Stream<Entry> entries) {
+        return entries.map(Entry::getId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,166 @@
+package org.vaadin.stefan.fullcalendar;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.vaadin.stefan.fullcalendar.dataprovider.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingEntryProviderTest {
+
+    private static final LocalDateTime BASE = LocalDate.of(2025, 1, 1).atStartOfDay();
+
+    private InMemoryEntryProvider<Entry> backend;
+    private List<EntryQuery> rangeFetches;
+    private List<String> idFetches;
+    private CallbackEntryProvider<Entry> callbackProvider;
+
+    @BeforeEach
+    void setUp() {
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Entry entry = new Entry(String.valueOf(i));
+            entry.setStart(BASE.plusHours(i * 12L));
+            entry.setEnd(entry.getStart().plusHours(2));
+            entries.add(entry);
+        }
+
+        backend = EntryProvider.inMemoryFrom(entries);
+        rangeFetches = new ArrayList<>();
+        idFetches = new ArrayList<>();
+        callbackProvider = EntryProvider.fromCallbacks(query -> {
+            rangeFetches.add(query);
+            return backend.fetch(query);
+        }, id -> {
+            idFetches.add(id);
+            return backend.fetchById(id).orElse(null);
+        });
+    }
+
+    @Test
+    void testRangesAreCachedAndMerged() {
+        CachingEntryProvider<Entry> provider = new CachingEntryProvider<>(callbackProvider);
+
+        EntryQuery week1 = new EntryQuery(BASE, BASE.plusDays(7));
+        EntryQuery week2 = new EntryQuery(BASE.plusDays(7), BASE.plusDays(14));
+        EntryQuery twoWeeks = new EntryQuery(BASE.plusDays(3), BASE.plusDays(10), EntryQuery.AllDay.TIMED_ONLY);
+
+        assertEquals(ids(backend.fetch(week1)), ids(provider.fetch(week1)));
+        assertEquals(ids(backend.fetch(week2)), ids(provider.fetch(week2)));
+        assertEquals(2, rangeFetches.size());
+
+        // covered by the cached segments
+        assertEquals(ids(backend.fetch(twoWeeks)), ids(provider.fetch(twoWeeks)));
+        assertEquals(ids(backend.fetch(week1)), ids(provider.fetch(week1)));
+        assertEquals(2, rangeFetches.size());
+
+        // only the gap is fetched
+        EntryQuery extended = new EntryQuery(BASE.minusDays(2), BASE.plusDays(20));
+        assertEquals(ids(backend.fetch(extended)), ids(provider.fetch(extended)));
+        assertEquals(4, rangeFetches.size());
+        assertEquals(BASE.plusDays(14), rangeFetches.get(3).getStart());
+        assertEquals(BASE.plusDays(20), rangeFetches.get(3).getEnd());
+    }
+
+    @Test
+    void testInvalidation() {
+        CachingEntryProvider<Entry> provider = new CachingEntryProvider<>(callbackProvider);
+        EntryQuery month = new EntryQuery(BASE, BASE.plusDays(30));
+        provider.fetch(month);
+
+        // moving an entry requires a refresh, which drops the cached segments containing it
+        Entry moved = backend.fetchById("5").orElseThrow();
+        moved.setStart(BASE.plusDays(20));
+        moved.setEnd(BASE.plusDays(20).plusHours(1));
+        backend.updateEntries(List.of(moved));
+        provider.refreshItem(moved);
+
+        rangeFetches.clear();
+        provider.fetch(month);
+        assertEquals(1, rangeFetches.size());
+
+        EntryQuery day20 = new EntryQuery(BASE.plusDays(20), BASE.plusDays(21));
+        EntryQuery day25 = new EntryQuery(BASE.plusDays(25), BASE.plusDays(26));
+        assertTrue(ids(provider.fetch(day20)).contains("5"));
+        provider.fetch(day25);
+        assertEquals(1, rangeFetches.size());
+
+        // only the invalidated range is fetched again
+        provider.invalidate(BASE.plusDays(25), BASE.plusDays(26));
+        provider.fetch(day25);
+        provider.fetch(day20);
+        assertEquals(2, rangeFetches.size());
+
+        provider.refreshAll();
+        provider.fetch(day25);
+        assertEquals(3, rangeFetches.size());
+    }
+
+    @Test
+    void testFetchById() {
+        CachingEntryProvider<Entry> provider = new CachingEntryProvider<>(callbackProvider);
+
+        assertEquals("150", provider.fetchById("150").orElseThrow().getId());
+        assertEquals("150", provider.fetchById("150").orElseThrow().getId());
+        assertEquals(List.of("150"), idFetches);
+
+        // entries of cached segments are found without fetching
+        provider.fetch(new EntryQuery(BASE, BASE.plusDays(2)));
+        assertTrue(provider.fetchById("1").isPresent());
+        assertEquals(List.of("150"), idFetches);
+
+        assertFalse(provider.fetchById("unknown").isPresent());
+        assertEquals(List.of("150", "unknown"), idFetches);
+    }
+
+    @Test
+    void testFetchByIds() {
+        // without a batch callback, each id is fetched separately
+        assertEquals(Set.of("1", "2"), ids(callbackProvider.fetchByIds(List.of("1", "2", "unknown"))));
+        assertEquals(List.of("1", "2", "unknown"), idFetches);
+
+        List<Collection<String>> batchFetches = new ArrayList<>();
+        CallbackEntryProvider<Entry> batchProvider = EntryProvider.fromCallbacks(backend::fetch, id -> backend.fetchById(id).orElse(null), ids -> {
+            batchFetches.add(new ArrayList<>(ids));
+            return backend.fetchByIds(ids);
+        });
+
+        // only uncached ids are fetched, at once
+        CachingEntryProvider<Entry> provider = new CachingEntryProvider<>(batchProvider);
+        provider.fetchById("1");
+        assertEquals(Set.of("1", "2", "3"), ids(provider.fetchByIds(List.of("1", "2", "3", "unknown"))));
+        assertEquals(List.of(List.of("2", "3", "unknown")), batchFetches);
+
+        assertEquals(Set.of("2", "3"), ids(provider.fetchByIds(List.of("2", "3"))));
+        assertEquals(1, batchFetches.size());
+    }
+
+    @Test
+    void testEviction() {
+        CachingEntryProvider<Entry> expiring = new CachingEntryProvider<>(callbackProvider, Duration.ZERO, 1000);
+        EntryQuery week = new EntryQuery(BASE, BASE.plusDays(7));
+        expiring.fetch(week);
+        expiring.fetch(week);
+        assertEquals(2, rangeFetches.size());
+
+        rangeFetches.clear();
+        CachingEntryProvider<Entry> small = new CachingEntryProvider<>(callbackProvider, Duration.ofHours(1), 20);
+        small.fetch(week);
+        small.fetch(new EntryQuery(BASE.plusDays(30), BASE.plusDays(37)));
+        assertTrue(small.getCachedEntries() <= 20);
+
+        small.fetch(week);
+        assertEquals(3, rangeFetches.size());
+    }
+
+    private static Set<String> ids(Stream<Entry> entries) {
+        return entries.map(Entry::getId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,175 @@
+package org.vaadin.stefan.fullcalendar;
+
+import org.junit.jupiter.api.Test;
+import org.vaadin.stefan.fullcalendar.dataprovider.ColumnarEntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryQuery;
+import org.vaadin.stefan.fullcalendar.dataprovider.InMemoryEntryProvider;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarEntryProviderTest {
+
+    @Test
+    void testStoredPropertiesAreRestored() {
+        Entry entry = new Entry("1");
+        entry.setGroupId("group");
+        entry.setTitle("Meeting");
+        entry.setStart(LocalDate.of(2025, 1, 1).atTime(10, 0));
+        entry.setEnd(LocalDate.of(2025, 1, 1).atTime(11, 30));
+        entry.setColor("red");
+        entry.setBackgroundColor("blue");
+        entry.setBorderColor("green");
+        entry.setTextColor("white");
+        entry.setStyleId("meeting");
+        entry.setDisplayMode(DisplayMode.BACKGROUND);
+
+        ColumnarEntryProvider provider = ColumnarEntryProvider.from(entry);
+        Entry restored = provider.fetchById("1").orElseThrow();
+
+        assertNotSame(entry, restored);
+        assertEquals(entry.getGroupId(), restored.getGroupId());
+        assertEquals(entry.getTitle(), restored.getTitle());
+        assertEquals(entry.getStart(), restored.getStart());
+        assertEquals(entry.getEnd(), restored.getEnd());
+        assertEquals(entry.isAllDay(), restored.isAllDay());
+        assertEquals(entry.getColor(), restored.getColor());
+        assertEquals(entry.getBackgroundColor(), restored.getBackgroundColor());
+        assertEquals(entry.getBorderColor(), restored.getBorderColor());
+        assertEquals(entry.getTextColor(), restored.getTextColor());
+        assertEquals(entry.getStyleId(), restored.getStyleId());
+        assertEquals(entry.getDisplayMode(), restored.getDisplayMode());
+        assertEquals(entry.toJson(), restored.toJson());
+    }
+
+    @Test
+    void testFetchMatchesInMemoryProvider() {
+        Random random = new Random(42);
+        LocalDateTime base = LocalDate.of(2025, 1, 1).atStartOfDay();
+
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Entry entry = new Entry(String.valueOf(i));
+            int mode = random.nextInt(10);
+            if (mode > 0) {
+                entry.setStart(base.plusMinutes(random.nextInt(60 * 24 * 120)));
+                if (mode > 1) {
+                    entry.setEnd(entry.getStart().plusMinutes(random.nextInt(60 * 24 * 10)));
+                }
+            }
+            entry.setAllDay(random.nextBoolean());
+            entries.add(entry);
+        }
+
+        InMemoryEntryProvider<Entry> inMemory = EntryProvider.inMemoryFrom(entries);
+        ColumnarEntryProvider columnar = ColumnarEntryProvider.from(entries);
+
+        for (int i = 0; i < 50; i++) {
+            LocalDateTime start = random.nextInt(5) == 0 ? null : base.plusDays(random.nextInt(120));
+            LocalDateTime end = random.nextInt(5) == 0 ? null : (start != null ? start : base).plusDays(random.nextInt(30));
+            EntryQuery.AllDay allDay = EntryQuery.AllDay.values()[random.nextInt(3)];
+            EntryQuery query = new EntryQuery(start, end, allDay);
+
+            assertEquals(ids(inMemory.fetch(query).collect(Collectors.toList())), ids(columnar.fetch(query).collect(Collectors.toList())));
+            assertEquals(inMemory.fetch(query).count(), columnar.count(query));
+            assertEquals(inMemory.exists(query), columnar.exists(query));
+        }
+    }
+
+    @Test
+    void testUpdateAndRemove() {
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            Entry entry = new Entry(String.valueOf(i));
+            entry.setTitle("Title " + (i % 10));
+            entries.add(entry);
+        }
+
+        ColumnarEntryProvider provider = ColumnarEntryProvider.from(entries);
+        assertEquals(3000, provider.size());
+
+        // fetched instances are detached, changes are stored on update only
+        Entry fetched = provider.fetchById("5").orElseThrow();
+        fetched.setTitle("Changed");
+        assertEquals("Title 5", provider.fetchById("5").orElseThrow().getTitle());
+        provider.updateEntries(fetched);
+        assertEquals("Changed", provider.fetchById("5").orElseThrow().getTitle());
+
+        // removing most entries compacts the columns
+        provider.removeEntries(entries.subList(0, 2500));
+        assertEquals(500, provider.size());
+        assertFalse(provider.fetchById("5").isPresent());
+        assertEquals("Title 1", provider.fetchById("2501").orElseThrow().getTitle());
+        assertEquals(ids(entries.subList(2500, 3000)), ids(provider.getEntries()));
+
+        provider.addEntry(new Entry("5"));
+        assertTrue(provider.fetchById("5").isPresent());
+
+        provider.removeAllEntries();
+        assertEquals(0, provider.size());
+        assertEquals(0, provider.fetchAll().count());
+    }
+
+    @Test
+    void testRepeatedUpdatesAndScatteredRemovals() {
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Entry entry = new Entry(String.valueOf(i));
+            entry.setTitle("Title " + i);
+            entry.setColor("red");
+            entries.add(entry);
+        }
+
+        ColumnarEntryProvider provider = ColumnarEntryProvider.from(entries);
+
+        // each round orphans the colors of the previous one, which compacts the dictionary in between
+        for (int round = 0; round < 3; round++) {
+            for (Entry entry : entries) {
+                entry.setColor("#" + round + "-" + entry.getId());
+            }
+            provider.updateEntries(entries);
+        }
+
+        // every third entry uses a shared color again, which must survive the compaction
+        for (int i = 0; i < entries.size(); i += 3) {
+            entries.get(i).setColor("red");
+        }
+        provider.updateEntries(entries);
+
+        for (Entry entry : entries) {
+            Entry stored = provider.fetchById(entry.getId()).orElseThrow();
+            assertEquals(entry.getColor(), stored.getColor());
+            assertEquals(entry.getTitle(), stored.getTitle());
+        }
+
+        // scattered removals must not break the lookup of the remaining ids
+        List<Entry> removed = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i += 7) {
+            removed.add(entries.get(i));
+        }
+        provider.removeEntries(removed);
+
+        assertEquals(entries.size() - removed.size(), provider.size());
+        for (Entry entry : entries) {
+            assertEquals(!removed.contains(entry), provider.fetchById(entry.getId()).isPresent(), entry.getId());
+        }
+    }
+
+    @Test
+    void testRecurringEntriesAreRejected() {
+        Entry entry = new Entry();
+        entry.setRecurringDaysOfWeek(DayOfWeek.MONDAY);
+
+        assertThrows(IllegalArgumentException.class, () -> ColumnarEntryProvider.from(entry));
+    }
+
+    private static Set<String> ids(Collection<Entry> entries) {
+        return entries.stream().map(Entry::getId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,93 @@
+package org.vaadin.stefan.fullcalendar;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntryStyleTest {
+
+    @Test
+    void testToJsonOmitsUndefinedProperties() {
+        ObjectNode json = EntryStyle.builder().id("meeting").color(" #ff0000 ").build().toJson();
+
+        assertEquals("#ff0000", json.get("color").asString());
+        assertFalse(json.has("backgroundColor"));
+        assertFalse(json.has("classNames"));
+        assertFalse(json.has("display"));
+    }
+
+    @Test
+    void testToJsonWithAllProperties() {
+        ObjectNode json = EntryStyle.builder()
+                .id("meeting")
+                .backgroundColor("red")
+                .borderColor("blue")
+                .textColor("white")
+                .classNames(Set.of("meeting"))
+                .displayMode(DisplayMode.BACKGROUND)
+                .build()
+                .toJson();
+
+        assertEquals("red", json.get("backgroundColor").asString());
+        assertEquals("blue", json.get("borderColor").asString());
+        assertEquals("white", json.get("textColor").asString());
+        assertEquals("meeting", json.get("classNames").get(0).asString());
+        assertEquals(DisplayMode.BACKGROUND.getClientSideValue(), json.get("display").asString());
+    }
+
+    @Test
+    void testClassNamesAreCopied() {
+        Set<String> classNames = new LinkedHashSet<>(List.of("meeting", "important"));
+        EntryStyle style = EntryStyle.builder().id("meeting").classNames(classNames).build();
+
+        classNames.add("changed");
+        assertEquals(Set.of("meeting", "important"), style.getClassNames());
+        assertEquals(2, style.toJson().get("classNames").size());
+        assertThrows(UnsupportedOperationException.class, () -> style.getClassNames().add("changed"));
+
+        assertEquals(Set.of(), EntryStyle.builder().id("meeting").build().getClassNames());
+    }
+
+    @Test
+    void testIdIsRequired() {
+        assertThrows(NullPointerException.class, () -> EntryStyle.builder().build());
+    }
+
+    @Test
+    void testEntryReferencesStyleId() {
+        Entry entry = new Entry();
+        entry.setStyle(EntryStyle.builder().id("meeting").build());
+
+        assertEquals("meeting", entry.getStyleId());
+        assertEquals("meeting", entry.toJson().get("styleId").asString());
+
+        entry.setStyle(null);
+        assertNull(entry.getStyleId());
+        assertFalse(entry.toJson().has("styleId"));
+    }
+
+    @Test
+    void testCalendarRegistry() {
+        FullCalendar calendar = new FullCalendar();
+        EntryStyle meeting = EntryStyle.builder().id("meeting").color("red").build();
+        EntryStyle holiday = EntryStyle.builder().id("holiday").color("green").build();
+
+        calendar.addEntryStyles(meeting, holiday);
+        assertEquals(2, calendar.getEntryStyles().size());
+        assertSame(meeting, calendar.getEntryStyle("meeting").orElseThrow());
+
+        EntryStyle recolored = meeting.toBuilder().color("blue").build();
+        calendar.addEntryStyles(recolored);
+        assertEquals(2, calendar.getEntryStyles().size());
+        assertSame(recolored, calendar.getEntryStyle("meeting").orElseThrow());
+
+        calendar.removeEntryStyle("meeting");
+        assertFalse(calendar.getEntryStyle("meeting").isPresent());
+        assertEquals(1, calendar.getEntryStyles().size());
+    }
+}
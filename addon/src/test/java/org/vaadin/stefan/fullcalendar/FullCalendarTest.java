@@ -1,11 +1,19 @@
 package org.vaadin.stefan.fullcalendar;
 
 import com.vaadin.flow.component.ComponentEventBusUtil;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.dom.Element;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.vaadin.stefan.fullcalendar.FullCalendar.Option;
+import org.vaadin.stefan.fullcalendar.dataprovider.CallbackEntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryQuery;
 import org.vaadin.stefan.fullcalendar.dataprovider.InMemoryEntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.SharedInMemoryEntryProvider;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ArrayNode;
 import tools.jackson.databind.node.ObjectNode;
 
 import java.io.Serializable;
@@ -13,13 +21,24 @@ import java.lang.reflect.Constructor;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.vaadin.stefan.fullcalendar.TestUtils.assertNPE;
@@ -537,4 +556,660 @@ public class FullCalendarTest {
         assertTrue(calendar.isAutoRevertUnappliedEntryChanges());
     }
 
-}
\ No newline at end of file
+    // ---- Parallel serialization ----
+
+    @Test
+    void parallelSerializationKeepsProviderOrder() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            FullCalendar calendar = createTestCalendar();
+            calendar.setParallelSerializationThreshold(1);
+            calendar.setEntrySerializationExecutor(executor);
+
+            List<Entry> entries = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                Entry entry = new Entry(String.valueOf(i));
+                entry.setTitle("Entry " + i);
+                entries.add(entry);
+            }
+
+            List<ObjectNode> jsons = calendar.serializeEntries(entries);
+            assertEquals(entries.size(), jsons.size());
+            for (int i = 0; i < entries.size(); i++) {
+                assertEquals(entries.get(i).getId(), jsons.get(i).get("id").asString());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void parallelSerializationPassesExceptionsToTheCaller() {
+        Assumptions.assumeTrue(Runtime.getRuntime().availableProcessors() > 1, "serialized sequentially");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            FullCalendar calendar = createTestCalendar();
+            calendar.setParallelSerializationThreshold(1);
+            calendar.setEntrySerializationExecutor(executor);
+
+            List<Entry> entries = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                entries.add(new Entry(String.valueOf(i)));
+            }
+            entries.add(new Entry("broken") {
+                @Override
+                public ObjectNode toJson() {
+                    throw new IllegalStateException("broken entry");
+                }
+            });
+
+            IllegalStateException exception = assertThrows(IllegalStateException.class, () -> calendar.serializeEntries(entries));
+            assertEquals("broken entry", exception.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void fetchingEntriesUsesTheParallelSerialization() {
+        Assumptions.assumeTrue(Runtime.getRuntime().availableProcessors() > 1, "serialized sequentially");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            AtomicInteger tasks = new AtomicInteger();
+            FullCalendar calendar = createTestCalendar();
+            calendar.setParallelSerializationThreshold(10);
+            calendar.setEntrySerializationExecutor(task -> {
+                tasks.incrementAndGet();
+                executor.execute(task);
+            });
+
+            InMemoryEntryProvider<Entry> provider = calendar.getEntryProvider();
+            provider.addEntries(createMonthOfEntries());
+
+            ArrayNode jsons = calendar.fetchEntriesFromServer(createRange("2025-01-01", "2025-02-01"));
+            assertEquals(31, jsons.size());
+            assertTrue(tasks.get() > 1);
+
+            // below the threshold the entries are serialized on the calling thread
+            tasks.set(0);
+            assertEquals(7, calendar.fetchEntriesFromServer(createRange("2025-01-06", "2025-01-13")).size());
+            assertEquals(0, tasks.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void parallelSerializationExecutorFallsBackToCommonPool() {
+        FullCalendar calendar = createTestCalendar();
+        assertEquals(FullCalendar.DEFAULT_PARALLEL_SERIALIZATION_THRESHOLD, calendar.getParallelSerializationThreshold());
+        assertSame(ForkJoinPool.commonPool(), calendar.getEntrySerializationExecutor());
+    }
+
+    @Test
+    void calendarsSharingAnEntryProviderShareFetches() {
+        List<EntryQuery> backendFetches = new ArrayList<>();
+        SharedInMemoryEntryProvider<Entry> provider = new SharedInMemoryEntryProvider<>() {
+            @Override
+            public Stream<Entry> fetch(EntryQuery query) {
+                backendFetches.add(query);
+                return super.fetch(query);
+            }
+        };
+        provider.addEntries(createMonthOfEntries());
+
+        FullCalendar main = createTestCalendar();
+        FullCalendar overview = createTestCalendar();
+        main.setEntryProvider(provider);
+        overview.setEntryProvider(provider);
+
+        UI ui = new UI();
+        ui.add(main, overview);
+
+        ObjectNode month = createRange("2025-01-01", "2025-02-01");
+        ObjectNode week = createRange("2025-01-06", "2025-01-13");
+
+        // the week is covered by the month fetched before
+        assertEquals(31, overview.fetchEntriesFromServer(month).size());
+        assertEquals(7, main.fetchEntriesFromServer(week).size());
+        assertEquals(1, backendFetches.size());
+
+        // after a refresh all, the first fetch also covers the range of the other calendar
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        provider.refreshAll();
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+
+        assertEquals(7, main.fetchEntriesFromServer(week).size());
+        assertEquals(31, overview.fetchEntriesFromServer(month).size());
+        assertEquals(2, backendFetches.size());
+        assertEquals(LocalDate.of(2025, 1, 1).atStartOfDay(), backendFetches.get(1).getStart());
+
+        // disabled sharing queries the provider for each fetch
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        main.setEntryFetchSharingEnabled(false);
+        overview.fetchEntriesFromServer(month);
+        main.fetchEntriesFromServer(week);
+        assertEquals(4, backendFetches.size());
+    }
+
+    @Test
+    void calendarsNotSharingAProviderDoNotShareFetches() {
+        List<EntryQuery> backendFetches = new ArrayList<>();
+        InMemoryEntryProvider<Entry> provider = new InMemoryEntryProvider<>() {
+            @Override
+            public Stream<Entry> fetch(EntryQuery query) {
+                backendFetches.add(query);
+                return super.fetch(query);
+            }
+        };
+        provider.addEntries(createMonthOfEntries());
+
+        FullCalendar calendar = createTestCalendar();
+        calendar.setEntryProvider(provider);
+        assertThrows(UnsupportedOperationException.class, () -> createTestCalendar().setEntryProvider(provider));
+
+        UI ui = new UI();
+        ui.add(calendar);
+
+        ObjectNode month = createRange("2025-01-01", "2025-02-01");
+        assertEquals(31, calendar.fetchEntriesFromServer(month).size());
+        assertEquals(31, calendar.fetchEntriesFromServer(month).size());
+        assertEquals(2, backendFetches.size());
+    }
+
+    @Test
+    void calendarsSharingACallbackProviderShareIdenticalFetchesOnly() {
+        InMemoryEntryProvider<Entry> backend = EntryProvider.emptyInMemory();
+        backend.addEntries(createMonthOfEntries());
+
+        List<EntryQuery> backendFetches = new ArrayList<>();
+        EntryProvider<Entry> provider = new CallbackEntryProvider<>(query -> {
+            backendFetches.add(query);
+            return backend.fetch(query);
+        }, id -> backend.fetchById(id).orElse(null)) {
+            // a custom provider, that may be used by several calendars
+            @Override
+            public void setCalendar(FullCalendar calendar) {
+            }
+
+            @Override
+            public boolean isShared() {
+                return true;
+            }
+        };
+
+        FullCalendar main = createTestCalendar();
+        FullCalendar overview = createTestCalendar();
+        main.setEntryProvider(provider);
+        overview.setEntryProvider(provider);
+
+        UI ui = new UI();
+        ui.add(main, overview);
+
+        ObjectNode month = createRange("2025-01-01", "2025-02-01");
+        ObjectNode week = createRange("2025-01-06", "2025-01-13");
+
+        // the callback decides, which entries match a range, so a covered range is not filtered on the server
+        assertEquals(31, overview.fetchEntriesFromServer(month).size());
+        assertEquals(7, main.fetchEntriesFromServer(week).size());
+        assertEquals(2, backendFetches.size());
+
+        // identical queries are still shared
+        assertEquals(31, main.fetchEntriesFromServer(month).size());
+        assertEquals(2, backendFetches.size());
+
+        // ranges of other calendars are not merged into the query after a refresh all
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        provider.refreshAll();
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+
+        assertEquals(7, main.fetchEntriesFromServer(week).size());
+        assertEquals(3, backendFetches.size());
+        assertEquals(LocalDate.of(2025, 1, 6).atStartOfDay(), backendFetches.get(2).getStart());
+    }
+
+    @Test
+    void refreshedItemsAreSentToTheClientInOneCall() {
+        InMemoryEntryProvider<Entry> provider = EntryProvider.emptyInMemory();
+        provider.addEntries(createMonthOfEntries());
+
+        FullCalendar calendar = createTestCalendar();
+        calendar.setEntryProvider(provider);
+
+        UI ui = new UI();
+        ui.add(calendar);
+        calendar.fetchEntriesFromServer(createRange("2025-01-01", "2025-02-01"));
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        ui.getInternals().dumpPendingJavaScriptInvocations();
+
+        Entry moved = provider.fetchById("e1").orElseThrow();
+        moved.setStart(LocalDate.of(2025, 2, 10).atTime(10, 0));
+        moved.setEnd(moved.getStart().plusHours(1));
+        Entry renamed = provider.fetchById("e2").orElseThrow();
+        renamed.setTitle("Renamed");
+
+        provider.refreshItem(moved);
+        provider.refreshItem(renamed);
+        provider.refreshItem(provider.fetchById("e3").orElseThrow());
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+
+        List<String> expressions = ui.getInternals().dumpPendingJavaScriptInvocations().stream()
+                .map(invocation -> invocation.getInvocation().getExpression())
+                .toList();
+        assertEquals(1, expressions.stream().filter(expression -> expression.contains("applyEntryChanges")).count());
+        assertTrue(expressions.stream().noneMatch(expression -> expression.contains("refreshSingleEvent")
+                || expression.contains("refreshAllEvents")));
+
+        // the moved entry left the fetched range, so it is removed from the client
+        assertFalse(calendar.getCachedEntryFromFetch("e1").isPresent());
+        assertEquals("Renamed", calendar.getCachedEntryFromFetch("e2").orElseThrow().getTitle());
+        assertTrue(calendar.getCachedEntryFromFetch("e3").isPresent());
+    }
+
+    private static List<Entry> createMonthOfEntries() {
+        List<Entry> entries = new ArrayList<>();
+        for (int day = 0; day < 31; day++) {
+            Entry entry = new Entry("e" + day);
+            entry.setStart(LocalDate.of(2025, 1, 1).plusDays(day).atTime(10, 0));
+            entry.setEnd(entry.getStart().plusHours(1));
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private static ObjectNode createRange(String start, String end) {
+        ObjectNode range = JsonFactory.createObject();
+        range.put("start", start);
+        range.put("end", end);
+        return range;
+    }
+
+    @Test
+    void liveEntryUpdatesPatchTheFetchedEntries() {
+        InMemoryEntryProvider<Entry> provider = EntryProvider.emptyInMemory();
+        Entry kept = new Entry("kept");
+        kept.setStart(LocalDate.of(2025, 1, 10).atTime(10, 0));
+        Entry removed = new Entry("removed");
+        removed.setStart(LocalDate.of(2025, 1, 11).atTime(10, 0));
+        provider.addEntries(kept, removed);
+
+        FullCalendar calendar = createTestCalendar();
+        calendar.setEntryProvider(provider);
+        calendar.setLiveEntryUpdatesEnabled(true);
+        calendar.setLiveEntryUpdateWindow(java.time.Duration.ofHours(1)); // flushed manually
+
+        ObjectNode month = JsonFactory.createObject();
+        month.put("start", "2025-01-01");
+        month.put("end", "2025-02-01");
+        assertEquals(2, calendar.fetchEntriesFromServer(month).size());
+
+        Entry added = new Entry("added");
+        added.setStart(LocalDate.of(2025, 1, 12).atTime(10, 0));
+        Entry outside = new Entry("outside");
+        outside.setStart(LocalDate.of(2025, 3, 1).atTime(10, 0));
+
+        provider.beginBatch()
+                .addEntries(List.of(added, outside))
+                .removeEntries(List.of(removed))
+                .commit();
+
+        // changes of the same entry are merged, the last one wins
+        provider.refreshItem(kept);
+        provider.beginBatch().removeEntries(List.of(kept)).commit();
+        provider.beginBatch().addEntries(List.of(kept)).commit();
+
+        EntryChangeCoalescer coalescer = calendar.getEntryChangeCoalescer();
+        assertTrue(coalescer.hasPendingChanges());
+        coalescer.flush();
+        assertFalse(coalescer.hasPendingChanges());
+
+        assertTrue(calendar.getCachedEntryFromFetch("kept").isPresent());
+        assertTrue(calendar.getCachedEntryFromFetch("added").isPresent());
+        assertFalse(calendar.getCachedEntryFromFetch("removed").isPresent());
+        assertFalse(calendar.getCachedEntryFromFetch("outside").isPresent());
+
+        // non batch changes still lead to a refetch and are not collected
+        provider.refreshAll();
+        assertFalse(coalescer.hasPendingChanges());
+    }
+
+    @Test
+    void liveEntryUpdatesRefetchRefreshedItemsOfCallbackProviders() {
+        InMemoryEntryProvider<Entry> backend = EntryProvider.emptyInMemory();
+        Entry stored = new Entry("stored");
+        stored.setTitle("Stored");
+        stored.setStart(LocalDate.of(2025, 1, 10).atTime(10, 0));
+        backend.addEntries(stored);
+
+        EntryProvider<Entry> provider = EntryProvider.fromCallbacks(backend::fetch, id -> backend.fetchById(id).orElse(null));
+
+        FullCalendar calendar = createTestCalendar();
+        calendar.setEntryProvider(provider);
+        calendar.setLiveEntryUpdatesEnabled(true);
+        calendar.setLiveEntryUpdateWindow(java.time.Duration.ofHours(1)); // flushed manually
+
+        ObjectNode month = JsonFactory.createObject();
+        month.put("start", "2025-01-01");
+        month.put("end", "2025-02-01");
+        assertEquals(1, calendar.fetchEntriesFromServer(month).size());
+
+        // the passed instance is not sent, but the one the provider returns for its id
+        Entry passed = new Entry("stored");
+        passed.setTitle("Passed");
+        passed.setStart(stored.getStart());
+        stored.setTitle("Changed");
+        provider.refreshItem(passed);
+
+        EntryChangeCoalescer coalescer = calendar.getEntryChangeCoalescer();
+        assertTrue(coalescer.hasPendingChanges());
+        coalescer.flush();
+        assertSame(stored, calendar.getCachedEntryFromFetch("stored").orElseThrow());
+    }
+
+    @Test
+    void liveEntryUpdatesRefreshAllWhenTheClientStopsAcknowledging() {
+        InMemoryEntryProvider<Entry> provider = EntryProvider.emptyInMemory();
+
+        FullCalendar calendar = createTestCalendar();
+        calendar.setEntryProvider(provider);
+        calendar.setLiveEntryUpdatesEnabled(true);
+        calendar.setLiveEntryUpdateWindow(java.time.Duration.ofHours(1)); // flushed manually
+        calendar.setLiveEntryUpdateCapacity(3);
+
+        ObjectNode month = JsonFactory.createObject();
+        month.put("start", "2025-01-01");
+        month.put("end", "2025-02-01");
+        calendar.fetchEntriesFromServer(month);
+
+        // there is no client answering the patches, so they stay unacknowledged
+        EntryChangeCoalescer coalescer = calendar.getEntryChangeCoalescer();
+        for (int day = 1; day <= 3; day++) {
+            Entry entry = new Entry("e" + day);
+            entry.setStart(LocalDate.of(2025, 1, day).atTime(10, 0));
+            provider.beginBatch().addEntries(List.of(entry)).commit();
+            coalescer.flush();
+            assertTrue(calendar.getCachedEntryFromFetch(entry.getId()).isPresent());
+        }
+        assertEquals(3, coalescer.getUnacknowledgedChanges());
+
+        // the next change exceeds the capacity together with the unacknowledged ones
+        Entry exceeding = new Entry("exceeding");
+        exceeding.setStart(LocalDate.of(2025, 1, 4).atTime(10, 0));
+        provider.beginBatch().addEntries(List.of(exceeding)).commit();
+        coalescer.flush();
+
+        // the refresh all replaces the patched entries, so their acknowledgements are not awaited anymore
+        assertFalse(calendar.getCachedEntryFromFetch("exceeding").isPresent());
+        assertEquals(0, coalescer.getUnacknowledgedChanges());
+        assertFalse(coalescer.hasPendingChanges());
+
+        Entry next = new Entry("next");
+        next.setStart(LocalDate.of(2025, 1, 5).atTime(10, 0));
+        provider.beginBatch().addEntries(List.of(next)).commit();
+        coalescer.flush();
+        assertTrue(calendar.getCachedEntryFromFetch("next").isPresent());
+        assertEquals(1, coalescer.getUnacknowledgedChanges());
+
+        // a (re)attached calendar gets a new client side, that will not acknowledge the previous patches
+        UI ui = new UI();
+        ui.add(calendar);
+        assertEquals(0, coalescer.getUnacknowledgedChanges());
+    }
+
+    @Test
+    void liveEntryUpdatesOfSharedProvidersAreBroadcastByRange() {
+        SharedInMemoryEntryProvider<Entry> provider = SharedInMemoryEntryProvider.from();
+
+        FullCalendar january = createTestCalendar();
+        FullCalendar february = createTestCalendar();
+        for (FullCalendar calendar : List.of(january, february)) {
+            calendar.setEntryProvider(provider);
+            calendar.setLiveEntryUpdatesEnabled(true);
+            calendar.setLiveEntryUpdateWindow(java.time.Duration.ofHours(1)); // flushed manually
+        }
+
+        ObjectNode januaryRange = JsonFactory.createObject();
+        januaryRange.put("start", "2025-01-01");
+        januaryRange.put("end", "2025-02-01");
+        january.fetchEntriesFromServer(januaryRange);
+
+        ObjectNode februaryRange = JsonFactory.createObject();
+        februaryRange.put("start", "2025-02-01");
+        februaryRange.put("end", "2025-03-01");
+        february.fetchEntriesFromServer(februaryRange);
+
+        Entry meeting = new Entry("meeting");
+        meeting.setStart(LocalDate.of(2025, 1, 20).atTime(10, 0));
+        provider.beginBatch().addEntries(List.of(meeting)).commit();
+
+        january.getEntryChangeCoalescer().flush();
+        february.getEntryChangeCoalescer().flush();
+        assertTrue(january.getCachedEntryFromFetch("meeting").isPresent());
+        assertFalse(february.getCachedEntryFromFetch("meeting").isPresent());
+
+        // moved to the other range
+        meeting.setStart(LocalDate.of(2025, 2, 20).atTime(10, 0));
+        provider.beginBatch().updateEntries(List.of(meeting)).commit();
+
+        january.getEntryChangeCoalescer().flush();
+        february.getEntryChangeCoalescer().flush();
+        assertFalse(january.getCachedEntryFromFetch("meeting").isPresent());
+        assertTrue(february.getCachedEntryFromFetch("meeting").isPresent());
+
+        // too many pending changes lead to a refresh all
+        january.setLiveEntryUpdateCapacity(1);
+        Entry first = new Entry("first");
+        first.setStart(LocalDate.of(2025, 1, 5).atTime(10, 0));
+        Entry second = new Entry("second");
+        second.setStart(LocalDate.of(2025, 1, 6).atTime(10, 0));
+        provider.beginBatch().addEntries(List.of(first, second)).commit();
+
+        assertTrue(january.getEntryChangeCoalescer().hasPendingChanges());
+        january.getEntryChangeCoalescer().flush();
+        assertFalse(january.getEntryChangeCoalescer().hasPendingChanges());
+        assertFalse(january.getCachedEntryFromFetch("first").isPresent());
+
+        assertThrows(IllegalArgumentException.class, () -> january.setLiveEntryUpdateCapacity(0));
+    }
+
+    @Test
+    void entriesCanBeAddedToAndRemovedFromTheClient() {
+        InMemoryEntryProvider<Entry> provider = EntryProvider.emptyInMemory();
+        Entry fetched = new Entry("fetched");
+        fetched.setStart(LocalDate.of(2025, 1, 10).atTime(10, 0));
+        provider.addEntries(fetched);
+
+        FullCalendar calendar = createTestCalendar();
+        calendar.setEntryProvider(provider);
+
+        ObjectNode month = JsonFactory.createObject();
+        month.put("start", "2025-01-01");
+        month.put("end", "2025-02-01");
+        calendar.fetchEntriesFromServer(month);
+        assertTrue(calendar.isEntryKnownToTheClient(fetched));
+
+        calendar.removeEntriesFromClient(List.of("fetched"));
+        assertFalse(calendar.getCachedEntryFromFetch("fetched").isPresent());
+        assertFalse(calendar.isEntryKnownToTheClient(fetched));
+
+        Entry pushed = new Entry("pushed");
+        pushed.setStart(LocalDate.of(2025, 1, 12).atTime(10, 0));
+        calendar.addEntriesToClient(List.of(pushed));
+        calendar.updateEntriesOnClient(List.of(fetched));
+        assertTrue(calendar.getCachedEntryFromFetch("pushed").isPresent());
+        assertTrue(calendar.getCachedEntryFromFetch("fetched").isPresent());
+        assertTrue(calendar.isEntryKnownToTheClient(pushed));
+
+        assertNPE(calendar, c -> c.addEntriesToClient(null));
+        assertNPE(calendar, c -> c.removeEntriesFromClient(null));
+    }
+
+    @Test
+    void recurringEntriesCanBeExpandedOnTheServerSide() {
+        Entry mondays = new Entry("mondays");
+        mondays.setStart(LocalDate.of(2025, 1, 6).atTime(10, 0));
+        mondays.setEnd(LocalDate.of(2025, 1, 6).atTime(11, 0));
+        mondays.setRRule(RRule.weekly().byWeekday(DayOfWeek.MONDAY).excludeDates(LocalDate.of(2025, 1, 13)));
+
+        Entry tuesdays = new Entry("tuesdays");
+        tuesdays.setRecurringDaysOfWeek(DayOfWeek.TUESDAY);
+        tuesdays.setRecurringStartDate(LocalDate.of(2025, 1, 1));
+        tuesdays.setRecurringStartTime(LocalTime.of(8, 0));
+        tuesdays.setRecurringEndTime(LocalTime.of(9, 0));
+
+        Entry raw = new Entry("raw");
+        raw.setStart(LocalDate.of(2025, 1, 1).atTime(12, 0));
+        raw.setRRule(RRule.ofRaw("FREQ=DAILY;BYSETPOS=1"));
+
+        FullCalendar calendar = createTestCalendar();
+        calendar.setTimezone(Timezone.UTC);
+        calendar.setEntryProvider(EntryProvider.inMemoryFrom(mondays, tuesdays, raw));
+        calendar.setServerSideRecurrenceExpansionEnabled(true);
+
+        ObjectNode month = JsonFactory.createObject();
+        month.put("start", "2025-01-01");
+        month.put("end", "2025-02-01");
+        ArrayNode result = calendar.fetchEntriesFromServer(month);
+
+        Map<String, JsonNode> byId = new HashMap<>();
+        result.forEach(json -> byId.put(json.get("id").asString(), json));
+
+        // 3 mondays (one excluded), 4 tuesdays and the not expandable raw rule
+        assertEquals(8, result.size());
+        assertFalse(byId.containsKey("mondays@2025-01-13T10:00"));
+
+        JsonNode monday = byId.get("mondays@2025-01-20T10:00");
+        assertEquals("2025-01-20T10:00Z", monday.get("start").asString());
+        assertEquals("2025-01-20T11:00Z", monday.get("end").asString());
+        assertFalse(monday.has("rrule"));
+        assertFalse(monday.has("exdate"));
+
+        JsonNode tuesday = byId.get("tuesdays@2025-01-07T08:00");
+        assertEquals("2025-01-07T08:00Z", tuesday.get("start").asString());
+        assertEquals("2025-01-07T09:00Z", tuesday.get("end").asString());
+        assertFalse(tuesday.has("daysOfWeek"));
+
+        assertTrue(byId.get("raw").has("rrule"));
+
+        // occurrences resolve to their recurring entry
+        assertSame(mondays, calendar.getCachedEntryFromFetch("mondays@2025-01-20T10:00").orElseThrow());
+        assertSame(raw, calendar.getCachedEntryFromFetch("raw").orElseThrow());
+
+        ObjectNode clicked = JsonFactory.createObject();
+        clicked.put("id", "mondays@2025-01-27T10:00");
+        EntryClickedEvent event = new EntryClickedEvent(calendar, true, clicked);
+        assertSame(mondays, event.getEntry());
+        assertEquals("mondays@2025-01-27T10:00", event.getOccurrenceId());
+        assertEquals(LocalDateTime.of(2025, 1, 27, 10, 0), event.getOccurrenceStart());
+        assertEquals("mondays", event.getJsonObject().get("id").asString());
+
+        calendar.setServerSideRecurrenceExpansionEnabled(false);
+        assertEquals(3, calendar.fetchEntriesFromServer(month).size());
+        assertFalse(calendar.getCachedEntryFromFetch("mondays@2025-01-20T10:00").isPresent());
+    }
+
+    @Test
+    void serverSideRecurrenceExpansionUsesTheCalendarTimezoneForLocalRules() {
+        // without a dtstart, the client uses the entry's start as local wall clock time
+        Entry local = new Entry("local");
+        local.setStart(LocalDate.of(2025, 3, 3).atTime(10, 0));
+        local.setEnd(local.getStart().plusHours(1));
+        local.setRRule(RRule.weekly());
+
+        Entry utc = new Entry("utc");
+        utc.setStart(LocalDate.of(2025, 3, 3).atTime(10, 0));
+        utc.setEnd(utc.getStart().plusHours(1));
+        utc.setRRule(RRule.weekly().dtstart("2025-03-03T10:00:00Z"));
+
+        FullCalendar calendar = createTestCalendar();
+        calendar.setTimezone(new Timezone(ZoneId.of("Europe/Berlin")));
+        calendar.setEntryProvider(EntryProvider.inMemoryFrom(local, utc));
+        calendar.setServerSideRecurrenceExpansionEnabled(true);
+
+        Map<String, JsonNode> byId = new HashMap<>();
+        calendar.fetchEntriesFromServer(createRange("2025-03-01", "2025-04-07"))
+                .forEach(json -> byId.put(json.get("id").asString(), json));
+
+        // 10:00 in Berlin, before and after the change to daylight saving time
+        assertEquals("2025-03-24T09:00Z", byId.get("local@2025-03-24T09:00").get("start").asString());
+        assertEquals("2025-03-24T10:00Z", byId.get("local@2025-03-24T09:00").get("end").asString());
+        assertEquals("2025-03-31T08:00Z", byId.get("local@2025-03-31T08:00").get("start").asString());
+
+        // UTC based rules are not shifted
+        assertEquals("2025-03-24T10:00Z", byId.get("utc@2025-03-24T10:00").get("start").asString());
+        assertEquals("2025-03-31T10:00Z", byId.get("utc@2025-03-31T10:00").get("start").asString());
+
+        assertEquals(10, byId.size());
+    }
+
+    @Test
+    void applyingClientChangesReindexesWithoutAnnouncingAnUpdate() {
+        Entry entry = new Entry("moved");
+        entry.setStart(LocalDate.of(2025, 1, 6).atTime(10, 0));
+        entry.setEnd(LocalDate.of(2025, 1, 6).atTime(11, 0));
+
+        List<Entry> updated = new ArrayList<>();
+        InMemoryEntryProvider<Entry> provider = new InMemoryEntryProvider<>(List.of(entry)) {
+            @Override
+            public void onEntryUpdate(Entry e) {
+                updated.add(e);
+            }
+        };
+
+        FullCalendar calendar = createTestCalendar();
+        calendar.setTimezone(Timezone.UTC);
+        calendar.setEntryProvider(provider);
+
+        ObjectNode month = JsonFactory.createObject();
+        month.put("start", "2025-01-01");
+        month.put("end", "2025-02-01");
+        assertEquals(1, calendar.fetchEntriesFromServer(month).size());
+
+        long version = provider.getVersion();
+        ObjectNode changes = JsonFactory.createObject();
+        changes.put("id", "moved");
+        changes.put("start", "2025-03-10T10:00:00Z");
+        changes.put("end", "2025-03-10T11:00:00Z");
+        new EntryClickedEvent(calendar, true, changes).applyChangesOnEntry();
+
+        // the time index follows the change, but no update is announced
+        assertEquals(List.of(entry), provider.getEntries(LocalDate.of(2025, 3, 10)));
+        assertTrue(provider.getEntries(LocalDate.of(2025, 1, 6)).isEmpty());
+        assertEquals(version, provider.getVersion());
+        assertTrue(updated.isEmpty());
+    }
+
+    @Test
+    void unboundEntriesCanBeServedByMultipleCalendars() {
+        Entry entry = new Entry("shared");
+        entry.setStart(LocalDate.of(2025, 1, 1).atTime(10, 0));
+        entry.setEnd(LocalDate.of(2025, 1, 1).atTime(11, 0));
+
+        FullCalendar calendar1 = createTestCalendar();
+        FullCalendar calendar2 = createTestCalendar();
+        calendar1.setEntryBindingEnabled(false);
+        calendar2.setEntryBindingEnabled(false);
+        calendar1.setEntryProvider(EntryProvider.inMemoryFrom(entry));
+        calendar2.setEntryProvider(EntryProvider.inMemoryFrom(entry));
+
+        assertFalse(calendar1.isEntryKnownToTheClient(entry));
+
+        ObjectNode query = JsonFactory.createObject();
+        assertEquals(1, calendar1.fetchEntriesFromServer(query).size());
+        assertEquals(1, calendar2.fetchEntriesFromServer(query).size());
+
+        assertFalse(entry.getCalendar().isPresent());
+        assertFalse(entry.isKnownToTheClient());
+        assertTrue(calendar1.isEntryKnownToTheClient(entry));
+        assertTrue(calendar2.isEntryKnownToTheClient(entry));
+        assertSame(entry, calendar1.getCachedEntryFromFetch("shared").orElseThrow());
+
+        // enabling the binding again binds the entries of the in memory provider
+        calendar1.setEntryBindingEnabled(true);
+        assertSame(calendar1, entry.getCalendar().orElseThrow());
+        assertFalse(calendar1.isEntryKnownToTheClient(entry));
+    }
+
+}
@@ -3,12 +3,19 @@ package org.vaadin.stefan.fullcalendar;
 import lombok.Getter;
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.vaadin.stefan.fullcalendar.dataprovider.CallbackEntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntriesBatchChangeEvent;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntriesChangeEvent;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryChange;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryChangeSet;
 import org.vaadin.stefan.fullcalendar.dataprovider.EntryProvider;
 import org.vaadin.stefan.fullcalendar.dataprovider.EntryQuery;
 import org.vaadin.stefan.fullcalendar.dataprovider.InMemoryEntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.SharedInMemoryEntryProvider;
 import tools.jackson.databind.node.ArrayNode;
 
 import java.time.Instant;
@@ -570,6 +577,597 @@ public class InMemoryEntryProviderTest {
 //        assertEquals(0, jsonArrays.get("addEvents").length(), "add events json array");
 //    }
 
+    @Test
+    void test_IndexedFetchMatchesLinearFilter() {
+        Random random = new Random(42);
+        LocalDateTime base = LocalDate.of(2000, 1, 1).atStartOfDay();
+
+        List<Entry> all = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Entry entry = new Entry(String.valueOf(i));
+            LocalDateTime start = base.plusHours(random.nextInt(24 * 365));
+            entry.setStart(start);
+
+            int kind = random.nextInt(10);
+            if (kind == 0) {
+                entry.setEnd((LocalDateTime) null); // open ended
+            } else if (kind == 1) {
+                entry.setEnd(start.plusDays(random.nextInt(800))); // very long
+            } else if (kind == 2) {
+                entry.setRecurringDaysOfWeek(java.time.DayOfWeek.MONDAY);
+            } else {
+                entry.setEnd(start.plusHours(1 + random.nextInt(24 * 40)));
+            }
+            entry.setAllDay(random.nextBoolean());
+            all.add(entry);
+        }
+
+        InMemoryEntryProvider<Entry> provider = EntryProvider.inMemoryFrom(all);
+
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime start = random.nextInt(10) == 0 ? null : base.plusHours(random.nextInt(24 * 400) - 24 * 20);
+            LocalDateTime end = random.nextInt(10) == 0 ? null : (start != null ? start : base).plusHours(random.nextInt(24 * 60));
+            EntryQuery query = new EntryQuery(start, end, EntryQuery.AllDay.values()[random.nextInt(3)]);
+
+            assertEqualAsSet(query.applyFilter(all.stream()), provider.fetch(query));
+        }
+    }
+
+    @Test
+    void test_UpdateEntriesReindexesChangedTimes() {
+        LocalDateTime start = LocalDate.of(2000, 1, 1).atTime(10, 0);
+        entry1.setStart(start);
+        entry1.setEnd(start.plusHours(1));
+
+        InMemoryEntryProvider<Entry> provider = EntryProvider.inMemoryFrom(entry1);
+        LocalDateTime march = LocalDate.of(2000, 3, 1).atStartOfDay();
+        assertEquals(0, provider.fetch(march, march.plusDays(1)).count());
+
+        entry1.setStart(march.plusHours(10));
+        entry1.setEnd(march.plusHours(11));
+        provider.updateEntries(Collections.singletonList(entry1));
+
+        assertEquals(1, provider.fetch(march, march.plusDays(1)).count());
+        assertEquals(0, provider.fetch(start.minusDays(1), start.plusDays(1)).count());
+
+        // changes without update are picked up by a refresh
+        entry1.setStart(start);
+        entry1.setEnd(start.plusHours(1));
+        provider.refreshAll();
+
+        assertEquals(0, provider.fetch(march, march.plusDays(1)).count());
+        assertEquals(1, provider.fetch(start.minusDays(1), start.plusDays(1)).count());
+    }
+
+    @Test
+    void test_RecurringEntriesWithoutOccurrenceInRangeArePruned() {
+        LocalDateTime saturday = LocalDate.of(2025, 3, 8).atStartOfDay();
+        LocalDateTime monday = LocalDate.of(2025, 3, 10).atStartOfDay();
+
+        Entry simpleMondays = new Entry("simple");
+        simpleMondays.setRecurringDaysOfWeek(java.time.DayOfWeek.MONDAY);
+
+        Entry rruleMondays = new Entry("rrule");
+        rruleMondays.setStart(LocalDate.of(2025, 1, 6).atTime(10, 0));
+        rruleMondays.setRRule(RRule.weekly().byWeekday(java.time.DayOfWeek.MONDAY));
+
+        Entry juneOnly = new Entry("june");
+        juneOnly.setStart(LocalDate.of(2025, 1, 1).atTime(10, 0));
+        juneOnly.setRRule(RRule.daily().byMonth(java.time.Month.JUNE));
+
+        Entry raw = new Entry("raw");
+        raw.setRRule(RRule.ofRaw("FREQ=WEEKLY;BYDAY=MO"));
+
+        Entry ended = new Entry("ended");
+        ended.setRecurringDaysOfWeek(java.time.DayOfWeek.SATURDAY);
+        ended.setRecurringEndDate(LocalDate.of(2025, 2, 1));
+
+        InMemoryEntryProvider<Entry> provider = EntryProvider.inMemoryFrom(simpleMondays, rruleMondays, juneOnly, raw, ended);
+
+        // rules without a start cannot be expanded and are always kept
+        assertEqualAsSet(Set.of(raw), provider.fetch(saturday, saturday.plusDays(1)));
+        assertEqualAsSet(Set.of(simpleMondays, rruleMondays, raw), provider.fetch(monday, monday.plusDays(1)));
+
+        LocalDateTime june = LocalDate.of(2025, 6, 1).atStartOfDay();
+        assertEqualAsSet(Set.of(simpleMondays, rruleMondays, juneOnly, raw), provider.fetch(june, june.plusMonths(1)));
+
+        // a range before the first occurrence of an rrule
+        LocalDateTime december = LocalDate.of(2024, 12, 1).atStartOfDay();
+        assertEqualAsSet(Set.of(simpleMondays, ended, raw), provider.fetch(december, december.plusDays(7)));
+    }
+
+    @Test
+    void test_SharedProviderCanBeUsedByMultipleCalendars() {
+        SharedInMemoryEntryProvider<Entry> provider = SharedInMemoryEntryProvider.from(entry1, entry2);
+
+        FullCalendar calendar1 = new FullCalendar();
+        FullCalendar calendar2 = new FullCalendar();
+        calendar1.setEntryProvider(provider);
+        calendar2.setEntryProvider(provider);
+
+        assertTrue(provider.isShared());
+        assertSame(provider, calendar1.getEntryProvider());
+        assertSame(provider, calendar2.getEntryProvider());
+
+        provider.addEntry(entry3);
+        entries.forEach(e -> assertNull(e.getCalendar()));
+
+        // detaching one calendar does not affect the other
+        calendar1.setEntryProvider(EntryProvider.emptyInMemory());
+        assertEqualAsSet(entries, provider.fetchAll());
+        entries.forEach(e -> assertNull(e.getCalendar()));
+    }
+
+    @Test
+    void test_ConcurrentModificationAndFetch() throws Exception {
+        SharedInMemoryEntryProvider<Entry> provider = new SharedInMemoryEntryProvider<>();
+        LocalDateTime base = LocalDate.of(2025, 1, 1).atStartOfDay();
+        int threads = 4;
+        int perThread = 500;
+
+        java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newFixedThreadPool(threads * 2);
+        try {
+            List<java.util.concurrent.Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * perThread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        Entry entry = new Entry("e" + (offset + i));
+                        entry.setStart(base.plusHours(offset + i));
+                        entry.setEnd(base.plusHours(offset + i + 1));
+                        provider.addEntry(entry);
+                    }
+                }));
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        provider.fetch(base, base.plusDays(30)).forEach(Entry::getId);
+                    }
+                }));
+            }
+
+            for (java.util.concurrent.Future<?> future : futures) {
+                future.get(30, java.util.concurrent.TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * perThread, provider.fetchAll().count());
+        assertEquals(threads * perThread, provider.fetch(base, base.plusHours(threads * perThread)).count());
+    }
+
+    @Test
+    void test_BatchAppliesModificationsWithOneEvent() {
+        InMemoryEntryProvider<Entry> provider = EntryProvider.inMemoryFrom(entry1, entry2);
+        List<EntriesChangeEvent<Entry>> events = new ArrayList<>();
+        provider.addEntriesChangeListener(events::add);
+
+        Entry entry4 = new Entry("4");
+        Entry replacement = new Entry("2");
+        entry1.setStart(LocalDate.of(2025, 1, 1).atTime(10, 0));
+        entry1.setEnd(LocalDate.of(2025, 1, 1).atTime(11, 0));
+
+        EntriesBatchChangeEvent<Entry> event = provider.batch(batch -> batch
+                .addEntries(entry3, entry4)
+                .updateEntries(entry1)
+                .removeEntries(entry4, entry2)
+                .addEntries(replacement));
+
+        assertEquals(1, events.size());
+        assertSame(event, events.get(0));
+        assertEquals(List.of(entry3), event.getAddedEntries());
+        assertEquals(List.of(entry1, replacement), event.getChangedEntries());
+        assertEquals(List.of(), event.getRemovedEntries());
+
+        assertEqualAsSet(Set.of(entry1, replacement, entry3), provider.fetchAll());
+        assertSame(replacement, provider.getEntryById("2").orElseThrow());
+
+        // the time index has been updated
+        LocalDateTime day = LocalDate.of(2025, 1, 1).atStartOfDay();
+        assertEqualAsSet(Set.of(entry1), provider.fetch(day, day.plusDays(1)));
+
+        // removing added entries results in no event
+        provider.batch(batch -> batch.addEntries(entry4).removeEntries(entry4));
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    void test_BatchIsNotAppliedBeforeCommit() {
+        InMemoryEntryProvider<Entry> provider = EntryProvider.inMemoryFrom(entry1);
+
+        InMemoryEntryProvider.Batch<Entry> batch = provider.beginBatch();
+        batch.addEntries(entry2).removeEntries(entry1);
+        assertEqualAsSet(Set.of(entry1), provider.fetchAll());
+
+        EntriesBatchChangeEvent<Entry> event = batch.commit();
+        assertEquals(List.of(entry2), event.getAddedEntries());
+        assertEquals(List.of(entry1), event.getRemovedEntries());
+        assertEqualAsSet(Set.of(entry2), provider.fetchAll());
+
+        assertThrows(IllegalStateException.class, batch::commit);
+        assertThrows(IllegalStateException.class, () -> batch.addEntries(entry3));
+
+        assertThrows(RuntimeException.class, () -> provider.batch(b -> {
+            b.addEntries(entry3);
+            throw new RuntimeException();
+        }));
+        assertEqualAsSet(Set.of(entry2), provider.fetchAll());
+    }
+
+    @Test
+    void test_FailedBatchIsNotApplied() {
+        InMemoryEntryProvider<Entry> provider = EntryProvider.inMemoryFrom(entry1, entry2);
+
+        // closing an uncommitted batch discards it
+        assertThrows(IllegalStateException.class, () -> {
+            try (InMemoryEntryProvider.Batch<Entry> batch = provider.beginBatch()) {
+                batch.addEntries(entry3).removeEntries(entry1);
+                throw new IllegalStateException();
+            }
+        });
+        assertEqualAsSet(Set.of(entry1, entry2), provider.fetchAll());
+
+        InMemoryEntryProvider.Batch<Entry> discarded = provider.beginBatch();
+        discarded.close();
+        assertFalse(discarded.isCommitted());
+        assertThrows(IllegalStateException.class, discarded::commit);
+
+        // a failing hook rolls back all operations of the batch
+        Entry entry4 = new Entry("4");
+        entry1.setGroupId("a");
+        entry3.setGroupId("a");
+        InMemoryEntryProvider<Entry> failing = new InMemoryEntryProvider<>(List.of(entry1, entry2)) {
+            @Override
+            protected void onEntryAdd(Entry entry) {
+                if (entry == entry4) {
+                    throw new IllegalStateException();
+                }
+            }
+        };
+        failing.addIndex("group", Entry::getGroupId);
+        long version = failing.getVersion();
+
+        assertThrows(IllegalStateException.class, () -> failing.batch(batch -> batch
+                .removeEntries(entry1)
+                .addEntries(entry3)
+                .updateEntries(entry2)
+                .addEntries(entry4)));
+
+        assertEqualAsSet(Set.of(entry1, entry2), failing.fetchAll());
+        assertEquals(List.of(entry1), failing.getEntriesByIndex("group", "a"));
+        assertEquals(version, failing.getVersion());
+        assertTrue(failing.changesSince(version).isEmpty());
+    }
+
+    @Test
+    void test_SecondaryIndexes() {
+        entry1.setGroupId("a");
+        entry2.setGroupId("a");
+        entry3.setGroupId("b");
+        entry1.setCustomProperty("customer", "c1");
+        entry3.setCustomProperty("customer", "c1");
+
+        InMemoryEntryProvider<Entry> provider = EntryProvider.inMemoryFrom(entry1, entry2);
+
+        assertTrue(provider.addIndex("customer", e -> e.getCustomProperty("customer")));
+        assertFalse(provider.addIndex("customer", Entry::getTitle));
+        assertTrue(provider.hasIndex("customer"));
+        assertThrows(IllegalArgumentException.class, () -> provider.getEntriesByIndex("unknown", "c1"));
+
+        // existing entries are indexed, new ones are added
+        provider.addEntry(entry3);
+        assertEqualAsSet(Set.of(entry1, entry2), provider.getEntriesByGroupId("a"));
+        assertEqualAsSet(Set.of(entry3), provider.getEntriesByGroupId("b"));
+        assertTrue(provider.hasIndex(InMemoryEntryProvider.GROUP_ID_INDEX));
+        assertEqualAsSet(Set.of(entry1, entry3), provider.getEntriesByIndex("customer", "c1"));
+        assertEquals(Set.of("c1"), provider.getIndexKeys("customer"));
+
+        // updates and removals
+        entry1.setGroupId("b");
+        provider.updateEntries(List.of(entry1));
+        assertEqualAsSet(Set.of(entry2), provider.getEntriesByGroupId("a"));
+        assertEqualAsSet(Set.of(entry1, entry3), provider.getEntriesByGroupId("b"));
+
+        provider.removeEntry(entry3);
+        assertEqualAsSet(Set.of(entry1), provider.getEntriesByIndex("customer", "c1"));
+        assertTrue(provider.getEntriesByIndex("customer", "c2").isEmpty());
+
+        provider.removeIndex("customer");
+        assertFalse(provider.hasIndex("customer"));
+    }
+
+    @Test
+    void test_SnapshotRoundtrip() throws Exception {
+        entry1.setTitle("Meeting");
+        entry1.setStart(LocalDate.of(2025, 3, 1).atTime(9, 30));
+        entry1.setEnd(LocalDate.of(2025, 3, 1).atTime(11, 0));
+        entry1.setColor("red");
+        entry1.setDisplayMode(DisplayMode.BACKGROUND);
+        entry1.addClassNames("a", "b");
+        entry1.setCustomProperty("customer", "c1");
+        entry1.setCustomProperty("priority", 3);
+
+        entry2.setTitle("Weekly");
+        entry2.setAllDay(true);
+        entry2.setRecurringDaysOfWeek(java.time.DayOfWeek.MONDAY, java.time.DayOfWeek.FRIDAY);
+        entry2.setRecurringStartDate(LocalDate.of(2025, 1, 1));
+        entry2.setRecurringStartTime(RecurringTime.of(8, 0));
+
+        entry3.setRRule(RRule.weekly().interval(2).byWeekday(java.time.DayOfWeek.TUESDAY).until(LocalDate.of(2025, 12, 31)));
+
+        InMemoryEntryProvider<Entry> provider = EntryProvider.inMemoryFrom(entry1, entry2, entry3);
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        provider.writeSnapshot(out);
+
+        InMemoryEntryProvider<Entry> restored = InMemoryEntryProvider.fromSnapshot(new java.io.ByteArrayInputStream(out.toByteArray()));
+        assertEquals(3, restored.getEntries().size());
+        for (Entry original : List.of(entry1, entry2, entry3)) {
+            Entry copy = restored.getEntryById(original.getId()).orElseThrow();
+            assertNotSame(original, copy);
+            assertEquals(original.toJson(), copy.toJson());
+        }
+        assertEquals(Integer.valueOf(3), restored.getEntryById("1").orElseThrow().<Integer>getCustomProperty("priority"));
+
+        // the time index is rebuilt
+        assertEqualAsSet(Set.of(restored.getEntryById("1").orElseThrow()), restored.getEntries(LocalDate.of(2025, 3, 1).atTime(10, 0)));
+
+        // reading replaces the existing entries
+        Entry other = new Entry("other");
+        InMemoryEntryProvider<Entry> target = EntryProvider.inMemoryFrom(other);
+        target.readSnapshot(new java.io.ByteArrayInputStream(out.toByteArray()));
+        assertFalse(target.getEntryById("other").isPresent());
+        assertEquals(3, target.getEntries().size());
+
+        assertThrows(java.io.IOException.class, () -> target.readSnapshot(new java.io.ByteArrayInputStream(new byte[]{1, 2, 3, 4})));
+        assertEquals(3, target.getEntries().size());
+    }
+
+    @Test
+    void test_ChangesSinceVersion() {
+        InMemoryEntryProvider<Entry> provider = EntryProvider.inMemoryFrom(entry1);
+        long version = provider.getVersion();
+        assertTrue(provider.changesSince(version).isEmpty());
+
+        provider.addEntries(entry2, entry3);
+        provider.updateEntries(List.of(entry1));
+        provider.removeEntry(entry2);
+
+        EntryChangeSet<Entry> changes = provider.changesSince(version);
+        assertFalse(changes.isFullResync());
+        assertEquals(provider.getVersion(), changes.getToVersion());
+        assertEquals(List.of(EntryChange.Type.ADD, EntryChange.Type.ADD, EntryChange.Type.UPDATE, EntryChange.Type.REMOVE),
+                changes.getChanges().stream().map(EntryChange::getType).collect(Collectors.toList()));
+
+        Map<String, Entry> states = changes.getLatestStates();
+        assertNull(states.get("2"));
+        assertTrue(states.containsKey("2"));
+        assertSame(entry3, states.get("3"));
+        assertSame(entry1, states.get("1"));
+
+        // continue from the last version
+        assertTrue(provider.changesSince(changes.getToVersion()).isEmpty());
+
+        // unknown versions and truncated journals require a full resync
+        assertTrue(provider.changesSince(provider.getVersion() + 1).isFullResync());
+
+        provider.setJournalCapacity(2);
+        long beforeTruncation = provider.getVersion();
+        provider.addEntry(entry2);
+        provider.refreshItem(entry1);
+        assertFalse(provider.changesSince(beforeTruncation).isFullResync());
+        provider.removeEntry(entry3);
+        assertTrue(provider.changesSince(beforeTruncation).isFullResync());
+        assertEquals(1, provider.changesSince(provider.getVersion() - 1).getChanges().size());
+
+        long beforeRefresh = provider.getVersion();
+        provider.refreshAll();
+        assertTrue(provider.changesSince(beforeRefresh).isFullResync());
+        assertTrue(provider.changesSince(provider.getVersion()).isEmpty());
+    }
+
+    @Test
+    void test_CountMatchesFetch() {
+        Random random = new Random(11);
+        LocalDateTime base = LocalDate.of(2025, 1, 1).atStartOfDay();
+
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Entry entry = new Entry(String.valueOf(i));
+            int mode = random.nextInt(20);
+            if (mode == 0) {
+                entry.setRecurringDaysOfWeek(java.time.DayOfWeek.of(1 + random.nextInt(7)));
+            } else if (mode > 1) {
+                entry.setStart(base.plusMinutes(random.nextInt(60 * 24 * 90)));
+                if (mode > 3) {
+                    entry.setEnd(entry.getStart().plusMinutes(random.nextInt(60 * 24 * 5)));
+                }
+            }
+            entry.setAllDay(random.nextBoolean());
+            entries.add(entry);
+        }
+
+        InMemoryEntryProvider<Entry> provider = EntryProvider.inMemoryFrom(entries);
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime start = random.nextInt(10) == 0 ? null : base.plusHours(random.nextInt(24 * 90));
+            LocalDateTime end = random.nextInt(10) == 0 ? null : (start != null ? start : base).plusHours(random.nextInt(24 * 10));
+            EntryQuery query = new EntryQuery(start, end, EntryQuery.AllDay.values()[random.nextInt(3)]);
+
+            long expected = provider.fetch(query).count();
+            assertEquals(expected, provider.count(query), "query " + start + " - " + end + " " + query.getAllDay());
+            assertEquals(expected > 0, provider.exists(query));
+
+            if (i % 20 == 0) {
+                // modifications drop the count index
+                Entry changed = entries.get(random.nextInt(entries.size()));
+                changed.setStart(base.plusDays(random.nextInt(90)));
+                changed.setEnd(changed.getStart().plusHours(1));
+                changed.setRecurringDaysOfWeek((Set<java.time.DayOfWeek>) null);
+                provider.updateEntries(List.of(changed));
+                provider.removeEntry(entries.get(random.nextInt(entries.size())));
+            }
+        }
+
+        // count callbacks are pushed down
+        CallbackEntryProvider<Entry> callbackProvider = EntryProvider.fromCallbacks(query -> { throw new AssertionError(); }, id -> null);
+        callbackProvider.setCountCallback(query -> 42L);
+        assertEquals(42, callbackProvider.count(new EntryQuery(base, base.plusDays(1))));
+        assertTrue(callbackProvider.exists(new EntryQuery(base, base.plusDays(1))));
+    }
+
+    @Test
+    void test_OccurrenceIndexMatchesFetchWithoutIndex() {
+        Random random = new Random(13);
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Entry entry = new Entry(String.valueOf(i));
+            LocalDate date = today.plusDays(random.nextInt(400) - 200);
+            switch (random.nextInt(6)) {
+                case 0 -> entry.setRecurringDaysOfWeek(java.time.DayOfWeek.of(1 + random.nextInt(7)));
+                case 1 -> {
+                    entry.setRecurringDaysOfWeek(java.time.DayOfWeek.of(1 + random.nextInt(7)));
+                    entry.setRecurringStartDate(date);
+                    entry.setRecurringEndDate(date.plusDays(random.nextInt(60)));
+                    entry.setRecurringDuration("P" + (1 + random.nextInt(3)) + "D");
+                }
+                case 2 -> {
+                    entry.setStart(date.atTime(random.nextInt(24), 0));
+                    entry.setEnd(entry.getStart().plusHours(1 + random.nextInt(50)));
+                    entry.setRRule(RRule.weekly().interval(1 + random.nextInt(3)).byWeekday(java.time.DayOfWeek.of(1 + random.nextInt(7))));
+                }
+                case 3 -> {
+                    entry.setStart(date.atTime(10, 0));
+                    entry.setRRule(RRule.monthly().count(1 + random.nextInt(12)).byMonthday(1 + random.nextInt(28)));
+                }
+                case 4 -> {
+                    entry.setStart(date.atTime(10, 0));
+                    entry.setRRule(RRule.ofRaw("FREQ=DAILY;BYSETPOS=1")); // not expandable
+                }
+                default -> {
+                    entry.setStart(date.atTime(random.nextInt(24), 0));
+                    entry.setEnd(entry.getStart().plusHours(1));
+                }
+            }
+            entries.add(entry);
+        }
+
+        InMemoryEntryProvider<Entry> expected = EntryProvider.inMemoryFrom(entries);
+        InMemoryEntryProvider<Entry> indexed = EntryProvider.inMemoryFrom(entries);
+        indexed.setOccurrenceIndexDays(365);
+        assertEquals(365, indexed.getOccurrenceIndexDays());
+
+        for (int i = 0; i < 300; i++) {
+            // ranges inside and outside of the covered days
+            LocalDateTime start = today.atStartOfDay().plusHours(random.nextInt(24 * 900) - 24 * 450);
+            LocalDateTime end = start.plusHours(1 + random.nextInt(24 * 40));
+            assertEqualAsSet(new HashSet<>(expected.getEntries(start, end)), indexed.getEntries(start, end), start + " - " + end);
+
+            if (i % 30 == 0) {
+                // changed rules are reindexed on update
+                Entry changed = entries.get(random.nextInt(entries.size()));
+                changed.setRRule(null);
+                changed.setStart(today.atTime(10, 0));
+                changed.setEnd((LocalDateTime) null);
+                changed.setRecurringDaysOfWeek(java.time.DayOfWeek.of(1 + random.nextInt(7)));
+                expected.updateEntries(List.of(changed));
+                indexed.updateEntries(List.of(changed));
+            }
+        }
+
+        indexed.setOccurrenceIndexDays(0);
+        assertEquals(0, indexed.getOccurrenceIndexDays());
+        LocalDateTime start = today.atStartOfDay();
+        assertEqualAsSet(new HashSet<>(expected.getEntries(start, start.plusDays(3))), indexed.getEntries(start, start.plusDays(3)));
+    }
+
+    @Test
+    void test_RecurringEntriesOnSameDays() {
+        LocalDate monday = LocalDate.now(ZoneOffset.UTC).with(java.time.temporal.TemporalAdjusters.nextOrSame(java.time.DayOfWeek.MONDAY));
+
+        Entry mondays = new Entry("mondays");
+        mondays.setRecurringDaysOfWeek(java.time.DayOfWeek.MONDAY);
+
+        Entry tuesdays = new Entry("tuesdays");
+        tuesdays.setRecurringDaysOfWeek(java.time.DayOfWeek.TUESDAY);
+
+        Entry mondaysAndFridays = new Entry("mondaysAndFridays");
+        mondaysAndFridays.setStart(monday.atTime(8, 0));
+        mondaysAndFridays.setRRule(RRule.weekly().byWeekday(java.time.DayOfWeek.MONDAY, java.time.DayOfWeek.FRIDAY));
+
+        // spans from wednesday to friday
+        Entry wednesdays = new Entry("wednesdays");
+        wednesdays.setStart(monday.plusDays(2).atTime(10, 0));
+        wednesdays.setEnd(wednesdays.getStart().plusHours(30));
+        wednesdays.setRRule(RRule.weekly().byWeekday(java.time.DayOfWeek.WEDNESDAY));
+
+        Entry raw = new Entry("raw");
+        raw.setStart(monday.atTime(10, 0));
+        raw.setRRule(RRule.ofRaw("FREQ=DAILY;BYSETPOS=1"));
+
+        Entry single = new Entry("single");
+        single.setStart(monday.atTime(10, 0));
+
+        InMemoryEntryProvider<Entry> provider = EntryProvider.inMemoryFrom(mondays, tuesdays, mondaysAndFridays, wednesdays, raw, single);
+        assertThrows(IllegalStateException.class, () -> provider.getRecurringEntriesOnSameDays(mondays));
+
+        provider.setOccurrenceIndexDays(InMemoryEntryProvider.DEFAULT_OCCURRENCE_INDEX_DAYS);
+
+        // not expandable rules are always included
+        assertEqualAsSet(Set.of(mondaysAndFridays, raw), provider.getRecurringEntriesOnSameDays(mondays));
+        assertEqualAsSet(Set.of(raw), provider.getRecurringEntriesOnSameDays(tuesdays));
+
+        // entries do not need to be part of the provider
+        Entry fridays = new Entry("fridays");
+        fridays.setRecurringDaysOfWeek(java.time.DayOfWeek.FRIDAY);
+        assertEqualAsSet(Set.of(mondaysAndFridays, wednesdays, raw), provider.getRecurringEntriesOnSameDays(fridays));
+
+        // an update recreates the bitmap of the entry
+        tuesdays.setRecurringDaysOfWeek(java.time.DayOfWeek.THURSDAY);
+        provider.updateEntries(List.of(tuesdays));
+        assertEqualAsSet(Set.of(wednesdays, raw), provider.getRecurringEntriesOnSameDays(tuesdays));
+
+        provider.removeEntry(raw);
+        assertEqualAsSet(Set.of(mondaysAndFridays, wednesdays), provider.getRecurringEntriesOnSameDays(fridays));
+
+        assertThrows(IllegalArgumentException.class, () -> provider.getRecurringEntriesOnSameDays(single));
+        assertThrows(IllegalArgumentException.class, () -> provider.getRecurringEntriesOnSameDays(raw));
+    }
+
+    @Test
+    void test_WeakListenersAreDroppedWithTheirOwner() throws InterruptedException {
+        InMemoryEntryProvider<Entry> provider = EntryProvider.emptyInMemory();
+
+        List<String> events = new ArrayList<>();
+        provider.addEntriesChangeListener(event -> events.add("strong " + event.getClass().getSimpleName()));
+
+        Object owner = new Object();
+        java.lang.ref.WeakReference<Object> ownerReference = new java.lang.ref.WeakReference<>(owner);
+        provider.addWeakEntriesChangeListener(owner, (o, event) -> events.add("weak"));
+
+        provider.refreshAll();
+        assertEquals(List.of("strong EntriesChangeEvent", "weak"), events);
+
+        // types registered after the first event are dispatched, too
+        events.clear();
+        provider.addEntryRefreshListener(event -> events.add("refresh " + event.getItemToRefresh().getId()));
+        provider.addEntries(new Entry("1"));
+        provider.refreshItem(provider.fetchById("1").orElseThrow());
+        assertEquals(List.of("refresh 1"), events);
+
+        //noinspection UnusedAssignment
+        owner = null;
+        for (int i = 0; i < 50 && ownerReference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assumptions.assumeTrue(ownerReference.get() == null, "owner has not been collected");
+
+        events.clear();
+        provider.refreshAll();
+        assertEquals(List.of("strong EntriesChangeEvent"), events);
+    }
+
     @Getter
     private static class TestProvider extends InMemoryEntryProvider<Entry> {
 
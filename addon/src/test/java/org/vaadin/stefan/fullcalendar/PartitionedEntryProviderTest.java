@@ -0,0 +1,121 @@
+package org.vaadin.stefan.fullcalendar;
+
+import org.junit.jupiter.api.Test;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryQuery;
+import org.vaadin.stefan.fullcalendar.dataprovider.InMemoryEntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.PartitionedEntryProvider;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionedEntryProviderTest {
+
+    private static final LocalDateTime BASE = LocalDate.of(2025, 1, 1).atStartOfDay();
+
+    @Test
+    void testFetchMatchesInMemoryProvider() {
+        Random random = new Random(3);
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Entry entry = new Entry(String.valueOf(i));
+            entry.setStart(BASE.plusMinutes(random.nextInt(60 * 24 * 365)));
+            entry.setEnd(entry.getStart().plusMinutes(1 + random.nextInt(60 * 24 * 40)));
+            entry.setAllDay(random.nextBoolean());
+            entries.add(entry);
+        }
+
+        Entry recurring = new Entry("recurring");
+        recurring.setRecurringDaysOfWeek(DayOfWeek.MONDAY);
+        entries.add(recurring);
+
+        InMemoryEntryProvider<Entry> inMemory = EntryProvider.inMemoryFrom(entries);
+        PartitionedEntryProvider<Entry> partitioned = new PartitionedEntryProvider<>(month -> loadMonth(entries, month), 300);
+
+        for (int i = 0; i < 50; i++) {
+            LocalDateTime start = BASE.plusDays(random.nextInt(365));
+            LocalDateTime end = start.plusDays(1 + random.nextInt(45));
+            EntryQuery query = new EntryQuery(start, end, EntryQuery.AllDay.values()[random.nextInt(3)]);
+
+            assertEquals(ids(inMemory.fetch(query)), ids(partitioned.fetch(query)), "query " + start + " - " + end);
+            assertTrue(partitioned.getLoadedEntries() <= 300 || partitioned.getLoadedPartitions().size() <= 3);
+        }
+    }
+
+    @Test
+    void testPartitionsAreCachedAndEvicted() {
+        List<Entry> entries = new ArrayList<>();
+        for (int month = 0; month < 6; month++) {
+            for (int i = 0; i < 10; i++) {
+                Entry entry = new Entry(month + "-" + i);
+                entry.setStart(BASE.plusMonths(month).plusDays(i));
+                entry.setEnd(entry.getStart().plusHours(1));
+                entries.add(entry);
+            }
+        }
+
+        Entry recurring = new Entry("recurring");
+        recurring.setRecurringDaysOfWeek(DayOfWeek.MONDAY);
+        entries.add(recurring);
+
+        Map<YearMonth, Integer> loads = new HashMap<>();
+        PartitionedEntryProvider<Entry> provider = new PartitionedEntryProvider<>(month -> {
+            loads.merge(month, 1, Integer::sum);
+            return loadMonth(entries, month);
+        }, 20);
+
+        YearMonth january = YearMonth.of(2025, 1);
+        YearMonth february = YearMonth.of(2025, 2);
+        YearMonth march = YearMonth.of(2025, 3);
+
+        assertEquals(11, provider.fetch(monthQuery(january)).count());
+        assertEquals(11, provider.fetch(monthQuery(february)).count());
+        assertEquals(11, provider.fetch(monthQuery(january)).count());
+        assertEquals(1, loads.get(january));
+        assertEquals(List.of(february, january), provider.getLoadedPartitions());
+
+        // the least recently viewed partition is evicted, the recurring entry stays pinned
+        provider.fetch(monthQuery(march));
+        assertEquals(List.of(january, march), provider.getLoadedPartitions());
+        assertTrue(provider.fetchById("recurring").isPresent());
+        assertFalse(provider.fetchById("1-0").isPresent());
+        assertEquals(11, provider.fetch(monthQuery(february)).count());
+        assertEquals(2, loads.get(february));
+
+        // fetches spanning more than the maximum keep their partitions until the next fetch
+        provider.fetch(new EntryQuery(BASE, BASE.plusMonths(6)));
+        assertEquals(6, provider.getLoadedPartitions().size());
+        assertEquals(60, provider.getLoadedEntries());
+
+        provider.setMaxLoadedEntries(10);
+        assertEquals(1, provider.getLoadedPartitions().size());
+
+        provider.invalidate(provider.getLoadedPartitions().get(0));
+        assertEquals(0, provider.getLoadedEntries());
+
+        provider.refreshAll();
+        assertFalse(provider.fetchById("recurring").isPresent());
+    }
+
+    private static Stream<Entry> loadMonth(List<Entry> entries, YearMonth month) {
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+        return entries.stream().filter(entry -> entry.isRecurring() || entry.getStart() == null
+                || (entry.getStart().isBefore(end) && (entry.getEnd() == null ? !entry.getStart().isBefore(start) : entry.getEnd().isAfter(start))));
+    }
+
+    private static EntryQuery monthQuery(YearMonth month) {
+        return new EntryQuery(month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    private static Set<String> ids(Stream<Entry> entries) {
+        return entries.map(Entry::getId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,235 @@
+package org.vaadin.stefan.fullcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the server side expansion of rrules against the examples of RFC 5545 (section 3.8.5.3), which
+ * are also produced by the rrule.js library used on the client side.
+ */
+public class RRuleExpansionTest {
+
+    private static final LocalDateTime SEP_2_1997 = LocalDateTime.of(1997, 9, 2, 9, 0);
+
+    @Test
+    void testDailyWithCount() {
+        assertOccurrences(RRule.daily().count(10), SEP_2_1997,
+                "1997-09-02", "1997-09-03", "1997-09-04", "1997-09-05", "1997-09-06",
+                "1997-09-07", "1997-09-08", "1997-09-09", "1997-09-10", "1997-09-11");
+    }
+
+    @Test
+    void testWeeklyUntilWithWeekStart() {
+        assertOccurrences(RRule.weekly().until("19971007T000000Z").weekStart("su").byWeekday("tu", "th"), SEP_2_1997,
+                "1997-09-02", "1997-09-04", "1997-09-09", "1997-09-11", "1997-09-16",
+                "1997-09-18", "1997-09-23", "1997-09-25", "1997-09-30", "1997-10-02");
+
+        LocalDateTime aug5 = LocalDateTime.of(1997, 8, 5, 9, 0);
+        assertOccurrences(RRule.weekly().interval(2).count(4).byWeekday("tu", "su").weekStart(DayOfWeek.MONDAY), aug5,
+                "1997-08-05", "1997-08-10", "1997-08-19", "1997-08-24");
+        assertOccurrences(RRule.weekly().interval(2).count(4).byWeekday("tu", "su").weekStart(DayOfWeek.SUNDAY), aug5,
+                "1997-08-05", "1997-08-17", "1997-08-19", "1997-08-31");
+    }
+
+    @Test
+    void testMonthlyWithOrdinalWeekdays() {
+        assertOccurrences(RRule.monthly().count(10).byWeekday("1fr"), LocalDateTime.of(1997, 9, 5, 9, 0),
+                "1997-09-05", "1997-10-03", "1997-11-07", "1997-12-05", "1998-01-02",
+                "1998-02-06", "1998-03-06", "1998-04-03", "1998-05-01", "1998-06-05");
+
+        assertOccurrences(RRule.monthly().count(6).byWeekday("-2mo"), LocalDateTime.of(1997, 9, 22, 9, 0),
+                "1997-09-22", "1997-10-20", "1997-11-17", "1997-12-22", "1998-01-19", "1998-02-16");
+    }
+
+    @Test
+    void testMonthlyByMonthday() {
+        assertOccurrences(RRule.monthly().count(6).byMonthday(-3), LocalDateTime.of(1997, 9, 28, 9, 0),
+                "1997-09-28", "1997-10-29", "1997-11-28", "1997-12-29", "1998-01-29", "1998-02-26");
+
+        assertOccurrences(RRule.monthly().interval(18).count(10).byMonthday(10, 11, 12, 13, 14, 15), LocalDateTime.of(1997, 9, 10, 9, 0),
+                "1997-09-10", "1997-09-11", "1997-09-12", "1997-09-13", "1997-09-14",
+                "1997-09-15", "1999-03-10", "1999-03-11", "1999-03-12", "1999-03-13");
+
+        // invalid dates are skipped
+        assertOccurrences(RRule.monthly().count(5).byMonthday(15, 30), LocalDateTime.of(2007, 1, 15, 9, 0),
+                "2007-01-15", "2007-01-30", "2007-02-15", "2007-03-15", "2007-03-30");
+
+        // friday the 13th, the not matching start is no occurrence
+        assertOccurrences(RRule.monthly().count(5).byWeekday("fr").byMonthday(13).excludeDates(LocalDate.of(1997, 9, 2)), SEP_2_1997,
+                "1998-02-13", "1998-03-13", "1998-11-13", "1999-08-13", "2000-10-13");
+    }
+
+    @Test
+    void testYearly() {
+        assertOccurrences(RRule.yearly().count(10).byMonth(6, 7), LocalDateTime.of(1997, 6, 10, 9, 0),
+                "1997-06-10", "1997-07-10", "1998-06-10", "1998-07-10", "1999-06-10",
+                "1999-07-10", "2000-06-10", "2000-07-10", "2001-06-10", "2001-07-10");
+
+        assertOccurrences(RRule.yearly().interval(3).count(10).byYearday(1, 100, 200), LocalDateTime.of(1997, 1, 1, 9, 0),
+                "1997-01-01", "1997-04-10", "1997-07-19", "2000-01-01", "2000-04-09",
+                "2000-07-18", "2003-01-01", "2003-04-10", "2003-07-19", "2006-01-01");
+
+        assertOccurrences(RRule.yearly().count(3).byWeekday("20mo"), LocalDateTime.of(1997, 5, 19, 9, 0),
+                "1997-05-19", "1998-05-18", "1999-05-17");
+
+        assertOccurrences(RRule.yearly().count(6).byMonth(3).byWeekday("th"), LocalDateTime.of(1997, 3, 13, 9, 0),
+                "1997-03-13", "1997-03-20", "1997-03-27", "1998-03-05", "1998-03-12", "1998-03-19");
+    }
+
+    @Test
+    void testHoursAndMinutes() {
+        List<LocalDateTime> firstDay = take(RRule.daily().byHour(9, 10, 11, 12, 13, 14, 15, 16).byMinute(0, 20, 40)
+                .iterator(SEP_2_1997), 24);
+        assertEquals(LocalDateTime.of(1997, 9, 2, 9, 0), firstDay.get(0));
+        assertEquals(LocalDateTime.of(1997, 9, 2, 9, 20), firstDay.get(1));
+        assertEquals(LocalDateTime.of(1997, 9, 2, 16, 40), firstDay.get(23));
+    }
+
+    @Test
+    void testExcludedRules() {
+        RRule rule = RRule.daily().count(7).excludeRules(RRule.weekly().byWeekday(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY));
+        // excluded occurrences still count
+        assertOccurrences(rule, LocalDateTime.of(2025, 3, 3, 10, 0),
+                "2025-03-03", "2025-03-04", "2025-03-05", "2025-03-06", "2025-03-07");
+    }
+
+    @Test
+    void testDateOnlyUntilEndsAtTheStartOfThatDay() {
+        assertOccurrences(RRule.daily().until(LocalDate.of(2025, 3, 5)), LocalDateTime.of(2025, 3, 3, 10, 0),
+                "2025-03-03", "2025-03-04");
+        assertOccurrences(RRule.daily().until("2025-03-05T10:00:00"), LocalDateTime.of(2025, 3, 3, 10, 0),
+                "2025-03-03", "2025-03-04", "2025-03-05");
+    }
+
+    @Test
+    void testUnexpandableRules() {
+        assertThrows(IllegalArgumentException.class, () -> RRule.ofRaw("FREQ=DAILY;BYSETPOS=1").iterator(SEP_2_1997));
+        assertThrows(IllegalArgumentException.class, () -> RRule.ofRaw("FREQ=HOURLY").iterator(SEP_2_1997));
+        assertThrows(IllegalArgumentException.class, () -> RRule.ofRaw("FREQ=DAILY;COUNT=x").iterator(SEP_2_1997));
+        assertThrows(IllegalArgumentException.class, () -> RRule.daily().iterator(null));
+        assertThrows(IllegalArgumentException.class, () -> RRule.weekly().byWeekday("xx").iterator(SEP_2_1997));
+
+        // never matching rules terminate
+        assertFalse(RRule.monthly().byMonthday(30).byMonth(2).iterator(SEP_2_1997).hasNext());
+    }
+
+    @Test
+    void testRawRulesAreExpandedLikeStructuredOnes() {
+        RRule structured = RRule.weekly().until("1997-10-07T00:00:00").weekStart(DayOfWeek.SUNDAY).byWeekday("tu", "th");
+        RRule raw = RRule.ofRaw("FREQ=WEEKLY;UNTIL=19971007T000000Z;WKST=SU;BYDAY=TU,TH");
+        assertEquals(take(structured.iterator(SEP_2_1997), 20), take(raw.iterator(SEP_2_1997), 20));
+
+        // a preceding DTSTART line replaces the entry's start
+        RRule withStart = RRule.ofRaw("DTSTART:19970902T090000Z\nRRULE:FREQ=WEEKLY;UNTIL=19971007T000000Z;WKST=SU;BYDAY=TU,TH");
+        assertEquals(take(structured.iterator(SEP_2_1997), 20), take(withStart.iterator(null), 20));
+    }
+
+    @Test
+    void testRawRulesShareTheirCompiledForm() {
+        RRule first = RRule.ofRaw("FREQ=MONTHLY;BYDAY=1FR;COUNT=10");
+        RRule second = RRule.ofRaw("FREQ=MONTHLY;BYDAY=1FR;COUNT=10");
+
+        assertSame(first.compile(), second.compile());
+        assertSame(first.compile().toJson(), second.compile().toJson());
+        assertTrue(first.compile().isExpandable());
+        assertFalse(RRule.ofRaw("FREQ=DAILY;BYSETPOS=1").compile().isExpandable());
+    }
+
+    @Test
+    void testStructuredRulesKeepTheirCompiledFormUntilModified() {
+        RRule rule = RRule.weekly().byWeekday(DayOfWeek.MONDAY).count(3);
+        CompiledRRule compiled = rule.compile();
+        assertSame(compiled, rule.compile());
+        assertSame(compiled, RRule.weekly().byWeekday(DayOfWeek.MONDAY).count(3).compile());
+
+        rule.count(5);
+        assertNotSame(compiled, rule.compile());
+        assertEquals(5, take(rule.iterator(SEP_2_1997), 20).size());
+
+        // excluded dates are not part of the compiled form
+        CompiledRRule modified = rule.compile();
+        rule.excludeDates(SEP_2_1997.toLocalDate());
+        assertSame(modified, rule.compile());
+    }
+
+    @Test
+    void testRangeQueriesMatchTheFullExpansion() {
+        Random random = new Random(42);
+        String[] days = {"mo", "tu", "we", "th", "fr", "sa", "su", "1mo", "-1fr", "2we"};
+        LocalDateTime base = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+        for (int i = 0; i < 500; i++) {
+            RRule rule = RRule.of(RRule.Frequency.values()[random.nextInt(4)]).interval(1 + random.nextInt(3));
+            if (random.nextBoolean()) {
+                rule.byWeekday(days[random.nextInt(days.length)], days[random.nextInt(days.length)]);
+            }
+            if (random.nextInt(4) == 0) {
+                rule.byMonth(1 + random.nextInt(12), 1 + random.nextInt(12));
+            }
+            if (random.nextInt(4) == 0) {
+                rule.byMonthday(random.nextBoolean() ? 1 + random.nextInt(31) : -1 - random.nextInt(5));
+            }
+            if (random.nextInt(4) == 0) {
+                rule.byHour(random.nextInt(24), random.nextInt(24));
+            }
+
+            LocalDateTime start = base.plusDays(random.nextInt(1000)).plusHours(random.nextInt(24));
+            LocalDateTime from = start.plusDays(random.nextInt(800));
+            LocalDateTime to = from.plusDays(1 + random.nextInt(120));
+
+            List<LocalDateTime> expected = new ArrayList<>();
+            Iterator<LocalDateTime> iterator = rule.iterator(start);
+            while (iterator.hasNext()) {
+                LocalDateTime occurrence = iterator.next();
+                if (!occurrence.isBefore(to)) {
+                    break;
+                }
+                if (!occurrence.isBefore(from)) {
+                    expected.add(occurrence);
+                }
+            }
+
+            List<LocalDateTime> actual = rule.occurrences(start, from, to).collect(Collectors.toList());
+            assertEquals(expected, actual, rule.toRRuleString() + " from " + start);
+
+            for (int j = 1; j < actual.size(); j++) {
+                assertTrue(actual.get(j - 1).isBefore(actual.get(j)));
+            }
+        }
+    }
+
+    private static void assertOccurrences(RRule rule, LocalDateTime start, String... expectedDates) {
+        List<LocalDateTime> occurrences = take(rule.iterator(start), expectedDates.length + 1);
+        List<LocalDate> dates = occurrences.stream().map(LocalDateTime::toLocalDate).collect(Collectors.toList());
+
+        List<LocalDate> expected = new ArrayList<>();
+        for (String date : expectedDates) {
+            expected.add(LocalDate.parse(date));
+        }
+
+        // all rules used here end after the given dates
+        assertEquals(expected, dates.subList(0, Math.min(dates.size(), expected.size())));
+        if (rule.getCount() != null || rule.getUntil() != null) {
+            assertEquals(expected.size(), dates.size(), "unexpected additional occurrences " + dates);
+        }
+        occurrences.forEach(occurrence -> assertEquals(start.toLocalTime(), occurrence.toLocalTime()));
+    }
+
+    private static List<LocalDateTime> take(Iterator<LocalDateTime> iterator, int amount) {
+        List<LocalDateTime> result = new ArrayList<>();
+        while (result.size() < amount && iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,62 @@
+package org.vaadin.stefan.fullcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Stefan Uebe
+ */
+public class RecurringDurationTest {
+
+    @Test
+    public void test_parse() {
+        assertDuration(RecurringDuration.parse("P3D"), Period.ofDays(3), Duration.ZERO);
+        assertDuration(RecurringDuration.parse("p1m"), Period.ofMonths(1), Duration.ZERO);
+        assertDuration(RecurringDuration.parse("PT2H"), Period.ZERO, Duration.ofHours(2));
+        assertDuration(RecurringDuration.parse("P1DT12H"), Period.ofDays(1), Duration.ofHours(12));
+        assertDuration(RecurringDuration.parse("02:30"), Period.ZERO, Duration.ofMinutes(150));
+        assertDuration(RecurringDuration.parse(" 01:00:30 "), Period.ZERO, Duration.ofSeconds(3630));
+
+        assertNull(RecurringDuration.parse("three days"));
+        assertNull(RecurringDuration.parse("P3X"));
+        assertNull(RecurringDuration.parse("1"));
+        assertThrows(NullPointerException.class, () -> RecurringDuration.parse(null));
+    }
+
+    @Test
+    public void test_addToUsesCalendarUnits() {
+        RecurringDuration month = RecurringDuration.parse("P1MT1H");
+
+        LocalDateTime january = LocalDate.of(2025, 1, 31).atStartOfDay();
+        assertEquals(LocalDate.of(2025, 2, 28).atTime(1, 0), month.addTo(january));
+
+        LocalDateTime february = LocalDate.of(2025, 2, 1).atStartOfDay();
+        assertEquals(LocalDate.of(2025, 3, 1).atTime(1, 0), month.addTo(february));
+    }
+
+    @Test
+    public void test_maximumLength() {
+        assertEquals(Duration.ofDays(31).plusHours(1), RecurringDuration.parse("P1MT1H").getMaximumLength());
+        assertEquals(Duration.ofDays(12 * 31 + 2), RecurringDuration.parse("P1Y2D").getMaximumLength());
+        assertEquals(Duration.ofMinutes(90), RecurringDuration.parse("01:30").getMaximumLength());
+
+        // never shorter than the duration added to any date
+        RecurringDuration duration = RecurringDuration.parse("P2M");
+        for (LocalDate date = LocalDate.of(2024, 1, 1); date.getYear() < 2026; date = date.plusDays(1)) {
+            LocalDateTime start = date.atStartOfDay();
+            assertFalse(Duration.between(start, duration.addTo(start)).compareTo(duration.getMaximumLength()) > 0);
+        }
+    }
+
+    private static void assertDuration(RecurringDuration duration, Period period, Duration time) {
+        assertNotNull(duration);
+        assertEquals(period, duration.getPeriod());
+        assertEquals(time, duration.getTime());
+    }
+}
@@ -3,6 +3,8 @@ package org.vaadin.stefan.fullcalendar;
 import org.junit.jupiter.api.Test;
 import org.vaadin.stefan.fullcalendar.dataprovider.CallbackEntryProvider;
 import org.vaadin.stefan.fullcalendar.dataprovider.InMemoryEntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.SharedInMemoryEntryProvider;
+import tools.jackson.databind.node.ObjectNode;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -108,4 +110,42 @@ public class SerializationTest {
         calendar.addDraggable(new Draggable(new com.vaadin.flow.component.html.Span("drag me")));
         assertNotNull(roundtrip(calendar));
     }
+
+    @Test
+    void calendarOfASharedProviderKeepsLiveUpdatesAfterRestore() throws Exception {
+        FullCalendar calendar = new FullCalendar();
+        calendar.setEntryProvider(SharedInMemoryEntryProvider.from());
+        calendar.setLiveEntryUpdatesEnabled(true);
+        calendar.setLiveEntryUpdateWindow(java.time.Duration.ofHours(1)); // flushed manually
+
+        ObjectNode month = JsonFactory.createObject();
+        month.put("start", "2025-01-01");
+        month.put("end", "2025-02-01");
+        calendar.fetchEntriesFromServer(month);
+
+        FullCalendar restored = roundtrip(calendar);
+        SharedInMemoryEntryProvider<Entry> provider = restored.getEntryProvider();
+
+        Entry entry = new Entry("added");
+        entry.setStart(LocalDate.of(2025, 1, 10).atTime(10, 0));
+        provider.beginBatch().addEntries(List.of(entry)).commit();
+
+        assertTrue(restored.getEntryChangeCoalescer().hasPendingChanges());
+        restored.getEntryChangeCoalescer().flush();
+        assertTrue(restored.getCachedEntryFromFetch("added").isPresent());
+
+        // calendars using the restored provider later are served by the same hub
+        FullCalendar other = new FullCalendar();
+        other.setEntryProvider(provider);
+        other.setLiveEntryUpdatesEnabled(true);
+        other.setLiveEntryUpdateWindow(java.time.Duration.ofHours(1));
+        other.fetchEntriesFromServer(month);
+
+        Entry second = new Entry("second");
+        second.setStart(LocalDate.of(2025, 1, 11).atTime(10, 0));
+        provider.beginBatch().addEntries(List.of(second)).commit();
+
+        assertTrue(restored.getEntryChangeCoalescer().hasPendingChanges());
+        assertTrue(other.getEntryChangeCoalescer().hasPendingChanges());
+    }
 }